@@ -45,6 +45,7 @@ import com.oat.utils.BeanUtils;
  *                          stops zombie listeners sticking around.
  * 11/07/2007   JBrownlee   Added support for automatic configuration
  * 04/09/2007	JBrownlee	Refactored methods and interfaces, collect information using probes
+ * 18/11/2007	JBrownlee	Epoch events from array-backed populations, lists only built when listened to
  * </pre>
  * 
  */
@@ -92,6 +93,11 @@ public abstract class Algorithm
      */
     protected void triggerIterationCompleteEvent(Problem p, Solution [] pop)
     {
+        // avoid building the list if no one is listening
+        if(listeners.isEmpty())
+        {
+            return;
+        }
         LinkedList<Solution> l = new LinkedList<Solution>();
         for (int i = 0; i < pop.length; i++)
         {
@@ -100,6 +106,22 @@ public abstract class Algorithm
         triggerIterationCompleteEvent(p, l);
     }
 
+    /**
+     * Mechanism that allows interested algorithms to trigger an epoch completion event
+     * @param <S>
+     * @param p
+     * @param pop
+     */
+    protected <S extends Solution> void triggerIterationCompleteEvent(Problem p, Population<S> pop)
+    {
+        // avoid building the list if no one is listening
+        if(listeners.isEmpty())
+        {
+            return;
+        }
+        triggerIterationCompleteEvent(p, pop.toLinkedList());
+    }
+
     /**
      * Accessor for all listeners interested in epoch completion events
      * @return - All registered listeners
@@ -33,7 +33,7 @@ import com.oat.utils.BeanUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 16/11/2007	JBrownlee	Run life-cycle delegated to RunContext, added isolated execution
  * </pre>
  */
 public class AlgorithmExecutor
@@ -84,39 +84,8 @@ public class AlgorithmExecutor
 	public void validateConfiguration()
 		throws InvalidConfigurationException
 	{
-		// validate this object
-		if(algorithm == null)
-		{
-			throw new InvalidConfigurationException("No algorithm set");
-		}
-		else if(problem == null)
-		{
-			throw new InvalidConfigurationException("No problem set");
-		}
-		else if(stopConditions.isEmpty())
-		{
-			throw new InvalidConfigurationException("No stop conditions set");
-		}
-		else if(runProbes.isEmpty())
-		{
-			throw new InvalidConfigurationException("No run probes set");
-		}
-		
-		// remove all stop conditions
-		problem.getStopConditions().clear();
-		// add stop conditions
-		for(StopCondition s : stopConditions)
-		{
-			problem.addStopCondition(s);
-		}
-		
-		// validate things
-		for(StopCondition s : stopConditions)
-		{
-			s.validateConfiguration();
-		}
-		algorithm.validateConfiguration();
-		problem.validateConfiguration();
+		// registers stop conditions with the problem and validates things
+		createRunContext().validateConfiguration();
 	}
 	
 	/**
@@ -126,18 +95,7 @@ public class AlgorithmExecutor
 	public void initialiseBeforeRun()
 		throws InitialisationException
 	{
-		// problem
-		problem.initialiseBeforeRun();
-		// algorithm
-		algorithm.initialiseBeforeRun(problem);
-		for(StopCondition s : stopConditions)
-		{
-			s.initialiseBeforeRun(problem, algorithm);
-		}
-		for(RunProbe r : runProbes)
-		{
-			r.initialiseBeforeRun(problem, algorithm);
-		}
+		createRunContext().initialiseBeforeRun();
 	}
 	/**
 	 * Called automatically after the run to ensure all un-needed resources are released
@@ -146,19 +104,7 @@ public class AlgorithmExecutor
 	public void cleanupAfterRun()
 		throws InitialisationException
 	{
-		// problem
-		problem.cleanupAfterRun();
-		// algorithm
-		algorithm.cleanupAfterRun(problem);
-		
-		for(StopCondition s : stopConditions)
-		{
-			s.cleanupAfterRun(problem, algorithm);
-		}
-		for(RunProbe r : runProbes)
-		{
-			r.cleanupAfterRun(problem, algorithm);
-		}
+		createRunContext().cleanupAfterRun();
 	}
 	
 	/**
@@ -174,21 +120,58 @@ public class AlgorithmExecutor
 	{        
 		// validate everything
 		validateConfiguration();
-		// initialise everything before the run
-		initialiseBeforeRun();
-        // execute the algorithm
+		// execute using the configured instances
+		RunContext context = createRunContext();
+		context.initialiseBeforeRun();
         try
         {
             // execute the algorithm
-            algorithm.executeAndWait(problem);
+        	algorithm.executeAndWait(problem);
         }
         // ensure maintenance is always performed
         finally
         {
-        	cleanupAfterRun();
+        	context.cleanupAfterRun();
         }        
 	}	
 	
+	/**
+	 * Executes the configured run using fresh copies of the configured problem, algorithm, 
+	 * stop conditions and probes. The configured instances are treated as prototypes and are 
+	 * not modified, thus many executors may share the same prototypes and run concurrently.
+	 * 
+	 * @return - the context of the completed run, provides access to the probes of the run
+	 * @throws InvalidConfigurationException
+	 * @throws InitialisationException
+	 * @throws AlgorithmRunException
+	 * @throws SolutionEvaluationException
+	 */
+	public RunContext executeIsolatedAndWait()
+		throws InvalidConfigurationException, InitialisationException, AlgorithmRunException, SolutionEvaluationException
+	{
+		if(algorithm == null)
+		{
+			throw new InvalidConfigurationException("No algorithm set");
+		}
+		else if(problem == null)
+		{
+			throw new InvalidConfigurationException("No problem set");
+		}
+		
+		RunContext context = RunContext.fromPrototypes(problem, algorithm, stopConditions, runProbes);
+		context.executeAndWait();
+		return context;
+	}
+	
+	/**
+	 * Creates a context over the configured instances (not copies)
+	 * @return
+	 */
+	public RunContext createRunContext()
+	{
+		return new RunContext(problem, algorithm, stopConditions, runProbes);
+	}
+	
 
 	@Override
 	public boolean isUserConfigurable()
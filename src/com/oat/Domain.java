@@ -23,9 +23,14 @@ import java.util.Collections;
 import java.util.LinkedList;
 
 import com.oat.explorer.gui.panels.MasterPanel;
+import com.oat.probes.AlgorithmOverheadProbe;
 import com.oat.probes.BestScoreProbe;
 import com.oat.probes.BestSolutionProbe;
+import com.oat.probes.FixedTrajectoryProbe;
+import com.oat.probes.LogTrajectoryProbe;
+import com.oat.probes.MeanCostNanosProbe;
 import com.oat.probes.RunTimeMillisProbe;
+import com.oat.probes.TimingBreakdownProbe;
 import com.oat.probes.TotalEvaluationsProbe;
 import com.oat.stopcondition.EvaluationConvergenceStopCondition;
 import com.oat.stopcondition.EvaluationsStopCondition;
@@ -44,7 +49,8 @@ import com.oat.stopcondition.RunTimeStopCondition;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 28/11/2007	JBrownlee	Added the trajectory probes to the domain run probes
+ * 29/11/2007	JBrownlee	Added the instrumentation probes to the domain run probes
  * </pre>
  */
 public abstract class Domain implements Comparable<Domain>
@@ -132,6 +138,11 @@ public abstract class Domain implements Comparable<Domain>
 		list.add(new BestScoreProbe());
 		list.add(new RunTimeMillisProbe());
 		list.add(new TotalEvaluationsProbe());
+		list.add(new LogTrajectoryProbe());
+		list.add(new FixedTrajectoryProbe());
+		list.add(new MeanCostNanosProbe());
+		list.add(new AlgorithmOverheadProbe());
+		list.add(new TimingBreakdownProbe());
 		
 		Collections.sort(list);
 		
@@ -34,7 +34,7 @@ import java.util.LinkedList;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 29/11/2007	JBrownlee	Epoch timing recorded when the problem is instrumented
  * </pre>
  */
 public abstract class EpochAlgorithm<S extends Solution> extends Algorithm
@@ -52,22 +52,33 @@ public abstract class EpochAlgorithm<S extends Solution> extends Algorithm
     protected void executeEpochAlgorithm(Problem problem) 
     	throws AlgorithmRunException, SolutionEvaluationException
     {
+    	// timing of each epoch, if enabled
+    	RunInstrumentation in = problem.getInstrumentation();
+    	long start = (in == null) ? 0 : System.nanoTime();
         // initialize the population
         LinkedList<S> population = internalInitialiseBeforeRun(problem);
+        long created = (in == null) ? 0 : System.nanoTime();
         // evaluate 
         if(population!=null && !population.isEmpty())
         {
         	problem.cost(population);
         }
+        if(in != null)
+        {
+        	in.recordEpoch(created - start, System.nanoTime() - created, (population == null) ? 0 : population.size());
+        }
         // run for as long as there are evaluations
         while(problem.canEvaluate())
         {
+        	start = (in == null) ? 0 : System.nanoTime();
             // epoch event - because the solutions are known to have been evaluated
             triggerIterationCompleteEvent(problem, population);
             // perform the epoch
             LinkedList<S> children = internalExecuteEpoch(problem, population);
+            created = (in == null) ? 0 : System.nanoTime();
             // evaluate the population
             problem.cost(children);
+            long evaluated = (in == null) ? 0 : System.nanoTime();
             if(problem.canEvaluate())
             {
 	            // any additional things
@@ -75,6 +86,10 @@ public abstract class EpochAlgorithm<S extends Solution> extends Algorithm
 	            // replace
 	            population = children;
             }
+            if(in != null)
+            {
+            	in.recordEpoch((created - start) + (System.nanoTime() - evaluated), evaluated - created, children.size());
+            }
         }
     }
     
@@ -0,0 +1,240 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Description: A bounded cache of solution scores keyed on the genotype of the solution 
+ * (see Problem.getEvaluationCacheKey()), used to avoid paying the cost of evaluating 
+ * genotypes that have already been scored. The least recently used entries are evicted 
+ * once the cache is full. The hit policy decides whether a solution scored from the cache 
+ * is treated as an evaluation (counted against the evaluation budget and listeners notified) 
+ * or is free. To guarantee progress, free hits become counted once the maximum number of 
+ * consecutive free hits (hits without an evaluation in between) is reached.
+ * Scores of noisy problems are fixed at their first sample while cached.
+ * A single cache may be shared between many instances of the same problem.
+ *
+ * Date: 02/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class EvaluationCache
+{
+	public static enum HitPolicy
+	{
+		/**
+		 * A hit is committed as an evaluation, without calling the cost function
+		 */
+		Counted, 
+		/**
+		 * A hit scores the solution only, no evaluation is counted and no listeners are notified
+		 */
+		Free
+	}
+	
+	/**
+	 * Outcomes of scoring a solution from the cache
+	 */
+	public final static int MISS = 0, COUNTED_HIT = 1, FREE_HIT = 2;
+	
+	public final static int DEFAULT_CAPACITY = 10000;
+	public final static long DEFAULT_MAX_CONSECUTIVE_FREE_HITS = 10000;
+	
+	protected final int capacity;
+	protected final HitPolicy policy;
+	protected final long maxConsecutiveFreeHits;
+	/**
+	 * Scores in access order, least recently used first
+	 */
+	protected final LinkedHashMap<Object, Double> scores;
+	
+	protected long hits;
+	protected long misses;
+	protected long evictions;
+	protected long freeHits;
+	protected long consecutiveFreeHits;
+	
+	
+	/**
+	 * Create a cache of the default capacity where hits are counted
+	 */
+	public EvaluationCache()
+	{
+		this(DEFAULT_CAPACITY, HitPolicy.Counted);
+	}
+	
+	public EvaluationCache(int aCapacity, HitPolicy aPolicy)
+	{
+		this(aCapacity, aPolicy, DEFAULT_MAX_CONSECUTIVE_FREE_HITS);
+	}
+	
+	/**
+	 * @param aCapacity - maximum number of scores held
+	 * @param aPolicy - whether hits are counted as evaluations
+	 * @param aMaxConsecutiveFreeHits - free hits permitted before a hit is counted
+	 */
+	public EvaluationCache(int aCapacity, HitPolicy aPolicy, long aMaxConsecutiveFreeHits)
+	{
+		if(aCapacity < 1)
+		{
+			throw new IllegalArgumentException("Capacity must be >= 1: " + aCapacity);
+		}
+		if(aMaxConsecutiveFreeHits < 0)
+		{
+			throw new IllegalArgumentException("Maximum consecutive free hits must be >= 0: " + aMaxConsecutiveFreeHits);
+		}
+		capacity = aCapacity;
+		policy = aPolicy;
+		maxConsecutiveFreeHits = aMaxConsecutiveFreeHits;
+		scores = new LinkedHashMap<Object, Double>(Math.min(aCapacity, 1024), 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, Double> eldest)
+			{
+				if(size() > capacity)
+				{
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	/**
+	 * Retrieve the score of a genotype, recording a hit or a miss
+	 * @param key
+	 * @return - score, or null if not cached
+	 */
+	public synchronized Double get(Object key)
+	{
+		Double score = scores.get(key);
+		if(score == null)
+		{
+			misses++;
+		}
+		else
+		{
+			hits++;
+		}
+		return score;
+	}
+	
+	/**
+	 * Store the score of an evaluated genotype
+	 * @param key
+	 * @param score
+	 */
+	public synchronized void put(Object key, double score)
+	{
+		scores.put(key, new Double(score));
+		// an evaluation was performed
+		consecutiveFreeHits = 0;
+	}
+	
+	/**
+	 * Decide how a hit is treated under the hit policy
+	 * @return - FREE_HIT or COUNTED_HIT
+	 */
+	public synchronized int consumeHit()
+	{
+		if(policy == HitPolicy.Free && consecutiveFreeHits < maxConsecutiveFreeHits)
+		{
+			consecutiveFreeHits++;
+			freeHits++;
+			return FREE_HIT;
+		}
+		consecutiveFreeHits = 0;
+		return COUNTED_HIT;
+	}
+	
+	/**
+	 * Remove all scores and reset the statistics
+	 */
+	public synchronized void clear()
+	{
+		scores.clear();
+		hits = misses = evictions = freeHits = consecutiveFreeHits = 0;
+	}
+	
+	public synchronized int size()
+	{
+		return scores.size();
+	}
+
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+
+	public synchronized long getEvictions()
+	{
+		return evictions;
+	}
+
+	public synchronized long getFreeHits()
+	{
+		return freeHits;
+	}
+	
+	/**
+	 * @return - fraction of lookups that were hits, NaN if there were none
+	 */
+	public synchronized double getHitRatio()
+	{
+		long total = hits + misses;
+		return (total == 0) ? Double.NaN : ((double) hits / total);
+	}
+
+	public int getCapacity()
+	{
+		return capacity;
+	}
+
+	public HitPolicy getPolicy()
+	{
+		return policy;
+	}
+
+	public long getMaxConsecutiveFreeHits()
+	{
+		return maxConsecutiveFreeHits;
+	}
+	
+	@Override
+	public synchronized String toString()
+	{
+		return "size=" + scores.size() + "/" + capacity + " hits=" + hits + " misses=" + misses + 
+			" evictions=" + evictions + " freeHits=" + freeHits + " policy=" + policy;
+	}
+}
@@ -0,0 +1,250 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: Dispatches solution evaluation events for a problem. Listeners are held in
+ * copy-on-write arrays, registration is synchronized and dispatch is lock-free. The bus also
+ * maintains a total evaluation count and the best score observed as primitives,
+ * such that the most common observations (evaluations and best score) do not require a listener.
+ *
+ * Date: 17/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class EvaluationEventBus
+{
+	protected final static SolutionEvaluationListener [] NO_LISTENERS = new SolutionEvaluationListener[0];
+	protected final static SolutionBatchEvaluationListener [] NO_BATCH_LISTENERS = new SolutionBatchEvaluationListener[0];
+
+	/**
+	 * The problem the events are raised for, decides which score is better
+	 */
+	protected final Problem problem;
+	/**
+	 * Listeners for each solution evaluation, replaced (never modified) on registration
+	 */
+	protected volatile SolutionEvaluationListener [] listeners;
+	/**
+	 * Listeners for each collection of evaluations, replaced (never modified) on registration
+	 */
+	protected volatile SolutionBatchEvaluationListener [] batchListeners;
+	/**
+	 * Total number of evaluation events raised
+	 */
+	protected final AtomicLong totalEvaluations;
+	/**
+	 * Raw bits of the best score, NaN if no score has been observed
+	 */
+	protected final AtomicLong bestScoreBits;
+
+	/**
+	 * Constructor
+	 * @param aProblem
+	 */
+	public EvaluationEventBus(Problem aProblem)
+	{
+		problem = aProblem;
+		listeners = NO_LISTENERS;
+		batchListeners = NO_BATCH_LISTENERS;
+		totalEvaluations = new AtomicLong();
+		bestScoreBits = new AtomicLong(Double.doubleToLongBits(Double.NaN));
+	}
+
+	/**
+	 * Raise an evaluation event for the provided solution, updates the count and best score
+	 * then notifies all listeners
+	 * @param evaluatedSolution
+	 */
+	public void solutionEvaluated(Solution evaluatedSolution)
+	{
+		totalEvaluations.incrementAndGet();
+		updateBestScore(evaluatedSolution.getScore());
+		// read once, safe if the listeners are replaced during dispatch
+		SolutionEvaluationListener [] l = listeners;
+		for (int i = 0; i < l.length; i++)
+		{
+			l[i].solutionEvaluatedEvent(evaluatedSolution);
+		}
+	}
+
+	/**
+	 * Raise a batch evaluation event, the individual evaluation events must already have been raised
+	 * @param evaluatedSolutions
+	 * @param total
+	 */
+	public void solutionBatchEvaluated(Solution [] evaluatedSolutions, int total)
+	{
+		if(total == 0)
+		{
+			return;
+		}
+		SolutionBatchEvaluationListener [] l = batchListeners;
+		for (int i = 0; i < l.length; i++)
+		{
+			l[i].solutionBatchEvaluatedEvent(evaluatedSolutions, total);
+		}
+	}
+
+	/**
+	 * Record the score if it is better than the best score so far
+	 * @param score
+	 */
+	protected void updateBestScore(double score)
+	{
+		while(true)
+		{
+			long current = bestScoreBits.get();
+			double best = Double.longBitsToDouble(current);
+			if(!Double.isNaN(best) && !problem.isBetter(score, best))
+			{
+				return;
+			}
+			if(bestScoreBits.compareAndSet(current, Double.doubleToLongBits(score)))
+			{
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Forget the best score observed so far
+	 */
+	public void resetBestScore()
+	{
+		bestScoreBits.set(Double.doubleToLongBits(Double.NaN));
+	}
+
+	/**
+	 * The best score observed since the last reset
+	 * @return - best score, or NaN if no evaluations
+	 */
+	public double getBestScore()
+	{
+		return Double.longBitsToDouble(bestScoreBits.get());
+	}
+
+	/**
+	 * The total number of evaluation events raised by the bus. The count is never reset,
+	 * observers should record the count at the start of a run.
+	 * @return
+	 */
+	public long getTotalEvaluations()
+	{
+		return totalEvaluations.get();
+	}
+
+	/**
+	 * Whether or not any batch listeners are registered
+	 * @return
+	 */
+	public boolean hasBatchListeners()
+	{
+		return batchListeners.length > 0;
+	}
+
+	public synchronized void addListener(SolutionEvaluationListener l)
+	{
+		SolutionEvaluationListener [] n = new SolutionEvaluationListener[listeners.length+1];
+		System.arraycopy(listeners, 0, n, 0, listeners.length);
+		n[listeners.length] = l;
+		listeners = n;
+	}
+
+	public synchronized boolean removeListener(SolutionEvaluationListener l)
+	{
+		int index = indexOf(listeners, l);
+		if(index == -1)
+		{
+			return false;
+		}
+		SolutionEvaluationListener [] n = new SolutionEvaluationListener[listeners.length-1];
+		System.arraycopy(listeners, 0, n, 0, index);
+		System.arraycopy(listeners, index+1, n, index, n.length-index);
+		listeners = n;
+		return true;
+	}
+
+	public synchronized void addBatchListener(SolutionBatchEvaluationListener l)
+	{
+		SolutionBatchEvaluationListener [] n = new SolutionBatchEvaluationListener[batchListeners.length+1];
+		System.arraycopy(batchListeners, 0, n, 0, batchListeners.length);
+		n[batchListeners.length] = l;
+		batchListeners = n;
+	}
+
+	public synchronized boolean removeBatchListener(SolutionBatchEvaluationListener l)
+	{
+		int index = indexOf(batchListeners, l);
+		if(index == -1)
+		{
+			return false;
+		}
+		SolutionBatchEvaluationListener [] n = new SolutionBatchEvaluationListener[batchListeners.length-1];
+		System.arraycopy(batchListeners, 0, n, 0, index);
+		System.arraycopy(batchListeners, index+1, n, index, n.length-index);
+		batchListeners = n;
+		return true;
+	}
+
+	/**
+	 * Snapshot of the registered listeners
+	 * @return
+	 */
+	public SolutionEvaluationListener [] getListeners()
+	{
+		return listeners.clone();
+	}
+
+	/**
+	 * Snapshot of the registered batch listeners
+	 * @return
+	 */
+	public SolutionBatchEvaluationListener [] getBatchListeners()
+	{
+		return batchListeners.clone();
+	}
+
+	/**
+	 * Locate the listener using equals()
+	 * @param a
+	 * @param o
+	 * @return - index or -1 if not found
+	 */
+	protected static int indexOf(Object [] a, Object o)
+	{
+		for (int i = 0; i < a.length; i++)
+		{
+			if(a[i].equals(o))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+}
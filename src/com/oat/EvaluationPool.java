@@ -0,0 +1,176 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Description: A pool of worker threads used to calculate the cost of a batch of solutions
+ * concurrently. The pool only calculates scores, it does not store them in the solutions
+ * or notify listeners, that is left to the problem (on the calling thread) such that
+ * evaluation events and stop conditions behave exactly as they do for sequential evaluation.
+ * A single pool may be shared between many problem instances.
+ *
+ * Date: 14/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 29/11/2007	JBrownlee	Scores calculated with calculateScore(), timed when instrumented
+ * </pre>
+ */
+public class EvaluationPool
+{
+	/**
+	 * Number of worker threads
+	 */
+	protected final int totalThreads;
+	/**
+	 * The executor service
+	 */
+	protected final ExecutorService executor;
+
+	/**
+	 * Create a pool with one worker per available processor
+	 */
+	public EvaluationPool()
+	{
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a pool with the specified number of workers
+	 * @param aTotalThreads
+	 */
+	public EvaluationPool(int aTotalThreads)
+	{
+		if(aTotalThreads < 1)
+		{
+			throw new IllegalArgumentException("Total threads must be >= 1: " + aTotalThreads);
+		}
+		totalThreads = aTotalThreads;
+		executor = Executors.newFixedThreadPool(totalThreads, new ThreadFactory()
+		{
+			protected final AtomicInteger count = new AtomicInteger();
+
+			public Thread newThread(Runnable r)
+			{
+				Thread t = new Thread(r, "OAT-Evaluation-" + count.incrementAndGet());
+				// never hold up the jvm
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * Calculates the problem specific cost for the first length solutions in the array.
+	 * The solutions are not modified. Scores are stored in the scores array, any runtime exception
+	 * raised while checking or evaluating a solution is stored at the same index in the failures array.
+	 *
+	 * @param p
+	 * @param solutions
+	 * @param length
+	 * @param scores
+	 * @param failures
+	 */
+	public void evaluate(
+			final Problem p,
+			final Solution [] solutions,
+			final int length,
+			final double [] scores,
+			final RuntimeException [] failures)
+	{
+		// workers claim the next available index, cheap solutions balance expensive ones
+		final AtomicInteger next = new AtomicInteger();
+		int totalTasks = Math.min(totalThreads, length);
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(totalTasks);
+		for (int i = 0; i < totalTasks; i++)
+		{
+			tasks.add(new Callable<Object>()
+			{
+				public Object call()
+				{
+					for(int i = next.getAndIncrement(); i < length; i = next.getAndIncrement())
+					{
+						try
+						{
+							scores[i] = p.calculateScore(solutions[i]);
+						}
+						catch(RuntimeException e)
+						{
+							failures[i] = e;
+						}
+						catch(Throwable e)
+						{
+							failures[i] = new AlgorithmRunException("Unexpected error evaluating solution: " + e.getMessage(), e);
+						}
+					}
+					return null;
+				}
+			});
+		}
+
+		try
+		{
+			// blocks until all tasks are complete
+			executor.invokeAll(tasks);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new AlgorithmRunException("Interrupted while evaluating solutions.", e);
+		}
+	}
+
+	/**
+	 * Stop all worker threads, the pool cannot be used after it is shutdown
+	 */
+	public void shutdown()
+	{
+		executor.shutdown();
+	}
+
+	/**
+	 * Whether or not the pool has been shutdown
+	 * @return
+	 */
+	public boolean isShutdown()
+	{
+		return executor.isShutdown();
+	}
+
+	/**
+	 * Number of worker threads used by the pool
+	 * @return
+	 */
+	public int getTotalThreads()
+	{
+		return totalThreads;
+	}
+}
@@ -0,0 +1,344 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+/**
+ * Description: Array-backed population of solutions with constant time random access.
+ * Scores are cached in a primitive column (NaN for unevaluated solutions) that is
+ * refreshed when the population is evaluated. A second buffer is maintained for building
+ * the next generation, such that generational algorithms can replace the population
+ * without allocating new storage each epoch.
+ * Populations are converted to and from LinkedList for use with the existing algorithm API.
+ *
+ * Date: 18/11/2007<br/>
+ * @author Jason Brownlee
+ * @param <S>
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class Population<S extends Solution> implements Iterable<S>
+{
+	protected final static int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Solutions of the population, only the first size entries are valid
+	 */
+	protected Solution [] solutions;
+	/**
+	 * Cached scores of the solutions
+	 */
+	protected double [] scores;
+	/**
+	 * Number of solutions in the population
+	 */
+	protected int size;
+	/**
+	 * Buffer for the next generation, created on demand
+	 */
+	protected Population<S> next;
+
+	public Population()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	public Population(int capacity)
+	{
+		solutions = new Solution[Math.max(1, capacity)];
+		scores = new double[solutions.length];
+	}
+
+	public Population(Collection<? extends S> c)
+	{
+		this(c.size());
+		addAll(c);
+	}
+
+	/**
+	 * Ensure the population can hold at least the specified number of solutions
+	 * @param capacity
+	 */
+	public void ensureCapacity(int capacity)
+	{
+		if(capacity > solutions.length)
+		{
+			int n = Math.max(capacity, solutions.length * 2);
+			Solution [] s = new Solution[n];
+			System.arraycopy(solutions, 0, s, 0, size);
+			double [] d = new double[n];
+			System.arraycopy(scores, 0, d, 0, size);
+			solutions = s;
+			scores = d;
+		}
+	}
+
+	/**
+	 * Add a solution to the end of the population
+	 * @param s
+	 */
+	public void add(S s)
+	{
+		ensureCapacity(size + 1);
+		solutions[size] = s;
+		scores[size] = scoreOf(s);
+		size++;
+	}
+
+	public void addAll(Collection<? extends S> c)
+	{
+		ensureCapacity(size + c.size());
+		for(S s : c)
+		{
+			solutions[size] = s;
+			scores[size] = scoreOf(s);
+			size++;
+		}
+	}
+
+	public void addAll(Population<? extends S> p)
+	{
+		ensureCapacity(size + p.size);
+		System.arraycopy(p.solutions, 0, solutions, size, p.size);
+		System.arraycopy(p.scores, 0, scores, size, p.size);
+		size += p.size;
+	}
+
+	public S get(int i)
+	{
+		checkIndex(i);
+		return elementAt(i);
+	}
+
+	public void set(int i, S s)
+	{
+		checkIndex(i);
+		solutions[i] = s;
+		scores[i] = scoreOf(s);
+	}
+
+	/**
+	 * The cached score of a solution, NaN if the solution was not evaluated
+	 * when last added or refreshed
+	 * @param i
+	 * @return
+	 */
+	public double getScore(int i)
+	{
+		checkIndex(i);
+		return scores[i];
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * Remove all solutions, the storage is retained
+	 */
+	public void clear()
+	{
+		Arrays.fill(solutions, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * Evaluate all solutions in the population using the problem, and refresh the score column
+	 * @param p
+	 */
+	public void evaluate(Problem p)
+	{
+		if(size == 0)
+		{
+			return;
+		}
+		p.cost(size == solutions.length ? solutions : Arrays.copyOf(solutions, size));
+		refreshScores();
+	}
+
+	/**
+	 * Reload the cached score column from the solutions
+	 */
+	public void refreshScores()
+	{
+		for (int i = 0; i < size; i++)
+		{
+			scores[i] = scoreOf(solutions[i]);
+		}
+	}
+
+	/**
+	 * Index of the best evaluated solution. Ties are resolved the same way as sorting
+	 * the population and taking the first (minimization) or last (maximization) solution
+	 * @param p
+	 * @return - index of the best solution, -1 if no solutions are evaluated
+	 */
+	public int getBestIndex(Problem p)
+	{
+		int best = -1;
+		boolean minimization = p.isMinimization();
+		for (int i = 0; i < size; i++)
+		{
+			double s = scores[i];
+			if(Double.isNaN(s))
+			{
+				continue;
+			}
+			if(best == -1 || (minimization ? s < scores[best] : s >= scores[best]))
+			{
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * The best evaluated solution in the population
+	 * @param p
+	 * @return - best solution or null if no solutions are evaluated
+	 */
+	public S getBest(Problem p)
+	{
+		int i = getBestIndex(p);
+		return (i == -1) ? null : elementAt(i);
+	}
+
+	/**
+	 * Order the population by ascending score (Solution natural ordering)
+	 */
+	public void sort()
+	{
+		Arrays.sort(solutions, 0, size);
+		refreshScores();
+	}
+
+	/**
+	 * An empty buffer for building the next generation, storage is reused between generations
+	 * @return
+	 */
+	public Population<S> getNextGeneration()
+	{
+		if(next == null)
+		{
+			next = new Population<S>(solutions.length);
+		}
+		next.clear();
+		return next;
+	}
+
+	/**
+	 * Replace the population with the contents of the next generation buffer,
+	 * the storage of the current population becomes the next buffer
+	 */
+	public void commitNextGeneration()
+	{
+		if(next == null)
+		{
+			throw new AlgorithmRunException("No next generation to commit.");
+		}
+		Solution [] s = solutions;
+		double [] d = scores;
+		int n = size;
+		solutions = next.solutions;
+		scores = next.scores;
+		size = next.size;
+		next.solutions = s;
+		next.scores = d;
+		next.size = n;
+		next.clear();
+	}
+
+	public LinkedList<S> toLinkedList()
+	{
+		LinkedList<S> l = new LinkedList<S>();
+		for (int i = 0; i < size; i++)
+		{
+			l.add(elementAt(i));
+		}
+		return l;
+	}
+
+	public Iterator<S> iterator()
+	{
+		return new Iterator<S>()
+		{
+			int i = 0;
+
+			public boolean hasNext()
+			{
+				return i < size;
+			}
+
+			public S next()
+			{
+				if(i >= size)
+				{
+					throw new NoSuchElementException();
+				}
+				return elementAt(i++);
+			}
+
+			public void remove()
+			{
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * @param i
+	 * @return - the solution at the index, without bounds checking
+	 */
+	@SuppressWarnings("unchecked")
+	protected S elementAt(int i)
+	{
+		// only instances of S are ever stored, the array is Solution [] as S [] cannot be created
+		return (S) solutions[i];
+	}
+
+	protected void checkIndex(int i)
+	{
+		if(i < 0 || i >= size)
+		{
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+		}
+	}
+
+	protected final static double scoreOf(Solution s)
+	{
+		return s.isEvaluated() ? s.getScore() : Double.NaN;
+	}
+}
@@ -19,6 +19,9 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 package com.oat;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 
 import com.oat.utils.AlgorithmUtils;
@@ -43,27 +46,46 @@ import com.oat.utils.BeanUtils;
  * 06/07/2007   JBrownlee   Added hasConfiguration(), default to false
  * 07/07/2007   JBrownlee   Shifted validation of max evaluations from the mutator function into before-run-validation
  * 04/09/2007	JBrownlee	Refactored methods and interfaces, use stop conditions
+ * 14/11/2007	JBrownlee	Added optional parallel evaluation of solution collections
+ * 16/11/2007	JBrownlee	Added clearStopConditions()
+ * 17/11/2007	JBrownlee	Listeners and stop conditions held in copy-on-write arrays, 
+ *                          evaluation events dispatched by the EvaluationEventBus
+ * 29/11/2007   JBrownlee   Added optional instrumentation of evaluation timing
+ * 02/12/2007   JBrownlee   Optional evaluation cache keyed on the solution genotype
+ * 09/12/2007   JBrownlee   Duplicate genotypes within a cached batch are evaluated once
  * </pre>
  */
 public abstract class Problem
 	implements Comparable<Problem>, Configurable, UserFriendly, Populator<Problem>
 {
 	/**
-	 * Collection of all objects interested in valid solution evaluation events
+	 * Dispatches valid solution evaluation events to all interested objects
 	 */
-    protected final LinkedList<SolutionEvaluationListener> solutionEvaluationListeners;
+    protected final EvaluationEventBus evaluationEventBus;
     /**
-     * Collection of all stop conditions for the problem execution
+     * All stop conditions for the problem execution, replaced (never modified) when changed
      */
-    protected final LinkedList<StopCondition> stopConditions;    
+    protected volatile StopCondition [] stopConditions;    
+    /**
+     * Pool used to evaluate collections of solutions in parallel, null for sequential evaluation
+     */
+    protected EvaluationPool evaluationPool;
+    /**
+     * Timing of evaluations, null when not instrumented
+     */
+    protected volatile RunInstrumentation instrumentation;
+    /**
+     * Scores of previously evaluated genotypes, null when not cached
+     */
+    protected volatile EvaluationCache evaluationCache;
 
     /**
      * Constructor
      */
     public Problem()
     {
-        solutionEvaluationListeners = new LinkedList<SolutionEvaluationListener>();
-        stopConditions = new LinkedList<StopCondition>();
+        evaluationEventBus = new EvaluationEventBus(this);
+        stopConditions = new StopCondition[0];
     }
     
     /**
@@ -73,10 +95,7 @@ public abstract class Problem
      */
     protected void triggerSolutionEvaluationEvent(Solution evaluatedSolution)
     {
-        for (SolutionEvaluationListener a : solutionEvaluationListeners)
-        {
-            a.solutionEvaluatedEvent(evaluatedSolution);
-        }
+        evaluationEventBus.solutionEvaluated(evaluatedSolution);
     }
 
     /**
@@ -153,9 +172,13 @@ public abstract class Problem
     public <S extends Solution> void cost(LinkedList<S> solutionCollection)
     	throws SolutionEvaluationException
     {
-        for (S solution : solutionCollection)
+        if(isBatchEvaluation(solutionCollection.size()))
         {
-            cost(solution);
+            batchCost(solutionCollection.toArray(new Solution[solutionCollection.size()]));
+        }
+        else
+        {
+        	sequentialCost(solutionCollection, solutionCollection.size());
         }
     }   
 
@@ -169,9 +192,13 @@ public abstract class Problem
     public <S extends Solution> void cost(S [] solutionCollection)
     	throws SolutionEvaluationException
     {
-        for (S solution : solutionCollection)
+        if(isBatchEvaluation(solutionCollection.length))
+        {
+            batchCost(solutionCollection);
+        }
+        else
         {
-            cost(solution);
+        	sequentialCost(Arrays.asList(solutionCollection), solutionCollection.length);
         }
     }  
 
@@ -184,21 +211,364 @@ public abstract class Problem
     public void cost(Solution solution)
         throws SolutionEvaluationException
     {               
+    	Solution evaluated = evaluate(solution);
+    	if(evaluated != null && evaluationEventBus.hasBatchListeners())
+    	{
+    		evaluationEventBus.solutionBatchEvaluated(new Solution[]{evaluated}, 1);
+    	}
+    }
+    
+    /**
+     * Evaluates the provided solution if permitted by the stop conditions. 
+     * Does not raise a batch evaluation event.
+     * @param solution
+     * @return - the solution instance that was evaluated, or null if no evaluation was performed
+     * @throws SolutionEvaluationException
+     */
+    protected Solution evaluate(Solution solution)
+    	throws SolutionEvaluationException
+    {
     	// check if the algorithm cannot stop
     	if(!canEvaluate())
     	{
-    		return;
+    		return null;
     	}
     	
+    	solution = prepareSolutionForEvaluation(solution);
         // check that the solution has not already been evaluated
         if(solution.isEvaluated())
         {
-            return;
+            return null;
+        }
+        // score genotypes that have already been evaluated from the cache
+        EvaluationCache cache = evaluationCache;
+        Object key = (cache == null) ? null : getEvaluationCacheKey(solution);
+        if(key != null)
+        {
+        	Double cached = cache.get(key);
+        	if(cached != null)
+        	{
+        		return (commitCachedEvaluation(cache, solution, cached.doubleValue()) == EvaluationCache.COUNTED_HIT) ? solution : null;
+        	}
+        }
+        // check that the solution is valid and evaluate using problem specific evaluation
+        double score = calculateScore(solution);
+        // store the scoring and notify listeners
+        commitEvaluation(solution, score);
+        if(key != null)
+        {
+        	cache.put(key, score);
+        }
+        return solution;
+    }
+    
+    /**
+     * Stores a score retrieved from the cache in the solution, as an evaluation if the hit is 
+     * counted by the cache's hit policy, otherwise without notifying listeners
+     * @param cache
+     * @param solution
+     * @param score
+     * @return - EvaluationCache.COUNTED_HIT or EvaluationCache.FREE_HIT
+     * @throws SolutionEvaluationException
+     */
+    protected int commitCachedEvaluation(EvaluationCache cache, Solution solution, double score)
+    	throws SolutionEvaluationException
+    {
+    	int hit = cache.consumeHit();
+    	if(hit == EvaluationCache.COUNTED_HIT)
+    	{
+    		commitEvaluation(solution, score);
+    	}
+    	else
+    	{
+    		solution.evaluated(score);
+    	}
+    	return hit;
+    }
+    
+    /**
+     * Key identifying the genotype of the solution in the evaluation cache. The default 
+     * implementation returns null (the solution is not cached). Problems override this to 
+     * support caching, only if the score is all that evaluation stores in the solution.
+     * The key must not share mutable state with the solution.
+     * @param solution - a solution prepared for evaluation
+     * @return - key, or null if the solution is not to be cached
+     */
+    protected Object getEvaluationCacheKey(Solution solution)
+    {
+    	return null;
+    }
+    
+    /**
+     * Checks the solution is valid and calculates its score without storing it, timed
+     * if instrumentation is enabled. Safe to call concurrently if isParallelEvaluationSafe()
+     * @param solution
+     * @return - score
+     * @throws SolutionEvaluationException
+     */
+    protected double calculateScore(Solution solution)
+    	throws SolutionEvaluationException
+    {
+    	RunInstrumentation in = instrumentation;
+    	if(in == null)
+    	{
+    		checkSolutionForSafety(solution);
+    		return problemSpecificCost(solution);
+    	}
+    	long start = System.nanoTime();
+    	checkSolutionForSafety(solution);
+    	long checked = System.nanoTime();
+    	double score = problemSpecificCost(solution);
+    	long end = System.nanoTime();
+    	in.recordSafetyCheck(checked - start);
+    	in.recordCost(end - checked);
+    	return score;
+    }
+    
+    /**
+     * Evaluates a collection of solutions one at a time on the calling thread, raises a
+     * single batch evaluation event for the collection
+     * 
+     * @param solutionCollection
+     * @param size
+     * @throws SolutionEvaluationException
+     */
+    protected void sequentialCost(Iterable<? extends Solution> solutionCollection, int size)
+    	throws SolutionEvaluationException
+    {
+    	// only remember evaluated solutions if someone is interested
+    	Solution [] evaluated = evaluationEventBus.hasBatchListeners() ? new Solution[size] : null;
+    	int total = 0;
+        for (Solution solution : solutionCollection)
+        {
+        	Solution s = evaluate(solution);
+        	if(s != null && evaluated != null)
+        	{
+        		evaluated[total++] = s;
+        	}
         }
-        // check that the solution is valid
-        checkSolutionForSafety(solution);
-        // evaluate using problem specific evaluation
-        double score = problemSpecificCost(solution);
+        if(evaluated != null)
+        {
+        	evaluationEventBus.solutionBatchEvaluated(evaluated, total);
+        }
+    }
+    
+    /**
+     * Evaluates a collection of solutions in batches. Scores are calculated for batches no larger than 
+     * the remaining evaluation budget (see calculateBatchScores()), then committed to the solutions in 
+     * collection order on the calling thread, checking the stop conditions before each commit.
+     * The solutions evaluated, the events triggered and the exceptions thrown are the same as for 
+     * sequential evaluation.
+     * 
+     * @param solutionCollection
+     * @throws SolutionEvaluationException
+     */
+    protected void batchCost(Solution [] solutionCollection)
+    	throws SolutionEvaluationException
+    {
+    	if(!canEvaluate())
+    	{
+    		return;
+    	}
+    	
+    	// prepare the unique set of solutions that require evaluation
+    	IdentityHashMap<Solution, Solution> unique = new IdentityHashMap<Solution, Solution>();
+    	Solution [] pending = new Solution[solutionCollection.length];
+    	int totalPending = 0;
+    	for (int i = 0; i < solutionCollection.length; i++)
+		{
+    		if(unique.put(solutionCollection[i], solutionCollection[i]) == null)
+    		{
+    			Solution s = prepareSolutionForEvaluation(solutionCollection[i]);
+    			if(!s.isEvaluated())
+    			{
+    				pending[totalPending++] = s;
+    			}
+    		}
+		}
+    	
+    	int offset = 0;
+    	int totalCommitted = 0;
+    	boolean stopped = false;
+    	while(offset < totalPending && !stopped && canEvaluate())
+    	{
+    		// never calculate more than the stop conditions will permit to be stored
+    		int batchSize = (int) Math.max(1, Math.min(totalPending-offset, getRemainingEvaluations()));
+    		Solution [] batch = new Solution[batchSize];
+    		System.arraycopy(pending, offset, batch, 0, batchSize);
+    		double [] scores = new double[batchSize];
+    		RuntimeException [] failures = new RuntimeException[batchSize];
+    		EvaluationCache cache = evaluationCache;
+    		Object [] keys = null;
+    		boolean [] cached = null;
+    		boolean [] duplicates = null;
+    		if(cache == null)
+    		{
+    			calculateBatchScores(batch, batchSize, scores, failures);
+    		}
+    		else
+    		{
+    			keys = new Object[batchSize];
+    			cached = new boolean[batchSize];
+    			duplicates = new boolean[batchSize];
+    			calculateBatchScores(cache, batch, batchSize, scores, failures, keys, cached, duplicates);
+    		}
+    		// commit in order, exactly as though sequential
+    		for (int i = 0; i < batchSize && !stopped; i++)
+			{
+    			if(!canEvaluate())
+    			{
+    				stopped = true;
+    			}
+    			else if(!batch[i].isEvaluated())
+    			{
+	    			if(failures[i] != null)
+	    			{
+	    				throw failures[i];
+	    			}
+	    			// a duplicate is looked up once its first occurrence is stored, as though sequential
+	    			Double duplicate = (duplicates != null && duplicates[i]) ? cache.get(keys[i]) : null;
+	    			if(duplicate != null || (cached != null && cached[i]))
+	    			{
+	    				double score = (duplicate != null) ? duplicate.doubleValue() : scores[i];
+	    				if(commitCachedEvaluation(cache, batch[i], score) == EvaluationCache.FREE_HIT)
+	    				{
+	    					continue;
+	    				}
+	    			}
+	    			else
+	    			{
+	    				commitEvaluation(batch[i], scores[i]);
+	    				if(keys != null && keys[i] != null)
+	    				{
+	    					cache.put(keys[i], scores[i]);
+	    				}
+	    			}
+	    			// committed solutions are compacted to the front of the pending array
+	    			pending[totalCommitted++] = batch[i];
+    			}
+			}
+    		offset += batchSize;
+    	}
+    	
+    	evaluationEventBus.solutionBatchEvaluated(pending, totalCommitted);
+    }
+    
+    /**
+     * Calculate the scores for a batch of unevaluated solutions without storing them. A failure
+     * for a solution (unsafe solution or failed evaluation) is stored rather than thrown.
+     * The default implementation uses the evaluation pool if enabled, otherwise evaluates
+     * each solution in turn on the calling thread.
+     * 
+     * @param batch
+     * @param length
+     * @param scores
+     * @param failures
+     */
+    protected void calculateBatchScores(Solution [] batch, int length, double [] scores, RuntimeException [] failures)
+    {
+    	if(isParallelEvaluation(length))
+    	{
+    		evaluationPool.evaluate(this, batch, length, scores, failures);
+    		return;
+    	}
+    	for (int i = 0; i < length; i++)
+		{
+    		try
+    		{
+    			scores[i] = calculateScore(batch[i]);
+    		}
+    		catch(RuntimeException e)
+    		{
+    			failures[i] = e;
+    		}
+		}
+    }
+    
+    /**
+     * Calculate the scores for a batch of unevaluated solutions, taking the scores of cached 
+     * genotypes from the cache and calculating the remainder with calculateBatchScores().
+     * Only the first solution of each uncached genotype is calculated, the others are marked 
+     * as duplicates (not looked up in the cache) and given the score of the first.
+     * 
+     * @param cache
+     * @param batch
+     * @param length
+     * @param scores
+     * @param failures
+     * @param keys - populated with the cache key of each solution
+     * @param cached - populated with whether each score was taken from the cache
+     * @param duplicates - populated with whether each solution repeats an earlier uncached genotype
+     */
+    protected void calculateBatchScores(EvaluationCache cache, Solution [] batch, int length, double [] scores, 
+    		RuntimeException [] failures, Object [] keys, boolean [] cached, boolean [] duplicates)
+    {
+    	Solution [] misses = new Solution[length];
+    	int [] indexes = new int[length];
+    	int [] firstOccurrence = new int[length];
+    	HashMap<Object, Integer> uncached = new HashMap<Object, Integer>();
+    	int totalMisses = 0;
+    	for (int i = 0; i < length; i++)
+		{
+    		keys[i] = getEvaluationCacheKey(batch[i]);
+    		Integer first = (keys[i] == null) ? null : uncached.get(keys[i]);
+    		if(first != null)
+    		{
+    			duplicates[i] = true;
+    			firstOccurrence[i] = first.intValue();
+    			continue;
+    		}
+    		Double score = (keys[i] == null) ? null : cache.get(keys[i]);
+    		if(score == null)
+    		{
+    			if(keys[i] != null)
+    			{
+    				uncached.put(keys[i], new Integer(i));
+    			}
+    			misses[totalMisses] = batch[i];
+    			indexes[totalMisses++] = i;
+    		}
+    		else
+    		{
+    			scores[i] = score.doubleValue();
+    			cached[i] = true;
+    		}
+		}
+    	if(totalMisses == length)
+    	{
+    		calculateBatchScores(batch, length, scores, failures);
+    	}
+    	else if(totalMisses > 0)
+    	{
+    		double [] missScores = new double[totalMisses];
+    		RuntimeException [] missFailures = new RuntimeException[totalMisses];
+    		calculateBatchScores(misses, totalMisses, missScores, missFailures);
+    		for (int i = 0; i < totalMisses; i++)
+			{
+    			scores[indexes[i]] = missScores[i];
+    			failures[indexes[i]] = missFailures[i];
+			}
+    	}
+    	// duplicates share the outcome of the first occurrence
+    	for (int i = 0; i < length; i++)
+		{
+    		if(duplicates[i])
+    		{
+    			scores[i] = scores[firstOccurrence[i]];
+    			failures[i] = failures[firstOccurrence[i]];
+    		}
+		}
+    }
+    
+    /**
+     * Stores the score in the solution and notifies all listeners of the evaluation
+     * @param solution
+     * @param score
+     * @throws SolutionEvaluationException
+     */
+    protected void commitEvaluation(Solution solution, double score)
+    	throws SolutionEvaluationException
+    {
         // ensure scoring is valid
         if(AlgorithmUtils.isInvalidNumber(score))
         {
@@ -207,7 +577,142 @@ public abstract class Problem
         // store the scoring in the solution
         solution.evaluated(score);
         // notify listeners that another solution has been evaluated
-        triggerSolutionEvaluationEvent(solution);
+        RunInstrumentation in = instrumentation;
+        if(in == null)
+        {
+        	triggerSolutionEvaluationEvent(solution);
+        }
+        else
+        {
+        	long start = System.nanoTime();
+        	triggerSolutionEvaluationEvent(solution);
+        	in.recordDispatch(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Provides the solution instance that is checked, evaluated and stored. The default 
+     * implementation returns the provided solution. Override to intercept or translate solutions
+     * before they are evaluated.
+     * @param solution
+     * @return - solution to evaluate
+     */
+    protected Solution prepareSolutionForEvaluation(Solution solution)
+    {
+    	return solution;
+    }
+    
+    /**
+     * Whether or not the collection of the provided size will be evaluated in batches (see batchCost()).
+     * Default is true only when parallel evaluation is in use.
+     * @param size
+     * @return
+     */
+    protected boolean isBatchEvaluation(int size)
+    {
+    	return isParallelEvaluation(size);
+    }
+    
+    /**
+     * Whether or not the collection of the provided size will be evaluated using the evaluation pool
+     * @param size
+     * @return
+     */
+    protected boolean isParallelEvaluation(int size)
+    {
+    	return size > 1 && 
+    		evaluationPool != null && 
+    		!evaluationPool.isShutdown() && 
+    		evaluationPool.getTotalThreads() > 1 &&
+    		isParallelEvaluationSafe();
+    }
+    
+    /**
+     * Whether or not problemSpecificCost() and checkSolutionForSafety() can be safely called 
+     * concurrently for different solutions. Default is true, must be overridden by problems that 
+     * maintain state (or depend on random numbers) during evaluation.
+     * @return
+     */
+    public boolean isParallelEvaluationSafe()
+    {
+    	return true;
+    }
+    
+    /**
+     * Evaluate collections of solutions using the provided pool. The pool is not shutdown by the problem.
+     * @param aPool
+     */
+    public void enableParallelEvaluation(EvaluationPool aPool)
+    {
+    	evaluationPool = aPool;
+    }
+    
+    /**
+     * Evaluate collections of solutions sequentially on the calling thread (default)
+     */
+    public void disableParallelEvaluation()
+    {
+    	evaluationPool = null;
+    }
+    
+    /**
+     * Record the timing of evaluations in the provided instrumentation
+     * @param aInstrumentation
+     */
+    public void enableInstrumentation(RunInstrumentation aInstrumentation)
+    {
+    	instrumentation = aInstrumentation;
+    }
+    
+    /**
+     * Stop recording the timing of evaluations (default)
+     */
+    public void disableInstrumentation()
+    {
+    	instrumentation = null;
+    }
+    
+    /**
+     * @return - instrumentation in use, or null if not instrumented
+     */
+    public RunInstrumentation getInstrumentation()
+    {
+    	return instrumentation;
+    }
+    
+    /**
+     * Score solutions whose genotype has already been evaluated from the provided cache, 
+     * only has an effect for problems that provide cache keys (see getEvaluationCacheKey())
+     * @param aCache
+     */
+    public void enableEvaluationCache(EvaluationCache aCache)
+    {
+    	evaluationCache = aCache;
+    }
+    
+    /**
+     * Evaluate all solutions with the cost function (default)
+     */
+    public void disableEvaluationCache()
+    {
+    	evaluationCache = null;
+    }
+    
+    /**
+     * @return - evaluation cache in use, or null if not cached
+     */
+    public EvaluationCache getEvaluationCache()
+    {
+    	return evaluationCache;
+    }
+    
+    /**
+     * Provides access to the pool used for parallel evaluation
+     * @return - the evaluation pool, or null if evaluation is sequential
+     */
+    public EvaluationPool getEvaluationPool()
+    {
+    	return evaluationPool;
     }
     
     /**
@@ -232,7 +737,7 @@ public abstract class Problem
      */
     public void addListener(SolutionEvaluationListener l)
     {
-        solutionEvaluationListeners.add(l);
+        evaluationEventBus.addListener(l);
     }
     
     /**
@@ -242,16 +747,38 @@ public abstract class Problem
      */
     public boolean removeListener(SolutionEvaluationListener l)
     {
-    	return solutionEvaluationListeners.remove(l);
+    	return evaluationEventBus.removeListener(l);
+    }
+    
+    /**
+     * Register a listener interested in collections of valid solution evaluations
+     * @param l
+     */
+    public void addBatchListener(SolutionBatchEvaluationListener l)
+    {
+    	evaluationEventBus.addBatchListener(l);
+    }
+    
+    /**
+     * Deregister a batch listener
+     * @param l
+     * @return - if the listener was previously registered and is now successfully deregistered
+     */
+    public boolean removeBatchListener(SolutionBatchEvaluationListener l)
+    {
+    	return evaluationEventBus.removeBatchListener(l);
     }
 
     /**
      * Registers the stop condition with the problem
      * @param s
      */
-    public void addStopCondition(StopCondition s)
+    public synchronized void addStopCondition(StopCondition s)
     {
-    	stopConditions.add(s);
+    	StopCondition [] n = new StopCondition[stopConditions.length+1];
+    	System.arraycopy(stopConditions, 0, n, 0, stopConditions.length);
+    	n[stopConditions.length] = s;
+    	stopConditions = n;
     }
     
     /**
@@ -260,7 +787,18 @@ public abstract class Problem
      */
     public void addStopConditions(LinkedList<StopCondition> s)
     {
-    	stopConditions.addAll(s);
+    	for(StopCondition c : s)
+    	{
+    		addStopCondition(c);
+    	}
+    }
+    
+    /**
+     * Remove all stop conditions from the problem
+     */
+    public synchronized void clearStopConditions()
+    {
+    	stopConditions = new StopCondition[0];
     }
     
     /**
@@ -268,28 +806,49 @@ public abstract class Problem
      * @param s
      * @return true if the stop condition was previously registered and was removed successfully.
      */
-    public boolean removeStopCondition(StopCondition s)
+    public synchronized boolean removeStopCondition(StopCondition s)
     {
-    	return stopConditions.remove(s);
+    	for (int i = 0; i < stopConditions.length; i++)
+		{
+			if(stopConditions[i].equals(s))
+			{
+				StopCondition [] n = new StopCondition[stopConditions.length-1];
+				System.arraycopy(stopConditions, 0, n, 0, i);
+				System.arraycopy(stopConditions, i+1, n, i, n.length-i);
+				stopConditions = n;
+				return true;
+			}
+		}
+    	return false;
     }
 
     /**
      * Provides access to all listeners to solution evaluations
-     * @return - list of all registered solution evaluation listeners
+     * @return - copy of the list of all registered solution evaluation listeners
      */
     public LinkedList<SolutionEvaluationListener> getSolutionEvaluationListeners()
 	{
-		return solutionEvaluationListeners;
+		return new LinkedList<SolutionEvaluationListener>(Arrays.asList(evaluationEventBus.getListeners()));
 	}
 
     /**
      * Provides access to all stop conditions of the problem
-     * @return - all registered stop conditions
+     * @return - copy of the list of all registered stop conditions
      */
 	public LinkedList<StopCondition> getStopConditions()
 	{
-		return stopConditions;
+		return new LinkedList<StopCondition>(Arrays.asList(stopConditions));
 	}	
+	
+	/**
+	 * Provides access to the evaluation event bus, including the primitive evaluation
+	 * count and best score
+	 * @return
+	 */
+	public EvaluationEventBus getEvaluationEventBus()
+	{
+		return evaluationEventBus;
+	}
 
 	@Override
     public String toString()
@@ -337,10 +896,12 @@ public abstract class Problem
      */
     public boolean canEvaluate()
     {
-    	for(StopCondition s : stopConditions)
+    	// read once, safe if the stop conditions are replaced
+    	StopCondition [] s = stopConditions;
+    	for (int i = 0; i < s.length; i++)
     	{
     		// check for stop for any reason
-    		if(s.mustStop())
+    		if(s[i].mustStop())
     		{
     			return false;
     		}
@@ -349,11 +910,26 @@ public abstract class Problem
     	return true;
     }
     
+    /**
+     * The smallest number of further evaluations permitted by the stop conditions
+     * @return - remaining evaluations, Long.MAX_VALUE if unbounded
+     */
+    public long getRemainingEvaluations()
+    {
+    	long remaining = Long.MAX_VALUE;
+    	StopCondition [] s = stopConditions;
+    	for (int i = 0; i < s.length; i++)
+    	{
+    		remaining = Math.min(remaining, s[i].getRemainingEvaluations());
+    	}
+    	return remaining;
+    }
+    
 
     @Override
 	public void validateConfiguration() throws InvalidConfigurationException
 	{
-    	if(stopConditions.isEmpty())
+    	if(stopConditions.length == 0)
     	{
     		throw new InvalidConfigurationException("No stop condition's defined");
     	}
@@ -381,6 +957,8 @@ public abstract class Problem
 		BeanUtils.beanPopulate(other, this);
 		// stop conditions				
 		addStopConditions(other.getStopConditions());
+		// evaluation
+		evaluationPool = other.evaluationPool;
 		// internal prep
 		try
 		{
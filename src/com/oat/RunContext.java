@@ -0,0 +1,290 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat;
+
+import java.util.Collection;
+import java.util.LinkedList;
+
+/**
+ * Description: The set of instances that take part in a single problem-algorithm run.
+ * A context is either built directly from a set of instances (shared with the caller), or
+ * built from a set of prototypes, in which case the problem, algorithm, stop conditions and probes
+ * are fresh copies (via Populator.populateFromInstance()) with their own listener lists,
+ * such that many contexts may be executed concurrently in the same JVM. A context may be
+ * executed many times, all state is reset before each run.
+ *
+ * Date: 16/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class RunContext
+{
+	/**
+	 * Algorithm to execute
+	 */
+	protected final Algorithm algorithm;
+	/**
+	 * Problem to execute
+	 */
+	protected final Problem problem;
+	/**
+	 * Stop conditions applied to the run
+	 */
+	protected final LinkedList<StopCondition> stopConditions;
+	/**
+	 * Probes used to collect information about the run
+	 */
+	protected final LinkedList<RunProbe> runProbes;
+
+	/**
+	 * Create a context that uses the provided instances directly
+	 *
+	 * @param p
+	 * @param a
+	 * @param s
+	 * @param r
+	 */
+	public RunContext(Problem p, Algorithm a, Collection<StopCondition> s, Collection<RunProbe> r)
+	{
+		problem = p;
+		algorithm = a;
+		stopConditions = new LinkedList<StopCondition>(s);
+		runProbes = new LinkedList<RunProbe>(r);
+	}
+
+	/**
+	 * Create a context of fresh instances populated from the provided prototypes.
+	 * The prototypes are not modified.
+	 *
+	 * @param p
+	 * @param a
+	 * @param s
+	 * @param r
+	 * @return - new isolated run context
+	 */
+	public static RunContext fromPrototypes(Problem p, Algorithm a, Collection<StopCondition> s, Collection<RunProbe> r)
+	{
+		Problem problem = newInstance(p);
+		problem.populateFromInstance(p);
+		// never share the stop conditions of the prototype
+		problem.clearStopConditions();
+
+		Algorithm algorithm = newInstance(a);
+		algorithm.populateFromInstance(a);
+
+		LinkedList<StopCondition> stopConditions = new LinkedList<StopCondition>();
+		for(StopCondition c : s)
+		{
+			StopCondition copy = newInstance(c);
+			copy.populateFromInstance(c);
+			stopConditions.add(copy);
+		}
+
+		LinkedList<RunProbe> runProbes = new LinkedList<RunProbe>();
+		for(RunProbe c : r)
+		{
+			RunProbe copy = newInstance(c);
+			copy.populateFromInstance(c);
+			runProbes.add(copy);
+		}
+
+		return new RunContext(problem, algorithm, stopConditions, runProbes);
+	}
+
+	/**
+	 * Create a context of fresh instances populated from the provided prototypes.
+	 * The prototypes are not modified.
+	 *
+	 * @param p
+	 * @param a
+	 * @param s
+	 * @param r
+	 * @return - new isolated run context
+	 */
+	public static RunContext fromPrototypes(Problem p, Algorithm a, StopCondition s, RunProbe [] r)
+	{
+		LinkedList<StopCondition> stopConditions = new LinkedList<StopCondition>();
+		stopConditions.add(s);
+		LinkedList<RunProbe> runProbes = new LinkedList<RunProbe>();
+		for (int i = 0; i < r.length; i++)
+		{
+			runProbes.add(r[i]);
+		}
+		return fromPrototypes(p, a, stopConditions, runProbes);
+	}
+
+	/**
+	 * Create an unpopulated instance of the same type as the prototype
+	 * @param <T>
+	 * @param prototype
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	protected static <T extends Object> T newInstance(T prototype)
+	{
+		try
+		{
+			// the class of a T is always a subclass of T
+			return (T) prototype.getClass().getDeclaredConstructor().newInstance();
+		}
+		catch (Exception e)
+		{
+			throw new AlgorithmRunException("Unable to create instance of " + prototype.getClass().getName() + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Validate the run configuration, registers the stop conditions with the problem
+	 * @throws InvalidConfigurationException
+	 */
+	public void validateConfiguration()
+		throws InvalidConfigurationException
+	{
+		if(algorithm == null)
+		{
+			throw new InvalidConfigurationException("No algorithm set");
+		}
+		else if(problem == null)
+		{
+			throw new InvalidConfigurationException("No problem set");
+		}
+		else if(stopConditions.isEmpty())
+		{
+			throw new InvalidConfigurationException("No stop conditions set");
+		}
+		else if(runProbes.isEmpty())
+		{
+			throw new InvalidConfigurationException("No run probes set");
+		}
+
+		// replace all stop conditions
+		problem.clearStopConditions();
+		problem.addStopConditions(stopConditions);
+
+		// validate things
+		for(StopCondition s : stopConditions)
+		{
+			s.validateConfiguration();
+		}
+		algorithm.validateConfiguration();
+		problem.validateConfiguration();
+	}
+
+	/**
+	 * Called automatically before a run is executed to initialize all aspects of the run
+	 * @throws InitialisationException
+	 */
+	public void initialiseBeforeRun()
+		throws InitialisationException
+	{
+		// problem
+		problem.initialiseBeforeRun();
+		// algorithm
+		algorithm.initialiseBeforeRun(problem);
+		for(StopCondition s : stopConditions)
+		{
+			s.initialiseBeforeRun(problem, algorithm);
+		}
+		for(RunProbe r : runProbes)
+		{
+			r.initialiseBeforeRun(problem, algorithm);
+		}
+	}
+
+	/**
+	 * Called automatically after the run to ensure all un-needed resources are released
+	 * @throws InitialisationException
+	 */
+	public void cleanupAfterRun()
+		throws InitialisationException
+	{
+		// problem
+		problem.cleanupAfterRun();
+		// algorithm
+		algorithm.cleanupAfterRun(problem);
+
+		for(StopCondition s : stopConditions)
+		{
+			s.cleanupAfterRun(problem, algorithm);
+		}
+		for(RunProbe r : runProbes)
+		{
+			r.cleanupAfterRun(problem, algorithm);
+		}
+	}
+
+	/**
+	 * Executes the run including all required validation, initialization, and clean-up. Does
+	 * not return until the run stops (a stop condition is triggered)
+	 * @throws InvalidConfigurationException
+	 * @throws InitialisationException
+	 * @throws AlgorithmRunException
+	 * @throws SolutionEvaluationException
+	 */
+	public void executeAndWait()
+		throws InvalidConfigurationException, InitialisationException, AlgorithmRunException, SolutionEvaluationException
+	{
+		// validate everything
+		validateConfiguration();
+		// initialise everything before the run
+		initialiseBeforeRun();
+        try
+        {
+            // execute the algorithm
+            algorithm.executeAndWait(problem);
+        }
+        // ensure maintenance is always performed
+        finally
+        {
+        	cleanupAfterRun();
+        }
+	}
+
+	public Algorithm getAlgorithm()
+	{
+		return algorithm;
+	}
+
+	public Problem getProblem()
+	{
+		return problem;
+	}
+
+	public LinkedList<StopCondition> getStopConditions()
+	{
+		return stopConditions;
+	}
+
+	public LinkedList<RunProbe> getRunProbes()
+	{
+		return runProbes;
+	}
+
+	public RunProbe [] getRunProbeArray()
+	{
+		return runProbes.toArray(new RunProbe[runProbes.size()]);
+	}
+}
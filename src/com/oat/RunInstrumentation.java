@@ -0,0 +1,279 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.oat.utils.NanoHistogram;
+
+/**
+ * Description: Timing breakdown of a run, enabled on a problem with 
+ * {@link Problem#enableInstrumentation(RunInstrumentation)}. The problem records the time spent 
+ * checking solutions (checkSolutionForSafety), calculating scores (problemSpecificCost) and 
+ * dispatching evaluation events to listeners. Epoch algorithms record the time of each epoch 
+ * spent in the algorithm (creating and replacing solutions) and in evaluation, and the number of 
+ * solutions created. When not enabled the cost is a single field read for each evaluation.
+ * <br/>
+ * Durations are held in {@link NanoHistogram}s. Instances can be registered as an MBean.
+ *
+ * Date: 29/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class RunInstrumentation
+	implements RunInstrumentationMBean
+{
+	public final static String MBEAN_DOMAIN = "com.oat";
+	
+	protected final NanoHistogram safetyCheck;
+	protected final NanoHistogram cost;
+	protected final NanoHistogram dispatch;
+	protected final NanoHistogram epochAlgorithm;
+	protected final NanoHistogram epochEvaluation;
+	protected final AtomicLong solutionsCreated;
+	/**
+	 * Name when registered, otherwise null
+	 */
+	protected ObjectName mbeanName;
+	
+	
+	public RunInstrumentation()
+	{
+		safetyCheck = new NanoHistogram();
+		cost = new NanoHistogram();
+		dispatch = new NanoHistogram();
+		epochAlgorithm = new NanoHistogram();
+		epochEvaluation = new NanoHistogram();
+		solutionsCreated = new AtomicLong();
+	}
+	
+	public void recordSafetyCheck(long nanos)
+	{
+		safetyCheck.record(nanos);
+	}
+	
+	public void recordCost(long nanos)
+	{
+		cost.record(nanos);
+	}
+	
+	/**
+	 * Record the safety checks of a collection of solutions checked together, recorded as 
+	 * the mean for each solution
+	 * @param totalNanos
+	 * @param total
+	 */
+	public void recordSafetyChecks(long totalNanos, int total)
+	{
+		for (int i = 0; i < total; i++)
+		{
+			safetyCheck.record(totalNanos / total);
+		}
+	}
+	
+	/**
+	 * Record the scores of a collection of solutions calculated together, recorded as 
+	 * the mean for each solution
+	 * @param totalNanos
+	 * @param total
+	 */
+	public void recordCosts(long totalNanos, int total)
+	{
+		for (int i = 0; i < total; i++)
+		{
+			cost.record(totalNanos / total);
+		}
+	}
+	
+	public void recordDispatch(long nanos)
+	{
+		dispatch.record(nanos);
+	}
+	
+	/**
+	 * Record an epoch, or the initialisation of the run
+	 * @param algorithmNanos - time spent by the algorithm
+	 * @param evaluationNanos - time spent evaluating the solutions of the epoch
+	 * @param totalCreated - solutions created by the algorithm
+	 */
+	public void recordEpoch(long algorithmNanos, long evaluationNanos, int totalCreated)
+	{
+		epochAlgorithm.record(algorithmNanos);
+		epochEvaluation.record(evaluationNanos);
+		solutionsCreated.addAndGet(totalCreated);
+	}
+	
+	public NanoHistogram getSafetyCheckHistogram()
+	{
+		return safetyCheck;
+	}
+	
+	public NanoHistogram getCostHistogram()
+	{
+		return cost;
+	}
+	
+	public NanoHistogram getDispatchHistogram()
+	{
+		return dispatch;
+	}
+	
+	public NanoHistogram getEpochAlgorithmHistogram()
+	{
+		return epochAlgorithm;
+	}
+	
+	public NanoHistogram getEpochEvaluationHistogram()
+	{
+		return epochEvaluation;
+	}
+	
+	public long getEvaluations()
+	{
+		return cost.getCount();
+	}
+	
+	public double getMeanCostNanos()
+	{
+		return cost.getMeanNanos();
+	}
+	
+	public double getMeanSafetyCheckNanos()
+	{
+		return safetyCheck.getMeanNanos();
+	}
+	
+	public double getMeanDispatchNanos()
+	{
+		return dispatch.getMeanNanos();
+	}
+	
+	public long getEpochs()
+	{
+		return epochAlgorithm.getCount();
+	}
+	
+	public double getMeanEpochAlgorithmNanos()
+	{
+		return epochAlgorithm.getMeanNanos();
+	}
+	
+	public double getMeanEpochEvaluationNanos()
+	{
+		return epochEvaluation.getMeanNanos();
+	}
+	
+	public long getSolutionsCreated()
+	{
+		return solutionsCreated.get();
+	}
+	
+	/**
+	 * Fraction of the time of epochs spent in the algorithm rather than evaluation
+	 * @return - [0,1], or NaN if no epochs recorded
+	 */
+	public double getAlgorithmOverhead()
+	{
+		long algorithm = epochAlgorithm.getTotalNanos();
+		long total = algorithm + epochEvaluation.getTotalNanos();
+		return (total == 0) ? Double.NaN : ((double) algorithm / total);
+	}
+	
+	/**
+	 * Summary of all measurements, a line for each
+	 */
+	public String getReport()
+	{
+		StringBuffer b = new StringBuffer();
+		b.append("safetyCheck: " + safetyCheck + "\n");
+		b.append("cost: " + cost + "\n");
+		b.append("dispatch: " + dispatch + "\n");
+		b.append("epochAlgorithm: " + epochAlgorithm + "\n");
+		b.append("epochEvaluation: " + epochEvaluation + "\n");
+		b.append("solutionsCreated: " + getSolutionsCreated() + "\n");
+		b.append("algorithmOverhead: " + getAlgorithmOverhead());
+		return b.toString();
+	}
+	
+	public void reset()
+	{
+		safetyCheck.reset();
+		cost.reset();
+		dispatch.reset();
+		epochAlgorithm.reset();
+		epochEvaluation.reset();
+		solutionsCreated.set(0);
+	}
+	
+	/**
+	 * Register with the platform MBean server under the name com.oat:type=RunInstrumentation,name=...
+	 * @param name - identifies the run, such as the problem name
+	 * @return - whether or not the registration was successful, failure does not affect the run
+	 */
+	public synchronized boolean registerMBean(String name)
+	{
+		unregisterMBean();
+		try
+		{
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName n = new ObjectName(MBEAN_DOMAIN + ":type=RunInstrumentation,name=" + ObjectName.quote(name) + ",id=" + System.identityHashCode(this));
+			server.registerMBean(this, n);
+			mbeanName = n;
+			return true;
+		}
+		catch(Exception e)
+		{
+			// monitoring is not available, such as security restrictions
+			return false;
+		}
+	}
+	
+	public synchronized void unregisterMBean()
+	{
+		if(mbeanName == null)
+		{
+			return;
+		}
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+		}
+		catch(Exception e)
+		{
+			// already unregistered
+		}
+		mbeanName = null;
+	}
+	
+	public synchronized boolean isRegistered()
+	{
+		return mbeanName != null;
+	}
+}
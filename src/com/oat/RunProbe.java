@@ -19,6 +19,8 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
 */
 package com.oat;
 
+import com.oat.utils.BeanUtils;
+
 /**
  * Description: A generic probe for gathering information about a problem-algorithm run
  *  
@@ -29,11 +31,11 @@ package com.oat;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 16/11/2007	JBrownlee	Implements Populator to support per-run copies
  * </pre>
  */
 public abstract class RunProbe
-	implements Comparable<RunProbe>, UserFriendly
+	implements Comparable<RunProbe>, UserFriendly, Populator<RunProbe>
 {    
     /**
      * Provides access to the observation made during a run
@@ -89,4 +91,22 @@ public abstract class RunProbe
 	{
 		return getName().compareTo(o.getName());
 	}
+	
+	@Override
+	public void populateFromInstance(RunProbe other)
+	{
+		BeanUtils.beanPopulate(other, this);		
+	}
+
+	@Override
+	public void populateFromString(String s)
+	{		
+		BeanUtils.populateBeanFromString(s, this);
+	}
+
+	@Override
+	public String toPopulateString()
+	{
+		return BeanUtils.getBeanDetails(this);
+	}
 }
@@ -0,0 +1,45 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat;
+
+/**
+ * Description: An object interested in solution evaluation events on a problem, 
+ * notified once for each collection of solutions evaluated, rather than for each solution
+ *  
+ * Date: 17/11/2007<br/>
+ * @author Jason Brownlee 
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 
+ * </pre>
+ */
+public interface SolutionBatchEvaluationListener
+{
+    /**
+     * Event raised each time a collection of solutions is evaluated. 
+     * The array is only valid for the duration of the call. 
+     * @param evaluatedSolutions - the solutions evaluated, in evaluation order
+     * @param total - the number of solutions in the array that were evaluated
+     */
+    void solutionBatchEvaluatedEvent(Solution [] evaluatedSolutions, int total);
+}
@@ -35,6 +35,7 @@ import com.oat.utils.BeanUtils;
  * Change History
  * ----------------------------------------------------------------------------
  * 03/09/2007	JBrownlee	Reorganized internal structure to be more reusable and generic
+ * 17/11/2007	JBrownlee	Trigger time recorded as a primitive, Date created on request
  * 
  * </pre>
  *
@@ -47,9 +48,9 @@ public abstract class StopCondition
 	 */
 	protected volatile boolean triggered;
 	/**
-	 * The date time of the trigger, null if not triggered
+	 * The time of the trigger in milliseconds, only valid if triggered
 	 */
-	protected Date triggeredDateTime;		
+	protected volatile long triggeredTimeMillis;		
     
     @Override
     public String toString()
@@ -113,14 +114,24 @@ public abstract class StopCondition
     	// check stop condition
     	else if(mustStopInternal())    		
     	{
+    		triggeredTimeMillis = System.currentTimeMillis();
     		triggered = true;
-    		triggeredDateTime = new Date();
     		mustStop = true; 
     	}
     	
     	return mustStop;
     }    
     
+    /**
+     * The number of further evaluations that may be performed before the stop condition is triggered.
+     * Used to bound batches of solutions evaluated in parallel. Default is unbounded.
+     * @return - remaining evaluations, or Long.MAX_VALUE if not limited by evaluations
+     */
+    public long getRemainingEvaluations()
+    {
+    	return Long.MAX_VALUE;
+    }
+    
     /**
      * Resets the internal state of the stop condition
      * Should be ovveriden if such functionality is required.
@@ -128,7 +139,7 @@ public abstract class StopCondition
     public void reset()
     {
     	triggered = false;
-    	triggeredDateTime = null;
+    	triggeredTimeMillis = 0;
     }
     
     @Override
@@ -156,7 +167,7 @@ public abstract class StopCondition
 	 */
 	public Date getTriggeredDateTime()
 	{
-		return triggeredDateTime;
+		return triggered ? new Date(triggeredTimeMillis) : null;
 	}
 
 	@Override
@@ -27,6 +27,7 @@ import com.oat.EpochAlgorithm;
 import com.oat.InvalidConfigurationException;
 import com.oat.Problem;
 import com.oat.Solution;
+import com.oat.utils.RandomUtils;
 
 /**
  * Description: Generic random search 
@@ -39,7 +40,7 @@ import com.oat.Solution;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 04/12/2007	JBrownlee	Random stream created with the default generator
  * </pre>
  */
 public abstract class GenericRandomSearchAlgorithm<S extends Solution> extends EpochAlgorithm<S>
@@ -90,7 +91,7 @@ public abstract class GenericRandomSearchAlgorithm<S extends Solution> extends E
 	@Override
 	protected LinkedList<S> internalInitialiseBeforeRun(Problem problem)
 	{
-		rand = new Random(seed);
+		rand = RandomUtils.newRandom(seed);
 		LinkedList<S> pop = new LinkedList<S>();
 		for (int i = 0; i < epochSize; i++)
 		{
@@ -0,0 +1,95 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+/**
+ * Description: A microbenchmark of a single routine. Fixtures are prepared once by setup(), 
+ * run() then executes the routine the specified number of times and returns a value 
+ * derived from the results so the work cannot be optimised away by the compiler.
+ * Fixtures are seeded so results are comparable across releases.
+ *
+ * Date: 30/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public abstract class Benchmark
+{
+	/**
+	 * Seed used for all fixtures
+	 */
+	public final static long SEED = 1;
+	
+	/**
+	 * Total fixtures prepared by benchmarks that cycle through inputs, a power of two
+	 */
+	public final static int TOTAL_FIXTURES = 256;
+	
+	/**
+	 * @return - name of the benchmarked routine, for example cfo.cost
+	 */
+	public abstract String getName();
+	
+	/**
+	 * @return - parameters of the benchmark as key=value pairs separated by ';'
+	 */
+	public abstract String getParameters();
+	
+	/**
+	 * Prepare fixtures, called once before any executions
+	 * @throws Exception
+	 */
+	public abstract void setup() 
+		throws Exception;
+	
+	/**
+	 * Execute the benchmarked routine
+	 * @param operations - number of times to execute the routine
+	 * @return - value derived from the results
+	 * @throws Exception
+	 */
+	public abstract double run(int operations) 
+		throws Exception;
+	
+	/**
+	 * Release fixtures, called once after all executions
+	 */
+	public void tearDown()
+	{}
+	
+	/**
+	 * @return - unique identifier of the benchmark, name and parameters
+	 */
+	public String getId()
+	{
+		return getName() + "[" + getParameters() + "]";
+	}
+	
+	@Override
+	public String toString()
+	{
+		return getId();
+	}
+}
@@ -0,0 +1,184 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import java.text.DecimalFormat;
+
+import com.oat.utils.FileUtils;
+
+/**
+ * Description: Measurements of a benchmark, the time per operation of each measured iteration
+ * summarised as nanoseconds per operation. Stored as a CSV row.
+ *
+ * Date: 30/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class BenchmarkResult
+{
+	public final static String [] HEADER = {"name", "parameters", "iterations", "operations", "meanNanos", "stdevNanos", "minNanos", "maxNanos"};
+	
+	protected final String name;
+	protected final String parameters;
+	protected final int iterations;
+	protected final long operations;
+	protected final double meanNanos;
+	protected final double stdevNanos;
+	protected final double minNanos;
+	protected final double maxNanos;
+	
+	
+	public BenchmarkResult(String aName, String aParameters, int aIterations, long aOperations, double aMean, double aStdev, double aMin, double aMax)
+	{
+		name = aName;
+		parameters = aParameters;
+		iterations = aIterations;
+		operations = aOperations;
+		meanNanos = aMean;
+		stdevNanos = aStdev;
+		minNanos = aMin;
+		maxNanos = aMax;
+	}
+	
+	/**
+	 * Summarise the measured iterations of a benchmark
+	 * @param b - benchmark
+	 * @param nanosPerOperation - time per operation of each iteration
+	 * @param operations - operations per iteration
+	 * @return
+	 */
+	public static BenchmarkResult summarise(Benchmark b, double [] nanosPerOperation, long operations)
+	{
+		double sum = 0;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < nanosPerOperation.length; i++)
+		{
+			sum += nanosPerOperation[i];
+			min = Math.min(min, nanosPerOperation[i]);
+			max = Math.max(max, nanosPerOperation[i]);
+		}
+		double mean = sum / nanosPerOperation.length;
+		double sse = 0;
+		for (int i = 0; i < nanosPerOperation.length; i++)
+		{
+			double d = nanosPerOperation[i] - mean;
+			sse += d * d;
+		}
+		double stdev = (nanosPerOperation.length > 1) ? Math.sqrt(sse / (nanosPerOperation.length - 1)) : 0.0;
+		return new BenchmarkResult(b.getName(), b.getParameters(), nanosPerOperation.length, operations, mean, stdev, min, max);
+	}
+	
+	/**
+	 * @return - unique identifier of the benchmark, name and parameters
+	 */
+	public String getId()
+	{
+		return name + "[" + parameters + "]";
+	}
+	
+	/**
+	 * @return - mean operations per second
+	 */
+	public double getOperationsPerSecond()
+	{
+		return 1e9 / meanNanos;
+	}
+	
+	/**
+	 * @return - values in the order of the header
+	 */
+	public Object [] toRow()
+	{
+		return new Object[]{name, parameters, new Integer(iterations), new Long(operations), 
+				new Double(meanNanos), new Double(stdevNanos), new Double(minNanos), new Double(maxNanos)};
+	}
+	
+	/**
+	 * Parse a CSV row in the order of the header
+	 * @param line
+	 * @return
+	 * @throws NumberFormatException - invalid row
+	 */
+	public static BenchmarkResult parse(String line)
+	{
+		String [] v = FileUtils.parseCSVLine(line);
+		if(v.length != HEADER.length)
+		{
+			throw new NumberFormatException("Expected " + HEADER.length + " values, found " + v.length + ": " + line);
+		}
+		return new BenchmarkResult(v[0], v[1], Integer.parseInt(v[2]), Long.parseLong(v[3]), 
+				Double.parseDouble(v[4]), Double.parseDouble(v[5]), Double.parseDouble(v[6]), Double.parseDouble(v[7]));
+	}
+	
+	@Override
+	public String toString()
+	{
+		DecimalFormat f = (DecimalFormat) DecimalFormat.getInstance();
+		f.setMaximumFractionDigits(2);
+		return getId() + " " + f.format(meanNanos) + " ns/op (+/- " + f.format(stdevNanos) + ")";
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public String getParameters()
+	{
+		return parameters;
+	}
+
+	public int getIterations()
+	{
+		return iterations;
+	}
+
+	public long getOperations()
+	{
+		return operations;
+	}
+
+	public double getMeanNanos()
+	{
+		return meanNanos;
+	}
+
+	public double getStdevNanos()
+	{
+		return stdevNanos;
+	}
+
+	public double getMinNanos()
+	{
+		return minNanos;
+	}
+
+	public double getMaxNanos()
+	{
+		return maxNanos;
+	}
+}
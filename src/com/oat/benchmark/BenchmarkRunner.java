@@ -0,0 +1,151 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+/**
+ * Description: Executes benchmarks. The operations per iteration are calibrated so that 
+ * each iteration takes roughly the iteration time, then a number of warmup iterations 
+ * (allowing the JIT to compile the routine) are discarded before the measured iterations.
+ *
+ * Date: 30/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class BenchmarkRunner
+{
+	public final static int DEFAULT_WARMUP_ITERATIONS = 5;
+	public final static int DEFAULT_MEASURED_ITERATIONS = 10;
+	public final static long DEFAULT_ITERATION_MILLIS = 200;
+	
+	protected final int warmupIterations;
+	protected final int measuredIterations;
+	protected final long iterationNanos;
+	
+	/**
+	 * Consumes the results of each run
+	 */
+	protected volatile double sink;
+	
+	
+	public BenchmarkRunner()
+	{
+		this(DEFAULT_WARMUP_ITERATIONS, DEFAULT_MEASURED_ITERATIONS, DEFAULT_ITERATION_MILLIS);
+	}
+	
+	public BenchmarkRunner(int aWarmupIterations, int aMeasuredIterations, long aIterationMillis)
+	{
+		if(aWarmupIterations < 0 || aMeasuredIterations < 1 || aIterationMillis < 1)
+		{
+			throw new IllegalArgumentException("Invalid settings, warmup " + aWarmupIterations + 
+					", measured " + aMeasuredIterations + ", iteration millis " + aIterationMillis);
+		}
+		warmupIterations = aWarmupIterations;
+		measuredIterations = aMeasuredIterations;
+		iterationNanos = aIterationMillis * 1000000L;
+	}
+	
+	/**
+	 * Setup, calibrate, warmup, measure and tear down the benchmark
+	 * @param b
+	 * @return
+	 * @throws Exception - failure of the benchmarked routine
+	 */
+	public BenchmarkResult execute(Benchmark b)
+		throws Exception
+	{
+		b.setup();
+		try
+		{
+			int operations = calibrate(b);
+			for (int i = 0; i < warmupIterations; i++)
+			{
+				time(b, operations);
+			}
+			double [] nanosPerOperation = new double[measuredIterations];
+			for (int i = 0; i < measuredIterations; i++)
+			{
+				nanosPerOperation[i] = (double) time(b, operations) / operations;
+			}
+			return BenchmarkResult.summarise(b, nanosPerOperation, operations);
+		}
+		finally
+		{
+			b.tearDown();
+		}
+	}
+	
+	/**
+	 * Double the operations until a run takes at least a tenth of the iteration time, 
+	 * then scale to the iteration time
+	 * @param b
+	 * @return - operations per iteration
+	 * @throws Exception
+	 */
+	protected int calibrate(Benchmark b)
+		throws Exception
+	{
+		int operations = 1;
+		long nanos = time(b, operations);
+		while(nanos < iterationNanos / 10 && operations < (Integer.MAX_VALUE / 2))
+		{
+			operations *= 2;
+			nanos = time(b, operations);
+		}
+		double scaled = (double) operations * iterationNanos / Math.max(nanos, 1);
+		return (int) Math.max(1, Math.min(Integer.MAX_VALUE, scaled));
+	}
+	
+	/**
+	 * @param b
+	 * @param operations
+	 * @return - elapsed nanoseconds
+	 * @throws Exception
+	 */
+	protected long time(Benchmark b, int operations)
+		throws Exception
+	{
+		long start = System.nanoTime();
+		double v = b.run(operations);
+		long elapsed = System.nanoTime() - start;
+		sink += v;
+		return elapsed;
+	}
+
+	public int getWarmupIterations()
+	{
+		return warmupIterations;
+	}
+
+	public int getMeasuredIterations()
+	{
+		return measuredIterations;
+	}
+
+	public long getIterationMillis()
+	{
+		return iterationNanos / 1000000L;
+	}
+}
@@ -0,0 +1,357 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+
+import com.oat.Version;
+import com.oat.domains.cfo.CFODomain;
+import com.oat.domains.cfo.CFOProblem;
+import com.oat.domains.cfo.algorithms.swarm.ParticleSwarmOptimization;
+import com.oat.domains.psp.PSPDomain;
+import com.oat.utils.BinaryDecodeMode;
+import com.oat.utils.FileUtils;
+import com.oat.utils.RandomGenerator;
+
+/**
+ * Description: The microbenchmark suite covering problem evaluation, decoding and 
+ * operators. Results are written as CSV (preceded by '#' comment lines describing the 
+ * release and environment) so that result files from different releases can be compared 
+ * to detect regressions.
+ * <br/>
+ * Usage:<br/>
+ * BenchmarkSuite outputFile [nameFilter]<br/>
+ * BenchmarkSuite -compare baselineFile currentFile [tolerance]
+ *
+ * Date: 30/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 01/12/2007	JBrownlee	Environment description shared with the throughput harness
+ * 03/12/2007	JBrownlee	Pipelined batch evaluation of the Huygens problem
+ * 04/12/2007	JBrownlee	Random number generators
+ * 05/12/2007	JBrownlee	Added the mutation kernel benchmarks
+ * 06/12/2007	JBrownlee	Added the selection kernel benchmarks
+ * 07/12/2007	JBrownlee	Added the differential evolution benchmarks
+ * 08/12/2007	JBrownlee	Added the particle swarm neighbourhood benchmarks
+ * </pre>
+ */
+public class BenchmarkSuite
+{
+	public final static String COMMENT = "#";
+	
+	/**
+	 * Default fraction by which the mean time may increase before it is reported as a regression
+	 */
+	public final static double DEFAULT_TOLERANCE = 0.10;
+	
+	/**
+	 * Continuous function suites benchmarked
+	 */
+	public final static String [] CFO_SUITES = {"com.oat.domains.cfo.problems.yao.", "com.oat.domains.cfo.problems.geatbx."};
+	
+	
+	/**
+	 * Prepare all benchmarks of the suite
+	 * @return
+	 * @throws Exception - unable to load a problem list
+	 */
+	public static LinkedList<Benchmark> loadBenchmarks()
+		throws Exception
+	{
+		LinkedList<Benchmark> list = new LinkedList<Benchmark>();
+		
+		// function evaluation
+		String [] classes = FileUtils.loadClassList(CFODomain.PROBLEM_LIST_FILE);
+		for (int i = 0; i < classes.length; i++)
+		{
+			for (int j = 0; j < CFO_SUITES.length; j++)
+			{
+				if(classes[i].startsWith(CFO_SUITES[j]))
+				{
+					Class<? extends CFOProblem> c = Class.forName(classes[i]).asSubclass(CFOProblem.class);
+					list.add(new CFOCostBenchmark(c, false));
+					list.add(new CFOCostBenchmark(c, true));
+				}
+			}
+		}
+		// decoding
+		for(BinaryDecodeMode mode : BinaryDecodeMode.values())
+		{
+			list.add(new DecodeBenchmark(mode, false, 2, 32));
+			list.add(new DecodeBenchmark(mode, true, 2, 32));
+			list.add(new DecodeBenchmark(mode, false, 30, 16));
+			list.add(new DecodeBenchmark(mode, true, 30, 16));
+		}
+		// tour construction, ant system and ant colony system
+		list.add(new TSPConstructionBenchmark(51, -1));
+		list.add(new TSPConstructionBenchmark(51, 0.9));
+		list.add(new TSPConstructionBenchmark(200, -1));
+		// lattice conformation of the standard sequences
+		String [] sequences = FileUtils.loadClassList(PSPDomain.PROBLEM_LIST_FILE);
+		for (int i = 0; i < sequences.length; i++)
+		{
+			list.add(new PSPLatticeBenchmark(sequences[i]));
+		}
+		// conflicts, sparse and dense graphs
+		list.add(new GCPPenaltyBenchmark(250, 0.1, 10));
+		list.add(new GCPPenaltyBenchmark(250, 0.5, 30));
+		// replacement
+		for(ReplacementBenchmark.Routine r : ReplacementBenchmark.Routine.values())
+		{
+			list.add(new ReplacementBenchmark(r, 50));
+			list.add(new ReplacementBenchmark(r, 500));
+		}
+		// differential evolution on a high-dimensional function
+		list.add(new DifferentialEvolutionBenchmark(1, 100, 100));
+		list.add(new DifferentialEvolutionBenchmark(4, 100, 100));
+		list.add(new DifferentialEvolutionBenchmark(1, 1000, 100));
+		list.add(new DifferentialEvolutionBenchmark(4, 1000, 100));
+		// particle swarm neighbourhoods
+		for(ParticleSwarmOptimization.Topology t : ParticleSwarmOptimization.Topology.values())
+		{
+			list.add(new PSONeighbourhoodBenchmark(t, 1000));
+			list.add(new PSONeighbourhoodBenchmark(t, 10000));
+		}
+		// selection
+		for(SelectionBenchmark.Scheme s : SelectionBenchmark.Scheme.values())
+		{
+			list.add(new SelectionBenchmark(s, 100));
+			list.add(new SelectionBenchmark(s, 1000));
+		}
+		// random numbers
+		for(RandomGenerator g : RandomGenerator.values())
+		{
+			for(RandomBenchmark.Draw d : RandomBenchmark.Draw.values())
+			{
+				list.add(new RandomBenchmark(g, d));
+			}
+		}
+		// mutation kernels, one mutation per genotype
+		for(MutationBenchmark.Genotype g : MutationBenchmark.Genotype.values())
+		{
+			for(MutationBenchmark.Kernel k : MutationBenchmark.Kernel.values())
+			{
+				list.add(new MutationBenchmark(k, g, 100));
+				list.add(new MutationBenchmark(k, g, 10000));
+			}
+		}
+		// remote evaluation, stand-in server with a simulated round trip
+		list.add(new HBSPipelineBenchmark(1, 2, 4000));
+		list.add(new HBSPipelineBenchmark(4, 2, 4000));
+		
+		return list;
+	}
+	
+	/**
+	 * Execute the benchmarks whose identifier contains the filter
+	 * @param runner
+	 * @param benchmarks
+	 * @param filter - substring of identifiers to run, null for all
+	 * @param log - progress, may be null
+	 * @return
+	 * @throws Exception - failure of a benchmark
+	 */
+	public static LinkedList<BenchmarkResult> execute(BenchmarkRunner runner, LinkedList<Benchmark> benchmarks, String filter, PrintStream log)
+		throws Exception
+	{
+		LinkedList<BenchmarkResult> results = new LinkedList<BenchmarkResult>();
+		for(Benchmark b : benchmarks)
+		{
+			if(filter != null && b.getId().indexOf(filter) == -1)
+			{
+				continue;
+			}
+			try
+			{
+				BenchmarkResult r = runner.execute(b);
+				results.add(r);
+				if(log != null)
+				{
+					log.println(r);
+				}
+			}
+			catch(Exception e)
+			{
+				throw new Exception("Benchmark " + b.getId() + " failed: " + e.getMessage(), e);
+			}
+		}
+		return results;
+	}
+	
+	/**
+	 * Write results as CSV preceded by comments describing the release, environment and settings
+	 * @param results
+	 * @param runner
+	 * @param file
+	 * @throws Exception
+	 */
+	public static void writeResults(LinkedList<BenchmarkResult> results, BenchmarkRunner runner, File file)
+		throws Exception
+	{
+		StringBuffer b = new StringBuffer(1024);
+		b.append(describeEnvironment());
+		b.append(COMMENT + " warmup=" + runner.getWarmupIterations() + ", measured=" + runner.getMeasuredIterations() + 
+				", iterationMillis=" + runner.getIterationMillis() + "\n");
+		Object [][] rows = new Object[results.size() + 1][];
+		rows[0] = BenchmarkResult.HEADER;
+		int i = 1;
+		for(BenchmarkResult r : results)
+		{
+			rows[i++] = r.toRow();
+		}
+		b.append(FileUtils.matrixToCVSString(rows));
+		b.append("\n");
+		FileUtils.writeToFile(b.toString(), file);
+	}
+	
+	/**
+	 * @return - comment lines describing the release and the environment
+	 */
+	public static String describeEnvironment()
+	{
+		return COMMENT + " " + Version.NAME_SHORT + " " + Version.VERSION + " benchmarks, " + new Date() + "\n" + 
+			COMMENT + " java=" + System.getProperty("java.version") + ", vm=" + System.getProperty("java.vm.name") + 
+				", os=" + System.getProperty("os.name") + " " + System.getProperty("os.arch") + 
+				", processors=" + Runtime.getRuntime().availableProcessors() + 
+				", maxHeap=" + Runtime.getRuntime().maxMemory() + "\n";
+	}
+	
+	/**
+	 * Load results written by writeResults()
+	 * @param file
+	 * @return
+	 * @throws Exception
+	 */
+	public static LinkedList<BenchmarkResult> loadResults(File file)
+		throws Exception
+	{
+		String data = FileUtils.loadFile(file);
+		LinkedList<BenchmarkResult> results = new LinkedList<BenchmarkResult>();
+		String [] lines = data.split("\n");
+		boolean header = true;
+		for (int i = 0; i < lines.length; i++)
+		{
+			String line = lines[i].trim();
+			if(line.length() == 0 || line.startsWith(COMMENT))
+			{
+				continue;
+			}
+			if(header)
+			{
+				header = false; // column names
+				continue;
+			}
+			try
+			{
+				results.add(BenchmarkResult.parse(line));
+			}
+			catch(NumberFormatException e)
+			{
+				throw new Exception("Invalid benchmark result in " + file + " line " + (i+1) + ": " + e.getMessage(), e);
+			}
+		}
+		return results;
+	}
+	
+	/**
+	 * Compare the mean time of each benchmark in the current results against the baseline, 
+	 * benchmarks present in only one set of results are ignored
+	 * @param baseline
+	 * @param current
+	 * @param tolerance - fraction the mean may increase before it is reported as a regression
+	 * @param log - report of the comparison, may be null
+	 * @return - identifiers of benchmarks that regressed
+	 */
+	public static LinkedList<String> compare(LinkedList<BenchmarkResult> baseline, LinkedList<BenchmarkResult> current, double tolerance, PrintStream log)
+	{
+		HashMap<String, BenchmarkResult> map = new HashMap<String, BenchmarkResult>();
+		for(BenchmarkResult r : baseline)
+		{
+			map.put(r.getId(), r);
+		}
+		LinkedList<String> regressions = new LinkedList<String>();
+		for(BenchmarkResult r : current)
+		{
+			BenchmarkResult b = map.get(r.getId());
+			if(b == null)
+			{
+				continue;
+			}
+			double ratio = r.getMeanNanos() / b.getMeanNanos();
+			boolean regressed = ratio > (1.0 + tolerance);
+			if(regressed)
+			{
+				regressions.add(r.getId());
+			}
+			if(log != null)
+			{
+				log.println((regressed ? "REGRESSION " : "") + r.getId() + " " + b.getMeanNanos() + " -> " + r.getMeanNanos() + " ns/op, ratio " + ratio);
+			}
+		}
+		return regressions;
+	}
+	
+	
+	public static void main(String[] args)
+	{
+		try
+		{
+			if(args.length >= 3 && args[0].equals("-compare"))
+			{
+				double tolerance = (args.length > 3) ? Double.parseDouble(args[3]) : DEFAULT_TOLERANCE;
+				LinkedList<String> regressions = compare(loadResults(new File(args[1])), loadResults(new File(args[2])), tolerance, System.out);
+				System.out.println(">" + regressions.size() + " regressions with tolerance " + tolerance);
+				System.exit(regressions.isEmpty() ? 0 : 1);
+			}
+			else if(args.length == 1 || args.length == 2)
+			{
+				BenchmarkRunner runner = new BenchmarkRunner();
+				LinkedList<BenchmarkResult> results = execute(runner, loadBenchmarks(), (args.length > 1) ? args[1] : null, System.out);
+				File file = new File(args[0]);
+				if(file.getParentFile() != null)
+				{
+					file.getParentFile().mkdirs();
+				}
+				writeResults(results, runner, file);
+				System.out.println(">Wrote " + results.size() + " results to " + file);
+			}
+			else
+			{
+				System.err.println("Usage: " + BenchmarkSuite.class.getName() + " outputFile [nameFilter]");
+				System.err.println("       " + BenchmarkSuite.class.getName() + " -compare baselineFile currentFile [tolerance]");
+				System.exit(1);
+			}
+		}
+		catch(Exception e)
+		{
+			System.err.println("Error executing benchmarks: " + e.getMessage());
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+}
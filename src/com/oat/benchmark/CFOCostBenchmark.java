@@ -0,0 +1,116 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import java.util.Random;
+
+import com.oat.domains.cfo.CFOProblem;
+import com.oat.domains.cfo.CFOSolution;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Benchmark of the evaluation of a continuous function optimisation problem 
+ * at random points in its domain. Either the complete cost() path (solution creation, 
+ * safety check, cost function and bookkeeping) or the function alone.
+ *
+ * Date: 30/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class CFOCostBenchmark extends Benchmark
+{
+	protected final Class<? extends CFOProblem> problemClass;
+	/**
+	 * Whether or not the function is evaluated directly, bypassing cost()
+	 */
+	protected final boolean direct;
+	
+	protected CFOProblem problem;
+	protected double [][] coords;
+	
+	
+	public CFOCostBenchmark(Class<? extends CFOProblem> aProblemClass, boolean aDirect)
+	{
+		problemClass = aProblemClass;
+		direct = aDirect;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return direct ? "cfo.function" : "cfo.cost";
+	}
+
+	@Override
+	public String getParameters()
+	{
+		return "problem=" + problemClass.getName();
+	}
+
+	@Override
+	public void setup() 
+		throws Exception
+	{
+		problem = problemClass.getDeclaredConstructor().newInstance();
+		problem.initialiseBeforeRun();
+		Random r = new Random(SEED);
+		coords = new double[TOTAL_FIXTURES][];
+		for (int i = 0; i < coords.length; i++)
+		{
+			coords[i] = RandomUtils.randomPointInRange(r, problem.getMinmax());
+		}
+	}
+
+	@Override
+	public double run(int operations)
+	{
+		double sum = 0;
+		if(direct)
+		{
+			for (int i = 0; i < operations; i++)
+			{
+				sum += problem.directFunctionEvaluation(coords[i & (TOTAL_FIXTURES-1)]);
+			}
+		}
+		else
+		{
+			for (int i = 0; i < operations; i++)
+			{
+				CFOSolution s = new CFOSolution(coords[i & (TOTAL_FIXTURES-1)]);
+				problem.cost(s);
+				sum += s.getScore();
+			}
+		}
+		return sum;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		problem = null;
+		coords = null;
+	}
+}
@@ -0,0 +1,114 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import java.util.Random;
+
+import com.oat.utils.BinaryDecodeMode;
+import com.oat.utils.BitStringUtils;
+import com.oat.utils.PackedBitString;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Benchmark of the decoding of random bit strings into real values 
+ * in binary or gray code, from boolean arrays or packed bit strings
+ *
+ * Date: 30/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class DecodeBenchmark extends Benchmark
+{
+	public final static double MIN = -5.12, MAX = +5.12;
+	
+	protected final BinaryDecodeMode mode;
+	protected final boolean packed;
+	protected final int dimensions;
+	protected final int bitsPerDimension;
+	
+	protected double [][] minmax;
+	protected boolean [][] strings;
+	protected PackedBitString [] packedStrings;
+	
+	
+	public DecodeBenchmark(BinaryDecodeMode aMode, boolean aPacked, int aDimensions, int aBitsPerDimension)
+	{
+		mode = aMode;
+		packed = aPacked;
+		dimensions = aDimensions;
+		bitsPerDimension = aBitsPerDimension;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return "bitstring.decode";
+	}
+
+	@Override
+	public String getParameters()
+	{
+		return "mode=" + mode + ";packed=" + packed + ";dimensions=" + dimensions + ";bits=" + bitsPerDimension;
+	}
+
+	@Override
+	public void setup()
+	{
+		minmax = new double[dimensions][];
+		for (int i = 0; i < minmax.length; i++)
+		{
+			minmax[i] = new double[]{MIN, MAX};
+		}
+		Random r = new Random(SEED);
+		strings = new boolean[TOTAL_FIXTURES][];
+		packedStrings = new PackedBitString[TOTAL_FIXTURES];
+		for (int i = 0; i < strings.length; i++)
+		{
+			strings[i] = RandomUtils.randomBitString(r, dimensions, bitsPerDimension);
+			packedStrings[i] = new PackedBitString(strings[i]);
+		}
+	}
+
+	@Override
+	public double run(int operations)
+	{
+		double sum = 0;
+		for (int i = 0; i < operations; i++)
+		{
+			int j = i & (TOTAL_FIXTURES-1);
+			double [] v = packed ? BitStringUtils.decode(mode, packedStrings[j], minmax) : BitStringUtils.decode(mode, strings[j], minmax);
+			sum += v[0];
+		}
+		return sum;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		strings = null;
+		packedStrings = null;
+	}
+}
@@ -0,0 +1,109 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import com.oat.AlgorithmExecutor;
+import com.oat.domains.cfo.CFOProblem;
+import com.oat.domains.cfo.algorithms.evolution.DifferentialEvolution;
+import com.oat.domains.cfo.problems.yao.GeneralizedRastriginsFunction;
+import com.oat.probes.BestSolutionProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+
+/**
+ * Description: Benchmark of Differential Evolution on a high-dimensional function, 
+ * each operation is a run of GENERATIONS generations
+ *
+ * Date: 07/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class DifferentialEvolutionBenchmark extends Benchmark
+{
+	public final static int GENERATIONS = 20;
+	
+	protected final int totalThreads;
+	protected final int dimensions;
+	protected final int populationSize;
+	
+	protected CFOProblem problem;
+	protected DifferentialEvolution algorithm;
+	
+	
+	public DifferentialEvolutionBenchmark(int aTotalThreads, int aDimensions, int aPopulationSize)
+	{
+		totalThreads = aTotalThreads;
+		dimensions = aDimensions;
+		populationSize = aPopulationSize;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return "cfo.de";
+	}
+
+	@Override
+	public String getParameters()
+	{
+		return "threads=" + totalThreads + ";dimensions=" + dimensions + ";popsize=" + populationSize;
+	}
+
+	@Override
+	public void setup() 
+		throws Exception
+	{
+		problem = new GeneralizedRastriginsFunction();
+		problem.setDimensions(dimensions);
+		algorithm = new DifferentialEvolution();
+		algorithm.setSeed(SEED);
+		algorithm.setPopsize(populationSize);
+		algorithm.setTotalThreads(totalThreads);
+	}
+
+	@Override
+	public double run(int operations)
+		throws Exception
+	{
+		double sum = 0;
+		for (int i = 0; i < operations; i++)
+		{
+			EvaluationsStopCondition stop = new EvaluationsStopCondition(populationSize * (GENERATIONS+1));
+			BestSolutionProbe probe = new BestSolutionProbe();
+			AlgorithmExecutor executor = new AlgorithmExecutor(problem, algorithm, stop);
+			executor.addRunProbe(probe);
+			executor.executeAndWait();
+			sum += probe.getBestSolution().getScore();
+		}
+		return sum;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		problem = null;
+		algorithm = null;
+	}
+}
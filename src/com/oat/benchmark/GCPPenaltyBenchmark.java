@@ -0,0 +1,146 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import java.util.Random;
+
+import com.oat.domains.gcp.GCPSolution;
+import com.oat.domains.gcp.GCProblem;
+
+/**
+ * Description: Benchmark of counting the conflicting edges of random colourings 
+ * of a random graph
+ *
+ * Date: 30/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class GCPPenaltyBenchmark extends Benchmark
+{
+	/**
+	 * A graph with the specified edge density, generated rather than loaded
+	 */
+	public static class RandomGraphProblem extends GCProblem
+	{
+		protected final double density;
+		protected final Random rand;
+		
+		public RandomGraphProblem(int aTotalNodes, double aDensity, Random r)
+		{
+			totalNodes = aTotalNodes;
+			density = aDensity;
+			rand = r;
+			problemFilename = "random" + aTotalNodes + "-" + aDensity;
+		}
+		
+		@Override
+		protected void loadProblem()
+		{
+			int [][] edges = new int[totalNodes * (totalNodes - 1) / 2][];
+			int total = 0;
+			for (int i = 1; i <= totalNodes; i++)
+			{
+				for (int j = i + 1; j <= totalNodes; j++)
+				{
+					if(rand.nextDouble() < density)
+					{
+						edges[total++] = new int[]{i, j};
+					}
+				}
+			}
+			edgeList = new int[total][];
+			System.arraycopy(edges, 0, edgeList, 0, total);
+			totalEdges = total;
+			formattedComment = "";
+			name = problemFilename;
+			isLoaded = true;
+		}
+	}
+	
+	protected final int totalNodes;
+	protected final double density;
+	protected final int totalColours;
+	
+	protected GCProblem problem;
+	protected GCPSolution [] solutions;
+	
+	
+	public GCPPenaltyBenchmark(int aTotalNodes, double aDensity, int aTotalColours)
+	{
+		totalNodes = aTotalNodes;
+		density = aDensity;
+		totalColours = aTotalColours;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return "gcp.penalties";
+	}
+
+	@Override
+	public String getParameters()
+	{
+		return "nodes=" + totalNodes + ";density=" + density + ";colours=" + totalColours;
+	}
+
+	@Override
+	public void setup() 
+		throws Exception
+	{
+		Random r = new Random(SEED);
+		problem = new RandomGraphProblem(totalNodes, density, r);
+		problem.initialiseBeforeRun();
+		solutions = new GCPSolution[TOTAL_FIXTURES];
+		for (int i = 0; i < solutions.length; i++)
+		{
+			int [] colours = new int[totalNodes];
+			for (int j = 0; j < colours.length; j++)
+			{
+				colours[j] = r.nextInt(totalColours) + 1;
+			}
+			solutions[i] = new GCPSolution(colours);
+		}
+	}
+
+	@Override
+	public double run(int operations)
+	{
+		double sum = 0;
+		for (int i = 0; i < operations; i++)
+		{
+			sum += problem.calculatePenalities(solutions[i & (TOTAL_FIXTURES-1)]);
+		}
+		return sum;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		problem = null;
+		solutions = null;
+	}
+}
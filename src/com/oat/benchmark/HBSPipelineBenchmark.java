@@ -0,0 +1,131 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+import com.oat.InitialisationException;
+import com.oat.domains.cfo.CFOSolution;
+import com.oat.domains.hbs.LocalHuygensProblem;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Benchmark of the batch evaluation of a population by the Huygens problem 
+ * against the local stand-in server with a simulated round-trip latency, a measure of 
+ * the benefit of pipelining requests for populations larger than a single request
+ *
+ * Date: 03/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class HBSPipelineBenchmark extends Benchmark
+{
+	/**
+	 * Populations prepared, populations are large
+	 */
+	public final static int TOTAL_POPULATIONS = 8;
+	
+	protected final int pipelineDepth;
+	protected final long latency;
+	protected final int populationSize;
+	
+	protected LocalHuygensProblem problem;
+	protected double [][][] points;
+	
+	
+	public HBSPipelineBenchmark(int aPipelineDepth, long aLatency, int aPopulationSize)
+	{
+		pipelineDepth = aPipelineDepth;
+		latency = aLatency;
+		populationSize = aPopulationSize;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return "hbs.batch";
+	}
+
+	@Override
+	public String getParameters()
+	{
+		return "depth=" + pipelineDepth + ";latency=" + latency + ";popsize=" + populationSize;
+	}
+
+	@Override
+	public void setup() 
+		throws Exception
+	{
+		problem = new LocalHuygensProblem();
+		problem.setPipelineDepth(pipelineDepth);
+		problem.setLatency(latency);
+		problem.validateConfiguration();
+		problem.initialiseBeforeRun();
+		Random rand = new Random(SEED);
+		points = new double[TOTAL_POPULATIONS][populationSize][];
+		for (int i = 0; i < points.length; i++)
+		{
+			for (int j = 0; j < populationSize; j++)
+			{
+				points[i][j] = RandomUtils.randomPointInRange(rand, problem.getMinmax());
+			}
+		}
+	}
+
+	@Override
+	public double run(int operations)
+	{
+		double sum = 0;
+		for (int i = 0; i < operations; i++)
+		{
+			double [][] p = points[i % TOTAL_POPULATIONS];
+			LinkedList<CFOSolution> pop = new LinkedList<CFOSolution>();
+			for (int j = 0; j < p.length; j++)
+			{
+				pop.add(new CFOSolution(p[j]));
+			}
+			problem.cost(pop);
+			sum += pop.getFirst().getScore();
+		}
+		return sum;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		try
+		{
+			problem.cleanupAfterRun();
+		}
+		catch(InitialisationException e)
+		{
+			// nothing to release
+		}
+		problem = null;
+		points = null;
+	}
+}
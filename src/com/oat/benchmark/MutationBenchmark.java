@@ -0,0 +1,166 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import java.util.Random;
+
+import com.oat.utils.ArrayUtils;
+import com.oat.utils.MutationUtils;
+import com.oat.utils.PackedBitString;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Benchmark of mutating a genotype with a per-position (dense) test compared to 
+ * the geometric skip (sparse) kernels in MutationUtils, at a rate of one mutation per genotype
+ *
+ * Date: 05/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class MutationBenchmark extends Benchmark
+{
+	public static enum Kernel {Dense, Sparse}
+	public static enum Genotype {BitString, PackedBitString, Permutation}
+	
+	protected final Kernel kernel;
+	protected final Genotype genotype;
+	protected final int length;
+	protected final double probability;
+	
+	protected Random rand;
+	protected boolean [] bits;
+	protected PackedBitString packed;
+	protected int [] permutation;
+	
+	
+	public MutationBenchmark(Kernel aKernel, Genotype aGenotype, int aLength)
+	{
+		kernel = aKernel;
+		genotype = aGenotype;
+		length = aLength;
+		probability = 1.0 / aLength;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return "mutation";
+	}
+
+	@Override
+	public String getParameters()
+	{
+		return "kernel=" + kernel + ";genotype=" + genotype + ";length=" + length;
+	}
+
+	@Override
+	public void setup()
+	{
+		rand = RandomUtils.newRandom(SEED);
+		bits = RandomUtils.randomBitString(rand, length);
+		packed = new PackedBitString(bits);
+		permutation = RandomUtils.generateRandomVector(length, rand);
+	}
+
+	@Override
+	public double run(int operations)
+	{
+		double sum = 0;
+		for (int op = 0; op < operations; op++)
+		{
+			switch(genotype)
+			{
+				case BitString:
+				{
+					if(kernel == Kernel.Sparse)
+					{
+						MutationUtils.binaryMutate(bits, rand, probability);
+					}
+					else
+					{
+						for (int i = 0; i < bits.length; i++)
+						{
+							if(rand.nextDouble() < probability)
+							{
+								bits[i] = !bits[i];
+							}
+						}
+					}
+					sum += bits[op % length] ? 1 : 0;
+					break;
+				}
+				case PackedBitString:
+				{
+					if(kernel == Kernel.Sparse)
+					{
+						MutationUtils.binaryMutate(packed, rand, probability);
+					}
+					else
+					{
+						for (int i = 0; i < length; i++)
+						{
+							if(rand.nextDouble() < probability)
+							{
+								packed.flip(i);
+							}
+						}
+					}
+					sum += packed.get(op % length) ? 1 : 0;
+					break;
+				}
+				case Permutation:
+				{
+					if(kernel == Kernel.Sparse)
+					{
+						MutationUtils.mutatePermutation(permutation, rand, probability);
+					}
+					else
+					{
+						for (int i = 0; i < permutation.length; i++)
+						{
+							if(rand.nextDouble() <= probability)
+							{
+								ArrayUtils.swap(i, rand.nextInt(permutation.length), permutation);
+							}
+						}
+					}
+					sum += permutation[op % length];
+					break;
+				}
+			}
+		}
+		return sum;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		rand = null;
+		bits = null;
+		packed = null;
+		permutation = null;
+	}
+}
@@ -0,0 +1,177 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import com.oat.domains.psp.PSPProblem;
+import com.oat.domains.psp.PSPUtils;
+
+/**
+ * Description: Benchmark of the conversion of valid (self avoiding) relative permutations 
+ * of a protein sequence into lattice conformations
+ *
+ * Date: 30/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class PSPLatticeBenchmark extends Benchmark
+{
+	/**
+	 * Moves in clockwise order: north, east, south, west
+	 */
+	protected final static int [][] MOVES = {{0,-1}, {1,0}, {0,1}, {-1,0}};
+	
+	protected final String sequence;
+	
+	protected boolean [] dataset;
+	protected byte [][] permutations;
+	
+	
+	public PSPLatticeBenchmark(String aSequence)
+	{
+		sequence = aSequence;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return "psp.relativeToLattice";
+	}
+
+	@Override
+	public String getParameters()
+	{
+		return "length=" + sequence.length();
+	}
+
+	@Override
+	public void setup() 
+		throws Exception
+	{
+		dataset = PSPProblem.stringDatasetToBoolean(sequence);
+		Random r = new Random(SEED);
+		permutations = new byte[TOTAL_FIXTURES][];
+		for (int i = 0; i < permutations.length; i++)
+		{
+			permutations[i] = randomSelfAvoidingPermutation(dataset.length - 1, r);
+			// confirm it is valid
+			PSPUtils.relativePermutationToLattice(permutations[i], dataset);
+		}
+	}
+	
+	/**
+	 * Grow a random self avoiding walk of relative moves, restarting if the walk is trapped
+	 * @param length
+	 * @param r
+	 * @return
+	 */
+	public final static byte [] randomSelfAvoidingPermutation(int length, Random r)
+	{
+		byte [] perm = new byte[length];
+		HashSet<Long> visited = new HashSet<Long>();
+		int [] options = new int[3];
+		
+		while(true)
+		{
+			visited.clear();
+			int x = 0, y = 0, dir = 0; // north
+			visited.add(key(x, y));
+			int i = 0;
+			for (; i < length; i++)
+			{
+				// forward, left (anticlockwise) and right (clockwise) that are not occupied
+				int total = 0;
+				for (int move = PSPUtils.FOWARD; move <= PSPUtils.RIGHT; move++)
+				{
+					int d = turn(dir, move);
+					if(!visited.contains(key(x + MOVES[d][0], y + MOVES[d][1])))
+					{
+						options[total++] = move;
+					}
+				}
+				if(total == 0)
+				{
+					break; // trapped
+				}
+				int move = options[r.nextInt(total)];
+				dir = turn(dir, move);
+				x += MOVES[dir][0];
+				y += MOVES[dir][1];
+				visited.add(key(x, y));
+				perm[i] = (byte) move;
+			}
+			if(i == length)
+			{
+				return perm;
+			}
+		}
+	}
+	
+	protected final static int turn(int dir, int move)
+	{
+		switch(move)
+		{
+			case PSPUtils.LEFT:
+			{
+				return (dir + 3) % 4;
+			}
+			case PSPUtils.RIGHT:
+			{
+				return (dir + 1) % 4;
+			}
+			default:
+			{
+				return dir;
+			}
+		}
+	}
+	
+	protected final static Long key(int x, int y)
+	{
+		return new Long(((long) x << 32) | (y & 0xFFFFFFFFL));
+	}
+
+	@Override
+	public double run(int operations) 
+		throws Exception
+	{
+		double sum = 0;
+		for (int i = 0; i < operations; i++)
+		{
+			byte [][] lattice = PSPUtils.relativePermutationToLattice(permutations[i & (TOTAL_FIXTURES-1)], dataset);
+			sum += lattice.length;
+		}
+		return sum;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		permutations = null;
+	}
+}
@@ -0,0 +1,130 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import java.util.Random;
+
+import com.oat.utils.RandomGenerator;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Benchmark of drawing random numbers with each of the generators
+ *
+ * Date: 04/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class RandomBenchmark extends Benchmark
+{
+	public static enum Draw {Double, Gaussian, BoundedInt, BulkDoubles}
+	
+	/**
+	 * Values drawn for each operation of the bulk fill
+	 */
+	public final static int BULK_LENGTH = 64;
+	
+	protected final RandomGenerator generator;
+	protected final Draw draw;
+	
+	protected Random rand;
+	protected double [] buffer;
+	
+	
+	public RandomBenchmark(RandomGenerator aGenerator, Draw aDraw)
+	{
+		generator = aGenerator;
+		draw = aDraw;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return "random";
+	}
+
+	@Override
+	public String getParameters()
+	{
+		return "generator=" + generator + ";draw=" + draw;
+	}
+
+	@Override
+	public void setup()
+	{
+		rand = generator.create(SEED);
+		buffer = new double[BULK_LENGTH];
+	}
+
+	@Override
+	public double run(int operations)
+	{
+		double sum = 0;
+		switch(draw)
+		{
+			case Double:
+			{
+				for (int i = 0; i < operations; i++)
+				{
+					sum += rand.nextDouble();
+				}
+				break;
+			}
+			case Gaussian:
+			{
+				for (int i = 0; i < operations; i++)
+				{
+					sum += rand.nextGaussian();
+				}
+				break;
+			}
+			case BoundedInt:
+			{
+				for (int i = 0; i < operations; i++)
+				{
+					sum += rand.nextInt(100);
+				}
+				break;
+			}
+			case BulkDoubles:
+			{
+				for (int i = 0; i < operations; i++)
+				{
+					RandomUtils.nextDoubles(rand, buffer);
+					sum += buffer[i & (BULK_LENGTH-1)];
+				}
+				break;
+			}
+		}
+		return sum;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		rand = null;
+		buffer = null;
+	}
+}
@@ -0,0 +1,157 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+import com.oat.domains.cfo.CFOProblem;
+import com.oat.domains.cfo.CFOSolution;
+import com.oat.domains.cfo.problems.yao.Sphere;
+import com.oat.utils.EvolutionUtils;
+
+/**
+ * Description: Benchmark of the population replacement routines of EvolutionUtils on 
+ * randomly scored populations. Routines that modify their inputs work on a fresh copy 
+ * of the population each operation, the copy is included in the measurement.
+ *
+ * Date: 30/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class ReplacementBenchmark extends Benchmark
+{
+	public static enum Routine
+	{
+		/**
+		 * EvolutionUtils.elitistReplacement() of parents by their children
+		 */
+		ParentChild,
+		/**
+		 * EvolutionUtils.elitism() of one elite into the next generation
+		 */
+		Elitism,
+		/**
+		 * EvolutionUtils.elitistSelectionStrategy() trimming parents and children to the population size
+		 */
+		ElitistSelection
+	}
+	
+	protected final Routine routine;
+	protected final int populationSize;
+	
+	protected CFOProblem problem;
+	protected LinkedList<CFOSolution> parents;
+	protected LinkedList<CFOSolution> children;
+	protected LinkedList<CFOSolution> combined;
+	
+	
+	public ReplacementBenchmark(Routine aRoutine, int aPopulationSize)
+	{
+		routine = aRoutine;
+		populationSize = aPopulationSize;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return "evolution.replacement";
+	}
+
+	@Override
+	public String getParameters()
+	{
+		return "routine=" + routine + ";population=" + populationSize;
+	}
+
+	@Override
+	public void setup() 
+		throws Exception
+	{
+		problem = new Sphere();
+		problem.initialiseBeforeRun();
+		Random r = new Random(SEED);
+		parents = randomPopulation(populationSize, r);
+		children = randomPopulation(populationSize, r);
+		combined = new LinkedList<CFOSolution>(parents);
+		combined.addAll(children);
+	}
+	
+	protected LinkedList<CFOSolution> randomPopulation(int size, Random r)
+	{
+		LinkedList<CFOSolution> pop = new LinkedList<CFOSolution>();
+		for (int i = 0; i < size; i++)
+		{
+			CFOSolution s = new CFOSolution(new double[]{r.nextDouble()});
+			s.evaluated(r.nextDouble());
+			pop.add(s);
+		}
+		return pop;
+	}
+
+	@Override
+	public double run(int operations)
+	{
+		double sum = 0;
+		for (int i = 0; i < operations; i++)
+		{
+			switch(routine)
+			{
+				case ParentChild:
+				{
+					LinkedList<CFOSolution> next = EvolutionUtils.elitistReplacement(parents, children, problem);
+					sum += next.getFirst().getScore();
+					break;
+				}
+				case Elitism:
+				{
+					LinkedList<CFOSolution> last = new LinkedList<CFOSolution>(parents);
+					LinkedList<CFOSolution> next = new LinkedList<CFOSolution>(children);
+					next.removeLast();
+					EvolutionUtils.elitism(last, next, populationSize, problem);
+					sum += next.getLast().getScore();
+					break;
+				}
+				case ElitistSelection:
+				{
+					LinkedList<CFOSolution> pop = new LinkedList<CFOSolution>(combined);
+					EvolutionUtils.elitistSelectionStrategy(pop, populationSize, problem);
+					sum += pop.getFirst().getScore();
+					break;
+				}
+			}
+		}
+		return sum;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		parents = null;
+		children = null;
+		combined = null;
+	}
+}
@@ -0,0 +1,169 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+import com.oat.domains.cfo.CFOProblem;
+import com.oat.domains.cfo.CFOSolution;
+import com.oat.domains.cfo.problems.yao.Sphere;
+import com.oat.utils.AlgorithmUtils;
+import com.oat.utils.RandomUtils;
+import com.oat.utils.Selection;
+
+/**
+ * Description: Benchmark of selecting a generation of parents from a randomly scored 
+ * population with each of the Selection kernels. Each operation loads the population 
+ * and selects as many parents as there are solutions.
+ *
+ * Date: 06/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class SelectionBenchmark extends Benchmark
+{
+	public static enum Scheme
+	{
+		/**
+		 * Binary tournament drawing a LinkedList sample for each bout, as EvolutionUtils 
+		 * did before the selection kernels
+		 */
+		ListTournament,
+		Tournament,
+		StochasticUniversalSampling,
+		Roulette,
+		Rank,
+		Truncation
+	}
+	
+	protected final Scheme scheme;
+	protected final int populationSize;
+	
+	protected CFOProblem problem;
+	protected LinkedList<CFOSolution> pop;
+	protected Selection selection;
+	protected Random rand;
+	
+	
+	public SelectionBenchmark(Scheme aScheme, int aPopulationSize)
+	{
+		scheme = aScheme;
+		populationSize = aPopulationSize;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return "evolution.selection";
+	}
+
+	@Override
+	public String getParameters()
+	{
+		return "scheme=" + scheme + ";population=" + populationSize;
+	}
+
+	@Override
+	public void setup() 
+		throws Exception
+	{
+		problem = new Sphere();
+		problem.initialiseBeforeRun();
+		rand = new Random(SEED);
+		pop = new LinkedList<CFOSolution>();
+		for (int i = 0; i < populationSize; i++)
+		{
+			CFOSolution s = new CFOSolution(new double[]{rand.nextDouble()});
+			s.evaluated(rand.nextDouble());
+			pop.add(s);
+		}
+		selection = new Selection();
+	}
+
+	@Override
+	public double run(int operations)
+	{
+		double sum = 0;
+		for (int i = 0; i < operations; i++)
+		{
+			if(scheme == Scheme.ListTournament)
+			{
+				for (int j = 0; j < populationSize; j++)
+				{
+					LinkedList<CFOSolution> sample = RandomUtils.randomSampleWithOutReselection(pop, 2, rand);
+					sum += AlgorithmUtils.getBest(sample, problem).getScore();
+				}
+				continue;
+			}
+			
+			selection.load(pop, problem);
+			int [] selected = null;
+			switch(scheme)
+			{
+				case Tournament:
+				{
+					selected = selection.tournament(rand, populationSize, 2);
+					break;
+				}
+				case StochasticUniversalSampling:
+				{
+					selected = selection.stochasticUniversalSampling(rand, populationSize);
+					break;
+				}
+				case Roulette:
+				{
+					selected = selection.roulette(rand, populationSize);
+					break;
+				}
+				case Rank:
+				{
+					selected = selection.rank(rand, populationSize, 1.5);
+					break;
+				}
+				case Truncation:
+				{
+					selected = selection.truncation(rand, populationSize, 0.5);
+					break;
+				}
+			}
+			for (int j = 0; j < populationSize; j++)
+			{
+				sum += selection.getScore(selected[j]);
+			}
+		}
+		return sum;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		problem = null;
+		pop = null;
+		selection = null;
+		rand = null;
+	}
+}
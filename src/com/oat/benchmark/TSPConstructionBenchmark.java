@@ -0,0 +1,112 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.oat.domains.tsp.DenseDistanceMatrix;
+import com.oat.domains.tsp.DistanceMatrix;
+import com.oat.domains.tsp.TSPUtils;
+import com.oat.domains.tsp.TSPProblem.DISTANCE_TYPE;
+
+/**
+ * Description: Benchmark of the construction of a tour with the random proportional rule 
+ * (as used by the ant algorithms) over random cities with uniform pheromone
+ *
+ * Date: 30/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class TSPConstructionBenchmark extends Benchmark
+{
+	public final static double ALPHA = 1.0, BETA = 2.0;
+	
+	protected final int totalCities;
+	/**
+	 * ACS probability of selecting the best city, negative for none
+	 */
+	protected final double greedyness;
+	
+	protected DistanceMatrix distances;
+	protected double [][] pheromone;
+	protected Random rand;
+	
+	
+	public TSPConstructionBenchmark(int aTotalCities, double aGreedyness)
+	{
+		totalCities = aTotalCities;
+		greedyness = aGreedyness;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return "tsp.construction";
+	}
+
+	@Override
+	public String getParameters()
+	{
+		return "cities=" + totalCities + ";greedyness=" + greedyness;
+	}
+
+	@Override
+	public void setup()
+	{
+		rand = new Random(SEED);
+		double [][] cities = new double[totalCities][];
+		for (int i = 0; i < cities.length; i++)
+		{
+			cities[i] = new double[]{rand.nextDouble()*1000.0, rand.nextDouble()*1000.0};
+		}
+		distances = new DenseDistanceMatrix(cities, DISTANCE_TYPE.EUCLIDEAN);
+		pheromone = new double[totalCities][totalCities];
+		for (int i = 0; i < pheromone.length; i++)
+		{
+			Arrays.fill(pheromone[i], 1.0 / totalCities);
+		}
+	}
+
+	@Override
+	public double run(int operations)
+	{
+		double sum = 0;
+		for (int i = 0; i < operations; i++)
+		{
+			int [] tour = TSPUtils.probabilisticStepwiseConstruction(distances, BETA, pheromone, ALPHA, greedyness, rand);
+			sum += tour[tour.length-1];
+		}
+		return sum;
+	}
+	
+	@Override
+	public void tearDown()
+	{
+		distances = null;
+		pheromone = null;
+	}
+}
@@ -0,0 +1,468 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+
+import com.oat.Algorithm;
+import com.oat.AlgorithmExecutor;
+import com.oat.Domain;
+import com.oat.DomainUtils;
+import com.oat.Problem;
+import com.oat.probes.TotalEvaluationsProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+import com.oat.utils.FileUtils;
+
+/**
+ * Description: Macro benchmark, sweeps every algorithm of each domain against every problem of 
+ * the domain under a fixed evaluation budget (the performance counterpart of the batch tests). 
+ * Each pair is run once to warm up, then measured for evaluations per second, bytes allocated 
+ * (by the thread executing the run, where supported by the JVM), peak heap and garbage collection.
+ * <br/>
+ * Usage:<br/>
+ * ThroughputHarness outputFile [evaluations] [domainShortName] [measuredRuns]
+ *
+ * Date: 01/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class ThroughputHarness
+{
+	public final static long DEFAULT_EVALUATIONS = 5000;
+	public final static int DEFAULT_WARMUP_RUNS = 1;
+	public final static int DEFAULT_MEASURED_RUNS = 3;
+	
+	/**
+	 * Domains not swept unless selected, problems evaluated by a remote server
+	 */
+	public final static String [] REMOTE_DOMAINS = {"HBS"};
+	
+	protected final long evaluations;
+	protected final int warmupRuns;
+	protected final int measuredRuns;
+	
+	protected final ThreadMXBean threads;
+	/**
+	 * com.sun.management.ThreadMXBean.getThreadAllocatedBytes(long), null if not supported
+	 */
+	protected final Method allocatedBytes;
+	
+	
+	public ThroughputHarness()
+	{
+		this(DEFAULT_EVALUATIONS, DEFAULT_WARMUP_RUNS, DEFAULT_MEASURED_RUNS);
+	}
+	
+	public ThroughputHarness(long aEvaluations, int aWarmupRuns, int aMeasuredRuns)
+	{
+		if(aEvaluations < 1 || aWarmupRuns < 0 || aMeasuredRuns < 1)
+		{
+			throw new IllegalArgumentException("Invalid settings, evaluations " + aEvaluations + 
+					", warmup " + aWarmupRuns + ", measured " + aMeasuredRuns);
+		}
+		evaluations = aEvaluations;
+		warmupRuns = aWarmupRuns;
+		measuredRuns = aMeasuredRuns;
+		threads = ManagementFactory.getThreadMXBean();
+		allocatedBytes = prepareAllocatedBytes(threads);
+	}
+	
+	/**
+	 * Locate the vendor extension for measuring allocation by a thread
+	 * @param t
+	 * @return - method, or null if not supported
+	 */
+	protected static Method prepareAllocatedBytes(ThreadMXBean t)
+	{
+		try
+		{
+			Class<?> c = Class.forName("com.sun.management.ThreadMXBean");
+			if(!c.isInstance(t))
+			{
+				return null;
+			}
+			if(!((Boolean)c.getMethod("isThreadAllocatedMemorySupported").invoke(t)).booleanValue())
+			{
+				return null;
+			}
+			c.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(t, Boolean.TRUE);
+			return c.getMethod("getThreadAllocatedBytes", long.class);
+		}
+		catch(Exception e)
+		{
+			return null;
+		}
+	}
+	
+	/**
+	 * @return - bytes allocated by the current thread, UNSUPPORTED if not supported
+	 */
+	protected long getAllocatedBytes()
+	{
+		if(allocatedBytes == null)
+		{
+			return ThroughputResult.UNSUPPORTED;
+		}
+		try
+		{
+			return ((Long)allocatedBytes.invoke(threads, new Long(Thread.currentThread().getId()))).longValue();
+		}
+		catch(Exception e)
+		{
+			return ThroughputResult.UNSUPPORTED;
+		}
+	}
+	
+	public boolean isAllocationSupported()
+	{
+		return allocatedBytes != null;
+	}
+	
+	/**
+	 * Reset the peak usage of the heap memory pools
+	 */
+	protected static void resetPeakHeap()
+	{
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+		{
+			if(pool.getType() == MemoryType.HEAP && pool.isValid())
+			{
+				pool.resetPeakUsage();
+			}
+		}
+	}
+	
+	/**
+	 * @return - sum of the peak usage of the heap memory pools since the last reset
+	 */
+	protected static long getPeakHeap()
+	{
+		long peak = 0;
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+		{
+			if(pool.getType() == MemoryType.HEAP && pool.isValid())
+			{
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+	
+	/**
+	 * @return - {total collections, total collection millis} of all collectors
+	 */
+	protected static long [] getGarbageCollection()
+	{
+		long [] gc = new long[2];
+		for(GarbageCollectorMXBean b : ManagementFactory.getGarbageCollectorMXBeans())
+		{
+			gc[0] += Math.max(0, b.getCollectionCount());
+			gc[1] += Math.max(0, b.getCollectionTime());
+		}
+		return gc;
+	}
+	
+	/**
+	 * Measure the throughput of an algorithm on a problem
+	 * @param domain
+	 * @param algorithm
+	 * @param problem
+	 * @return - measurements, or a failed result if a run raised an exception
+	 */
+	public ThroughputResult execute(Domain domain, Algorithm algorithm, Problem problem)
+	{
+		AlgorithmExecutor executor = new AlgorithmExecutor(problem, algorithm, new EvaluationsStopCondition(evaluations));
+		TotalEvaluationsProbe evalsProbe = new TotalEvaluationsProbe();
+		executor.addRunProbe(evalsProbe);
+		
+		long totalEvaluations = 0;
+		long totalNanos = 0;
+		long totalAllocated = 0;
+		long peakHeap = 0;
+		long [] gc = new long[2];
+		try
+		{
+			for (int i = 0; i < warmupRuns; i++)
+			{
+				executor.executeAndWait();
+			}
+			for (int i = 0; i < measuredRuns; i++)
+			{
+				// start each run from a collected heap
+				System.gc();
+				resetPeakHeap();
+				long [] gcStart = getGarbageCollection();
+				long allocStart = getAllocatedBytes();
+				long start = System.nanoTime();
+				
+				executor.executeAndWait();
+				
+				long elapsed = System.nanoTime() - start;
+				long allocEnd = getAllocatedBytes();
+				long [] gcEnd = getGarbageCollection();
+				peakHeap = Math.max(peakHeap, getPeakHeap());
+				
+				totalNanos += elapsed;
+				totalEvaluations += evalsProbe.getCompletedEvaluations();
+				totalAllocated += allocEnd - allocStart;
+				gc[0] += gcEnd[0] - gcStart[0];
+				gc[1] += gcEnd[1] - gcStart[1];
+			}
+		}
+		catch(Exception e)
+		{
+			return new ThroughputResult(domain.getShortName(), algorithm.getName(), problem.getName(), e.toString());
+		}
+		return new ThroughputResult(domain.getShortName(), algorithm.getName(), problem.getName(), measuredRuns, 
+				totalEvaluations, totalNanos, isAllocationSupported() ? totalAllocated : ThroughputResult.UNSUPPORTED, 
+				peakHeap, gc[0], gc[1]);
+	}
+	
+	/**
+	 * Measure all algorithms of the domain on all problems of the domain
+	 * @param domain
+	 * @param log - progress, may be null
+	 * @return - measurements, a single failed result if the domain could not be loaded
+	 */
+	public LinkedList<ThroughputResult> execute(Domain domain, PrintStream log)
+	{
+		LinkedList<ThroughputResult> results = new LinkedList<ThroughputResult>();
+		Algorithm [] algorithms = null;
+		Problem [] problems = null;
+		try
+		{
+			algorithms = domain.loadAlgorithmList();
+			problems = domain.loadProblemList();
+		}
+		catch(Exception e)
+		{
+			ThroughputResult r = new ThroughputResult(domain.getShortName(), "*", "*", "Unable to load algorithms and problems: " + e.getMessage());
+			results.add(r);
+			if(log != null)
+			{
+				log.println(r);
+			}
+			return results;
+		}
+		for (int i = 0; i < algorithms.length; i++)
+		{
+			for (int j = 0; j < problems.length; j++)
+			{
+				ThroughputResult r = execute(domain, algorithms[i], problems[j]);
+				results.add(r);
+				if(log != null)
+				{
+					log.println(r);
+				}
+			}
+		}
+		return results;
+	}
+	
+	/**
+	 * Measure the domains of the domain list
+	 * @param shortName - short name of the domain to measure, null for all but the remote domains
+	 * @param log - progress, may be null
+	 * @return
+	 * @throws Exception - unable to load the domain list
+	 */
+	public LinkedList<ThroughputResult> execute(String shortName, PrintStream log)
+		throws Exception
+	{
+		LinkedList<ThroughputResult> results = new LinkedList<ThroughputResult>();
+		Domain [] domains = DomainUtils.loadDomainList(DomainUtils.DOMAIN_LIST);
+		for (int i = 0; i < domains.length; i++)
+		{
+			if(shortName == null ? isRemote(domains[i]) : !domains[i].getShortName().equalsIgnoreCase(shortName))
+			{
+				continue;
+			}
+			results.addAll(execute(domains[i], log));
+		}
+		return results;
+	}
+	
+	protected static boolean isRemote(Domain d)
+	{
+		for (int i = 0; i < REMOTE_DOMAINS.length; i++)
+		{
+			if(REMOTE_DOMAINS[i].equalsIgnoreCase(d.getShortName()))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Summarise the results by algorithm, the geometric mean evaluations per second and the 
+	 * mean bytes allocated per evaluation over the problems, slowest algorithm first
+	 * @param results
+	 * @return - lines of the summary
+	 */
+	public static LinkedList<String> summariseByAlgorithm(LinkedList<ThroughputResult> results)
+	{
+		// domain and algorithm -> {sum log evals/s, sum bytes/eval, total}
+		LinkedHashMap<String, double[]> map = new LinkedHashMap<String, double[]>();
+		for(ThroughputResult r : results)
+		{
+			if(r.isFailed() || r.getEvaluationsPerSecond() <= 0)
+			{
+				continue;
+			}
+			String key = r.getDomain() + " " + r.getAlgorithm();
+			double [] v = map.get(key);
+			if(v == null)
+			{
+				map.put(key, v = new double[3]);
+			}
+			v[0] += Math.log(r.getEvaluationsPerSecond());
+			v[1] += r.getAllocatedBytesPerEvaluation();
+			v[2]++;
+		}
+		final HashMap<String, Double> rates = new HashMap<String, Double>();
+		LinkedList<String> keys = new LinkedList<String>(map.keySet());
+		for(String key : keys)
+		{
+			double [] v = map.get(key);
+			rates.put(key, new Double(Math.exp(v[0] / v[2])));
+		}
+		Collections.sort(keys, new Comparator<String>()
+		{
+			public int compare(String o1, String o2)
+			{
+				return rates.get(o1).compareTo(rates.get(o2));
+			}
+		});
+		LinkedList<String> lines = new LinkedList<String>();
+		for(String key : keys)
+		{
+			double [] v = map.get(key);
+			lines.add(key + ": " + Math.round(rates.get(key).doubleValue()) + " evals/s, " + 
+					(isAllocationMeasured(v[1]) ? Math.round(v[1] / v[2]) + " bytes/eval" : "allocation unsupported") + 
+					" over " + (int) v[2] + " problems");
+		}
+		return lines;
+	}
+	
+	protected static boolean isAllocationMeasured(double sumBytesPerEvaluation)
+	{
+		return sumBytesPerEvaluation >= 0;
+	}
+	
+	/**
+	 * Write results as CSV preceded by comments describing the release, environment and settings
+	 * @param results
+	 * @param file
+	 * @throws Exception
+	 */
+	public void writeResults(LinkedList<ThroughputResult> results, File file)
+		throws Exception
+	{
+		StringBuffer b = new StringBuffer(1024);
+		b.append(BenchmarkSuite.describeEnvironment());
+		b.append(BenchmarkSuite.COMMENT + " evaluations=" + evaluations + ", warmup=" + warmupRuns + ", measured=" + measuredRuns + 
+				", allocation=" + (isAllocationSupported() ? "thread" : "unsupported") + "\n");
+		Object [][] rows = new Object[results.size() + 1][];
+		rows[0] = ThroughputResult.HEADER;
+		int i = 1;
+		for(ThroughputResult r : results)
+		{
+			rows[i++] = r.toRow();
+		}
+		b.append(FileUtils.matrixToCVSString(rows));
+		b.append("\n");
+		FileUtils.writeToFile(b.toString(), file);
+	}
+	
+	
+	public static void main(String[] args)
+	{
+		if(args.length < 1 || args.length > 4)
+		{
+			System.err.println("Usage: " + ThroughputHarness.class.getName() + " outputFile [evaluations] [domainShortName] [measuredRuns]");
+			System.exit(1);
+		}
+		try
+		{
+			long evaluations = (args.length > 1) ? Long.parseLong(args[1]) : DEFAULT_EVALUATIONS;
+			String domain = (args.length > 2 && args[2].length() > 0 && !args[2].equals("*")) ? args[2] : null;
+			int measured = (args.length > 3) ? Integer.parseInt(args[3]) : DEFAULT_MEASURED_RUNS;
+			ThroughputHarness harness = new ThroughputHarness(evaluations, DEFAULT_WARMUP_RUNS, measured);
+			LinkedList<ThroughputResult> results = harness.execute(domain, System.out);
+			File file = new File(args[0]);
+			if(file.getParentFile() != null)
+			{
+				file.getParentFile().mkdirs();
+			}
+			harness.writeResults(results, file);
+			System.out.println(">Algorithms, slowest first");
+			for(String line : summariseByAlgorithm(results))
+			{
+				System.out.println(line);
+			}
+			System.out.println(">Wrote " + results.size() + " results to " + file);
+		}
+		catch(NumberFormatException e)
+		{
+			System.err.println("Invalid number: " + e.getMessage());
+			System.exit(1);
+		}
+		catch(Exception e)
+		{
+			System.err.println("Error executing throughput harness: " + e.getMessage());
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	public long getEvaluations()
+	{
+		return evaluations;
+	}
+
+	public int getWarmupRuns()
+	{
+		return warmupRuns;
+	}
+
+	public int getMeasuredRuns()
+	{
+		return measuredRuns;
+	}
+}
@@ -0,0 +1,197 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.benchmark;
+
+/**
+ * Description: Throughput of an algorithm on a problem over the measured runs of the 
+ * throughput harness. Stored as a CSV row.
+ *
+ * Date: 01/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class ThroughputResult
+{
+	public final static String [] HEADER = {"domain", "algorithm", "problem", "runs", "evaluations", "elapsedNanos", 
+		"evaluationsPerSecond", "allocatedBytes", "allocatedBytesPerSecond", "peakHeapBytes", "gcCount", "gcMillis", "error"};
+	
+	/**
+	 * Value of measurements that are not supported by the JVM
+	 */
+	public final static long UNSUPPORTED = -1;
+	
+	protected final String domain;
+	protected final String algorithm;
+	protected final String problem;
+	protected final int runs;
+	protected final long evaluations;
+	protected final long elapsedNanos;
+	protected final long allocatedBytes;
+	protected final long peakHeapBytes;
+	protected final long gcCount;
+	protected final long gcMillis;
+	protected final String error;
+	
+	
+	public ThroughputResult(String aDomain, String aAlgorithm, String aProblem, int aRuns, long aEvaluations, long aElapsedNanos, 
+			long aAllocatedBytes, long aPeakHeapBytes, long aGcCount, long aGcMillis)
+	{
+		this(aDomain, aAlgorithm, aProblem, aRuns, aEvaluations, aElapsedNanos, aAllocatedBytes, aPeakHeapBytes, aGcCount, aGcMillis, "");
+	}
+	
+	/**
+	 * A failed pair
+	 * @param aDomain
+	 * @param aAlgorithm
+	 * @param aProblem
+	 * @param aError - cause of the failure
+	 */
+	public ThroughputResult(String aDomain, String aAlgorithm, String aProblem, String aError)
+	{
+		this(aDomain, aAlgorithm, aProblem, 0, 0, 0, UNSUPPORTED, UNSUPPORTED, UNSUPPORTED, UNSUPPORTED, aError);
+	}
+	
+	protected ThroughputResult(String aDomain, String aAlgorithm, String aProblem, int aRuns, long aEvaluations, long aElapsedNanos, 
+			long aAllocatedBytes, long aPeakHeapBytes, long aGcCount, long aGcMillis, String aError)
+	{
+		domain = aDomain;
+		algorithm = aAlgorithm;
+		problem = aProblem;
+		runs = aRuns;
+		evaluations = aEvaluations;
+		elapsedNanos = aElapsedNanos;
+		allocatedBytes = aAllocatedBytes;
+		peakHeapBytes = aPeakHeapBytes;
+		gcCount = aGcCount;
+		gcMillis = aGcMillis;
+		error = (aError == null) ? "" : aError;
+	}
+	
+	/**
+	 * @return - evaluations per second, 0 if failed
+	 */
+	public double getEvaluationsPerSecond()
+	{
+		return (elapsedNanos == 0) ? 0.0 : (evaluations * 1e9 / elapsedNanos);
+	}
+	
+	/**
+	 * @return - bytes allocated per second, UNSUPPORTED if allocation is not measured
+	 */
+	public double getAllocatedBytesPerSecond()
+	{
+		return (allocatedBytes == UNSUPPORTED || elapsedNanos == 0) ? UNSUPPORTED : (allocatedBytes * 1e9 / elapsedNanos);
+	}
+	
+	/**
+	 * @return - bytes allocated per evaluation, UNSUPPORTED if allocation is not measured
+	 */
+	public double getAllocatedBytesPerEvaluation()
+	{
+		return (allocatedBytes == UNSUPPORTED || evaluations == 0) ? UNSUPPORTED : ((double) allocatedBytes / evaluations);
+	}
+	
+	public boolean isFailed()
+	{
+		return error.length() > 0;
+	}
+	
+	/**
+	 * @return - values in the order of the header
+	 */
+	public Object [] toRow()
+	{
+		return new Object[]{domain, algorithm, problem, new Integer(runs), new Long(evaluations), new Long(elapsedNanos), 
+				new Double(getEvaluationsPerSecond()), new Long(allocatedBytes), new Double(getAllocatedBytesPerSecond()), 
+				new Long(peakHeapBytes), new Long(gcCount), new Long(gcMillis), error.replace('"', '\'').replace('\n', ' ')};
+	}
+	
+	@Override
+	public String toString()
+	{
+		if(isFailed())
+		{
+			return domain + " " + algorithm + " on " + problem + " failed: " + error;
+		}
+		return domain + " " + algorithm + " on " + problem + " " + Math.round(getEvaluationsPerSecond()) + " evals/s, " + 
+			Math.round(getAllocatedBytesPerEvaluation()) + " bytes/eval, peak heap " + (peakHeapBytes / 1024) + "KB";
+	}
+
+	public String getDomain()
+	{
+		return domain;
+	}
+
+	public String getAlgorithm()
+	{
+		return algorithm;
+	}
+
+	public String getProblem()
+	{
+		return problem;
+	}
+
+	public int getRuns()
+	{
+		return runs;
+	}
+
+	public long getEvaluations()
+	{
+		return evaluations;
+	}
+
+	public long getElapsedNanos()
+	{
+		return elapsedNanos;
+	}
+
+	public long getAllocatedBytes()
+	{
+		return allocatedBytes;
+	}
+
+	public long getPeakHeapBytes()
+	{
+		return peakHeapBytes;
+	}
+
+	public long getGcCount()
+	{
+		return gcCount;
+	}
+
+	public long getGcMillis()
+	{
+		return gcMillis;
+	}
+
+	public String getError()
+	{
+		return error;
+	}
+}
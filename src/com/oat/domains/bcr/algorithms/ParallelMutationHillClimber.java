@@ -42,7 +42,7 @@ import com.oat.utils.RandomUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 04/12/2007	JBrownlee	Random stream created with the default generator
  * </pre>
  *
  */
@@ -69,7 +69,7 @@ public class ParallelMutationHillClimber extends BCRAlgorithm
     @Override
     protected void initialiseSystem(BCRProblem problem)
     {
-        rand = new Random(seed);
+        rand = RandomUtils.newRandom(seed);
         system = RandomUtils.randomBitStringSet(rand, problem.getPatternLength(), populationSize, 1);
     }
 
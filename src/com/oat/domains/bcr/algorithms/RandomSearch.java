@@ -40,7 +40,7 @@ import com.oat.utils.RandomUtils;
  * Change History
  * ----------------------------------------------------------------------------
  * 11/07/2007   JBrownlee   Updated to use the new system
- * 
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class RandomSearch extends BCRAlgorithm
@@ -63,7 +63,7 @@ public class RandomSearch extends BCRAlgorithm
     @Override
     protected void initialiseSystem(BCRProblem problem)
     {
-        rand = new Random(seed);
+        rand = RandomUtils.newRandom(seed);
         int numPatterns = problem.getTotalPatterns();
         int length = problem.getPatternLength();
         system = RandomUtils.randomBitStringSet(rand, length, numPatterns, 1);
@@ -23,6 +23,7 @@ import com.oat.InvalidConfigurationException;
 import com.oat.Problem;
 import com.oat.Solution;
 import com.oat.SolutionEvaluationException;
+import com.oat.utils.PackedBitString;
 
 /**
  * Type: BinaryProblem<br/>
@@ -37,6 +38,8 @@ import com.oat.SolutionEvaluationException;
  * ----------------------------------------------------------------------------
  * 06/07/2007   JBrownlee   Added support for GUI configuration and validation
  * 07/08/2007   JBrownlee   Implemented generic binary problem interface
+ * 20/11/2007   JBrownlee   Length check uses the packed bit string
+ * 02/12/2007   JBrownlee   Genotype key for the evaluation cache
  * </pre>
  */
 public abstract class BFOProblem extends Problem
@@ -56,12 +59,18 @@ public abstract class BFOProblem extends Problem
     public void checkSolutionForSafety(Solution b) 
         throws SolutionEvaluationException
     {
-        if(((BFOSolution)b).getBitString().length != length)
+        if(((BFOSolution)b).getBitStringLength() != length)
         {
-            throw new SolutionEvaluationException("bitstring length "+((BFOSolution)b).getBitString().length+" does not match expected length " + length);
+            throw new SolutionEvaluationException("bitstring length "+((BFOSolution)b).getBitStringLength()+" does not match expected length " + length);
         }
     }
     
+    @Override
+    protected Object getEvaluationCacheKey(Solution solution)
+    {
+    	return new PackedBitString(((BFOSolution)solution).getPackedBitString());
+    }
+    
     @Override
     protected void validateConfigurationInternal() throws InvalidConfigurationException
     {           
@@ -19,11 +19,8 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
 */
 package com.oat.domains.bfo;
 
-import java.util.Arrays;
-
 import com.oat.Solution;
-import com.oat.utils.ArrayUtils;
-import com.oat.utils.BitStringUtils;
+import com.oat.utils.PackedBitString;
 
 /**
  * Type: BinarySolution<br/>
@@ -36,38 +33,79 @@ import com.oat.utils.BitStringUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 20/11/2007	JBrownlee	Bit string is stored packed, boolean [] is provided as a view
  * </pre>
  */
 public class BFOSolution extends Solution
 {
-    protected final boolean [] bitString;
+    /**
+     * Bits packed 64 to a word
+     */
+    protected final PackedBitString bitString;
     
     public BFOSolution(boolean [] b)
+    {
+        this(new PackedBitString(b));
+    }
+    
+    /**
+     * Create a solution that takes ownership of the provided packed bit string
+     * @param b
+     */
+    public BFOSolution(PackedBitString b)
     {
         bitString = b;
     }
     
     public BFOSolution(BFOSolution b)
     {
-        this(ArrayUtils.copyArray(b.bitString));
+        this(new PackedBitString(b.bitString));
     }
 
     @Override
     public boolean equals(Object o)
     {
         BFOSolution s = (BFOSolution) o;
-        return Arrays.equals(bitString, s.bitString);
+        return bitString.equals(s.bitString);
+    }
+    
+    @Override
+    public int hashCode()
+    {
+        return bitString.hashCode();
     }
 
+    /**
+     * An unpacked copy of the bit string, changes to the returned array are
+     * not reflected in the solution and it may be mutated freely. Each call 
+     * unpacks a new copy, use getBitStringLength() when only the length is needed
+     * @return - new array of one boolean per bit
+     */
     public boolean[] getBitString()
+    {
+        return bitString.toBooleanArray();
+    }
+    
+    /**
+     * The packed bit string of the solution
+     * @return
+     */
+    public PackedBitString getPackedBitString()
     {
         return bitString;
     }
     
+    /**
+     * @return - number of bits in the bit string
+     */
+    public int getBitStringLength()
+    {
+        return bitString.length();
+    }
+    
     @Override
     public String toString()
     {
-        return super.toString() + " ["+BitStringUtils.toString(bitString)+"].";
+        return super.toString() + " ["+bitString+"].";
     }
 }
@@ -24,11 +24,13 @@ import java.util.LinkedList;
 import java.util.Random;
 
 import com.oat.AlgorithmRunException;
+import com.oat.Population;
 import com.oat.Problem;
 import com.oat.utils.AlgorithmUtils;
 import com.oat.utils.BitStringUtils;
 import com.oat.utils.EvolutionUtils;
 import com.oat.utils.RandomUtils;
+import com.oat.utils.PackedBitString;
 
 /**
  * Description: 
@@ -40,7 +42,8 @@ import com.oat.utils.RandomUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 18/11/2007	JBrownlee	Removed indexed access of linked lists in loops
+ * 20/11/2007	JBrownlee	Sharing distance, crossover and mutation operate on packed bit strings
  * </pre>
  */
 public class BFOUtils
@@ -91,9 +94,9 @@ public class BFOUtils
         // calculate the share value for the current solution
         // that is the sum of the normalised fitness of all solutions within range
         double sum = 0.0;
-        for (int i = 0; i < pop.size(); i++)
+        for(T s : pop)
         {
-            sum += shareFunction(sol, pop.get(i), shareRadius, alpha);
+            sum += shareFunction(sol, s, shareRadius, alpha);
         }        
         // sum can NEVER be zero - have to at least be the same as self (share with self)
         // 0/radius^alpha == 0 (1-0 == 1), has to have a score of at least 1
@@ -127,7 +130,7 @@ public class BFOUtils
             double alpha)
     {
         // calculate distance between the strings
-        double distance = BitStringUtils.hammingDistanceRatio(s1.getBitString(), s2.getBitString());
+        double distance = BitStringUtils.hammingDistanceRatio(s1, s2);
         // check if outside of the radius
         if(distance >= shareRadius)
         {
@@ -168,15 +171,16 @@ public class BFOUtils
         
         // always mix up the selective set
         Collections.shuffle(pop, rand);
+        Population<BFOSolution> parents = new Population<BFOSolution>(pop);
         
         LinkedList<BFOSolution> children = new LinkedList<BFOSolution>();
-        for (int i = 0; children.size()<totalChildren && i < pop.size(); i+=2)
+        for (int i = 0; children.size()<totalChildren && i < parents.size(); i+=2)
         {
             // get parents
-        	BFOSolution p1 = pop.get(i);
-        	BFOSolution p2 = pop.get(i+1);
+        	BFOSolution p1 = parents.get(i);
+        	BFOSolution p2 = parents.get(i+1);
             // perform crossover
-            boolean [][] b = EvolutionUtils.onePointBinaryCrossover(p1.getBitString(), p2.getBitString(), rand, crossoverProbability);
+            PackedBitString [] b = EvolutionUtils.onePointBinaryCrossover(p1.getPackedBitString(), p2.getPackedBitString(), rand, crossoverProbability);
             // add children if possible
             for (int j = 0; children.size()<totalChildren && j < b.length; j++)
             {
@@ -29,6 +29,8 @@ import com.oat.domains.bfo.BFOProblemInterface;
 import com.oat.domains.bfo.BFOSolution;
 import com.oat.domains.bfo.BFOUtils;
 import com.oat.utils.EvolutionUtils;
+import com.oat.utils.PackedBitString;
+import com.oat.utils.RandomUtils;
 
 
 /**
@@ -50,6 +52,8 @@ import com.oat.utils.EvolutionUtils;
  * ----------------------------------------------------------------------------
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  * 20/08/2007	JBrownlee	Moved to binary function optimization domain
+ * 20/11/2007   JBrownlee   Crossover and mutation operate on packed bit strings
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class DiffuseGeneticAlgorithm extends Algorithm
@@ -77,7 +81,7 @@ public class DiffuseGeneticAlgorithm extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);           
+        Random r = RandomUtils.newRandom(seed);           
         // prepare initial population
         LinkedList<BFOSolution> pop = BFOUtils.getRandomPopulationBinary(r, (BFOProblemInterface)p, popsize);    
         // evaluate
@@ -155,9 +159,9 @@ public class DiffuseGeneticAlgorithm extends Algorithm
                 // select other parent
                 BFOSolution other = EvolutionUtils.tournamentSelection(neighbours, 1, p, r, boutSize).getFirst();                
                 // crossover
-                boolean [][] b = EvolutionUtils.onePointBinaryCrossover(self.getBitString(), other.getBitString(), r, crossover);                
+                PackedBitString [] b = EvolutionUtils.onePointBinaryCrossover(self.getPackedBitString(), other.getPackedBitString(), r, crossover);                
                 // selection
-                boolean [] bitstring = (r.nextBoolean() ? b[0] : b[1]); // randomly select one   
+                PackedBitString bitstring = (r.nextBoolean() ? b[0] : b[1]); // randomly select one   
                 // mutation
                 EvolutionUtils.binaryMutate(bitstring, r, mutation);   
                 // creation / replacement
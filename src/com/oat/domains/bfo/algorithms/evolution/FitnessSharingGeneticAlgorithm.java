@@ -20,11 +20,13 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
 package com.oat.domains.bfo.algorithms.evolution;
 
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Random;
 
 import com.oat.Algorithm;
 import com.oat.InvalidConfigurationException;
+import com.oat.Population;
 import com.oat.Problem;
 import com.oat.domains.bfo.BFOProblemInterface;
 import com.oat.domains.bfo.BFOSolution;
@@ -32,6 +34,7 @@ import com.oat.domains.bfo.BFOUtils;
 import com.oat.utils.AlgorithmUtils;
 import com.oat.utils.EvolutionUtils;
 import com.oat.utils.RandomUtils;
+import com.oat.utils.PackedBitString;
 
 
 /**
@@ -58,6 +61,8 @@ import com.oat.utils.RandomUtils;
  * 09/01/2007   JBrownlee   Deleted elitism, does not belong, messes up the algorithm
  *                          Updated to use a generic fitness sharing method
  * 20/08/2007	JBrownlee	Moved to binary function optimization domain
+ * 20/11/2007   JBrownlee   Crossover and mutation operate on packed bit strings
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class FitnessSharingGeneticAlgorithm extends Algorithm
@@ -78,6 +83,11 @@ public class FitnessSharingGeneticAlgorithm extends Algorithm
         {
             super(v);
         } 
+        
+        public FSSolution(PackedBitString v)
+        {
+            super(v);
+        } 
     }
     
     
@@ -97,7 +107,7 @@ public class FitnessSharingGeneticAlgorithm extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         LinkedList<FSSolution> pop = new LinkedList<FSSolution>();        
         // prepare initial population
         while(pop.size() < popsize)
@@ -146,13 +156,14 @@ public class FitnessSharingGeneticAlgorithm extends Algorithm
     protected LinkedList<FSSolution> reproduce(LinkedList<FSSolution> pop, int totalChildren, Problem p, Random r)
     {
         LinkedList<FSSolution> children = new LinkedList<FSSolution>();
-        for (int i = 0; children.size()<totalChildren && i < pop.size(); i+=2)
+        Population<FSSolution> parents = new Population<FSSolution>(pop);
+        for (int i = 0; children.size()<totalChildren && i < parents.size(); i+=2)
         {
             // select parents
-            FSSolution p1 = pop.get(i);
-            FSSolution p2 = pop.get(i+1);
+            FSSolution p1 = parents.get(i);
+            FSSolution p2 = parents.get(i+1);
             // create children
-            boolean [][] b = EvolutionUtils.onePointBinaryCrossover(p1.getBitString(), p2.getBitString(), r, crossover);            
+            PackedBitString [] b = EvolutionUtils.onePointBinaryCrossover(p1.getPackedBitString(), p2.getPackedBitString(), r, crossover);            
             for (int j = 0; children.size()<totalChildren && j < b.length; j++)
             {
                 // mutate
@@ -206,10 +217,11 @@ public class FitnessSharingGeneticAlgorithm extends Algorithm
         double singleMarker = 1.0 / numToSelection;
         double positionOfMarker = singleMarker * r.nextDouble();
 
-        for (int i = 0; selected.size()<numToSelection && i < pop.size(); i++)
+        for(Iterator<FSSolution> it = pop.iterator(); selected.size()<numToSelection && it.hasNext(); )
         {
+            FSSolution s = it.next();
             // calculate this individuals slice of pie
-            double slice = (pop.get(i).deratedFitness / summedFitness);
+            double slice = (s.deratedFitness / summedFitness);
             // sum the fitness searching for marker locations
             sum += slice;
             // process the marker on current summed fitness
@@ -218,7 +230,7 @@ public class FitnessSharingGeneticAlgorithm extends Algorithm
             while (selected.size()<numToSelection && positionOfMarker < sum)
             {
                 // add the current individual
-                selected.add(pop.get(i));
+                selected.add(s);
                 // increment the marker
                 positionOfMarker += singleMarker;
             }
@@ -31,6 +31,7 @@ import com.oat.domains.bfo.BFOSolution;
 import com.oat.domains.bfo.BFOUtils;
 import com.oat.utils.EvolutionUtils;
 import com.oat.utils.RandomUtils;
+import com.oat.utils.Selection;
 
 
 /**
@@ -49,6 +50,8 @@ import com.oat.utils.RandomUtils;
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  * 09/01/2007   JBrownlee   Modified to use generic elitism strategy
  * 20/08/2007	JBrownlee	Updated to support automatic configuration
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
+ * 06/12/2007   JBrownlee   Selection reuses the buffers of a Selection
  * </pre>
  */
 public class GeneticAlgorithm extends EpochAlgorithm<BFOSolution>
@@ -64,6 +67,7 @@ public class GeneticAlgorithm extends EpochAlgorithm<BFOSolution>
     
     // state
     protected Random rand;
+    protected Selection selection;
     
     
     public GeneticAlgorithm()
@@ -103,7 +107,7 @@ public class GeneticAlgorithm extends EpochAlgorithm<BFOSolution>
 	{        
         // select
         int numToSelect = ((popsize%2)==0) ? popsize : popsize + 1; // must select an even number of parents
-        LinkedList<BFOSolution> selected = EvolutionUtils.tournamentSelection(population, numToSelect, problem, rand, boutSize);            
+        LinkedList<BFOSolution> selected = selection.tournamentSelection(population, numToSelect, problem, rand, boutSize);            
         // reproduce
         LinkedList<BFOSolution> children = BFOUtils.genericAlgorithmReproduce(selected, popsize-elitism, mutation, crossover, rand);            
         // return
@@ -124,7 +128,8 @@ public class GeneticAlgorithm extends EpochAlgorithm<BFOSolution>
 	protected LinkedList<BFOSolution> internalInitialiseBeforeRun(Problem problem)
 	{
 		// reused
-        rand = new Random(seed);
+        rand = RandomUtils.newRandom(seed);
+        selection = new Selection();
         
         LinkedList<BFOSolution> pop = new LinkedList<BFOSolution>();        
         // prepare initial population
@@ -24,12 +24,14 @@ import java.util.Random;
 
 import com.oat.Algorithm;
 import com.oat.InvalidConfigurationException;
+import com.oat.Population;
 import com.oat.Problem;
 import com.oat.domains.bfo.BFOProblemInterface;
 import com.oat.domains.bfo.BFOSolution;
 import com.oat.domains.bfo.BFOUtils;
 import com.oat.utils.AlgorithmUtils;
 import com.oat.utils.BitStringUtils;
+import com.oat.utils.RandomUtils;
 
 /**
  * Type: ProbabilisticCrowding<br/>
@@ -46,6 +48,7 @@ import com.oat.utils.BitStringUtils;
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  * 20/08/2007	JBrownlee	Moved to binary function optimization domain
  * 							Modified to use Hamming distance, can be overridden for Euclidean distance
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class ProbabilisticCrowding extends Algorithm
@@ -72,7 +75,7 @@ public class ProbabilisticCrowding extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);     
+        Random r = RandomUtils.newRandom(seed);     
         // prepare initial population
         LinkedList<BFOSolution> pop = BFOUtils.getRandomPopulationBinary(r, (BFOProblemInterface)p, popsize);     
         // evaluate
@@ -119,12 +122,14 @@ public class ProbabilisticCrowding extends Algorithm
         AlgorithmUtils.calculateNormalizedRelativeFitness(superpop, p);
         
         // replacements
-        for (int i = 0; i < children.size(); i+=2)
+        Population<T> parents = new Population<T>(pop);
+        Population<T> offspring = new Population<T>(children);
+        for (int i = 0; i < offspring.size(); i+=2)
         {
-            T c1 = children.get(i);
-            T c2 = children.get(i+1);
-            T p1 = pop.get(i);
-            T p2 = pop.get(i+1);
+            T c1 = offspring.get(i);
+            T c2 = offspring.get(i+1);
+            T p1 = parents.get(i);
+            T p2 = parents.get(i+1);
             
             if(BitStringUtils.hammingDistance(p1,c1)+BitStringUtils.hammingDistance(p2,c2) 
                     <= BitStringUtils.hammingDistance(p1,c2)+BitStringUtils.hammingDistance(p2,c1))
@@ -28,6 +28,7 @@ import com.oat.Problem;
 import com.oat.domains.bfo.BFOProblemInterface;
 import com.oat.domains.bfo.BFOSolution;
 import com.oat.domains.bfo.BFOUtils;
+import com.oat.utils.RandomUtils;
 
 /**
  * Type: RestrictedTournamentSelection<br/>
@@ -45,6 +46,7 @@ import com.oat.domains.bfo.BFOUtils;
  * 09/01/2007   JBrownlee   Modified to use a generic replacement function
  * 20/08/2007	JBrownlee	Moved to binary function optimization domain
  * 							Modified to use Hamming distance, can be overridden for Euclidean distance
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class RestrictedTournamentSelection extends Algorithm
@@ -74,7 +76,7 @@ public class RestrictedTournamentSelection extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         // prepare initial population
         LinkedList<BFOSolution> pop = BFOUtils.getRandomPopulationBinary(r, (BFOProblemInterface)p, popsize);    
         // evaluate
@@ -28,9 +28,9 @@ import com.oat.Problem;
 import com.oat.domains.bfo.BFOProblemInterface;
 import com.oat.domains.bfo.BFOSolution;
 import com.oat.utils.AlgorithmUtils;
-import com.oat.utils.ArrayUtils;
 import com.oat.utils.EvolutionUtils;
 import com.oat.utils.RandomUtils;
+import com.oat.utils.PackedBitString;
 
 /**
  * Type: MutationHillClimber<br/>
@@ -45,7 +45,8 @@ import com.oat.utils.RandomUtils;
  * Change History
  * ----------------------------------------------------------------------------
  * 10/07/2007   JBrownlee   Added the appropriate reference
- * 
+ * 20/11/2007   JBrownlee   Mutation operates on packed bit strings
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class MutationHillClimber extends Algorithm
@@ -103,7 +104,7 @@ public class MutationHillClimber extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         // the present point
         BFOSolution point = new BFOSolution(RandomUtils.randomBitString(r, ((BFOProblemInterface)p).getBinaryStringLength()));
         p.cost(point);
@@ -111,7 +112,7 @@ public class MutationHillClimber extends Algorithm
         while(p.canEvaluate())
         {
             // copy
-            boolean [] mutant = ArrayUtils.copyArray(point.getBitString());
+            PackedBitString mutant = new PackedBitString(point.getPackedBitString());
             // mutate
             EvolutionUtils.binaryMutate(mutant, r, mutationRate);
             // create
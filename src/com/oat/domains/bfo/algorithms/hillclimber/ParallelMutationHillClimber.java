@@ -27,9 +27,9 @@ import com.oat.InvalidConfigurationException;
 import com.oat.Problem;
 import com.oat.domains.bfo.BFOProblemInterface;
 import com.oat.domains.bfo.BFOSolution;
-import com.oat.utils.ArrayUtils;
 import com.oat.utils.EvolutionUtils;
 import com.oat.utils.RandomUtils;
+import com.oat.utils.PackedBitString;
 
 /**
  * Type: ParallelMutationHillClimber<br/>
@@ -43,7 +43,8 @@ import com.oat.utils.RandomUtils;
  * Change History
  * ----------------------------------------------------------------------------
  * 
- * 
+ * 20/11/2007	JBrownlee	Mutation operates on packed bit strings
+ * 04/12/2007	JBrownlee	Random stream created with the default generator
  * </pre>
  */
 public class ParallelMutationHillClimber extends Algorithm
@@ -112,7 +113,7 @@ public class ParallelMutationHillClimber extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         // prepare the points
         BFOSolution [] pop = new BFOSolution[populationSize];
         for (int i = 0; i < pop.length; i++)
@@ -128,7 +129,7 @@ public class ParallelMutationHillClimber extends Algorithm
             for (int i = 0; p.canEvaluate() && i < pop.length; i++)
             {
                 // copy
-                boolean [] mutant = ArrayUtils.copyArray(pop[i].getBitString());
+                PackedBitString mutant = new PackedBitString(pop[i].getPackedBitString());
                 // mutate
                 EvolutionUtils.binaryMutate(mutant, r, mutationRate);
                 // create
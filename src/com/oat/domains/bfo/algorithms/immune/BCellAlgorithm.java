@@ -19,6 +19,7 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 package com.oat.domains.bfo.algorithms.immune;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Random;
 
@@ -29,6 +30,7 @@ import com.oat.domains.bfo.BFOProblemInterface;
 import com.oat.domains.bfo.BFOSolution;
 import com.oat.domains.bfo.BFOUtils;
 import com.oat.utils.AlgorithmUtils;
+import com.oat.utils.MutationUtils;
 import com.oat.utils.RandomUtils;
 
 /**
@@ -54,7 +56,8 @@ import com.oat.utils.RandomUtils;
  *                          Quick hack to check for any more evaluations after cloning stage, so that
  *                          replacement scoring check cannot fail
  * 20/08/2007	JBrownlee	Moved to binary function optimization domain
- * 
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
+ * 05/12/2007   JBrownlee   Mutation uses the sparse kernels in MutationUtils
  * </pre>
  */
 public class BCellAlgorithm extends Algorithm
@@ -76,7 +79,7 @@ public class BCellAlgorithm extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         // prepare initial population
         LinkedList<BFOSolution> pop = BFOUtils.getRandomPopulationBinary(r, (BFOProblemInterface)p, popsize);   
         // evaluate
@@ -88,9 +91,9 @@ public class BCellAlgorithm extends Algorithm
             LinkedList<BFOSolution> newpop = new LinkedList<BFOSolution>();
             boolean wasReplacement = false;
             // apply cloning process for each member of the pop
-            for (int i = 0; p.canEvaluate() && i < pop.size(); i++)
+            for(Iterator<BFOSolution> it = pop.iterator(); p.canEvaluate() && it.hasNext(); )
             {
-            	BFOSolution s = pop.get(i);
+            	BFOSolution s = it.next();
             	BFOSolution bestOfClone = generateCloneAndGetBest(p,s, r);
                 
                 // check for no more evals
@@ -148,18 +151,11 @@ public class BCellAlgorithm extends Algorithm
     protected BFOSolution cloneAndMutate(BFOSolution parent, Random r)
     {
         // clone
-        boolean [] b = new boolean[parent.getBitString().length];
-        System.arraycopy(parent.getBitString(),0,b,0,b.length);
+        boolean [] b = parent.getBitString();
         // mutate
         int start = r.nextInt(b.length);
         int length = r.nextInt(b.length-start); // some valid length, including zero - no change
-        for (int i = start; i < start+length; i++)
-        {
-            if(r.nextDouble() <= mutateFactor)
-            {
-                b[i] = !b[i]; // flip the bit
-            }
-        }        
+        MutationUtils.binaryMutate(b, r, mutateFactor, start, start+length);
         return new BFOSolution(b);
     }
 
@@ -34,6 +34,7 @@ import com.oat.utils.AlgorithmUtils;
 import com.oat.utils.ArrayUtils;
 import com.oat.utils.EvolutionUtils;
 import com.oat.utils.ImmuneSystemUtils;
+import com.oat.utils.RandomUtils;
 
 /**
  * Type: CLIGA<br/>
@@ -53,6 +54,7 @@ import com.oat.utils.ImmuneSystemUtils;
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  *                          Use evolution utils for mutation
  * 20/08/2007	JBrownlee	Moved to binary function optimization domain
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class CLIGA extends Algorithm
@@ -84,7 +86,7 @@ public class CLIGA extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         // prepare initial population
         LinkedList<BFOSolution> pop = BFOUtils.getRandomPopulationBinary(r, (BFOProblemInterface)p, popSize);
         // evaluate
@@ -163,15 +165,16 @@ public class CLIGA extends Algorithm
         
         for(BFOSolution b : pop)
         {
+            int length = b.getBitStringLength();
             // check if this solution can be cloned
-            if(r.nextDouble() < ImmuneSystemUtils.cloningPotentialCLIGA(b.getNormalizedRelativeScore(), b.getBitString().length, k))
+            if(r.nextDouble() < ImmuneSystemUtils.cloningPotentialCLIGA(b.getNormalizedRelativeScore(), length, k))
             {            
                 for (int i = 0; i < numClones; i++)
                 {
                     // copy
-                    boolean [] bitString = ArrayUtils.copyArray(b.getBitString());
+                    boolean [] bitString = b.getBitString();
                     // mutate
-                    mutate(bitString, b.getNormalizedRelativeScore(), b.getBitString().length, r);
+                    mutate(bitString, b.getNormalizedRelativeScore(), length, r);
                     // create
                     BFOSolution clone = new BFOSolution(bitString);
                     // store
@@ -54,7 +54,8 @@ import com.oat.utils.RandomUtils;
  * Change History
  * ----------------------------------------------------------------------------
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
- * 
+ * 20/11/2007   JBrownlee   Mutation operates on packed bit strings
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class CLONALG extends Algorithm
@@ -84,7 +85,7 @@ public class CLONALG extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         
         // prepare initial population
         LinkedList<BFOSolution> pop = generateRandoms(p, popsize, r); 
@@ -268,7 +269,7 @@ public class CLONALG extends Algorithm
             // copy
             BFOSolution b = new BFOSolution(s);
             // mutate
-            EvolutionUtils.binaryMutate(b.getBitString(), r, mutationProb);
+            EvolutionUtils.binaryMutate(b.getPackedBitString(), r, mutationProb);
             // add
             clone.add(b);
         }
@@ -32,7 +32,9 @@ import com.oat.domains.bfo.BFOProblemInterface;
 import com.oat.domains.bfo.BFOSolution;
 import com.oat.utils.AlgorithmUtils;
 import com.oat.utils.EvolutionUtils;
+import com.oat.utils.MutationUtils;
 import com.oat.utils.RandomUtils;
+import com.oat.utils.PackedBitString;
 
 /**
  * Type: OptIA<br/>
@@ -53,7 +55,9 @@ import com.oat.utils.RandomUtils;
  * ----------------------------------------------------------------------------
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  *                          Updated to use binary mutation in evolutionary utils
- * 
+ * 20/11/2007   JBrownlee   Mutation operates on packed bit strings
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
+ * 05/12/2007   JBrownlee   Mutation uses the sparse kernels in MutationUtils
  * </pre>
  */
 public class OptIA extends Algorithm
@@ -102,7 +106,7 @@ public class OptIA extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         // prepare initial population
         LinkedList<OptIABinarySolution> pop = new LinkedList<OptIABinarySolution>();
         while(pop.size() < popSize)
@@ -193,11 +197,11 @@ public class OptIA extends Algorithm
                     // do mutation                    
                     if(mutation == HYPER_MUTATION.STATIC)
                     {
-                        mutateStaticHypermutation(clone.getBitString(), r);
+                        mutateStaticHypermutation(clone.getPackedBitString(), r);
                     }
                     else if(mutation == HYPER_MUTATION.INVERSELY_PROPORTIONAL)
                     {
-                        mutateInverselyProportionalHypermutation(clone.getBitString(), b.getNormalizedRelativeScore(), r);
+                        mutateInverselyProportionalHypermutation(clone.getPackedBitString(), b.getNormalizedRelativeScore(), r);
                     }
                     clones.add(clone);
                 }            
@@ -219,7 +223,7 @@ public class OptIA extends Algorithm
                 {
                     OptIABinarySolution clone = new OptIABinarySolution(b);                    
                     // do mutation
-                    mutateHyperMacroMutation(clone.getBitString(), r);
+                    mutateHyperMacroMutation(clone.getPackedBitString(), r);
                     clones.add(clone);
                 }            
             }
@@ -232,7 +236,7 @@ public class OptIA extends Algorithm
      * H1 - Static Hyper Mutation
      * @param b
      */
-    protected void mutateStaticHypermutation(boolean [] b, Random r)
+    protected void mutateStaticHypermutation(PackedBitString b, Random r)
     {
         // bimary mutate
         EvolutionUtils.binaryMutate(b, r, c);
@@ -250,9 +254,9 @@ public class OptIA extends Algorithm
      * H2 - Inversely Proportional Hypermutation
      * @param b
      */
-    protected void mutateInverselyProportionalHypermutation(boolean [] b, double f, Random r)
+    protected void mutateInverselyProportionalHypermutation(PackedBitString b, double f, Random r)
     {        
-        double prob = ((1.0 - (Math.E/f)) * (c * b.length)) + (c * b.length);
+        double prob = ((1.0 - (Math.E/f)) * (c * b.length())) + (c * b.length());
         
         // safety - the above equation does not take to zeros very well
         if(!AlgorithmUtils.inBounds(prob, 0.0, 1.0))
@@ -282,10 +286,10 @@ public class OptIA extends Algorithm
 //        }
     }
     
-    protected void mutateHyperMacroMutation(boolean [] b, Random r)
+    protected void mutateHyperMacroMutation(PackedBitString b, Random r)
     {
         // (i + 1 <= j <= length)
-        int j = r.nextInt(b.length-1)+1; // j in [1,length]
+        int j = r.nextInt(b.length()-1)+1; // j in [1,length]
         int i = (j==1) ? 0 : r.nextInt(j-1); // i in [0, j-1]
         
         // test for safety
@@ -293,19 +297,14 @@ public class OptIA extends Algorithm
         {
             throw new AlgorithmRunException("Invalid i or j failed: i + 1 <= j, i["+i+"], j["+j+"]");
         }
-        else if(!(j <= b.length))
+        else if(!(j <= b.length()))
         {
             throw new AlgorithmRunException("Invalid i or j failed: j <= length, i["+i+"], j["+j+"]");
         }
         
         // TODO: Assume to use 'c' to mutate, the paper is not clear!
-        for (; i <=j; i++)
-        {
-            if(r.nextDouble() <= c) // c?
-            {
-                b[i] = !b[i];
-            }
-        }
+        // mutate [i, j] inclusive
+        MutationUtils.binaryMutate(b, r, c, i, j+1);
     }    
     
     protected LinkedList<OptIABinarySolution> merge(
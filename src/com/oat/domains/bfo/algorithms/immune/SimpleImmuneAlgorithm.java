@@ -30,6 +30,7 @@ import com.oat.domains.bfo.BFOSolution;
 import com.oat.domains.bfo.BFOUtils;
 import com.oat.utils.ArrayUtils;
 import com.oat.utils.EvolutionUtils;
+import com.oat.utils.RandomUtils;
 
 /**
  * Type: SimpleImmuneAlgorithm<br/>
@@ -44,7 +45,7 @@ import com.oat.utils.EvolutionUtils;
  * Change History
  * ----------------------------------------------------------------------------
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
- * 
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class SimpleImmuneAlgorithm extends Algorithm
@@ -71,7 +72,7 @@ public class SimpleImmuneAlgorithm extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         // prepare initial population
         LinkedList<BFOSolution> pop = BFOUtils.getRandomPopulationBinary(r, (BFOProblemInterface)p, popSize);
         // evaluate
@@ -103,7 +104,7 @@ public class SimpleImmuneAlgorithm extends Algorithm
             for (int i = 0; i < numClones; i++)
             {
                 // copy
-                boolean [] bitString = ArrayUtils.copyArray(b.getBitString());
+                boolean [] bitString = b.getBitString();
                 // mutate
                 mutate(bitString, r);
                 // create
@@ -30,7 +30,7 @@ import com.oat.Problem;
 import com.oat.domains.bfo.BFOProblemInterface;
 import com.oat.domains.bfo.BFOSolution;
 import com.oat.utils.AlgorithmUtils;
-import com.oat.utils.ArrayUtils;
+import com.oat.utils.PackedBitString;
 import com.oat.utils.RandomUtils;
 
 
@@ -50,6 +50,8 @@ import com.oat.utils.RandomUtils;
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  * 20/08/2007	JBrownlee	Moved to binary function optimization domain
  * 							Updated function calls to utilities where needed
+ * 20/11/2007   JBrownlee   Mutation operates on packed bit strings
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class GeneralizedExtremalOptimization extends Algorithm 
@@ -83,13 +85,19 @@ public class GeneralizedExtremalOptimization extends Algorithm
             super(v);
             fitnessDelta = 0.0;
         }
+        
+        public GEOSolution(PackedBitString v)
+        {
+            super(v);
+            fitnessDelta = 0.0;
+        }
     }
     
     
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         LinkedList<GEOSolution> pop = new LinkedList<GEOSolution>();        
         // prepare initial population
         while(pop.size() < initialPopulationSize)
@@ -178,14 +186,14 @@ public class GeneralizedExtremalOptimization extends Algorithm
     protected LinkedList<GEOSolution> generateChildren(Problem p, GEOSolution current)
     {
         LinkedList<GEOSolution> c = new LinkedList<GEOSolution>();        
-        boolean [] parent = current.getBitString();
+        PackedBitString parent = current.getPackedBitString();
         
-        for (int i = 0; i < parent.length; i++)
+        for (int i = 0; i < parent.length(); i++)
         {
         	// duplicate
-            boolean [] child = ArrayUtils.copyArray(parent);
+            PackedBitString child = new PackedBitString(parent);
             // mutation
-            child[i] = !child[i];
+            child.flip(i);
             // creation
             GEOSolution s = new GEOSolution(child);
             // storage
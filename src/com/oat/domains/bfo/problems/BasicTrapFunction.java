@@ -35,7 +35,7 @@ import com.oat.utils.BitStringUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 20/11/2007	JBrownlee	Unitation is counted on the packed bit string
  * </pre>
  */
 public class BasicTrapFunction extends BFOProblem
@@ -54,7 +54,7 @@ public class BasicTrapFunction extends BFOProblem
     protected double problemSpecificCost(Solution n)
     {
         BFOSolution s = (BFOSolution) n;
-        double u = BitStringUtils.unitation(s.getBitString());
+        double u = BitStringUtils.unitation(s.getPackedBitString());
         if(u<z)
         {
             return (a/z) * (z-u);
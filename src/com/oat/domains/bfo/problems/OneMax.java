@@ -35,7 +35,7 @@ import com.oat.utils.BitStringUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 20/11/2007	JBrownlee	Unitation is counted on the packed bit string
  * </pre>
  */
 public class OneMax extends BFOProblem
@@ -48,7 +48,7 @@ public class OneMax extends BFOProblem
     @Override
     protected double problemSpecificCost(Solution s)
     {
-        return BitStringUtils.unitation(((BFOSolution)s).getBitString());
+        return BitStringUtils.unitation(((BFOSolution)s).getPackedBitString());
     }
 
     @Override
@@ -35,7 +35,7 @@ import com.oat.utils.BitStringUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 20/11/2007	JBrownlee	Unitation is counted on the packed bit string
  * </pre>
  */
 public class FoldedTrapFunction extends BFOProblem
@@ -53,7 +53,7 @@ public class FoldedTrapFunction extends BFOProblem
     protected double problemSpecificCost(Solution n)
     {
         BFOSolution s = (BFOSolution) n;
-        double u = BitStringUtils.unitation(s.getBitString());
+        double u = BitStringUtils.unitation(s.getPackedBitString());
         if(u<z)
         {
             return (b/z) * (z-u);
@@ -36,7 +36,7 @@ import com.oat.utils.BitStringUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 20/11/2007	JBrownlee	Unitation is counted on the packed bit string
  * </pre>
  */
 public class EvenUnitation extends BFOProblem
@@ -49,7 +49,7 @@ public class EvenUnitation extends BFOProblem
     @Override
     protected double problemSpecificCost(Solution s)
     {
-        int u = BitStringUtils.unitation(((BFOSolution)s).getBitString());
+        int u = BitStringUtils.unitation(((BFOSolution)s).getPackedBitString());
         if((u%2)==0)
         {
             return 1.0;
@@ -36,7 +36,7 @@ import com.oat.utils.BitStringUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 20/11/2007	JBrownlee	Unitation is counted on the packed bit string
  * </pre>
  */
 public class UnitationWithSlope extends BFOProblem
@@ -50,7 +50,7 @@ public class UnitationWithSlope extends BFOProblem
     protected double problemSpecificCost(Solution s)
     {
         boolean oddLength = ((length%2)!=0);        
-        double u = BitStringUtils.unitation(((BFOSolution)s).getBitString());
+        double u = BitStringUtils.unitation(((BFOSolution)s).getPackedBitString());
         
         double fmm = 0.0;        
         if(oddLength && (u%2)!=0)
@@ -23,6 +23,7 @@ import com.oat.Solution;
 import com.oat.domains.bfo.BFOProblem;
 import com.oat.domains.bfo.BFOSolution;
 import com.oat.utils.BitStringUtils;
+import com.oat.utils.PackedBitString;
 
 /**
  * Type: M7<br/>
@@ -35,7 +36,7 @@ import com.oat.utils.BitStringUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 20/11/2007	JBrownlee	Unitation is counted on the packed bit string
  * </pre>
  */
 public class M7 extends BFOProblem
@@ -52,7 +53,7 @@ public class M7 extends BFOProblem
     protected double problemSpecificCost(Solution n)
     {        
         BFOSolution s = (BFOSolution) n;
-        boolean [] b = s.getBitString(); 
+        PackedBitString b = s.getPackedBitString(); 
         double sum = 0.0;
                 
         for (int i = 0; i < NUM_SUB_FUNC; i++)
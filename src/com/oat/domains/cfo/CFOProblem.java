@@ -22,11 +22,12 @@ package com.oat.domains.cfo;
 import com.oat.AlgorithmRunException;
 import com.oat.InvalidConfigurationException;
 import com.oat.Problem;
+import com.oat.RunInstrumentation;
 import com.oat.Solution;
-import com.oat.SolutionEvaluationException;
 import com.oat.domains.bfo.BFOProblemInterface;
 import com.oat.domains.bfo.BFOSolution;
 import com.oat.utils.AlgorithmUtils;
+import com.oat.utils.ArrayKey;
 import com.oat.utils.BinaryDecodeMode;
 
 /**
@@ -49,6 +50,10 @@ import com.oat.utils.BinaryDecodeMode;
  * 07/08/2007   JBrownlee   Implemented the BinaryProblemInterface interface to allow the problem to appear
  *                          as a binary problem to binary algorithms
  * 20/08/2007	JBrownlee	Added a wrapper for evaluating the cost of binary solutions as cfo solutions
+ * 14/11/2007	JBrownlee	Binary solution wrapper moved to prepareSolutionForEvaluation()
+ * 19/11/2007	JBrownlee	Added bulk evaluation of row-major coordinate blocks
+ * 29/11/2007   JBrownlee   Bulk evaluation timed when instrumented
+ * 02/12/2007   JBrownlee   Genotype key for the evaluation cache
  * </pre>
  */
 public abstract class CFOProblem extends Problem
@@ -221,16 +226,117 @@ public abstract class CFOProblem extends Problem
         return problemSpecificCost(((CFOSolution)solution).getCoordinate());
     }
     
+    /**
+     * Cost of a single coordinate stored in a row-major block, the coordinate occupies
+     * block[offset] to block[offset+dimensions-1]. The default implementation copies the
+     * coordinate and calls problemSpecificCost(double[]). Problems that support bulk evaluation
+     * override this method to work on the block directly.
+     * 
+     * @param block
+     * @param offset
+     * @return
+     */
+    protected double problemSpecificCost(double [] block, int offset)
+    {
+    	double [] v = new double[dimensions];
+    	System.arraycopy(block, offset, v, 0, dimensions);
+    	return problemSpecificCost(v);
+    }
+    
+    /**
+     * Whether or not the problem evaluates coordinate blocks directly, in which case 
+     * collections of solutions are evaluated in bulk. Default is false.
+     * @return
+     */
+    public boolean isBulkEvaluationSupported()
+    {
+    	return false;
+    }
+    
+    /**
+     * Bulk function evaluation without the overhead of the problem cost() function. 
+     * The block holds total coordinates of getDimensions() values each in row-major order,
+     * the score for each coordinate is stored in scores.
+     * 
+     * @param block
+     * @param total
+     * @param scores
+     */
+    public void directFunctionEvaluation(double [] block, int total, double [] scores)
+    {
+    	for (int i = 0, offset = 0; i < total; i++, offset += dimensions)
+		{
+			scores[i] = problemSpecificCost(block, offset);
+		}
+    }
+    
+    @Override
+    protected boolean isBatchEvaluation(int size)
+    {
+    	return super.isBatchEvaluation(size) || (size > 1 && isBulkEvaluationSupported());
+    }
+    
+    @Override
+    protected void calculateBatchScores(Solution [] batch, int length, double [] scores, RuntimeException [] failures)
+    {
+    	if(isParallelEvaluation(length) || !isBulkEvaluationSupported())
+    	{
+    		super.calculateBatchScores(batch, length, scores, failures);
+    		return;
+    	}
+    	
+    	RunInstrumentation in = instrumentation;
+    	long start = (in == null) ? 0 : System.nanoTime();
+    	// pack all safe coordinates into a single block
+    	double [] block = new double[length * dimensions];
+    	int [] rows = new int[length];
+    	int total = 0;
+    	for (int i = 0; i < length; i++)
+		{
+    		try
+    		{
+    			double [] v = ((CFOSolution)batch[i]).getCoordinate();
+    			checkSolutionForSafety(v);
+    			System.arraycopy(v, 0, block, total * dimensions, dimensions);
+    			rows[total++] = i;
+    		}
+    		catch(RuntimeException e)
+    		{
+    			failures[i] = e;
+    		}
+		}
+    	long checked = (in == null) ? 0 : System.nanoTime();
+    	// evaluate and unpack
+    	double [] packed = new double[total];
+    	directFunctionEvaluation(block, total, packed);
+    	if(in != null)
+    	{
+    		// bulk evaluation, timed as a whole
+    		long end = System.nanoTime();
+    		in.recordSafetyChecks(checked - start, length);
+    		in.recordCosts(end - checked, total);
+    	}
+    	for (int i = 0; i < total; i++)
+		{
+			scores[rows[i]] = packed[i];
+		}
+    }
+    
+    @Override
+    protected Object getEvaluationCacheKey(Solution solution)
+    {
+    	return ArrayKey.of(((CFOSolution)solution).getCoordinate());
+    }
+    
     @Override
-    public void cost(Solution solution)
-        throws SolutionEvaluationException
+    protected Solution prepareSolutionForEvaluation(Solution solution)
     {
     	// intercept's all evaluations
         if(solution instanceof BFOSolution)
         {
-            solution = new CFOSolution((BFOSolution)solution, this);
+            return new CFOSolution((BFOSolution)solution, this);
         }
-        super.cost(solution);
+        return solution;
     }
     
     @Override
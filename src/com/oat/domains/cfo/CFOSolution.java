@@ -39,6 +39,7 @@ import com.oat.utils.BitStringUtils;
  * Change History
  * ----------------------------------------------------------------------------
  * 07/08/2007   JBrownlee   Modified to support the embedding of a binary solution
+ * 20/11/2007   JBrownlee   Decodes the packed bit string
  * </pre>
  */
 public class CFOSolution extends Solution
@@ -94,7 +95,7 @@ public class CFOSolution extends Solution
     public CFOSolution(BFOSolution aBinarySolution, CFOProblem aProblem)
     {
         // translate the binary solution
-        coordinate = BitStringUtils.decode(aProblem.getDecodeMode(), aBinarySolution.getBitString(), aProblem.getMinmax());
+        coordinate = BitStringUtils.decode(aProblem.getDecodeMode(), aBinarySolution.getPackedBitString(), aProblem.getMinmax());
         // check for things        
         if(aBinarySolution.isEvaluated())
         {
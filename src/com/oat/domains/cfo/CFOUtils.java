@@ -47,6 +47,7 @@ import com.oat.utils.RandomUtils;
  *                          Added generic fitness sharing functionality
  * 07/08/2007   JBrownlee   Moved to com.oat.funcopt
  * 20/08/2007	JBrownlee	Moved fitness sharing utilities to BFOUtils (binary in nature)
+ * 20/11/2007   JBrownlee   Decodes the packed bit string
  * </pre>
  */
 public class CFOUtils
@@ -54,7 +55,7 @@ public class CFOUtils
 
 	public static double [] decode(BFOSolution s, CFOProblemInterface p)
 	{
-		return BitStringUtils.decode(p.getDecodeMode(), s.getBitString(), p.getMinmax());
+		return BitStringUtils.decode(p.getDecodeMode(), s.getPackedBitString(), p.getMinmax());
 	}
 	
 	
@@ -285,9 +286,10 @@ public class CFOUtils
     {
     	double [][] coords = new double[pop.size()][];
     	
-    	for (int i = 0; i < coords.length; i++)
+    	int i = 0;
+    	for(T s : pop)
 		{
-    		coords[i] = CFOUtils.decode(pop.get(i), p);
+    		coords[i++] = CFOUtils.decode(s, p);
 		}
     	
     	return coords;
@@ -19,12 +19,12 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 package com.oat.domains.cfo.algorithms;
 
-import java.util.LinkedList;
 import java.util.Random;
 
 import com.oat.Algorithm;
 import com.oat.InitialisationException;
 import com.oat.InvalidConfigurationException;
+import com.oat.Population;
 import com.oat.Problem;
 import com.oat.domains.cfo.CFOProblemInterface;
 import com.oat.domains.cfo.CFOSolution;
@@ -46,7 +46,8 @@ import com.oat.utils.RandomUtils;
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  *                          Fixed bug after children evaluation where children population
  *                          was not getting trimmed of un-evaluated solutions
- * 
+ * 18/11/2007   JBrownlee   Population held in an array-backed container with a reused replacement buffer
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class ParallelHillclimbingAlgorithm extends Algorithm
@@ -70,16 +71,16 @@ public class ParallelHillclimbingAlgorithm extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         
-        LinkedList<CFOSolution> pop = new LinkedList<CFOSolution>();        
+        Population<CFOSolution> pop = new Population<CFOSolution>(popsize);        
         // prepare initial population
         while(pop.size() < popsize)
         {
             pop.add(new CFOSolution(RandomUtils.randomPointInRange(r, ((CFOProblemInterface)p).getMinmax())));
         }         
         // evaluate
-        p.cost(pop);        
+        pop.evaluate(p);        
         
         // run algorithm until there are no evaluations left
         int j = 0;
@@ -88,16 +89,16 @@ public class ParallelHillclimbingAlgorithm extends Algorithm
         while(p.canEvaluate())
         {
             triggerIterationCompleteEvent(p,pop);
-            LinkedList<CFOSolution> children = generate(pop, direction, j, (CFOProblemInterface)p);
-            p.cost(children);
+            Population<CFOSolution> children = generate(pop, direction, j, (CFOProblemInterface)p);
+            children.evaluate(p);
             if(!p.canEvaluate())
             {
                 continue;
             }
-            LinkedList<CFOSolution> n = new LinkedList<CFOSolution>();
+            Population<CFOSolution> n = pop.getNextGeneration();
             for (int i = 0; i < children.size(); i++)
             {
-                if(p.isBetter(children.get(i), pop.get(i)))
+                if(p.isBetter(children.getScore(i), pop.getScore(i)))
                 {
                     // only accept improvements
                     n.add(children.get(i));
@@ -108,7 +109,7 @@ public class ParallelHillclimbingAlgorithm extends Algorithm
                     n.add(pop.get(i));
                 }
             }
-            pop = n;            
+            pop.commitNextGeneration();            
             
             // positive and negative for this axis
             if(++direction >= 2)
@@ -135,9 +136,9 @@ public class ParallelHillclimbingAlgorithm extends Algorithm
     }
     
     
-    protected LinkedList<CFOSolution> generate(LinkedList<CFOSolution> pop, int dir, int axis, CFOProblemInterface p)
+    protected Population<CFOSolution> generate(Population<CFOSolution> pop, int dir, int axis, CFOProblemInterface p)
     {
-        LinkedList<CFOSolution> n = new LinkedList<CFOSolution>();
+        Population<CFOSolution> n = new Population<CFOSolution>(pop.size());
         for(CFOSolution s : pop)
         {
             double [] coord = s.getCoordinate();
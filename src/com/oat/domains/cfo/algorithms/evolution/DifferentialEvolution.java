@@ -19,7 +19,6 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 package com.oat.domains.cfo.algorithms.evolution;
 
-import java.util.LinkedList;
 import java.util.Random;
 
 import com.oat.Algorithm;
@@ -29,8 +28,7 @@ import com.oat.Problem;
 import com.oat.domains.cfo.CFOProblemInterface;
 import com.oat.domains.cfo.CFOSolution;
 import com.oat.domains.cfo.CFOUtils;
-import com.oat.utils.AlgorithmUtils;
-import com.oat.utils.EvolutionUtils;
+import com.oat.utils.RandomUtils;
 
 
 /**
@@ -49,7 +47,8 @@ import com.oat.utils.EvolutionUtils;
  *                          are remaining evaluations
  * 06/01/2007   JBrownlee   Moved algorithm main loop into single method
  * 09/01/2007   JBrownlee   Use generic replacement strategy, cleaned up 
- * 
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
+ * 07/12/2007   JBrownlee   Population held in a flat block, trial vectors generated in parallel chunks with split random streams
  * </pre>
  */
 public class DifferentialEvolution extends Algorithm
@@ -66,6 +65,7 @@ public class DifferentialEvolution extends Algorithm
     protected double CR = 0.8;
     protected double F = 0.8;
     protected Mode mode = Mode.DE_RAND_1_BIN;    
+    protected int totalThreads = 1;
     
     
     @Override
@@ -75,133 +75,163 @@ public class DifferentialEvolution extends Algorithm
         "Differential Evolution (DE): " +
         "As described in Kenneth V. Price. Chapter Six: An Introduction to Differential Evolution. D. Corne; M. Dorigo, and F. Glover, Editors. New Ideas in Optimization. England: McGraw-Hill; 1999; pp. 79-108." +
         "Supports a number of standard combination modes, " +
-        "uses a random \"K\" value where appropriate.";
+        "uses a random \"K\" value where appropriate. " +
+        "Trial vectors may be generated and evaluated in parallel, results do not depend on the number of threads.";
     }
     
     @Override
     public void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);        
+        Random r = RandomUtils.newRandom(seed);        
+        CFOProblemInterface cp = (CFOProblemInterface) p;
+        int D = cp.getDimensions();
         
         // prepare initial population
-        LinkedList<CFOSolution> pop = CFOUtils.getRandomPopulationReal(r, (CFOProblemInterface)p, popsize);   
+        CFOSolution [] pop = CFOUtils.getRandomPopulationReal(r, cp, popsize).toArray(new CFOSolution[popsize]);   
         // evaluate
         p.cost(pop);
         
-        // run algorithm until there are no evaluations left
-        while(p.canEvaluate())
+        // coordinates of the population in a row-major block, donors are read from the block
+        double [] population = new double[popsize * D];
+        for (int i = 0; i < popsize; i++)
         {
-            triggerIterationCompleteEvent(p,pop);
-            // reproduce
-            LinkedList<CFOSolution> children = generateChildren(pop, (CFOProblemInterface)p, r);
-            // evaluate
-            p.cost(children);    
-            // perform replacement
-            if(p.canEvaluate())
-            {
-                pop = EvolutionUtils.elitistReplacement(pop, children, p);   
-            }
+            System.arraycopy(pop[i].getCoordinate(), 0, population, i * D, D);
+        }
+        double [][] trials = new double[popsize][];
+        CFOSolution [] children = new CFOSolution[popsize];
+        Random [] streams = DifferentialEvolutionEngine.createStreams(popsize, r);
+        DifferentialEvolutionEngine engine = new DifferentialEvolutionEngine(totalThreads);
+        // the engine evaluates the trials unless the problem has been given its own pool
+        boolean lend = (totalThreads > 1 && p.getEvaluationPool() == null);
+        if(lend)
+        {
+            p.enableParallelEvaluation(engine);
         }
-    }
-  
-    
-    public LinkedList<CFOSolution> generateChildren(LinkedList<CFOSolution> pop, CFOProblemInterface p, Random r)
-    {
-        int NP = pop.size();
-        int D = p.getDimensions();
-        LinkedList<CFOSolution> children = new LinkedList<CFOSolution>();
         
-        for (int i = 0; i < NP; i++)
+        try
         {
-            int r1, r2, r3 = -1;
-            do{r1=r.nextInt(NP);}while(r1==i);
-            do{r2=r.nextInt(NP);}while(r2==i||r2==r1);
-            do{r3=r.nextInt(NP);}while(r3==i||r3==r1||r3==r2);
-            
-            double [] p0 = pop.get(i).getCoordinate();
-            double [] p1 = pop.get(r1).getCoordinate();
-            double [] p2 = pop.get(r2).getCoordinate();
-            double [] p3 = pop.get(r3).getCoordinate();     
-            double [] child = null;
-            
-            switch(mode)
+            // run algorithm until there are no evaluations left
+            while(p.canEvaluate())
             {
-                case DE_RAND_1_BIN:
-                {
-                    child = DE_RAND_1_BIN(p0, p1, p2, p3, D, r);
-                    break;
-                }        
-                case DE_CURRENT_TO_RAND:
+                triggerIterationCompleteEvent(p,pop);
+                // reproduce, each trial is a new coordinate as it is held by the child solution
+                for (int i = 0; i < popsize; i++)
                 {
-                    child = DE_CURRENT_TO_RAND(p0, p1, p2, p3, D, r);
-                    break;
+                    trials[i] = new double[D];
                 }
-                case DE_RAND_1_EXP:
+                engine.generateTrials(this, population, trials, popsize, D, cp.getMinmax(), cp.isToroidal(), streams);
+                for (int i = 0; i < popsize; i++)
                 {
-                    child = DE_RAND_1_EXP(p0, p1, p2, p3, D, r);
-                    break;
+                    children[i] = new CFOSolution(trials[i]);
                 }
-                case DE_CURRENT_TO_RAND_1_BIN:
+                // evaluate
+                p.cost(children);    
+                // perform replacement in place, the child replaces its parent unless the parent is better
+                if(p.canEvaluate())
                 {
-                    child = DE_CURRENT_TO_RAND_1_BIN(p0, p1, p2, p3, D, r);
-                    break;
-                }
-                default:
-                {
-                    throw new AlgorithmRunException("Unknown mode: " + mode);
+                    for (int i = 0; i < popsize; i++)
+                    {
+                        if(!p.isBetter(pop[i], children[i]))
+                        {
+                            pop[i] = children[i];
+                            System.arraycopy(trials[i], 0, population, i * D, D);
+                        }
+                    }
                 }
             }
-            
-            // add child to list
-            AlgorithmUtils.fixCoordBounds(child, p.getMinmax(), p.isToroidal());
-            CFOSolution s = new CFOSolution(child);
-            children.add(s);
         }
+        finally
+        {
+            if(lend)
+            {
+                p.disableParallelEvaluation();
+            }
+            engine.shutdown();
+        }
+    }
+  
+    /**
+     * Generate the trial vector for target vector i using the configured mode
+     * 
+     * @param population - row-major block of NP coordinates of D dimensions
+     * @param i - index of the target vector
+     * @param NP
+     * @param D
+     * @param child - trial vector to populate
+     * @param r
+     */
+    protected void generateTrial(double [] population, int i, int NP, int D, double [] child, Random r)
+    {
+        int r1, r2, r3 = -1;
+        do{r1=r.nextInt(NP);}while(r1==i);
+        do{r2=r.nextInt(NP);}while(r2==i||r2==r1);
+        do{r3=r.nextInt(NP);}while(r3==i||r3==r1||r3==r2);
         
-        return children;
+        int o0 = i * D;
+        int o1 = r1 * D;
+        int o2 = r2 * D;
+        int o3 = r3 * D;
+        
+        switch(mode)
+        {
+            case DE_RAND_1_BIN:
+            {
+                DE_RAND_1_BIN(population, o0, o1, o2, o3, child, D, r);
+                break;
+            }        
+            case DE_CURRENT_TO_RAND:
+            {
+                DE_CURRENT_TO_RAND(population, o0, o1, o2, o3, child, D, r);
+                break;
+            }
+            case DE_RAND_1_EXP:
+            {
+                DE_RAND_1_EXP(population, o0, o1, o2, o3, child, D, r);
+                break;
+            }
+            case DE_CURRENT_TO_RAND_1_BIN:
+            {
+                DE_CURRENT_TO_RAND_1_BIN(population, o0, o1, o2, o3, child, D, r);
+                break;
+            }
+            default:
+            {
+                throw new AlgorithmRunException("Unknown mode: " + mode);
+            }
+        }
     }
     
-    protected double [] DE_RAND_1_BIN(double [] p0, double [] p1, double [] p2, double [] p3, int D, Random r)
+    protected void DE_RAND_1_BIN(double [] x, int o0, int o1, int o2, int o3, double [] child, int D, Random r)
     {
-        double [] child = new double[D];
-        
         int j = (int) (r.nextDouble() * D); // random starting point
         for (int k = 1; k <= D; k++)
         {
             if(r.nextDouble() < CR || k == D)
             {
-                child[j] = p3[j] + F * (p1[j] - p2[j]);
+                child[j] = x[o3+j] + F * (x[o1+j] - x[o2+j]);
             }
             else
             {
-                child[j] = p0[j];
+                child[j] = x[o0+j];
             }               
             
             // check bounds
             j = (j + 1) % D; // wrap
         }
-        
-        return child;
     }
     
-    protected double [] DE_CURRENT_TO_RAND(double [] p0, double [] p1, double [] p2, double [] p3, int D, Random r)
+    protected void DE_CURRENT_TO_RAND(double [] x, int o0, int o1, int o2, int o3, double [] child, int D, Random r)
     {
-        double [] child = new double[D];
-        
         for (int j = 0; j < D; j++)
         {
             // randomise K
             double K = r.nextDouble();            
-            child[j] = p0[j] + (K * (p3[j] - p0[j])) + (F * (p1[j] - p2[j]));
+            child[j] = x[o0+j] + (K * (x[o3+j] - x[o0+j])) + (F * (x[o1+j] - x[o2+j]));
         }
-        
-        return child;
     }
     
-    protected double [] DE_RAND_1_EXP(double [] p0, double [] p1, double [] p2, double [] p3, int D, Random r)
+    protected void DE_RAND_1_EXP(double [] x, int o0, int o1, int o2, int o3, double [] child, int D, Random r)
     {
-        double [] child = new double[D];   
-        
         int j = (int) (r.nextDouble() * D); // random starting point
         int flag = 0;
         for (int k = 1; k <= D; k++)
@@ -212,25 +242,21 @@ public class DifferentialEvolution extends Algorithm
             }
             if(flag == 1)
             {
-                child[j] = p3[j] + F * (p1[j] - p2[j]);
+                child[j] = x[o3+j] + F * (x[o1+j] - x[o2+j]);
             }
             else
             {
-                child[j] = p0[j];
+                child[j] = x[o0+j];
             }             
             
             // check bounds
             j = (j + 1) % D; // wrap
         }
-        
-        return child;
     }
     
     
-    protected double [] DE_CURRENT_TO_RAND_1_BIN(double [] p0, double [] p1, double [] p2, double [] p3, int D, Random r)
+    protected void DE_CURRENT_TO_RAND_1_BIN(double [] x, int o0, int o1, int o2, int o3, double [] child, int D, Random r)
     {
-        double [] child = new double[D];
-        
         int j = (int) (r.nextDouble() * D); // random starting point
         for (int k = 1; k <= D; k++)
         {
@@ -238,18 +264,16 @@ public class DifferentialEvolution extends Algorithm
             {
                 // randomise K
                 double K = r.nextDouble();                
-                child[j] = p0[j] +  (K * (p3[j] - p0[j])) + (F * (p1[j] - p2[j]));
+                child[j] = x[o0+j] +  (K * (x[o3+j] - x[o0+j])) + (F * (x[o1+j] - x[o2+j]));
             }
             else
             {
-                child[j] = p0[j];
+                child[j] = x[o0+j];
             }  
             
             // check bounds
             j = (j + 1) % D; // wrap                
         }
-        
-        return child;
     }
     
     
@@ -265,7 +289,7 @@ public class DifferentialEvolution extends Algorithm
     throws InvalidConfigurationException
     {
         // popsize
-        if(popsize<=0)
+        if(popsize<4)
         {
             throw new InvalidConfigurationException("Invalid popsize " + popsize);
         }
@@ -279,6 +303,11 @@ public class DifferentialEvolution extends Algorithm
         {
             throw new InvalidConfigurationException("Invalid F " + F);
         }
+        // threads
+        if(totalThreads<1)
+        {
+            throw new InvalidConfigurationException("Invalid totalThreads " + totalThreads);
+        }
     }
     
     public long getSeed()
@@ -331,5 +360,15 @@ public class DifferentialEvolution extends Algorithm
         this.mode = mode;
     }
 
+    public int getTotalThreads()
+    {
+        return totalThreads;
+    }
+
+    public void setTotalThreads(int totalThreads)
+    {
+        this.totalThreads = totalThreads;
+    }
+
     
 }
@@ -0,0 +1,180 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.cfo.algorithms.evolution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oat.AlgorithmRunException;
+import com.oat.EvaluationPool;
+import com.oat.utils.AlgorithmUtils;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Parallel trial vector generation for Differential Evolution. 
+ * 
+ * The population is divided into fixed size chunks of consecutive target vectors, each chunk
+ * has its own random number stream split from the algorithms generator at the start of the run.
+ * Chunks read donors from the population block and write only their own trial vectors, 
+ * such that the trials of a generation do not depend on the number of threads or the order 
+ * in which the threads run.
+ * 
+ * The engine is an evaluation pool, the same worker threads may be used to evaluate the trials.
+ * An engine with a single thread generates trials on the calling thread.
+ *
+ * Date: 07/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class DifferentialEvolutionEngine extends EvaluationPool
+{
+	/**
+	 * Number of consecutive target vectors generated with one random number stream
+	 */
+	public final static int CHUNK_SIZE = 16;
+	
+	
+	/**
+	 * @param aTotalThreads - number of threads, 1 for sequential execution
+	 */
+	public DifferentialEvolutionEngine(int aTotalThreads)
+	{
+		super(aTotalThreads);
+	}
+	
+	/**
+	 * Random number streams for the chunks of a population, split in chunk order
+	 * @param populationSize
+	 * @param rand
+	 * @return
+	 */
+	public static Random [] createStreams(int populationSize, Random rand)
+	{
+		Random [] streams = new Random[(populationSize + CHUNK_SIZE - 1) / CHUNK_SIZE];
+		for (int i = 0; i < streams.length; i++)
+		{
+			streams[i] = RandomUtils.split(rand);
+		}
+		return streams;
+	}
+	
+	/**
+	 * Generate a trial vector for each target vector of the population
+	 * 
+	 * @param de - provides the variation operator
+	 * @param population - row-major block of NP coordinates of D dimensions (read only)
+	 * @param trials - NP trial coordinates to populate
+	 * @param NP
+	 * @param D
+	 * @param minmax
+	 * @param toroidal
+	 * @param streams - one per chunk, see createStreams()
+	 */
+	public void generateTrials(
+			final DifferentialEvolution de,
+			final double [] population,
+			final double [][] trials,
+			final int NP,
+			final int D,
+			final double [][] minmax,
+			final boolean toroidal,
+			final Random [] streams)
+	{
+		if(totalThreads == 1)
+		{
+			for (int c = 0; c < streams.length; c++)
+			{
+				generateChunk(de, population, trials, NP, D, minmax, toroidal, c, streams[c]);
+			}
+			return;
+		}
+		
+		// workers claim the next available chunk
+		final AtomicInteger next = new AtomicInteger();
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(totalThreads);
+		for (int i = 0; i < Math.min(totalThreads, streams.length); i++)
+		{
+			tasks.add(new Callable<Object>()
+			{
+				public Object call()
+				{
+					for(int c = next.getAndIncrement(); c < streams.length; c = next.getAndIncrement())
+					{
+						generateChunk(de, population, trials, NP, D, minmax, toroidal, c, streams[c]);
+					}
+					return null;
+				}
+			});
+		}
+		
+		try
+		{
+			// blocks until all tasks are complete
+			List<Future<Object>> results = executor.invokeAll(tasks);
+			for(Future<Object> f : results)
+			{
+				f.get();
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new AlgorithmRunException("Interrupted while generating trial vectors.", e);
+		}
+		catch (ExecutionException e)
+		{
+			if(e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException) e.getCause();
+			}
+			throw new AlgorithmRunException("Unexpected error generating trial vectors: " + e.getCause(), e.getCause());
+		}
+	}
+	
+	protected void generateChunk(
+			DifferentialEvolution de,
+			double [] population,
+			double [][] trials,
+			int NP,
+			int D,
+			double [][] minmax,
+			boolean toroidal,
+			int chunk,
+			Random r)
+	{
+		int end = Math.min(NP, (chunk+1) * CHUNK_SIZE);
+		for (int i = chunk * CHUNK_SIZE; i < end; i++)
+		{
+			de.generateTrial(population, i, NP, D, trials[i], r);
+			AlgorithmUtils.fixCoordBounds(trials[i], minmax, toroidal);
+		}
+	}
+}
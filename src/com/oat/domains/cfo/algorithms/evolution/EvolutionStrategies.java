@@ -27,6 +27,7 @@ import com.oat.Algorithm;
 import com.oat.AlgorithmRunException;
 import com.oat.AutomaticallyConfigurableAlgorithm;
 import com.oat.InvalidConfigurationException;
+import com.oat.Population;
 import com.oat.Problem;
 import com.oat.domains.cfo.CFOProblemInterface;
 import com.oat.domains.cfo.CFOSolution;
@@ -49,6 +50,7 @@ import com.oat.utils.RandomUtils;
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  *                          Uses evolution utils for elitist selection
  * 24/07/2007   JBrownlee   Added support for automatic configuration
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class EvolutionStrategies extends Algorithm
@@ -149,7 +151,7 @@ public class EvolutionStrategies extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         
         LinkedList<ESSolution> pop = new LinkedList<ESSolution>();        
         // prepare initial population
@@ -216,10 +218,11 @@ public class EvolutionStrategies extends Algorithm
         // randomise parents
         Collections.shuffle(pop, r);
         // recombine        
-        for (int i = 0; i < pop.size(); i+=2)
+        Population<ESSolution> parents = new Population<ESSolution>(pop);
+        for (int i = 0; i < parents.size(); i+=2)
         {
-            ESSolution p1 = pop.get(i);
-            ESSolution p2 = pop.get(i+1);            
+            ESSolution p1 = parents.get(i);
+            ESSolution p2 = parents.get(i+1);            
             // recombination
             ESSolution s1 = recombine(p1, p2, r);
             ESSolution s2 = recombine(p2, p1, r);            
@@ -48,7 +48,7 @@ import com.oat.utils.RandomUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 04/12/2007	JBrownlee	Random stream created with the default generator
  * </pre>
  *
  */
@@ -137,7 +137,7 @@ public class EvolutionaryProgramming extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         
         // prepare initial population
         LinkedList<EPSolution> pop = new LinkedList<EPSolution>();
@@ -22,6 +22,7 @@ package com.oat.domains.cfo.algorithms.evolution;
 import java.util.LinkedList;
 import java.util.Random;
 
+import com.oat.Population;
 import com.oat.Problem;
 import com.oat.domains.bfo.BFOSolution;
 import com.oat.domains.bfo.algorithms.evolution.ProbabilisticCrowding;
@@ -88,12 +89,14 @@ public class ProbabilisticCrowdingEuclidean extends ProbabilisticCrowding
         AlgorithmUtils.calculateNormalizedRelativeFitness(superpop, p);  
         
         // replacements
-        for (int i = 0; i < children.size(); i+=2)
+        Population<T> parents = new Population<T>(pop);
+        Population<T> offspring = new Population<T>(children);
+        for (int i = 0; i < offspring.size(); i+=2)
         {
-            T c1 = children.get(i);
-            T c2 = children.get(i+1);
-            T p1 = pop.get(i);
-            T p2 = pop.get(i+1);
+            T c1 = offspring.get(i);
+            T c2 = offspring.get(i+1);
+            T p1 = parents.get(i);
+            T p2 = parents.get(i+1);
         	
             double [] c1c = CFOUtils.decode(c1, (CFOProblemInterface)p);
             double [] c2c = CFOUtils.decode(c2, (CFOProblemInterface)p);
@@ -24,11 +24,14 @@ import java.util.Random;
 
 import com.oat.Algorithm;
 import com.oat.InvalidConfigurationException;
+import com.oat.Population;
 import com.oat.Problem;
 import com.oat.domains.cfo.CFOProblemInterface;
 import com.oat.domains.cfo.CFOSolution;
 import com.oat.domains.cfo.CFOUtils;
 import com.oat.utils.EvolutionUtils;
+import com.oat.utils.RandomUtils;
+import com.oat.utils.Selection;
 
 
 /**
@@ -45,7 +48,8 @@ import com.oat.utils.EvolutionUtils;
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  * 09/01/2007   JBrownlee   Updated to use function to generate initial population
  *                          Modified to use generic elitism strategy
- * 
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
+ * 06/12/2007   JBrownlee   Selection reuses the buffers of a Selection
  * </pre>
  */
 public class RealValueGeneticAlgorithm extends Algorithm
@@ -72,7 +76,8 @@ public class RealValueGeneticAlgorithm extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);        
+        Random r = RandomUtils.newRandom(seed);        
+        Selection selection = new Selection();
 
         // prepare initial population
         LinkedList<CFOSolution> pop = CFOUtils.getRandomPopulationReal(r, (CFOProblemInterface)p, popsize);   
@@ -85,7 +90,7 @@ public class RealValueGeneticAlgorithm extends Algorithm
             triggerIterationCompleteEvent(p,pop);
             // select the parents of the next generation
             int numToSelect = ((popsize%2)==0) ? popsize : popsize + 1; // must select an even number of parents
-            LinkedList<CFOSolution> selected = EvolutionUtils.tournamentSelection(pop, numToSelect, p, r, boutSize);        
+            LinkedList<CFOSolution> selected = selection.tournamentSelection(pop, numToSelect, p, r, boutSize);        
             // create the solutions of the next generation
             LinkedList<CFOSolution> children = reproduce(selected, popsize-elitism, (CFOProblemInterface)p, r);            
             // evaluate
@@ -104,10 +109,11 @@ public class RealValueGeneticAlgorithm extends Algorithm
     public LinkedList<CFOSolution> reproduce(LinkedList<CFOSolution> pop, int totalChildren, CFOProblemInterface p, Random r)
     {
         LinkedList<CFOSolution> children = new LinkedList<CFOSolution>();
-        for (int i = 0; children.size()<totalChildren && i < pop.size(); i+=2)
+        Population<CFOSolution> parents = new Population<CFOSolution>(pop);
+        for (int i = 0; children.size()<totalChildren && i < parents.size(); i+=2)
         {
-            CFOSolution p1 = pop.get(i);
-            CFOSolution p2 = pop.get(i+1);
+            CFOSolution p1 = parents.get(i);
+            CFOSolution p2 = parents.get(i+1);
             // crossover
             double [][] dd = EvolutionUtils.uniformCrossover(p1.getCoordinate(), p2.getCoordinate(), r, crossover);            
             for (int j = 0; children.size()<totalChildren && j < dd.length; j++)
@@ -47,7 +47,7 @@ import com.oat.utils.RandomUtils;
  * Change History
  * ----------------------------------------------------------------------------
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
- * 
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class AdaptiveClonalSelection extends Algorithm
@@ -135,7 +135,7 @@ public class AdaptiveClonalSelection extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);        
+        Random r = RandomUtils.newRandom(seed);        
         LinkedList<ACSSolution> pop = new LinkedList<ACSSolution>();        
         
         // create initial population
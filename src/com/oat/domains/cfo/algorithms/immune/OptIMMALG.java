@@ -53,7 +53,7 @@ import com.oat.utils.RandomUtils;
  * Change History
  * ----------------------------------------------------------------------------
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
- * 
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class OptIMMALG extends Algorithm
@@ -101,7 +101,7 @@ public class OptIMMALG extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         
         // prepare initial population
         LinkedList<OptIMMALGSolution> pop = new LinkedList<OptIMMALGSolution>();
@@ -60,6 +60,7 @@ import com.oat.utils.RandomUtils;
  *                          to ensure that a score check does not occur for unevaluated solutions
  * 17/01/2007   Jbrownlee   Fixed a bug that caused the iteration trigger and fitness normalization to
  *                          occur in a situation where solutions may not be evaluated.
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class OptaiNET extends Algorithm
@@ -87,7 +88,7 @@ public class OptaiNET extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         
         double largestDistance = CFOUtils.getLargestEuclideanDistanceInDomain((CFOProblemInterface)p);
         LinkedList<CFOSolution> pop = new LinkedList<CFOSolution>();        
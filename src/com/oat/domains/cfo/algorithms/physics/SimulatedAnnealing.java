@@ -44,7 +44,7 @@ import com.oat.utils.RandomUtils;
  * Change History
  * ----------------------------------------------------------------------------
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
- * 
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class SimulatedAnnealing extends Algorithm
@@ -76,7 +76,7 @@ public class SimulatedAnnealing extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         
         // prepare step size
         v = new double[((CFOProblemInterface)p).getDimensions()]; // step size vector
@@ -0,0 +1,64 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.cfo.algorithms.swarm;
+
+/**
+ * Description: Neighbourhood topology of a particle swarm. Particles are identified by their 
+ * index in the swarm. Static topologies are defined once, spatial topologies are 
+ * informed as particles move.
+ *
+ * Date: 08/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public abstract class Neighbourhood
+{
+	/**
+	 * Prepare the neighbourhood for a swarm with particles at the provided positions
+	 * @param positions - position of each particle, held by reference until the particle moves
+	 */
+	public abstract void initialise(double [][] positions);
+	
+	/**
+	 * Particle i has moved to the provided position
+	 * @param i
+	 * @param position - held by reference until the particle next moves
+	 */
+	public abstract void move(int i, double [] position);
+	
+	/**
+	 * Populate out with the neighbours of particle i, a particle is never its own neighbour
+	 * @param i
+	 * @param out - at least getMaxNeighbours() in length
+	 * @return - number of neighbours
+	 */
+	public abstract int getNeighbours(int i, int [] out);
+	
+	/**
+	 * @return - largest number of neighbours of any particle
+	 */
+	public abstract int getMaxNeighbours();
+}
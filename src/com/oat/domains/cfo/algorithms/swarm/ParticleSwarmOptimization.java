@@ -19,17 +19,14 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 package com.oat.domains.cfo.algorithms.swarm;
 
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.Random;
 
 import com.oat.Algorithm;
+import com.oat.AlgorithmRunException;
 import com.oat.InvalidConfigurationException;
 import com.oat.Problem;
 import com.oat.domains.cfo.CFOProblemInterface;
 import com.oat.domains.cfo.CFOSolution;
-import com.oat.domains.cfo.CFOUtils;
 import com.oat.utils.AlgorithmUtils;
 import com.oat.utils.ArrayUtils;
 import com.oat.utils.RandomUtils;
@@ -51,11 +48,16 @@ import com.oat.utils.RandomUtils;
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  *                          Put a hack in to prevent parent, child comparisons when evaluations have run out
  * 09/01/2007   JBrownlee   Cleaned up implementation
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
+ * 08/12/2007   JBrownlee   Neighbourhood topologies, spatial index for distance based l-best
  * </pre>
  */
 public class ParticleSwarmOptimization extends Algorithm
 {       
-    protected DistanceComparator comparator;
+    /**
+     * l-best neighbourhood topologies, Distance is the neighbourhoodSize nearest particles
+     */
+    public static enum Topology {Distance, Ring, VonNeumann, Random}
     
     protected long seed = System.currentTimeMillis();
     protected int popsize = 100;
@@ -64,12 +66,11 @@ public class ParticleSwarmOptimization extends Algorithm
     protected double c2 = 2.0;
     protected double momentum = 0.5;
     protected int neighbourhoodSize = 20;
+    protected Topology topology = Topology.Distance;
     
     
     public ParticleSwarmOptimization()
-    {
-        comparator = new DistanceComparator();
-    }    
+    {}    
     
     @Override
     public String getDetails()
@@ -78,7 +79,9 @@ public class ParticleSwarmOptimization extends Algorithm
                 "as described in the PSO Tutorial: http://www.swarmintelligence.org/tutorials.php, " +
                 "added momentum that specifies the ratio of previous velocity to use, and the inverse ratio for the amount of new velocity to contribute to the new velocity, " +
                 "the vMax parameter is a ratio of the objective function range in each dimension, " +
-                "set neighbourhood size to popsize to get g-best behaviour."; 
+                "set neighbourhood size to popsize to get g-best behaviour. " +
+                "The l-best topology is the nearest particles (Distance, located with a spatial index), " +
+                "a Ring or Random topology of neighbourhood size, or a Von Neumann grid."; 
     }    
     
     protected class PSOSolution extends CFOSolution
@@ -87,11 +90,6 @@ public class ParticleSwarmOptimization extends Algorithm
         private final double [] pbestcoord;
         private double pbestScore;
         
-        /**
-         * Temporary variable used to define particle neighbourhoods 
-         */
-        protected double distance;
-        
         /**
          * Create a duplicate particle, suitable for updating
          * @param parent
@@ -144,169 +142,162 @@ public class ParticleSwarmOptimization extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         
-        LinkedList<PSOSolution> pop = new LinkedList<PSOSolution>();        
+        PSOSolution [] swarm = new PSOSolution[popsize];        
         // prepare initial population
-        while(pop.size() < popsize)
+        for (int i = 0; i < swarm.length; i++)
         {
-            pop.add(new PSOSolution(RandomUtils.randomPointInRange(r, ((CFOProblemInterface)p).getMinmax())));            
+            swarm[i] = new PSOSolution(RandomUtils.randomPointInRange(r, ((CFOProblemInterface)p).getMinmax()));            
         }        
         // evaluate
-        p.cost(pop);        
+        p.cost(swarm);        
         // set best positions and initial velocities
         if(p.canEvaluate())
         {
-            for(PSOSolution ss : pop)
+            for (int i = 0; i < swarm.length; i++)
+            {
+                swarm[i].prepareVirginParticle((CFOProblemInterface)p, r);
+            }
+        }
+        
+        // neighbourhoods are not used for g-best
+        Neighbourhood neighbourhood = null;
+        int [] neighbours = null;
+        if(neighbourhoodSize != popsize)
+        {
+            neighbourhood = createNeighbourhood((CFOProblemInterface)p, r);
+            double [][] positions = new double[swarm.length][];
+            for (int i = 0; i < swarm.length; i++)
             {
-                ss.prepareVirginParticle((CFOProblemInterface)p, r);
+                positions[i] = swarm[i].getCoordinate();
             }
+            neighbourhood.initialise(positions);
+            neighbours = new int[neighbourhood.getMaxNeighbours()];
         }
         
         // run algorithm until there are no evaluations left
-        PSOSolution best = AlgorithmUtils.getBest(pop, p);
+        PSOSolution best = AlgorithmUtils.getBest(swarm, p);
         while(p.canEvaluate())
         {
-            triggerIterationCompleteEvent(p,pop);
+            triggerIterationCompleteEvent(p,swarm);
             // create new particle positions
-            pop = createNewParticlePositions(pop, p, best, r);
+            swarm = createNewParticlePositions(swarm, p, best, neighbourhood, neighbours, r);
             // evaluate new positions
-            p.cost(pop);    
+            p.cost(swarm);    
             if(p.canEvaluate())
             {
                 // update personal best positions
-                updatePersonalBestPositions(pop, p);
+                updatePersonalBestPositions(swarm, p);
                 // locate new global best particle position
-                PSOSolution c = AlgorithmUtils.getBest(pop, p);
+                PSOSolution c = AlgorithmUtils.getBest(swarm, p);
                 best = (p.isBetter(c,best)) ? c : best; 
+                // inform the neighbourhood of the new positions
+                if(neighbourhood != null)
+                {
+                    for (int i = 0; i < swarm.length; i++)
+                    {
+                        neighbourhood.move(i, swarm[i].getCoordinate());
+                    }
+                }
             }
         }
     }
     
     /**
-     * Check each particles position and see if it is a better personal
-     * best particle position, if so, remember it as such
-     * 
-     * @param pop
+     * Create the l-best neighbourhood topology for the swarm
      * @param p
+     * @param r
+     * @return
      */
-    protected void updatePersonalBestPositions(LinkedList<PSOSolution> pop, Problem p)
+    protected Neighbourhood createNeighbourhood(CFOProblemInterface p, Random r)
     {
-        for (int i = 0; i < pop.size(); i++)
+        switch(topology)
         {
-            PSOSolution particle = pop.get(i);
-            // see if the position is the best position ever visited by this particle
-            if (p.isBetter(particle.getScore(), particle.pbestScore))
+            case Distance:
             {
-                // take new position as personal best
-                particle.pbestScore = particle.getScore();
-                System.arraycopy(particle.getCoordinate(), 0, particle.pbestcoord, 0, particle.pbestcoord.length);
+                return new SpatialNeighbourhood(neighbourhoodSize, p.getMinmax());
+            }
+            case Ring:
+            {
+                return StaticNeighbourhood.ring(popsize, neighbourhoodSize);
+            }
+            case VonNeumann:
+            {
+                return StaticNeighbourhood.vonNeumann(popsize);
+            }
+            case Random:
+            {
+                return StaticNeighbourhood.random(popsize, neighbourhoodSize, r);
+            }
+            default:
+            {
+                throw new AlgorithmRunException("Unknown topology: " + topology);
             }
         }
     }
     
- 
     /**
-     * Returns a collection of neighbourhoodSize closest particles 
-     * using euclidean distance. Distance is calculated and the provided 
-     * population is sorted according to the distance. The specified particle
-     * is never a member of its own neighbourhood. 
+     * Check each particles position and see if it is a better personal
+     * best particle position, if so, remember it as such
      * 
-     * @param pop
-     * @param particle
-     * @return
+     * @param swarm
+     * @param p
      */
-    protected LinkedList<PSOSolution> getNeighbours(LinkedList<PSOSolution> pop, PSOSolution particle)
+    protected void updatePersonalBestPositions(PSOSolution [] swarm, Problem p)
     {
-        LinkedList<PSOSolution> neighbours = new LinkedList<PSOSolution>();        
-        
-        // calculate distances
-        for(PSOSolution s : pop)
+        for(PSOSolution particle : swarm)
         {
-            if(s != particle)
-            {
-                s.distance = CFOUtils.euclideanDistance(s, particle);                
-            }
-        }
-        // sort by distance asc
-        Collections.sort(pop, comparator);
-        // get the best n
-        int i = 0;
-        do
-        {
-            neighbours.add(pop.get(i++));
-        }
-        while(neighbours.size() < neighbourhoodSize);
-        
-        return neighbours;
-    }
-    
-    protected class DistanceComparator implements Comparator<PSOSolution>
-    {
-        /**
-         * Compares its two arguments for order.  Returns a negative integer,
-         * zero, or a positive integer as the first argument is less than, equal
-         * to, or greater than the second.<p>
-         */
-        public int compare(PSOSolution p1, PSOSolution p2)
-        {            
-            if(p1.distance < p2.distance)
-            {
-                return -1;
-            }
-            else if(p1.distance > p2.distance)
+            // see if the position is the best position ever visited by this particle
+            if (p.isBetter(particle.getScore(), particle.pbestScore))
             {
-                return +1;
+                // take new position as personal best
+                particle.pbestScore = particle.getScore();
+                System.arraycopy(particle.getCoordinate(), 0, particle.pbestcoord, 0, particle.pbestcoord.length);
             }
-            return 0; // same
         }
-        
     }
     
-    
     /**
      * Provides support for global-best and local-best depending on
      * the setting of the neighbourhood size parameter.
      * 
-     * @param pop
+     * @param swarm
+     * @param self - index of the particle
      * @param best
-     * @param self
+     * @param neighbourhood - null for g-best
+     * @param neighbours - buffer for the neighbours of the particle
      * @param p
      * @return
      */
     protected double [] getBestCoord(
-            LinkedList<PSOSolution> pop,
+            PSOSolution [] swarm,
+            int self,
             PSOSolution best, 
-            PSOSolution self, 
+            Neighbourhood neighbourhood,
+            int [] neighbours,
             Problem p)
     {
-        double [] bestPos = null;
-        
         // check for gbest
-        if(neighbourhoodSize == popsize)
+        if(neighbourhood == null)
         {
-            bestPos = best.getCoordinate();
+            return best.getCoordinate();
         }
-        // best
-        else
+        
+        // locate the best neighbourhood pbestpos
+        // has to be better than own pbestscore
+        double score = swarm[self].pbestScore;
+        double [] bestPos = swarm[self].pbestcoord;
+        int total = neighbourhood.getNeighbours(self, neighbours);
+        for (int i = 0; i < total; i++)
         {
-            // get neighbours
-            LinkedList<PSOSolution> neighbours = getNeighbours(pop, self);
-            // locate the best neighbourhood pbestpos
-            // has to be better than own pbestscore
-            double score = self.pbestScore;
-            bestPos = self.pbestcoord;
-            for(CFOSolution s : neighbours)
+            PSOSolution p1 = swarm[neighbours[i]];                
+            if(p.isBetter(p1.pbestScore, score))
             {
-                PSOSolution p1 = (PSOSolution) s;                
-                if(p.isBetter(p1.pbestScore, score))
-                {
-                    score = p1.pbestScore;
-                    bestPos = p1.pbestcoord;
-                }
+                score = p1.pbestScore;
+                bestPos = p1.pbestcoord;
             }
         }
-        
         return bestPos;
     }
     
@@ -314,30 +305,33 @@ public class ParticleSwarmOptimization extends Algorithm
      * Create new particle positions from existing particle positions.
      * Adjust velicity of particles accordingly.
      * 
-     * @param pop
+     * @param swarm
      * @param p
      * @param best
+     * @param neighbourhood - null for g-best
+     * @param neighbours - buffer for neighbourhood queries
      * @param r
-     * @return
+     * @return - the new particle of each particle in the swarm
      */
-    protected LinkedList<PSOSolution> createNewParticlePositions(
-            LinkedList<PSOSolution> pop, 
+    protected PSOSolution [] createNewParticlePositions(
+            PSOSolution [] swarm, 
             Problem p, 
             PSOSolution best,
+            Neighbourhood neighbourhood,
+            int [] neighbours,
             Random r)
     {        
         double [][] minmax = ((CFOProblemInterface)p).getMinmax();
-        LinkedList<PSOSolution> children = new LinkedList<PSOSolution>();
+        PSOSolution [] children = new PSOSolution[swarm.length];
         
         // create children one at a time
         // basically copy parents, then update position and velocity of child particle
-        for (int k = 0; k < pop.size(); k++)
+        for (int j = 0; j < swarm.length; j++)
         {
-            PSOSolution parent = pop.get(k);
-            PSOSolution child = new PSOSolution(parent);            
+            PSOSolution child = new PSOSolution(swarm[j]);            
             double [] position = child.getCoordinate();
-            double [] bestPos = getBestCoord(pop, best, parent, p);
-            children.add(child);
+            double [] bestPos = getBestCoord(swarm, j, best, neighbourhood, neighbours, p);
+            children[j] = child;
             
             // update velocity
             for (int i = 0; i < child.velocity.length; i++)
@@ -534,4 +528,14 @@ public class ParticleSwarmOptimization extends Algorithm
     {
         this.neighbourhoodSize = neighbourhoodSize;
     }
+
+    public Topology getTopology()
+    {
+        return topology;
+    }
+
+    public void setTopology(Topology topology)
+    {
+        this.topology = topology;
+    }
 }
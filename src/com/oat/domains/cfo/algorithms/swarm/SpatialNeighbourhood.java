@@ -0,0 +1,369 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.cfo.algorithms.swarm;
+
+import java.util.Arrays;
+
+/**
+ * Description: Neighbourhood of the k nearest particles by Euclidean distance, located with a 
+ * uniform grid index over the problem bounds that is updated as particles move (a particle 
+ * is only relinked when it changes cell).
+ * <br/>
+ * The grid covers at most MAX_GRID_DIMENSIONS dimensions with a resolution chosen for 
+ * about CELL_OCCUPANCY particles per cell. Distances are always calculated over all dimensions, 
+ * and the distance in the grid dimensions is a lower bound on the full distance, so cells are 
+ * searched in rings of increasing distance from the particle until no unsearched cell can 
+ * hold a particle nearer than the kth nearest found. The result is exact, the pruning is most 
+ * effective when the grid dimensions account for most of the spread of the swarm.
+ *
+ * Date: 08/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class SpatialNeighbourhood extends Neighbourhood
+{
+	public final static int MAX_GRID_DIMENSIONS = 3;
+	public final static double CELL_OCCUPANCY = 4.0;
+	
+	protected final int k;
+	protected final double [][] minmax;
+	
+	/**
+	 * Number of grid dimensions
+	 */
+	protected int G;
+	protected int cellsPerDimension;
+	protected double [] cellWidth;
+	
+	protected double [][] points;
+	protected int [] cellOf;
+	/**
+	 * First particle in each cell, particles in a cell are doubly linked
+	 */
+	protected int [] head;
+	protected int [] next;
+	protected int [] prev;
+	
+	// query state
+	protected int totalNeighbours;
+	protected double [] heapDistance;
+	protected int [] heapIndex;
+	protected int heapSize;
+	protected int [] queryCell;
+	
+	
+	/**
+	 * @param aK - nearest particles in each neighbourhood
+	 * @param aMinmax - problem bounds
+	 */
+	public SpatialNeighbourhood(int aK, double [][] aMinmax)
+	{
+		if(aK < 1)
+		{
+			throw new IllegalArgumentException("Neighbourhood size must be >= 1: " + aK);
+		}
+		k = aK;
+		minmax = aMinmax;
+	}
+
+	@Override
+	public void initialise(double [][] positions)
+	{
+		int N = positions.length;
+		G = Math.min(MAX_GRID_DIMENSIONS, minmax.length);
+		cellsPerDimension = Math.max(1, (int) Math.pow(N / CELL_OCCUPANCY, 1.0 / G));
+		cellWidth = new double[G];
+		int totalCells = 1;
+		for (int d = 0; d < G; d++)
+		{
+			double range = minmax[d][1] - minmax[d][0];
+			cellWidth[d] = (range > 0) ? range / cellsPerDimension : 1.0;
+			totalCells *= cellsPerDimension;
+		}
+		points = new double[N][];
+		cellOf = new int[N];
+		head = new int[totalCells];
+		next = new int[N];
+		prev = new int[N];
+		Arrays.fill(head, -1);
+		for (int i = 0; i < N; i++)
+		{
+			points[i] = positions[i];
+			cellOf[i] = getCell(positions[i]);
+			link(i);
+		}
+		
+		totalNeighbours = Math.min(k, N-1);
+		heapDistance = new double[Math.max(1, totalNeighbours)];
+		heapIndex = new int[heapDistance.length];
+		queryCell = new int[G];
+	}
+
+	@Override
+	public void move(int i, double [] position)
+	{
+		points[i] = position;
+		int cell = getCell(position);
+		if(cell != cellOf[i])
+		{
+			unlink(i);
+			cellOf[i] = cell;
+			link(i);
+		}
+	}
+
+	@Override
+	public int getNeighbours(int i, int [] out)
+	{
+		if(totalNeighbours == 0)
+		{
+			return 0;
+		}
+		double [] x = points[i];
+		for (int d = 0; d < G; d++)
+		{
+			queryCell[d] = getCoordinate(x, d);
+		}
+		heapSize = 0;
+		for (int r = 0; r < cellsPerDimension; r++)
+		{
+			searchRing(i, x, r);
+			// stop when no cell in the next ring can hold a nearer particle
+			if(heapSize == totalNeighbours)
+			{
+				double bound = ringLowerBound(x, r+1);
+				if(bound * bound >= heapDistance[0])
+				{
+					break;
+				}
+			}
+		}
+		System.arraycopy(heapIndex, 0, out, 0, heapSize);
+		return heapSize;
+	}
+
+	@Override
+	public int getMaxNeighbours()
+	{
+		return k;
+	}
+	
+	/**
+	 * Offer the particles of all cells at Chebyshev distance r from the query cell,
+	 * only the cells on the surface of the ring that fall within the grid are visited
+	 * @param self
+	 * @param x
+	 * @param r
+	 */
+	protected void searchRing(int self, double [] x, int r)
+	{
+		if(r == 0)
+		{
+			offerCell(self, x, getCell(queryCell));
+		}
+		else
+		{
+			searchRing(self, x, r, 0, 0, false);
+		}
+	}
+	
+	protected void searchRing(int self, double [] x, int r, int d, int cell, boolean onRing)
+	{
+		int lo = Math.max(queryCell[d] - r, 0);
+		int hi = Math.min(queryCell[d] + r, cellsPerDimension - 1);
+		boolean last = (d == G - 1);
+		for (int c = lo; c <= hi; c++)
+		{
+			boolean edge = onRing || (c == queryCell[d] - r) || (c == queryCell[d] + r);
+			if(last)
+			{
+				if(edge)
+				{
+					offerCell(self, x, cell * cellsPerDimension + c);
+				}
+				else if(c < queryCell[d] + r)
+				{
+					// skip the interior of the ring
+					c = queryCell[d] + r - 1;
+				}
+			}
+			else
+			{
+				searchRing(self, x, r, d + 1, cell * cellsPerDimension + c, edge);
+			}
+		}
+	}
+	
+	protected void offerCell(int self, double [] x, int cell)
+	{
+		for (int j = head[cell]; j != -1; j = next[j])
+		{
+			if(j != self)
+			{
+				offer(j, x);
+			}
+		}
+	}
+	
+	/**
+	 * Offer a particle to the max-heap of the nearest particles found
+	 * @param j
+	 * @param x
+	 */
+	protected void offer(int j, double [] x)
+	{
+		boolean full = (heapSize == totalNeighbours);
+		double limit = full ? heapDistance[0] : Double.POSITIVE_INFINITY;
+		double [] y = points[j];
+		double sum = 0;
+		for (int d = 0; d < x.length; d++)
+		{
+			double diff = x[d] - y[d];
+			sum += diff * diff;
+			if(sum >= limit)
+			{
+				return;
+			}
+		}
+		if(!full)
+		{
+			// sift up
+			int c = heapSize++;
+			while(c > 0)
+			{
+				int parent = (c - 1) / 2;
+				if(heapDistance[parent] >= sum)
+				{
+					break;
+				}
+				heapDistance[c] = heapDistance[parent];
+				heapIndex[c] = heapIndex[parent];
+				c = parent;
+			}
+			heapDistance[c] = sum;
+			heapIndex[c] = j;
+		}
+		else
+		{
+			// replace the furthest and sift down
+			int c = 0;
+			while(true)
+			{
+				int child = 2 * c + 1;
+				if(child >= heapSize)
+				{
+					break;
+				}
+				if(child + 1 < heapSize && heapDistance[child + 1] > heapDistance[child])
+				{
+					child++;
+				}
+				if(heapDistance[child] <= sum)
+				{
+					break;
+				}
+				heapDistance[c] = heapDistance[child];
+				heapIndex[c] = heapIndex[child];
+				c = child;
+			}
+			heapDistance[c] = sum;
+			heapIndex[c] = j;
+		}
+	}
+	
+	/**
+	 * Lower bound on the distance from x to any point in a cell at Chebyshev distance r
+	 * from the query cell
+	 * @param x
+	 * @param r - >= 1
+	 * @return
+	 */
+	protected double ringLowerBound(double [] x, int r)
+	{
+		double bound = Double.POSITIVE_INFINITY;
+		for (int d = 0; d < G; d++)
+		{
+			double lo = minmax[d][0] + queryCell[d] * cellWidth[d];
+			double toEdge = Math.max(0, Math.min(x[d] - lo, lo + cellWidth[d] - x[d]));
+			bound = Math.min(bound, (r - 1) * cellWidth[d] + toEdge);
+		}
+		return bound;
+	}
+	
+	protected int getCoordinate(double [] x, int d)
+	{
+		int c = (int) ((x[d] - minmax[d][0]) / cellWidth[d]);
+		return (c < 0) ? 0 : (c >= cellsPerDimension) ? cellsPerDimension-1 : c;
+	}
+	
+	protected int getCell(double [] x)
+	{
+		int cell = 0;
+		for (int d = 0; d < G; d++)
+		{
+			cell = cell * cellsPerDimension + getCoordinate(x, d);
+		}
+		return cell;
+	}
+	
+	protected int getCell(int [] coordinate)
+	{
+		int cell = 0;
+		for (int d = 0; d < G; d++)
+		{
+			cell = cell * cellsPerDimension + coordinate[d];
+		}
+		return cell;
+	}
+	
+	protected void link(int i)
+	{
+		int cell = cellOf[i];
+		prev[i] = -1;
+		next[i] = head[cell];
+		if(head[cell] != -1)
+		{
+			prev[head[cell]] = i;
+		}
+		head[cell] = i;
+	}
+	
+	protected void unlink(int i)
+	{
+		if(prev[i] == -1)
+		{
+			head[cellOf[i]] = next[i];
+		}
+		else
+		{
+			next[prev[i]] = next[i];
+		}
+		if(next[i] != -1)
+		{
+			prev[next[i]] = prev[i];
+		}
+	}
+}
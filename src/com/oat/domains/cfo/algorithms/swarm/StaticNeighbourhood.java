@@ -0,0 +1,196 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.cfo.algorithms.swarm;
+
+import java.util.Random;
+
+/**
+ * Description: Neighbourhood topology fixed for the duration of a run, the neighbours of each
+ * particle are computed once. Ring, von Neumann and random topologies are provided.
+ *
+ * Date: 08/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class StaticNeighbourhood extends Neighbourhood
+{
+	/**
+	 * Neighbours of each particle [particle][neighbour]
+	 */
+	protected final int [][] neighbours;
+	protected final int maxNeighbours;
+	
+	
+	public StaticNeighbourhood(int [][] aNeighbours)
+	{
+		neighbours = aNeighbours;
+		int max = 0;
+		for (int i = 0; i < neighbours.length; i++)
+		{
+			max = Math.max(max, neighbours[i].length);
+		}
+		maxNeighbours = max;
+	}
+	
+	/**
+	 * Ring (lbest) topology, each particle is connected to the k particles either side of it 
+	 * by index, k/2 before and the remainder after
+	 * @param N - swarm size
+	 * @param k - neighbours of each particle, at most N-1
+	 * @return
+	 */
+	public static StaticNeighbourhood ring(int N, int k)
+	{
+		k = Math.min(k, N-1);
+		int before = k / 2;
+		int after = k - before;
+		int [][] n = new int[N][k];
+		for (int i = 0; i < N; i++)
+		{
+			int c = 0;
+			for (int j = 1; j <= after; j++)
+			{
+				n[i][c++] = (i + j) % N;
+			}
+			for (int j = 1; j <= before; j++)
+			{
+				n[i][c++] = (i - j + N) % N;
+			}
+		}
+		return new StaticNeighbourhood(n);
+	}
+	
+	/**
+	 * Von Neumann topology, particles are arranged on a toroidal grid as close to square as 
+	 * the swarm size permits and connected to the particles above, below, left and right
+	 * @param N - swarm size
+	 * @return
+	 */
+	public static StaticNeighbourhood vonNeumann(int N)
+	{
+		// largest number of rows that divides the swarm, rows <= columns
+		int rows = (int) Math.sqrt(N);
+		while(rows > 1 && N % rows != 0)
+		{
+			rows--;
+		}
+		rows = Math.max(1, rows);
+		int cols = N / rows;
+		int [][] n = new int[N][];
+		int [] buffer = new int[4];
+		for (int i = 0; i < N; i++)
+		{
+			int r = i / cols;
+			int c = i % cols;
+			int [] candidates = {
+					((r - 1 + rows) % rows) * cols + c,
+					((r + 1) % rows) * cols + c,
+					r * cols + (c - 1 + cols) % cols,
+					r * cols + (c + 1) % cols};
+			// small grids wrap onto the same particle
+			int total = 0;
+			for (int j = 0; j < candidates.length; j++)
+			{
+				boolean duplicate = (candidates[j] == i);
+				for (int x = 0; x < total && !duplicate; x++)
+				{
+					duplicate = (buffer[x] == candidates[j]);
+				}
+				if(!duplicate)
+				{
+					buffer[total++] = candidates[j];
+				}
+			}
+			n[i] = new int[total];
+			System.arraycopy(buffer, 0, n[i], 0, total);
+		}
+		return new StaticNeighbourhood(n);
+	}
+	
+	/**
+	 * Random topology, each particle is connected to k other particles selected uniformly 
+	 * at random without reselection. Connections are not symmetric.
+	 * @param N - swarm size
+	 * @param k - neighbours of each particle, at most N-1
+	 * @param r
+	 * @return
+	 */
+	public static StaticNeighbourhood random(int N, int k, Random r)
+	{
+		k = Math.min(k, N-1);
+		int [][] n = new int[N][k];
+		// partial shuffle of a permutation of the swarm draws each sample without reselection
+		int [] pool = new int[N];
+		for (int i = 0; i < N; i++)
+		{
+			pool[i] = i;
+		}
+		for (int i = 0; i < N; i++)
+		{
+			int c = 0;
+			for (int t = 0; c < k; t++)
+			{
+				int j = t + r.nextInt(N - t);
+				int s = pool[j];
+				pool[j] = pool[t];
+				pool[t] = s;
+				if(s != i)
+				{
+					n[i][c++] = s;
+				}
+			}
+		}
+		return new StaticNeighbourhood(n);
+	}
+	
+	@Override
+	public void initialise(double [][] positions)
+	{
+		if(positions.length != neighbours.length)
+		{
+			throw new IllegalArgumentException("Swarm size " + positions.length + " does not match the topology size " + neighbours.length);
+		}
+	}
+
+	@Override
+	public void move(int i, double [] position)
+	{
+		// fixed
+	}
+
+	@Override
+	public int getNeighbours(int i, int [] out)
+	{
+		System.arraycopy(neighbours[i], 0, out, 0, neighbours[i].length);
+		return neighbours[i].length;
+	}
+
+	@Override
+	public int getMaxNeighbours()
+	{
+		return maxNeighbours;
+	}
+}
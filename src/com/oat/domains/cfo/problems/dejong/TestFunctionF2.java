@@ -33,7 +33,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class TestFunctionF2 extends CFOProblem
@@ -41,20 +41,36 @@ public class TestFunctionF2 extends CFOProblem
 
     @Override
     protected double problemSpecificCost(double[] v)
+    {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
     {
         // Rosenbrock's valley (De Jong's function 2)
         //
         // f2(x)=sum(100(x(i+1)-x(i)^2)^2+(1-x(i))^2)
         // i=1:n-1; -2.048<=x(i)<=2.048.
-        
+
+        int end = offset + dimensions;
         double sum = 0.0;
-        
-        for (int i = 0; i < dimensions-1; i++)
+
+        for (int i = offset; i < end-1; i++)
         {
-            sum += 100 * Math.pow((v[i+1] - Math.pow(v[i],2)),2) + Math.pow(1 - v[i], 2);
+            double x = block[i];
+            double a = block[i+1] - (x*x);
+            double b = 1 - x;
+            sum += 100 * (a*a) + (b*b);
         }
-        
-        return sum; 
+
+        return sum;
+    }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
     }
 
     @Override
@@ -32,7 +32,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class TestFunctionF3 extends CFOProblem
@@ -41,15 +41,28 @@ public class TestFunctionF3 extends CFOProblem
     @Override
     protected double problemSpecificCost(double[] v)
     {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
+    {
+        int end = offset + dimensions;
         double sum = 0.0;
-        
-        for (int i = 0; i < dimensions; i++)
+
+        for (int i = offset; i < end; i++)
         {
-            sum += Math.floor(v[i]);
+            sum += Math.floor(block[i]);
         }
-        
+
         return sum;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     protected double[][] preapreMinMax()
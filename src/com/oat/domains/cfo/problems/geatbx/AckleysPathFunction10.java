@@ -33,7 +33,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class AckleysPathFunction10 extends CFOProblem
@@ -41,27 +41,37 @@ public class AckleysPathFunction10 extends CFOProblem
 
     @Override
     protected double problemSpecificCost(double[] v)
+    {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
     {
         //   f10(x)=-aexp(-bsqrt(1/nsum(x(i)^2)))-exp(1/nsum(cos(cx(i))))+a+exp(1)
         // a=20; b=0.2; c=2pi; i=1:n; -32.768<=x(i)<=32.768.
-        
+
+        int end = offset + dimensions;
         double sum1 = 0.0;
-        for (int i = 0; i < dimensions; i++)
+        double sum2 = 0.0;
+        for (int i = offset; i < end; i++)
         {
-            sum1 += (v[i] * v[i]);
+            double x = block[i];
+            sum1 += (x * x);
+            sum2 += Math.cos(2.0*Math.PI*x);
         }        
         double p1 = Math.exp(-0.2 * Math.sqrt( (1.0/dimensions) * sum1));
-       
-        double sum2 = 0.0;
-        for (int i = 0; i < dimensions; i++)
-        {
-            sum2 += Math.cos(2.0*Math.PI*v[i]);
-        }
         double p2 = Math.exp((1.0/dimensions) * sum2);
-        
+
         double result = -20.0 * p1 - p2 + 20.0 + Math.E;
         return result;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     public String getName()
@@ -32,7 +32,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class AxisParalleHyper_EllipsoidFunction extends CFOProblem
@@ -40,18 +40,30 @@ public class AxisParalleHyper_EllipsoidFunction extends CFOProblem
 
     @Override
     protected double problemSpecificCost(double[] v)
+    {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
     {
         // f1a(x)=sum(ix(i)^2), i=1:n, -5.12<=x(i)<=5.12.
-        
+
         double sum = 0.0;
-        
+
         for (int i = 0; i < dimensions; i++)
         {
-            sum += i * Math.pow(v[i], 2);
+            double x = block[offset+i];
+            sum += i * (x*x);
         }
-        
-        return sum; 
-        
+
+        return sum;
+    }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
     }
 
     @Override
@@ -32,7 +32,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class DeJongF1 extends CFOProblem
@@ -40,17 +40,31 @@ public class DeJongF1 extends CFOProblem
 
     @Override
     protected double problemSpecificCost(double[] v)
+    {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
     {
         // f1(x)=sum(x(i)^2), i=1:n, -5.12<=x(i)<=5.12
-        
+
+        int end = offset + dimensions;
         double sum = 0.0;
-        
-        for (int i = 0; i < dimensions; i++)
+
+        for (int i = offset; i < end; i++)
         {
-            sum += Math.pow(v[i], 2);
+            double x = block[i];
+            sum += x*x;
         }
-        
-        return sum;        
+
+        return sum;
+    }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
     }
 
     @Override
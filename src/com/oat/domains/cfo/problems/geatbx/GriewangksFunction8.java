@@ -32,7 +32,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class GriewangksFunction8 extends CFOProblem
@@ -40,32 +40,33 @@ public class GriewangksFunction8 extends CFOProblem
 
     @Override
     protected double problemSpecificCost(double[] v)
+    {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
     {
         //   f8(x)=sum(x(i)^2/4000)-prod(cos(x(i)/sqrt(i)))+1, i=1:n
         // -600<=x(i)<= 600.
-        
+
         double sum = 0.0;
+        double product = 1.0;
         for (int i = 0; i < dimensions; i++)
         {
-            sum += ((v[i]*v[i]) / 4000.0);
-        }
-        
-        double product = 0.0;
-        for (int i = 0; i < dimensions; i++)
-        {
-            double a = Math.cos(v[i] / Math.sqrt(i+1.0)) + 1.0;
-            if(i == 0)
-            {
-                product = a;
-            }
-            else
-            {
-                product *= a;
-            }
+            double x = block[offset+i];
+            sum += ((x*x) / 4000.0);
+            product *= Math.cos(x / Math.sqrt(i+1.0)) + 1.0;
         }
-        
+
         return (sum - product);
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     protected double[][] preapreMinMax()
@@ -32,7 +32,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class MovedAxisParalleHyper_EllipsoidFunction extends CFOProblem
@@ -40,18 +40,31 @@ public class MovedAxisParalleHyper_EllipsoidFunction extends CFOProblem
 
     @Override
     protected double problemSpecificCost(double[] v)
+    {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
     {
         // f1c(x)=sum(5*ix(i)^2), i=1:n, -5.12<=x(i)<=5.12.
-        
+
         double sum = 0.0;
-        
+
         for (int i = 0; i < dimensions; i++)
         {
-            sum += 5.0 * i *Math.pow(v[i], 2);
+            double x = block[offset+i];
+            sum += 5.0 * i * (x*x);
         }
-        
+
         return sum;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     protected double[][] preapreMinMax()
@@ -32,7 +32,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class RastriginFunction extends CFOProblem
@@ -40,16 +40,30 @@ public class RastriginFunction extends CFOProblem
 
     @Override
     protected double problemSpecificCost(double[] v)
+    {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
     {
         // f6(x)=10n+sum(x(i)^2-10cos(2pix(i))), i=1:n; -5.12<=x(i)<=5.12.
-        
+
+        int end = offset + dimensions;
         double sum = 0.0;
-        for (int i = 0; i < dimensions; i++)
+        for (int i = offset; i < end; i++)
         {
-            sum += (v[i]*v[i]) - 10.0 * Math.cos(2.0*Math.PI*v[i]);
+            double x = block[i];
+            sum += (x*x) - 10.0 * Math.cos(2.0*Math.PI*x);
         }
         return (10.0 * dimensions) + sum;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     protected double[][] preapreMinMax()
@@ -32,7 +32,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class RotatedHyper_EllipsoidFunction extends CFOProblem
@@ -40,21 +40,35 @@ public class RotatedHyper_EllipsoidFunction extends CFOProblem
 
     @Override
     protected double problemSpecificCost(double[] v)
+    {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
     {
         //f1b(x)=sum(sum(x(j)^2), j=1:i), i=1:n, -65.536<=x(i)<=65.536.
-        
+
+        int end = offset + dimensions;
+        // running sum of the first i squared values, rather than recalculating for each i
         double sum = 0.0;
-        
-        for (int i = 0; i < dimensions; i++)
+        double s = 0.0;
+
+        for (int i = offset; i < end; i++)
         {
-            for (int j = 0; j < i; j++)
-            {
-                sum += Math.pow(v[j], 2);
-            }
+            sum += s;
+            double x = block[i];
+            s += x*x;
         }
-        
+
         return sum;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     protected double[][] preapreMinMax()
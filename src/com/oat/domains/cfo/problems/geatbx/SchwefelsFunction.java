@@ -32,23 +32,37 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class SchwefelsFunction extends CFOProblem
 {
     @Override
     protected double problemSpecificCost(double[] v)
+    {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
     {
         // f7(x)=sum(-x(i)sin(sqrt(abs(x(i))))), i=1:n; -500<=x(i)<=500.
-        
+
+        int end = offset + dimensions;
         double sum = 0.0;        
-        for (int i = 0; i < dimensions; i++)
+        for (int i = offset; i < end; i++)
         {
-            sum += (-v[i]) * Math.sin(Math.sqrt(Math.abs(v[i])));
+            double x = block[i];
+            sum += (-x) * Math.sin(Math.sqrt(Math.abs(x)));
         }
         return sum;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     protected double[][] preapreMinMax()
@@ -33,7 +33,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class SumOfDifferentPowerFunction extends CFOProblem
@@ -41,16 +41,28 @@ public class SumOfDifferentPowerFunction extends CFOProblem
 
     @Override
     protected double problemSpecificCost(double[] v)
+    {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
     {
         //  f9(x)=sum(abs(x(i))^(i+1)), i=1:n; -1<=x(i)<=1.
-        
+
         double sum = 0.0;
         for (int i = 0; i < dimensions; i++)
         {
-            sum += Math.pow(Math.abs(v[i]), (i+1));
+            sum += Math.pow(Math.abs(block[offset+i]), (i+1));
         }        
         return sum;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     public String getName()
@@ -35,7 +35,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class AckleysFunction extends CFOProblem
@@ -44,20 +44,31 @@ public class AckleysFunction extends CFOProblem
     @Override
     protected double problemSpecificCost(double[] v)
     {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
+    {
+        int end = offset + dimensions;
         double s1 = 0.0;
-        for (int i = 0; i < dimensions; i++)
-        {
-            s1 += v[i]*v[i];
-        }
         double s2 = 0.0;
-        for (int i = 0; i < dimensions; i++)
+        for (int i = offset; i < end; i++)
         {
-            s2 += Math.cos(2*Math.PI*v[i]);
+            double x = block[i];
+            s1 += x*x;
+            s2 += Math.cos(2*Math.PI*x);
         }
-        
+
         return -20.0*Math.exp(-0.2*Math.sqrt(1.0/dimensions*s1)) 
                - Math.exp(1.0/dimensions*s2) + 20.0 + Math.E;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     public String getName()
@@ -35,7 +35,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class GeneralizedGriewankFunction extends CFOProblem
@@ -43,29 +43,29 @@ public class GeneralizedGriewankFunction extends CFOProblem
 
     @Override
     protected double problemSpecificCost(double[] v)
+    {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
     {
         double s1 = 0.0;
+        double p1 = 1.0;
         for (int i = 0; i < dimensions; i++)
         {
-            s1 += v[i]*v[i];
-        }
-        double p1 = 0.0;
-        for (int i = 0; i < dimensions; i++)
-        {
-            double a = Math.cos(v[i] / Math.sqrt(i+1.0));
-                      
-            if(i == 0)
-            {
-                p1 = a;
-            }
-            else
-            {
-                p1 *= a;
-            }
-             
+            double x = block[offset+i];
+            s1 += x*x;
+            p1 *= Math.cos(x / Math.sqrt(i+1.0));
         }        
         return (1.0/4000.0) * s1 - p1 + 1.0;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     public String getName()
@@ -35,7 +35,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class GeneralizedRastriginsFunction extends CFOProblem
@@ -44,13 +44,27 @@ public class GeneralizedRastriginsFunction extends CFOProblem
     @Override
     protected double problemSpecificCost(double[] v)
     {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
+    {
+        int end = offset + dimensions;
         double sum = 0.0;
-        for (int i = 0; i < dimensions; i++)
+        for (int i = offset; i < end; i++)
         {
-            sum += (v[i]*v[i]) - 10 * Math.cos(2*Math.PI*v[i]) + 10;
+            double x = block[i];
+            sum += (x*x) - 10 * Math.cos(2*Math.PI*x) + 10;
         }
         return sum;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     public String getName()
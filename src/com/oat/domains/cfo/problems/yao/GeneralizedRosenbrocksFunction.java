@@ -38,7 +38,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class GeneralizedRosenbrocksFunction extends CFOProblem
@@ -47,13 +47,29 @@ public class GeneralizedRosenbrocksFunction extends CFOProblem
     @Override
     protected double problemSpecificCost(double[] v)
     {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
+    {
+        int end = offset + dimensions;
         double sum = 0.0;
-        for (int i = 0; i < dimensions - 1; i++)
+        for (int i = offset; i < end - 1; i++)
         {
-            sum += 100 * Math.pow(v[i+1] - (v[i]*v[i]), 2) + Math.pow(v[i]-1, 2);
+            double x = block[i];
+            double a = block[i+1] - (x*x);
+            double b = x - 1;
+            sum += 100 * (a*a) + (b*b);
         }
         return sum;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     public String getName()
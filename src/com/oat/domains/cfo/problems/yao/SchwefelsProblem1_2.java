@@ -35,7 +35,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class SchwefelsProblem1_2 extends CFOProblem
@@ -44,18 +44,29 @@ public class SchwefelsProblem1_2 extends CFOProblem
     @Override
     protected double problemSpecificCost(double[] v)
     {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
+    {
+        int end = offset + dimensions;
+        // running sum of the first i values, rather than recalculating for each i
         double sum = 0.0;
-        for (int i = 0; i < dimensions; i++)
+        double s = 0.0;
+        for (int i = offset; i < end; i++)
         {
-            double s = 0.0;
-            for (int j = 0; j < i; j++)
-            {
-                s += v[j];
-            }            
             sum += s*s;
+            s += block[i];
         }
         return sum;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     public String getName()
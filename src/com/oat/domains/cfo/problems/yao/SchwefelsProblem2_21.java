@@ -35,7 +35,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class SchwefelsProblem2_21 extends CFOProblem
@@ -44,16 +44,30 @@ public class SchwefelsProblem2_21 extends CFOProblem
     @Override
     protected double problemSpecificCost(double[] v)
     {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
+    {
+        int end = offset + dimensions;
         double max = Double.NEGATIVE_INFINITY;
-        for (int i = 0; i < dimensions; i++)
+        for (int i = offset; i < end; i++)
         {
-            if(Math.abs(v[i]) > max)
+            double x = Math.abs(block[i]);
+            if(x > max)
             {
-                max = Math.abs(v[i]);
+                max = x;
             }
         }
         return max;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     public String getName()
@@ -35,7 +35,7 @@ import com.oat.domains.cfo.CFOProblem;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 19/11/2007	JBrownlee	Evaluates coordinate blocks directly for bulk evaluation
  * </pre>
  */
 public class SchwefelsProblem2_22 extends CFOProblem
@@ -44,25 +44,29 @@ public class SchwefelsProblem2_22 extends CFOProblem
     @Override
     protected double problemSpecificCost(double[] v)
     {
+        return problemSpecificCost(v, 0);
+    }
+    
+    @Override
+    protected double problemSpecificCost(double[] block, int offset)
+    {
+        int end = offset + dimensions;
         double sum = 0.0;
-        for (int i = 0; i < dimensions; i++)
-        {
-            sum += Math.abs(v[i]);
-        }
-        double prod = 0.0;
-        for (int i = 0; i < dimensions; i++)
+        double prod = 1.0;
+        for (int i = offset; i < end; i++)
         {
-            if(i == 0)
-            {
-                prod = Math.abs(v[i]);
-            }
-            else
-            {
-                prod *= Math.abs(v[i]);
-            }
+            double x = Math.abs(block[i]);
+            sum += x;
+            prod *= x;
         }
         return sum + prod;
     }
+    
+    @Override
+    public boolean isBulkEvaluationSupported()
+    {
+        return true;
+    }
 
     @Override
     public String getName()
@@ -55,7 +55,7 @@ import com.oat.utils.RandomUtils;
  * ----------------------------------------------------------------------------
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  *                          Updated to used evolution utils for swap mutation
- * 
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>
  */
 public class ImmunologicalAlgorithm extends Algorithm
@@ -101,7 +101,7 @@ public class ImmunologicalAlgorithm extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem problem)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         GCProblem p = (GCProblem) problem;
         // prepare initial population
         LinkedList<IASolution> pop = new LinkedList<IASolution>();
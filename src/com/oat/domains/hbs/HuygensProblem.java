@@ -19,12 +19,15 @@
 */
 package com.oat.domains.hbs;
 
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.oat.AlgorithmRunException;
+import com.oat.EvaluationCache;
 import com.oat.InitialisationException;
 import com.oat.InvalidConfigurationException;
 import com.oat.Problem;
@@ -33,6 +36,7 @@ import com.oat.SolutionEvaluationException;
 import com.oat.domains.cfo.CFOProblemInterface;
 import com.oat.domains.cfo.CFOSolution;
 import com.oat.utils.AlgorithmUtils;
+import com.oat.utils.ArrayKey;
 import com.oat.utils.BinaryDecodeMode;
 
 /**
@@ -45,7 +49,13 @@ import com.oat.utils.BinaryDecodeMode;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 14/11/2007	JBrownlee	Not safe for parallel evaluation, the web service client is shared
+ * 17/11/2007	JBrownlee	Raises a batch evaluation event for each batch sent to the server
+ * 02/12/2007	JBrownlee	Batches only send genotypes missing from the evaluation cache
+ * 03/12/2007	JBrownlee	Batches pipelined through connections of a PipelinedHuygensClient, connection created by createConnection()
+ * 09/12/2007	JBrownlee	Duplicate coordinates within a collection are sent to the server once
+ * 09/12/2007	JBrownlee	Training calls are only retried if enabled
+ * 09/12/2007	JBrownlee	Arrays of solutions are evaluated in pipelined batches like collections
  * </pre>
  */
 public class HuygensProblem extends Problem implements CFOProblemInterface
@@ -62,11 +72,17 @@ public class HuygensProblem extends Problem implements CFOProblemInterface
     protected BinaryDecodeMode decodeMode = BinaryDecodeMode.GrayCode;
     
     // internal state
-    protected HuygensWSClient client;    
+    protected PipelinedHuygensClient client;    
 	protected int dimensions = 2;
 	protected int bitPrecision = 64;
     protected boolean toroidal = true;
     
+    // pipelining
+    protected int pipelineDepth = 4; // requests in flight
+    protected int maxRetries = 3;
+    protected long retryBackoff = 500; // milliseconds before the first retry
+    protected boolean retryTraining = false; // a retried training call may be counted twice by the server
+    
     
     
    
@@ -95,92 +111,254 @@ public class HuygensProblem extends Problem implements CFOProblemInterface
         return ((double[])result[2])[0];
     }
     
+    @Override
+    public boolean isParallelEvaluationSafe()
+    {
+    	// evaluations are already batched to the server
+    	return false;
+    }
+    
     // overriden for a batch of points
-    // ensures that no more than 1000 points are sent to the server at a time
     @Override
     public <T extends Solution> void cost(LinkedList<T> ss)
     {
         LinkedList<T> toEval = new LinkedList<T>();
-        toEval.addAll(ss);
-        
         // strip out all those solutions that have already been evaluated
-        for (Iterator<T> iterator = toEval.iterator(); iterator.hasNext();)
+        for(T s : ss)
         {
-            T s = iterator.next();
-            if(s.isEvaluated())
+            if(!s.isEvaluated())
             {
-                iterator.remove();
-            }            
+                toEval.add(s);
+            }
         }
-
-        if(!toEval.isEmpty())
+        if(!toEval.isEmpty() && canEvaluate())
         {
-            // divide toEval up into digestable chunks
-            if(toEval.size() > ITERATION_SIZE)
-            {
-                do
-                {
-                    // build a batch of a suitable size
-                    LinkedList<T> tmp = new LinkedList<T>();
-                    for (int i = 0; i < ITERATION_SIZE && !toEval.isEmpty(); i++)
-                    {
-                        tmp.add(toEval.removeFirst());
-                    }
-                    // evaluate
-                    batchEvaluate(tmp);
-                }
-                // continue only while there are solutions left to evaluate
-                while(!toEval.isEmpty() && canEvaluate());
-            }
-            else
+            batchEvaluate(toEval);
+        }
+    }
+    
+    // overriden for an array of points, sent in the same pipelined batches as a list
+    @Override
+    public <T extends Solution> void cost(T [] ss)
+    {
+        LinkedList<T> toEval = new LinkedList<T>();
+        // strip out all those solutions that have already been evaluated
+        for(T s : ss)
+        {
+            if(!s.isEvaluated())
             {
-                // evaluate all solutions in toEval
-                batchEvaluate(toEval);
+                toEval.add(s);
             }
         }
+        if(!toEval.isEmpty() && canEvaluate())
+        {
+            batchEvaluate(toEval);
+        }
     }
     
+    @Override
+    protected Object getEvaluationCacheKey(Solution solution)
+    {
+    	// each evaluation is a call to the server
+    	return ArrayKey.of(((CFOSolution)solution).getCoordinate());
+    }
     
+    /**
+     * A request of points sent to the server and not yet committed
+     */
+    protected static class Batch
+    {
+    	protected final int offset;
+    	protected final int length;
+    	protected final Future<Object[]> result;
+    	
+    	protected Batch(int aOffset, int aLength, Future<Object[]> aResult)
+    	{
+    		offset = aOffset;
+    		length = aLength;
+    		result = aResult;
+    	}
+    }
     
+    /**
+     * Evaluates the solutions in requests of no more than ITERATION_SIZE points, with up to 
+     * the pipeline depth of requests in flight at a time. Scores are committed in collection 
+     * order on the calling thread, and no more points are sent than the remaining evaluations 
+     * of the stop conditions permit. When caching, each distinct genotype is sent once and its 
+     * score is committed to the duplicates that follow it as cache hits.
+     * @param <T>
+     * @param pop
+     * @throws AlgorithmRunException
+     */
     protected <T extends Solution> void batchEvaluate(LinkedList<T> pop)
         throws AlgorithmRunException
     {        
-        // check safety
-        for(Solution s : pop)
+        Solution [] pending = new Solution[pop.size()];
+        Object [] keys = new Object[pop.size()];
+        int totalPending = 0;
+        // score genotypes that have already been evaluated from the cache, only send the rest
+        EvaluationCache cache = evaluationCache;
+        Solution [] hits = new Solution[pop.size()];
+        int totalHits = 0;
+        // duplicates of each pending genotype, linked in collection order
+        HashMap<Object, Integer> sentKeys = new HashMap<Object, Integer>();
+        Solution [] duplicates = new Solution[pop.size()];
+        int [] firstDuplicate = new int[pop.size()];
+        int [] lastDuplicate = new int[pop.size()];
+        int [] nextDuplicate = new int[pop.size()];
+        int totalDuplicates = 0;
+        for(T s : pop)
         {
-            checkSolutionForSafety(((CFOSolution)s).getCoordinate()); // slow but safe
+        	Object key = (cache == null) ? null : getEvaluationCacheKey(s);
+        	Integer first = (key == null) ? null : sentKeys.get(key);
+        	if(first != null)
+        	{
+        		int j = first.intValue();
+        		duplicates[totalDuplicates] = s;
+        		nextDuplicate[totalDuplicates] = -1;
+        		if(firstDuplicate[j] == -1)
+        		{
+        			firstDuplicate[j] = totalDuplicates;
+        		}
+        		else
+        		{
+        			nextDuplicate[lastDuplicate[j]] = totalDuplicates;
+        		}
+        		lastDuplicate[j] = totalDuplicates++;
+        		continue;
+        	}
+        	Double score = (key == null) ? null : cache.get(key);
+        	if(score == null)
+        	{
+        		if(key != null)
+        		{
+        			sentKeys.put(key, new Integer(totalPending));
+        		}
+        		firstDuplicate[totalPending] = -1;
+        		keys[totalPending] = key;
+        		pending[totalPending++] = s;
+        	}
+        	else if(canEvaluate() && commitCachedEvaluation(cache, s, score.doubleValue()) == EvaluationCache.COUNTED_HIT)
+        	{
+        		hits[totalHits++] = s;
+        	}
         }
-        
-        // perform the evaluation
-        double [][] coords = new double[pop.size()][];
-        for (int i = 0; i < coords.length; i++)
+        if(totalHits > 0)
         {
-            coords[i] = ((CFOSolution)pop.get(i)).getCoordinate();
+        	evaluationEventBus.solutionBatchEvaluated(hits, totalHits);
         }
         
-        Object [] result = null;            
+        // the fewest requests, the round trips of the requests in flight overlap
+        int depth = client.getPipelineDepth();
+        LinkedList<Batch> inFlight = new LinkedList<Batch>();
+        int sent = 0;
+        int committed = 0;
         try
         {
-            result = client.train(coords);
-        }
-        catch(Exception e)
-        {
-            throw new AlgorithmRunException("Unable to batch evaluate solutions.\n" + e.getMessage(), e);
+	        while(true)
+	        {
+	        	// fill the pipeline
+	        	while(inFlight.size() < depth && sent < totalPending && canEvaluate())
+	        	{
+	        		long permitted = getRemainingEvaluations() - (sent - committed);
+	        		if(permitted <= 0)
+	        		{
+	        			break;
+	        		}
+	        		int size = (int) Math.min(Math.min(ITERATION_SIZE, totalPending - sent), permitted);
+	        		double [][] coords = new double[size][];
+	        		for (int i = 0; i < size; i++)
+					{
+	        			coords[i] = ((CFOSolution)pending[sent + i]).getCoordinate();
+	        			checkSolutionForSafety(coords[i]); // slow but safe
+					}
+	        		inFlight.add(new Batch(sent, size, client.trainAsync(coords)));
+	        		sent += size;
+	        	}
+	        	if(inFlight.isEmpty())
+	        	{
+	        		break;
+	        	}
+	        	
+	        	// store scores of the oldest request
+	        	Batch batch = inFlight.removeFirst();
+	        	double [] scores = waitForScores(batch.result);
+	        	Solution [] evaluated = new Solution[batch.length + totalDuplicates];
+	        	int total = 0;
+	        	for (int i = 0; i < batch.length && canEvaluate(); i++)
+	        	{
+	        		Solution s = pending[batch.offset + i];
+	        		s.evaluated(scores[i]);
+	        		triggerSolutionEvaluationEvent(s);
+	        		evaluated[total++] = s;
+	        		Object key = keys[batch.offset + i];
+	        		if(key != null)
+	        		{
+	        			cache.put(key, scores[i]);
+	        			// fan the score out to the duplicates, as though evaluated sequentially
+	        			for (int d = firstDuplicate[batch.offset + i]; d != -1 && canEvaluate(); d = nextDuplicate[d])
+	        			{
+	        				Double score = cache.get(key);
+	        				if(score == null)
+	        				{
+	        					duplicates[d].evaluated(scores[i]);
+	        					triggerSolutionEvaluationEvent(duplicates[d]);
+	        					cache.put(key, scores[i]);
+	        					evaluated[total++] = duplicates[d];
+	        				}
+	        				else if(commitCachedEvaluation(cache, duplicates[d], score.doubleValue()) == EvaluationCache.COUNTED_HIT)
+	        				{
+	        					evaluated[total++] = duplicates[d];
+	        				}
+	        			}
+	        		}
+	        	}
+	        	committed = batch.offset + batch.length;
+	        	evaluationEventBus.solutionBatchEvaluated(evaluated, total);
+	        	if(!canEvaluate())
+	        	{
+	        		break;
+	        	}
+	        }
         }
-        
-        if(result!=null && !((Boolean)result[0]))
+        finally
         {
-            throw new AlgorithmRunException("Failure while batch evaluating solutions.\n" + result[1]);
+        	// results no longer required
+        	for(Batch batch : inFlight)
+        	{
+        		batch.result.cancel(true);
+        	}
         }
-        
-        double [] scores = (double[]) result[2];
-        
-        // store scores
-        for (int i = 0; i < scores.length && canEvaluate(); i++)
+    }
+    
+    /**
+     * Wait for the result of a request
+     * @param result
+     * @return - scores
+     * @throws AlgorithmRunException
+     */
+    protected double [] waitForScores(Future<Object[]> result)
+    	throws AlgorithmRunException
+    {
+    	Object [] r = null;
+    	try
+    	{
+    		r = result.get();
+    	}
+    	catch(InterruptedException e)
+    	{
+    		Thread.currentThread().interrupt();
+    		throw new AlgorithmRunException("Interrupted while batch evaluating solutions.", e);
+    	}
+    	catch(ExecutionException e)
+    	{
+    		throw new AlgorithmRunException("Unable to batch evaluate solutions.\n" + e.getCause().getMessage(), e.getCause());
+    	}
+        if(r!=null && !((Boolean)r[0]))
         {
-            pop.get(i).evaluated(scores[i]);
-            triggerSolutionEvaluationEvent(pop.get(i));
+            throw new AlgorithmRunException("Failure while batch evaluating solutions.\n" + r[1]);
         }
+        return (double[]) r[2];
     }
     
     @Override
@@ -191,6 +369,37 @@ public class HuygensProblem extends Problem implements CFOProblemInterface
         {
             throw new InvalidConfigurationException("Invalid email address: " + email);
         }
+        if(pipelineDepth < 1)
+        {
+        	throw new InvalidConfigurationException("Invalid pipeline depth, must be >= 1: " + pipelineDepth);
+        }
+        if(maxRetries < 0)
+        {
+        	throw new InvalidConfigurationException("Invalid maximum retries, must be >= 0: " + maxRetries);
+        }
+        if(retryBackoff < 0)
+        {
+        	throw new InvalidConfigurationException("Invalid retry backoff, must be >= 0: " + retryBackoff);
+        }
+    }
+    
+    /**
+     * Create a new connection (session) to the server
+     * @return
+     * @throws Exception
+     */
+    protected HuygensServer createConnection()
+    	throws Exception
+    {
+    	return new HuygensWSClient();
+    }
+    
+    /**
+     * @return - description of the server connected to
+     */
+    protected String getServerDetails()
+    {
+    	return "Server="+HuygensWSClient.HUYGENS_WS_ADDRESS+", ClientVersion="+HuygensWSClient.VERSION;
     }
     public boolean isValidEmail()
     {
@@ -210,15 +419,21 @@ public class HuygensProblem extends Problem implements CFOProblemInterface
     public void initialiseBeforeRun()
     	throws InitialisationException
     {    	
-        // create client        
+        // create client, a connection for each request in flight
+        cleanupAfterRun();
+        HuygensServer [] connections = new HuygensServer[pipelineDepth];
         try
         {
-            client = new HuygensWSClient();
+        	for (int i = 0; i < connections.length; i++)
+			{
+        		connections[i] = createConnection();
+			}
         }
         catch(Exception e)
         {
             throw new InitialisationException("Unable to create connection.\n"+e.getMessage(), e);
         }
+        client = new PipelinedHuygensClient(connections, maxRetries, retryBackoff, retryTraining);
         Object [] result = null;
         try
         {
@@ -251,6 +466,20 @@ public class HuygensProblem extends Problem implements CFOProblemInterface
             }
         }
     }
+    
+    /**
+     * Called after the problem is used in an algorithm run, releases the client
+     */
+    @Override
+    public void cleanupAfterRun()
+    	throws InitialisationException
+    {
+    	if(client != null)
+    	{
+    		client.shutdown();
+    		client = null;
+    	}
+    }
 	
 
 	@Override
@@ -342,8 +571,9 @@ public class HuygensProblem extends Problem implements CFOProblemInterface
         b.append("BitPrecisionPerParameter="+bitPrecision+", ");
         b.append("Torroidal="+isToroidal()+", ");
         b.append("Dimensions="+dimensions+", ");
-        b.append("Server="+HuygensWSClient.HUYGENS_WS_ADDRESS+", ");
-        b.append("ClientVersion="+HuygensWSClient.VERSION+"");
+        b.append(getServerDetails()+", ");
+        b.append("PipelineDepth="+pipelineDepth+", ");
+        b.append("RetryTraining="+retryTraining+", ");
         
         b.append("Bounds=(");
         for (int i = 0; i < minmax.length; i++)
@@ -390,6 +620,46 @@ public class HuygensProblem extends Problem implements CFOProblemInterface
 		this.email = email;
 	}
 	
+	public int getPipelineDepth()
+	{
+		return pipelineDepth;
+	}
+
+	public void setPipelineDepth(int pipelineDepth)
+	{
+		this.pipelineDepth = pipelineDepth;
+	}
+
+	public int getMaxRetries()
+	{
+		return maxRetries;
+	}
+
+	public void setMaxRetries(int maxRetries)
+	{
+		this.maxRetries = maxRetries;
+	}
+
+	public long getRetryBackoff()
+	{
+		return retryBackoff;
+	}
+
+	public void setRetryBackoff(long retryBackoff)
+	{
+		this.retryBackoff = retryBackoff;
+	}
+
+	public boolean getRetryTraining()
+	{
+		return retryTraining;
+	}
+
+	public void setRetryTraining(boolean retryTraining)
+	{
+		this.retryTraining = retryTraining;
+	}
+	
 	@Override
 	public boolean isUserConfigurable()
 	{
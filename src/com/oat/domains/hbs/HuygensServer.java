@@ -0,0 +1,92 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.hbs;
+
+/**
+ * Description: The train and benchmark protocol of the Huygens server, as implemented by the 
+ * web service client and the local stand-in. All results are arrays of the form returned by 
+ * the server (see HuygensWSClient), Object[0] is a Boolean indicating whether the call was 
+ * successful and Object[1] is a status report. An implementation represents a single session 
+ * and is not safe for concurrent calls.
+ *  
+ * Date: 03/12/2007<br/>
+ * @author Jason Brownlee 
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 
+ * </pre>
+ */
+public interface HuygensServer
+{
+	/**
+	 * Login to the server
+	 * @param email
+	 * @return - success and status
+	 * @throws Exception - transport failure
+	 */
+	Object[] login(String email) throws Exception;
+	
+	/**
+	 * Check the server is responding
+	 * @return - success and status
+	 * @throws Exception - transport failure
+	 */
+	Object[] ping() throws Exception;
+	
+	/**
+	 * Initialise a training process
+	 * @param series
+	 * @param landscape
+	 * @return - success and status
+	 * @throws Exception - transport failure
+	 */
+	Object[] startTraining(int series, long landscape) throws Exception;
+	
+	/**
+	 * Evaluate points in the training landscape
+	 * @param probes - Nx2 points
+	 * @return - success, status, N evaluations (double[]), evaluations completed (Integer)
+	 * @throws Exception - transport failure
+	 */
+	Object[] train(double[][] probes) throws Exception;
+	
+	/**
+	 * Initialise a benchmark process
+	 * @param name
+	 * @param algorithm
+	 * @param parameters
+	 * @return - success and status
+	 * @throws Exception - transport failure
+	 */
+	Object[] startBenchmark(String name, String algorithm, String parameters) throws Exception;
+	
+	/**
+	 * Evaluate points in the current benchmark landscape
+	 * @param probes - Nx2 points
+	 * @return - success, status, N evaluations (double[]), current landscape (Integer), 
+	 * evaluations completed on the landscape (Integer), minimum found on the landscape (Double), 
+	 * landscape exhausted (Boolean), benchmark complete (Boolean)
+	 * @throws Exception - transport failure
+	 */
+	Object[] benchmark(double[][] probes) throws Exception;
+}
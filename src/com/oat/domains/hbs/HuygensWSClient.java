@@ -46,10 +46,10 @@ import org.apache.axis.client.Service;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 03/12/2007	JBrownlee	Implements the HuygensServer protocol
  * </pre>
  */
-public class HuygensWSClient
+public class HuygensWSClient implements HuygensServer
 {
     public static final String HUYGENS_WS_ADDRESS = "http://gungurru.csse.uwa.edu.au/cgi-bin/WebObjects/huygensWS.woa/1/ws/huygensWS";
     public static final String VERSION = "v2.1; 21 June 2006";
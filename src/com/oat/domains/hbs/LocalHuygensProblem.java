@@ -0,0 +1,109 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.hbs;
+
+import com.oat.InvalidConfigurationException;
+
+/**
+ * Description: Huygens training problem evaluated by a local stand-in of the server 
+ * (see LocalHuygensServer), for testing and benchmarking the domain offline. 
+ * The landscapes differ from those of the Huygens suite. Round-trip latency and 
+ * transport failures can be simulated to exercise the pipelined client.
+ *  
+ * Date: 03/12/2007<br/>
+ * @author Jason Brownlee 
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 
+ * </pre>
+ */
+public class LocalHuygensProblem extends HuygensProblem
+{
+	// user configuration
+	protected long latency = 0; // milliseconds per call
+	protected double failureRate = 0.0; // probability of a transport failure per call
+	
+	// internal state
+	protected long totalConnections;
+	
+	
+	public LocalHuygensProblem()
+	{
+		// the stand-in does not identify users
+		email = "anonymous@localhost.localdomain";
+	}
+	
+	@Override
+	protected HuygensServer createConnection() 
+		throws Exception
+	{
+		// each connection simulates a different sequence of failures
+		return new LocalHuygensServer(latency, failureRate, ++totalConnections);
+	}
+	
+	@Override
+	protected String getServerDetails()
+	{
+		return "Server="+LocalHuygensServer.VERSION+", Latency="+latency+", FailureRate="+failureRate;
+	}
+	
+	@Override
+	public void validateConfiguration() throws InvalidConfigurationException
+	{
+		super.validateConfiguration();
+		if(latency < 0)
+		{
+			throw new InvalidConfigurationException("Invalid latency, must be >= 0: " + latency);
+		}
+		if(failureRate < 0 || failureRate >= 1)
+		{
+			throw new InvalidConfigurationException("Invalid failure rate, must be in [0,1): " + failureRate);
+		}
+	}
+	
+	@Override
+	public String getName()
+	{
+		return "Huygens Suite (Local Stand-in)";
+	}
+
+	public long getLatency()
+	{
+		return latency;
+	}
+
+	public void setLatency(long latency)
+	{
+		this.latency = latency;
+	}
+
+	public double getFailureRate()
+	{
+		return failureRate;
+	}
+
+	public void setFailureRate(double failureRate)
+	{
+		this.failureRate = failureRate;
+	}
+}
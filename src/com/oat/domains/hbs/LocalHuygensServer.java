@@ -0,0 +1,373 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.hbs;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Description: A local stand-in for the Huygens server that implements the train and benchmark 
+ * protocol in process, such that the domain can be tested and benchmarked offline. 
+ * Landscapes are not those of the Huygens suite, each is a deterministic function of the 
+ * series and landscape number: a number of wells of random position, depth and width placed 
+ * on the toroidal unit square (minimisation). Network round-trips can be simulated with a 
+ * fixed latency per call and transport failures with a failure probability.
+ * Each instance is a single session, calls may overlap only in their latency.
+ *  
+ * Date: 03/12/2007<br/>
+ * @author Jason Brownlee 
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 
+ * </pre>
+ */
+public class LocalHuygensServer implements HuygensServer
+{
+	public final static String VERSION = "Local stand-in";
+	
+	/**
+	 * Number of wells in each landscape
+	 */
+	public final static int TOTAL_WELLS = 10;
+	/**
+	 * Landscapes in a benchmark sequence
+	 */
+	public final static int BENCHMARK_LANDSCAPES = 10;
+	/**
+	 * Probes permitted per landscape of a benchmark sequence, unless specified in the name
+	 */
+	public final static int DEFAULT_BENCHMARK_PROBES = 1000;
+	
+	/**
+	 * Simulated round-trip time in milliseconds
+	 */
+	protected final long latency;
+	/**
+	 * Probability of a simulated transport failure for each call
+	 */
+	protected final double failureRate;
+	protected final Random failureRandom;
+	
+	// session state
+	protected String email;
+	protected double [][] wells; // {x, y, depth, width}
+	protected int evaluations;
+	// benchmark state
+	protected boolean benchmarking;
+	protected long benchmarkSeries;
+	protected int benchmarkProbes;
+	protected int benchmarkLandscape;
+	protected double benchmarkMinimum;
+	protected boolean benchmarkComplete;
+	
+	/**
+	 * No latency and no failures
+	 */
+	public LocalHuygensServer()
+	{
+		this(0, 0.0, 1);
+	}
+	
+	/**
+	 * @param aLatency - milliseconds per call
+	 * @param aFailureRate - probability [0,1] of a transport failure per call
+	 * @param aSeed - seed for the simulated failures
+	 */
+	public LocalHuygensServer(long aLatency, double aFailureRate, long aSeed)
+	{
+		if(aLatency < 0)
+		{
+			throw new IllegalArgumentException("Latency must be >= 0: " + aLatency);
+		}
+		if(aFailureRate < 0 || aFailureRate > 1)
+		{
+			throw new IllegalArgumentException("Failure rate must be in [0,1]: " + aFailureRate);
+		}
+		latency = aLatency;
+		failureRate = aFailureRate;
+		failureRandom = new Random(aSeed);
+	}
+	
+	/**
+	 * Simulate the network, wait for the latency and possibly fail
+	 * @throws IOException - simulated transport failure
+	 */
+	protected void roundTrip()
+		throws IOException
+	{
+		if(latency > 0)
+		{
+			try
+			{
+				Thread.sleep(latency);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for the server");
+			}
+		}
+		boolean fail;
+		synchronized(failureRandom)
+		{
+			fail = failureRate > 0 && failureRandom.nextDouble() < failureRate;
+		}
+		if(fail)
+		{
+			throw new IOException("Simulated transport failure");
+		}
+	}
+	
+	public Object[] login(String anEmail) 
+		throws Exception
+	{
+		roundTrip();
+		synchronized(this)
+		{
+			if(anEmail == null || anEmail.length() == 0)
+			{
+				return new Object[]{Boolean.FALSE, "No email address provided"};
+			}
+			email = anEmail;
+			return new Object[]{Boolean.TRUE, "Logged in " + email};
+		}
+	}
+
+	public Object[] ping() 
+		throws Exception
+	{
+		roundTrip();
+		return new Object[]{Boolean.TRUE, "Huygens " + VERSION + ", time " + System.currentTimeMillis()};
+	}
+
+	public Object[] startTraining(int series, long landscape) 
+		throws Exception
+	{
+		roundTrip();
+		synchronized(this)
+		{
+			if(email == null)
+			{
+				return new Object[]{Boolean.FALSE, "Not logged in"};
+			}
+			wells = generateLandscape(series, landscape);
+			evaluations = 0;
+			benchmarking = false;
+			return new Object[]{Boolean.TRUE, "Training started, series " + series + ", landscape " + landscape};
+		}
+	}
+
+	public Object[] train(double[][] probes) 
+		throws Exception
+	{
+		roundTrip();
+		synchronized(this)
+		{
+			if(wells == null || benchmarking)
+			{
+				return new Object[]{Boolean.FALSE, "Training has not been started"};
+			}
+			String invalid = validate(probes);
+			if(invalid != null)
+			{
+				return new Object[]{Boolean.FALSE, invalid};
+			}
+			double [] scores = new double[probes.length];
+			for (int i = 0; i < probes.length; i++)
+			{
+				scores[i] = evaluate(wells, probes[i][0], probes[i][1]);
+			}
+			evaluations += probes.length;
+			return new Object[]{Boolean.TRUE, "Evaluated " + probes.length, scores, new Integer(evaluations)};
+		}
+	}
+
+	/**
+	 * Benchmark names are of the form series-probes (for example 201-1000), 
+	 * each landscape of the sequence permits the specified number of probes 
+	 */
+	public Object[] startBenchmark(String name, String algorithm, String parameters) 
+		throws Exception
+	{
+		roundTrip();
+		synchronized(this)
+		{
+			if(email == null)
+			{
+				return new Object[]{Boolean.FALSE, "Not logged in"};
+			}
+			try
+			{
+				int split = name.indexOf('-');
+				benchmarkSeries = Long.parseLong((split < 0) ? name : name.substring(0, split));
+				benchmarkProbes = (split < 0) ? DEFAULT_BENCHMARK_PROBES : Integer.parseInt(name.substring(split + 1));
+			}
+			catch(NumberFormatException e)
+			{
+				return new Object[]{Boolean.FALSE, "Unknown benchmark sequence " + name};
+			}
+			if(benchmarkProbes < 1)
+			{
+				return new Object[]{Boolean.FALSE, "Unknown benchmark sequence " + name};
+			}
+			benchmarking = true;
+			benchmarkComplete = false;
+			startBenchmarkLandscape(1);
+			return new Object[]{Boolean.TRUE, "Benchmark started " + name + " for " + algorithm};
+		}
+	}
+	
+	protected void startBenchmarkLandscape(int landscape)
+	{
+		benchmarkLandscape = landscape;
+		wells = generateLandscape(benchmarkSeries, landscape);
+		evaluations = 0;
+		benchmarkMinimum = Double.POSITIVE_INFINITY;
+	}
+
+	public Object[] benchmark(double[][] probes) 
+		throws Exception
+	{
+		roundTrip();
+		synchronized(this)
+		{
+			if(!benchmarking)
+			{
+				return new Object[]{Boolean.FALSE, "Benchmark has not been started"};
+			}
+			if(benchmarkComplete)
+			{
+				return new Object[]{Boolean.FALSE, "Benchmark is complete"};
+			}
+			String invalid = validate(probes);
+			if(invalid != null)
+			{
+				return new Object[]{Boolean.FALSE, invalid};
+			}
+			if(evaluations + probes.length > benchmarkProbes)
+			{
+				return new Object[]{Boolean.FALSE, "Only " + (benchmarkProbes - evaluations) + " probes remain for landscape " + benchmarkLandscape};
+			}
+			double [] scores = new double[probes.length];
+			for (int i = 0; i < probes.length; i++)
+			{
+				scores[i] = evaluate(wells, probes[i][0], probes[i][1]);
+				benchmarkMinimum = Math.min(benchmarkMinimum, scores[i]);
+			}
+			evaluations += probes.length;
+			int landscape = benchmarkLandscape;
+			int completed = evaluations;
+			double minimum = benchmarkMinimum;
+			boolean exhausted = (evaluations == benchmarkProbes);
+			if(exhausted)
+			{
+				if(benchmarkLandscape == BENCHMARK_LANDSCAPES)
+				{
+					benchmarkComplete = true;
+				}
+				else
+				{
+					startBenchmarkLandscape(benchmarkLandscape + 1);
+				}
+			}
+			return new Object[]{Boolean.TRUE, "Evaluated " + probes.length, scores, new Integer(landscape), 
+					new Integer(completed), new Double(minimum), Boolean.valueOf(exhausted), Boolean.valueOf(benchmarkComplete)};
+		}
+	}
+	
+	/**
+	 * @param probes
+	 * @return - description of the first invalid probe, null if all are valid
+	 */
+	protected static String validate(double [][] probes)
+	{
+		if(probes == null || probes.length == 0)
+		{
+			return "No probes provided";
+		}
+		for (int i = 0; i < probes.length; i++)
+		{
+			if(probes[i] == null || probes[i].length != 2)
+			{
+				return "Probe " + i + " is not a two dimensional point";
+			}
+			for (int j = 0; j < 2; j++)
+			{
+				if(!(probes[i][j] >= 0.0 && probes[i][j] <= 1.0))
+				{
+					return "Probe " + i + " is out of bounds: " + probes[i][j];
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Generate the wells of a landscape
+	 * @param series
+	 * @param landscape
+	 * @return - {x, y, depth, width} of each well
+	 */
+	public static double [][] generateLandscape(long series, long landscape)
+	{
+		Random r = new Random(series * 1000003L + landscape);
+		double [][] w = new double[TOTAL_WELLS][];
+		for (int i = 0; i < w.length; i++)
+		{
+			w[i] = new double[]{r.nextDouble(), r.nextDouble(), 0.2 + 0.8*r.nextDouble(), 0.02 + 0.1*r.nextDouble()};
+		}
+		return w;
+	}
+	
+	/**
+	 * Evaluate a point on the landscape, the deepest well at the point (toroidal distance)
+	 * @param wells
+	 * @param x
+	 * @param y
+	 * @return - score in [0,1], 0 is the best
+	 */
+	public static double evaluate(double [][] wells, double x, double y)
+	{
+		double best = 0.0;
+		for (int i = 0; i < wells.length; i++)
+		{
+			double dx = Math.abs(x - wells[i][0]);
+			double dy = Math.abs(y - wells[i][1]);
+			dx = Math.min(dx, 1.0 - dx);
+			dy = Math.min(dy, 1.0 - dy);
+			double d = (dx*dx + dy*dy) / (2.0 * wells[i][3] * wells[i][3]);
+			best = Math.max(best, wells[i][2] * Math.exp(-d));
+		}
+		return 1.0 - best;
+	}
+
+	public long getLatency()
+	{
+		return latency;
+	}
+
+	public double getFailureRate()
+	{
+		return failureRate;
+	}
+}
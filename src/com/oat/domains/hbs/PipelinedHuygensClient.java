@@ -0,0 +1,338 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.hbs;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: Pipelined client of the Huygens server protocol. Holds one connection (session) 
+ * per request that may be in flight at a time, each connection is logged in and started on 
+ * the same training landscape, such that several batches of points can be evaluated concurrently 
+ * and the cost of a round trip is paid once for each pipeline depth of batches. 
+ * Session set up calls that fail with an exception (transport failures) are retried on the 
+ * same connection with exponential backoff, calls that the server reports as unsuccessful are 
+ * not retried. Training calls are not idempotent: a call that failed in transport may have 
+ * been received and counted by the server, so training calls are only retried if enabled.
+ *  
+ * Date: 03/12/2007<br/>
+ * @author Jason Brownlee 
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 09/12/2007	JBrownlee	Training calls are only retried if enabled
+ * </pre>
+ */
+public class PipelinedHuygensClient
+{
+	/**
+	 * Upper bound on the wait between retries in milliseconds
+	 */
+	public final static long MAX_BACKOFF = 10000;
+	
+	/**
+	 * A single call of the protocol
+	 */
+	protected static interface Request
+	{
+		Object[] invoke(HuygensServer server) throws Exception;
+	}
+	
+	protected final HuygensServer [] connections;
+	/**
+	 * Connections not in use
+	 */
+	protected final LinkedBlockingQueue<HuygensServer> idle;
+	protected final ExecutorService executor;
+	protected final int maxRetries;
+	protected final long initialBackoff;
+	protected final boolean retryTraining;
+	
+	// statistics
+	protected final AtomicLong totalRequests;
+	protected final AtomicLong totalRetries;
+	
+	
+	/**
+	 * Create a client that does not retry training calls
+	 * @param aConnections - one connection for each request that may be in flight
+	 * @param aMaxRetries - retries of a session set up call that fails with an exception, >= 0
+	 * @param aInitialBackoff - wait before the first retry in milliseconds, doubled for each retry
+	 */
+	public PipelinedHuygensClient(HuygensServer [] aConnections, int aMaxRetries, long aInitialBackoff)
+	{
+		this(aConnections, aMaxRetries, aInitialBackoff, false);
+	}
+	
+	/**
+	 * @param aConnections - one connection for each request that may be in flight
+	 * @param aMaxRetries - retries of a call that fails with an exception, >= 0
+	 * @param aInitialBackoff - wait before the first retry in milliseconds, doubled for each retry
+	 * @param aRetryTraining - whether training calls are retried, points of a retried call may 
+	 * be counted more than once by the server
+	 */
+	public PipelinedHuygensClient(HuygensServer [] aConnections, int aMaxRetries, long aInitialBackoff, boolean aRetryTraining)
+	{
+		if(aConnections == null || aConnections.length < 1)
+		{
+			throw new IllegalArgumentException("At least one connection is required");
+		}
+		if(aMaxRetries < 0)
+		{
+			throw new IllegalArgumentException("Maximum retries must be >= 0: " + aMaxRetries);
+		}
+		if(aInitialBackoff < 0)
+		{
+			throw new IllegalArgumentException("Backoff must be >= 0: " + aInitialBackoff);
+		}
+		connections = aConnections.clone();
+		idle = new LinkedBlockingQueue<HuygensServer>();
+		for (int i = 0; i < connections.length; i++)
+		{
+			idle.add(connections[i]);
+		}
+		maxRetries = aMaxRetries;
+		initialBackoff = aInitialBackoff;
+		retryTraining = aRetryTraining;
+		totalRequests = new AtomicLong();
+		totalRetries = new AtomicLong();
+		executor = Executors.newFixedThreadPool(connections.length, new ThreadFactory()
+		{
+			protected final AtomicInteger count = new AtomicInteger();
+
+			public Thread newThread(Runnable r)
+			{
+				Thread t = new Thread(r, "OAT-Huygens-" + count.incrementAndGet());
+				// never hold up the jvm
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+	
+	/**
+	 * Invoke the request, retrying with exponential backoff when an exception is thrown
+	 * @param server
+	 * @param request
+	 * @param retries - maximum retries of the request
+	 * @return - result of the call
+	 * @throws Exception - the exception of the last attempt once the retries are exhausted 
+	 */
+	protected Object[] invoke(HuygensServer server, Request request, int retries)
+		throws Exception
+	{
+		totalRequests.incrementAndGet();
+		long backoff = initialBackoff;
+		for (int attempt = 0; ; attempt++)
+		{
+			try
+			{
+				return request.invoke(server);
+			}
+			catch(InterruptedException e)
+			{
+				throw e;
+			}
+			catch(Exception e)
+			{
+				if(attempt >= retries)
+				{
+					throw e;
+				}
+			}
+			totalRetries.incrementAndGet();
+			if(backoff > 0)
+			{
+				Thread.sleep(backoff);
+			}
+			backoff = Math.min(MAX_BACKOFF, backoff * 2);
+		}
+	}
+	
+	/**
+	 * Invoke the request on every connection in turn, for session set up
+	 * @param request
+	 * @return - the first unsuccessful result, otherwise the result of the last connection
+	 * @throws Exception
+	 */
+	protected Object[] invokeAll(Request request)
+		throws Exception
+	{
+		Object [] result = null;
+		for (int i = 0; i < connections.length; i++)
+		{
+			result = invoke(connections[i], request, maxRetries);
+			if(result == null || !((Boolean)result[0]).booleanValue())
+			{
+				return result;
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Invoke the request on an idle connection, waits if there are none
+	 * @param request
+	 * @param retries - maximum retries of the request
+	 * @return
+	 * @throws Exception
+	 */
+	protected Object[] invokeIdle(Request request, int retries)
+		throws Exception
+	{
+		HuygensServer server = idle.take();
+		try
+		{
+			return invoke(server, request, retries);
+		}
+		finally
+		{
+			idle.add(server);
+		}
+	}
+	
+	/**
+	 * Login all connections
+	 * @param email
+	 * @return - first unsuccessful result, otherwise the last result
+	 * @throws Exception
+	 */
+	public Object[] login(final String email)
+		throws Exception
+	{
+		return invokeAll(new Request()
+		{
+			public Object[] invoke(HuygensServer server) throws Exception
+			{
+				return server.login(email);
+			}
+		});
+	}
+	
+	/**
+	 * Start training on the same landscape for all connections
+	 * @param series
+	 * @param landscape
+	 * @return - first unsuccessful result, otherwise the last result
+	 * @throws Exception
+	 */
+	public Object[] startTraining(final int series, final long landscape)
+		throws Exception
+	{
+		return invokeAll(new Request()
+		{
+			public Object[] invoke(HuygensServer server) throws Exception
+			{
+				return server.startTraining(series, landscape);
+			}
+		});
+	}
+	
+	/**
+	 * Evaluate points in the training landscape, waits for the result. 
+	 * Retried after a transport failure only if retrying training is enabled.
+	 * @param probes
+	 * @return - result of the server
+	 * @throws Exception
+	 */
+	public Object[] train(final double[][] probes)
+		throws Exception
+	{
+		return invokeIdle(new Request()
+		{
+			public Object[] invoke(HuygensServer server) throws Exception
+			{
+				return server.train(probes);
+			}
+		}, retryTraining ? maxRetries : 0);
+	}
+	
+	/**
+	 * Evaluate points in the training landscape without waiting, the request is sent 
+	 * as soon as a connection is available
+	 * @param probes - not to be modified until the result is available
+	 * @return - future result of the server
+	 */
+	public Future<Object[]> trainAsync(final double[][] probes)
+	{
+		return executor.submit(new Callable<Object[]>()
+		{
+			public Object[] call() throws Exception
+			{
+				return train(probes);
+			}
+		});
+	}
+	
+	/**
+	 * Stop the worker threads, requests in flight are interrupted
+	 */
+	public void shutdown()
+	{
+		executor.shutdownNow();
+	}
+	
+	/**
+	 * @return - maximum number of requests in flight
+	 */
+	public int getPipelineDepth()
+	{
+		return connections.length;
+	}
+	
+	public int getMaxRetries()
+	{
+		return maxRetries;
+	}
+	
+	public long getInitialBackoff()
+	{
+		return initialBackoff;
+	}
+	
+	public boolean isRetryTraining()
+	{
+		return retryTraining;
+	}
+	
+	/**
+	 * @return - calls made, not including retries
+	 */
+	public long getTotalRequests()
+	{
+		return totalRequests.get();
+	}
+	
+	/**
+	 * @return - calls retried after a failure
+	 */
+	public long getTotalRetries()
+	{
+		return totalRetries.get();
+	}
+}
@@ -25,11 +25,14 @@ import java.util.Random;
 import com.oat.Algorithm;
 import com.oat.AutomaticallyConfigurableAlgorithm;
 import com.oat.InvalidConfigurationException;
+import com.oat.Population;
 import com.oat.Problem;
 import com.oat.domains.psp.PSPProblem;
 import com.oat.domains.psp.PSPSolutionRelative;
 import com.oat.domains.psp.PSPUtils;
 import com.oat.utils.EvolutionUtils;
+import com.oat.utils.RandomUtils;
+import com.oat.utils.Selection;
 
 
 /**
@@ -48,7 +51,8 @@ import com.oat.utils.EvolutionUtils;
  * ----------------------------------------------------------------------------
  * 22/12/2006   Jbrownlee   Random moved to method variable rather than instance variable
  * 09/01/2007   JBrownlee   Modified to use generic elitism strategy
- * 
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
+ * 06/12/2007   JBrownlee   Selection reuses the buffers of a Selection
  * </pre>
  */
 public class GeneticAlgorithm extends Algorithm
@@ -99,7 +103,8 @@ public class GeneticAlgorithm extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem problem)
     {
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
+        Selection selection = new Selection();
         PSPProblem p = (PSPProblem) problem;
         
         // create initial population
@@ -116,7 +121,7 @@ public class GeneticAlgorithm extends Algorithm
             triggerIterationCompleteEvent(p, pop); 
             // select
             int numToSelect = ((populationSize%2)==0) ? populationSize : populationSize + 1; // must select an even number of parents
-            LinkedList<PSPSolutionRelative> selected = EvolutionUtils.tournamentSelection(pop, numToSelect, p, r, tournamentBouteSize);        
+            LinkedList<PSPSolutionRelative> selected = selection.tournamentSelection(pop, numToSelect, p, r, tournamentBouteSize);        
             // reproduce
             LinkedList<PSPSolutionRelative> children = reproduce(selected, populationSize-numElites, r);            
             // evaluate
@@ -137,10 +142,11 @@ public class GeneticAlgorithm extends Algorithm
         LinkedList<PSPSolutionRelative> children = new LinkedList<PSPSolutionRelative>();
         
         // always expect two children from two parents
-        for (int i = 0; children.size()<totalChildren && i < pop.size(); i+=2)
+        Population<PSPSolutionRelative> parents = new Population<PSPSolutionRelative>(pop);
+        for (int i = 0; children.size()<totalChildren && i < parents.size(); i+=2)
         {
-            PSPSolutionRelative p1 = pop.get(i);
-            PSPSolutionRelative p2 = pop.get(i+1);
+            PSPSolutionRelative p1 = parents.get(i);
+            PSPSolutionRelative p2 = parents.get(i+1);
             // perform crossover
             byte [][] twoChildren = EvolutionUtils.uniformCrossover(p1.getPermutation(), p2.getPermutation(), r, crossoverProbability);
             for (int j = 0; children.size()<totalChildren && j < twoChildren.length; j++)
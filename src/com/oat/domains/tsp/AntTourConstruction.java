@@ -0,0 +1,405 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.tsp;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.oat.AlgorithmRunException;
+import com.oat.utils.AlgorithmUtils;
+
+/**
+ * Description: Construction of tours using the ACO random proportional rule, restricted to 
+ * nearest neighbour candidate lists. The choice information (history^alpha * heuristic^beta) 
+ * of each candidate edge is calculated once per iteration and shared by all ants. Visited 
+ * cities are recorded in a bitmap and selection does not allocate, such that a tour costs 
+ * O(n*k) rather than the O(n^2) of TSPUtils.probabilisticStepwiseConstruction. 
+ * When all candidates of a city have been visited, the unvisited city with the largest 
+ * choice information is selected.
+ * 
+ * One instance is used by one ant at a time, concurrent ants each use a construction 
+ * created with the sharing constructor.
+ *
+ * Date: 23/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 24/11/2007	JBrownlee	Added a constructor that shares choice information for concurrent construction
+ * </pre>
+ */
+public class AntTourConstruction
+{
+	/**
+	 * Candidate list size commonly used with ACO on the TSP (15 to 40)
+	 */
+	public final static int DEFAULT_CANDIDATE_LIST_SIZE = 20;
+	
+	protected final DistanceMatrix distances;
+	protected final int totalCities;
+	protected final double historyContribution; // alpha
+	protected final double heuristicContribution; // beta
+	/**
+	 * [city][rank] = neighbour
+	 */
+	protected final int [][] candidates;
+	/**
+	 * heuristic^beta for each candidate edge [city][rank]
+	 */
+	protected final double [][] heuristic;
+	/**
+	 * history^alpha * heuristic^beta for each candidate edge [city][rank]
+	 */
+	protected final double [][] choiceInfo;
+	/**
+	 * Cities visited by the current ant, one bit per city
+	 */
+	protected final long [] visited;
+	/**
+	 * Selection weights for the current step
+	 */
+	protected final double [] weights;
+	
+	/**
+	 * 
+	 * @param aDistances - distances between cities
+	 * @param candidateListSize - number of nearest neighbours considered at each step
+	 * @param aHistoryContribution - alpha
+	 * @param aHeuristicContribution - beta
+	 */
+	public AntTourConstruction(
+			DistanceMatrix aDistances, 
+			int candidateListSize, 
+			double aHistoryContribution, 
+			double aHeuristicContribution)
+	{
+		distances = aDistances;
+		totalCities = distances.getTotalCities();
+		historyContribution = aHistoryContribution;
+		heuristicContribution = aHeuristicContribution;
+		candidates = distances.getNearestNeighbours(candidateListSize);
+		int k = (totalCities > 0) ? candidates[0].length : 0;
+		heuristic = new double[totalCities][k];
+		choiceInfo = new double[totalCities][k];
+		for (int i = 0; i < totalCities; i++)
+		{
+			for (int j = 0; j < k; j++)
+			{
+				heuristic[i][j] = calculateHeuristic(i, candidates[i][j]);
+			}
+		}
+		visited = new long[(totalCities + 63) >>> 6];
+		weights = new double[k];
+	}
+	
+	/**
+	 * Create a construction that shares the candidate lists, heuristic and choice information
+	 * of the provided construction, with its own visited and selection state. Used to 
+	 * construct tours concurrently, the shared choice information must not be changed 
+	 * while tours are being constructed
+	 * @param shared
+	 */
+	public AntTourConstruction(AntTourConstruction shared)
+	{
+		distances = shared.distances;
+		totalCities = shared.totalCities;
+		historyContribution = shared.historyContribution;
+		heuristicContribution = shared.heuristicContribution;
+		candidates = shared.candidates;
+		heuristic = shared.heuristic;
+		choiceInfo = shared.choiceInfo;
+		visited = new long[shared.visited.length];
+		weights = new double[shared.weights.length];
+	}
+	
+	public int getCandidateListSize()
+	{
+		return weights.length;
+	}
+	
+	/**
+	 * heuristic^beta for an edge, zero when the cities share a position
+	 * @param c1
+	 * @param c2
+	 * @return
+	 */
+	protected double calculateHeuristic(int c1, int c2)
+	{
+		double d = distances.distance(c1, c2);
+		// ensure we never divide by zero (two points on the same position)
+		double h = (d != 0) ? Math.pow(1.0/d, heuristicContribution) : 0.0;
+		if(AlgorithmUtils.isInvalidNumber(h))
+		{
+			throw new AlgorithmRunException("Heuristic out of bounds: "+h+", distance["+d+"], heuristicContribution["+heuristicContribution+"].");
+		}
+		return h;
+	}
+	
+	/**
+	 * history^alpha, avoids the power in the common case of alpha == 1
+	 * @param history
+	 * @return
+	 */
+	protected double calculateHistory(double history)
+	{
+		return (historyContribution == 1.0) ? history : Math.pow(history, historyContribution);
+	}
+	
+	/**
+	 * Calculate the choice information of all candidate edges, called once per iteration
+	 * after the pheromone matrix has been updated
+	 * @param historyMatrix - pheromone matrix
+	 */
+	public void prepareChoiceInfo(double [][] historyMatrix)
+	{
+		for (int i = 0; i < totalCities; i++)
+		{
+			for (int j = 0; j < candidates[i].length; j++)
+			{
+				choiceInfo[i][j] = calculateChoiceInfo(historyMatrix, i, j);
+			}
+		}
+	}
+	
+	/**
+	 * Refresh the choice information for the edges of a tour after a change to the 
+	 * pheromone on those edges (such as the ACS local update)
+	 * @param historyMatrix
+	 * @param permutation
+	 */
+	public void updateChoiceInfo(double [][] historyMatrix, int [] permutation)
+	{
+		for (int i = 0; i < permutation.length; i++)
+		{
+			int x = permutation[i];
+			int y = permutation[(i == permutation.length-1) ? 0 : i+1];
+			updateChoiceInfo(historyMatrix, x, y);
+			updateChoiceInfo(historyMatrix, y, x);
+		}
+	}
+	
+	protected void updateChoiceInfo(double [][] historyMatrix, int c1, int c2)
+	{
+		int [] list = candidates[c1];
+		for (int j = 0; j < list.length; j++)
+		{
+			if(list[j] == c2)
+			{
+				choiceInfo[c1][j] = calculateChoiceInfo(historyMatrix, c1, j);
+				return;
+			}
+		}
+	}
+	
+	protected double calculateChoiceInfo(double [][] historyMatrix, int city, int rank)
+	{
+		double history = calculateHistory(historyMatrix[city][candidates[city][rank]]);
+		double v = history * heuristic[city][rank];
+		if(AlgorithmUtils.isInvalidNumber(v))
+		{
+			throw new AlgorithmRunException("Probability out of bounds: "+v+", " +
+					"history["+history+"], historyMatrixValue["+historyMatrix[city][candidates[city][rank]]+"], historyContribution["+historyContribution+"], " +
+					"heuristic["+heuristic[city][rank]+"], heuristicContribution["+heuristicContribution+"].");
+		}
+		return v;
+	}
+	
+	/**
+	 * Construct a tour using the random proportional rule
+	 * @param historyMatrix - pheromone matrix, used for cities beyond the candidate list
+	 * @param rand
+	 * @return
+	 */
+	public int [] constructTour(double [][] historyMatrix, Random rand)
+	{
+		return constructTour(historyMatrix, -1, rand);
+	}
+	
+	/**
+	 * Construct a tour using the pseudo-random proportional rule (ACS)
+	 * @param historyMatrix - pheromone matrix, used for cities beyond the candidate list
+	 * @param greedynessFactor - probability of selecting the largest choice information rather 
+	 * than a proportional selection, supply a negative value (-1) for this not to be used
+	 * @param rand
+	 * @return
+	 */
+	public int [] constructTour(double [][] historyMatrix, double greedynessFactor, Random rand)
+	{
+		if(!AlgorithmUtils.inBounds(greedynessFactor, -1, 1))
+		{
+			throw new AlgorithmRunException("Greedyness factor not nin bounds [0,1] " + greedynessFactor);
+		}
+		
+		int [] permutation = new int[totalCities];
+		Arrays.fill(visited, 0L);
+		permutation[0] = rand.nextInt(totalCities);
+		setVisited(permutation[0]);
+		
+		for (int i = 1; i < permutation.length; i++)
+		{
+			int lastCity = permutation[i-1];
+			int selectedCity = -1;
+			if(greedynessFactor > 0 && rand.nextDouble() <= greedynessFactor)
+			{
+				selectedCity = selectGreedy(lastCity);
+			}
+			else
+			{
+				selectedCity = selectProportional(lastCity, rand);
+			}
+			if(selectedCity == -1)
+			{
+				selectedCity = selectBestRemaining(lastCity, historyMatrix);
+			}
+			// safety
+			if(selectedCity == -1 || isVisited(selectedCity))
+			{
+				throw new AlgorithmRunException("Failed to make selection "+i+"/"+permutation.length+", selection["+selectedCity+"].");
+			}
+			permutation[i] = selectedCity;
+			setVisited(selectedCity);
+		}
+		
+		return permutation;
+	}
+	
+	protected final boolean isVisited(int city)
+	{
+		return (visited[city >>> 6] & (1L << city)) != 0;
+	}
+	
+	protected final void setVisited(int city)
+	{
+		visited[city >>> 6] |= (1L << city);
+	}
+	
+	/**
+	 * Select the unvisited candidate with the largest choice information
+	 * @param lastCity
+	 * @return - city or -1 if all candidates are visited
+	 */
+	protected int selectGreedy(int lastCity)
+	{
+		int [] list = candidates[lastCity];
+		double [] info = choiceInfo[lastCity];
+		int selectedCity = -1;
+		double max = 0.0;
+		for (int j = 0; j < list.length; j++)
+		{
+			if(!isVisited(list[j]) && (selectedCity == -1 || info[j] > max))
+			{
+				selectedCity = list[j];
+				max = info[j];
+			}
+		}
+		return selectedCity;
+	}
+	
+	/**
+	 * Roulette wheel selection over the unvisited candidates
+	 * @param lastCity
+	 * @param rand
+	 * @return - city or -1 if all candidates are visited
+	 */
+	protected int selectProportional(int lastCity, Random rand)
+	{
+		int [] list = candidates[lastCity];
+		double [] info = choiceInfo[lastCity];
+		double sum = 0.0;
+		int totalChoices = 0;
+		int last = -1;
+		for (int j = 0; j < list.length; j++)
+		{
+			if(isVisited(list[j]))
+			{
+				weights[j] = 0.0;
+			}
+			else
+			{
+				weights[j] = info[j];
+				sum += info[j];
+				totalChoices++;
+				last = j;
+			}
+		}
+		if(totalChoices == 0)
+		{
+			return -1;
+		}
+		// all choices are zero - select randomly
+		if(sum == 0.0)
+		{
+			int index = (totalChoices == 1) ? 0 : rand.nextInt(totalChoices);
+			for (int j = 0; j < list.length; j++)
+			{
+				if(!isVisited(list[j]) && index-- == 0)
+				{
+					return list[j];
+				}
+			}
+		}
+		double v = rand.nextDouble() * sum;
+		for (int j = 0; j < last; j++)
+		{
+			v -= weights[j];
+			if(v < 0.0 && weights[j] > 0.0)
+			{
+				return list[j];
+			}
+		}
+		// rounding
+		return list[last];
+	}
+	
+	/**
+	 * Select the unvisited city with the largest choice information from all cities, 
+	 * used when the candidate list is exhausted
+	 * @param lastCity
+	 * @param historyMatrix
+	 * @return - city or -1 if all cities are visited
+	 */
+	protected int selectBestRemaining(int lastCity, double [][] historyMatrix)
+	{
+		int selectedCity = -1;
+		double max = 0.0;
+		for (int w = 0; w < visited.length; w++)
+		{
+			long free = ~visited[w];
+			while(free != 0)
+			{
+				int city = (w << 6) + Long.numberOfTrailingZeros(free);
+				free &= free - 1;
+				if(city >= totalCities)
+				{
+					break;
+				}
+				double v = calculateHistory(historyMatrix[lastCity][city]) * calculateHeuristic(lastCity, city);
+				if(selectedCity == -1 || v > max)
+				{
+					selectedCity = city;
+					max = v;
+				}
+			}
+		}
+		return selectedCity;
+	}
+}
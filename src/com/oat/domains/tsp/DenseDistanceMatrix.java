@@ -0,0 +1,85 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.tsp;
+
+import com.oat.domains.tsp.TSPProblem.DISTANCE_TYPE;
+
+/**
+ * Description: All distances are calculated once and stored in a complete double matrix.
+ * Fastest lookup, requires 8n^2 bytes.
+ *
+ * Date: 22/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class DenseDistanceMatrix extends DistanceMatrix
+{
+	protected final double [][] matrix;
+	
+	public DenseDistanceMatrix(double [][] aCities, DISTANCE_TYPE aDistanceType)
+	{
+		super(aCities, aDistanceType);
+		matrix = new double[cities.length][cities.length];
+		for (int x = 0; x < cities.length; x++)
+		{
+			for (int y = 0; y < cities.length; y++)
+			{
+				matrix[x][y] = calculateDistance(x, y);
+			}
+		}
+	}
+	
+	/**
+	 * Wrap an existing matrix of distances
+	 * @param aMatrix
+	 */
+	public DenseDistanceMatrix(double [][] aMatrix)
+	{
+		super(new double[aMatrix.length][], null);
+		matrix = aMatrix;
+	}
+
+	@Override
+	public double distance(int c1, int c2)
+	{
+		return matrix[c1][c2];
+	}
+	
+	@Override
+	public long getMemoryUsage()
+	{
+		return 8L * matrix.length * matrix.length;
+	}
+	
+	/**
+	 * The complete matrix, must not be modified
+	 */
+	@Override
+	public double [][] toMatrix()
+	{
+		return matrix;
+	}
+}
@@ -0,0 +1,164 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.tsp;
+
+import java.util.HashMap;
+
+import com.oat.domains.tsp.TSPProblem.DISTANCE_TYPE;
+
+/**
+ * Description: Storage of the distances between the cities of a TSP instance.
+ * Implementations trade memory for lookup speed. Nearest neighbour candidate lists are 
+ * calculated once and retained with the distances.
+ *
+ * Date: 22/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public abstract class DistanceMatrix
+{
+	/**
+	 * City coordinates
+	 */
+	protected final double [][] cities;
+	/**
+	 * Distance function
+	 */
+	protected final DISTANCE_TYPE distanceType;
+	/**
+	 * Candidate lists calculated so far, by size
+	 */
+	protected final HashMap<Integer, int [][]> nearestNeighbours;
+	
+	public DistanceMatrix(double [][] aCities, DISTANCE_TYPE aDistanceType)
+	{
+		cities = aCities;
+		distanceType = aDistanceType;
+		nearestNeighbours = new HashMap<Integer, int[][]>();
+	}
+	
+	/**
+	 * Distance between two cities
+	 * @param c1
+	 * @param c2
+	 * @return
+	 */
+	public abstract double distance(int c1, int c2);
+	
+	/**
+	 * Approximate memory used by the stored distances
+	 * @return - bytes
+	 */
+	public abstract long getMemoryUsage();
+	
+	public int getTotalCities()
+	{
+		return cities.length;
+	}
+	
+	/**
+	 * Calculate the distance between two cities from their coordinates
+	 * @param c1
+	 * @param c2
+	 * @return
+	 */
+	protected double calculateDistance(int c1, int c2)
+	{
+		return TSPProblem.distance(distanceType, cities[c1], cities[c2]);
+	}
+	
+	/**
+	 * The k nearest cities to each city in order of increasing distance (candidate lists). 
+	 * Ties are ordered by city number. Lists are calculated once and shared, 
+	 * they must not be modified
+	 * 
+	 * @param k - number of neighbours, limited to the number of cities - 1
+	 * @return - [city][rank] = neighbour
+	 */
+	public synchronized int [][] getNearestNeighbours(int k)
+	{
+		k = Math.min(k, cities.length - 1);
+		Integer key = new Integer(k);
+		int [][] lists = nearestNeighbours.get(key);
+		if(lists == null)
+		{
+			lists = calculateNearestNeighbours(k);
+			nearestNeighbours.put(key, lists);
+		}
+		return lists;
+	}
+	
+	protected int [][] calculateNearestNeighbours(int k)
+	{
+		int [][] lists = new int[cities.length][k];
+		double [] d = new double[k];
+		for (int i = 0; i < cities.length; i++)
+		{
+			int [] n = lists[i];
+			int count = 0;
+			for (int j = 0; j < cities.length; j++)
+			{
+				if(j == i)
+				{
+					continue;
+				}
+				double dist = distance(i, j);
+				if(count == k && dist >= d[k-1])
+				{
+					continue;
+				}
+				// insertion into the ordered list
+				int pos = (count < k) ? count++ : k-1;
+				while(pos > 0 && d[pos-1] > dist)
+				{
+					d[pos] = d[pos-1];
+					n[pos] = n[pos-1];
+					pos--;
+				}
+				d[pos] = dist;
+				n[pos] = j;
+			}
+		}
+		return lists;
+	}
+	
+	/**
+	 * A complete matrix of all distances, for use with code that requires a matrix
+	 * @return
+	 */
+	public double [][] toMatrix()
+	{
+		double [][] m = new double[cities.length][cities.length];
+		for (int i = 0; i < m.length; i++)
+		{
+			for (int j = 0; j < m[i].length; j++)
+			{
+				m[i][j] = distance(i, j);
+			}
+		}
+		return m;
+	}
+}
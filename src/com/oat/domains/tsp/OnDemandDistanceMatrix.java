@@ -0,0 +1,121 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.tsp;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.oat.domains.tsp.TSPProblem.DISTANCE_TYPE;
+
+/**
+ * Description: Distances are calculated from the city coordinates when requested, with a small 
+ * direct-mapped cache of recent distances. Requires memory linear in the number of cities.
+ * Each cache entry is a single long holding both cities and the (integer) distance, such that entries 
+ * can be read and written by concurrent evaluations without locking. Distances that are not 
+ * integers below 2^23 are not cached.
+ *
+ * Date: 22/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class OnDemandDistanceMatrix extends DistanceMatrix
+{
+	public final static int DEFAULT_CACHE_BITS = 16;
+	
+	protected final static int CITY_BITS = 20;
+	protected final static long CITY_MASK = (1L << CITY_BITS) - 1;
+	protected final static long KEY_MASK = (1L << (2*CITY_BITS + 1)) - 1;
+	protected final static long VALID = 1L << (2*CITY_BITS);
+	protected final static int VALUE_SHIFT = 2*CITY_BITS + 1;
+	protected final static long MAX_VALUE = (1L << (64 - VALUE_SHIFT)) - 1;
+	
+	/**
+	 * Cache entries: [value | valid | c1 | c2]
+	 */
+	protected final AtomicLongArray cache;
+	protected final int cacheMask;
+	
+	public OnDemandDistanceMatrix(double [][] aCities, DISTANCE_TYPE aDistanceType)
+	{
+		this(aCities, aDistanceType, DEFAULT_CACHE_BITS);
+	}
+	
+	/**
+	 * @param aCities
+	 * @param aDistanceType
+	 * @param cacheBits - log2 of the number of cache entries, zero for no cache
+	 */
+	public OnDemandDistanceMatrix(double [][] aCities, DISTANCE_TYPE aDistanceType, int cacheBits)
+	{
+		super(aCities, aDistanceType);
+		// cities must fit in the key
+		if(cacheBits > 0 && cities.length <= CITY_MASK)
+		{
+			cache = new AtomicLongArray(1 << cacheBits);
+			cacheMask = (1 << cacheBits) - 1;
+		}
+		else
+		{
+			cache = null;
+			cacheMask = 0;
+		}
+	}
+
+	@Override
+	public double distance(int c1, int c2)
+	{
+		if(cache == null)
+		{
+			return calculateDistance(c1, c2);
+		}
+		// symmetric
+		if(c1 > c2)
+		{
+			int t = c1;
+			c1 = c2;
+			c2 = t;
+		}
+		long key = VALID | ((long)c1 << CITY_BITS) | c2;
+		int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - 32)) & cacheMask;
+		long entry = cache.get(slot);
+		if((entry & KEY_MASK) == key)
+		{
+			return (double) (entry >>> VALUE_SHIFT);
+		}
+		double d = calculateDistance(c1, c2);
+		long v = (long) d;
+		if(v == d && v >= 0 && v <= MAX_VALUE)
+		{
+			cache.lazySet(slot, (v << VALUE_SHIFT) | key);
+		}
+		return d;
+	}
+	
+	@Override
+	public long getMemoryUsage()
+	{
+		return (cache == null) ? 0L : 8L * cache.length();
+	}
+}
@@ -0,0 +1,78 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.tsp;
+
+import com.oat.AlgorithmRunException;
+import com.oat.domains.tsp.TSPProblem.DISTANCE_TYPE;
+
+/**
+ * Description: Distances are calculated once and stored as floats in the lower triangle
+ * (including the diagonal) of a symmetric matrix, packed into a single array.
+ * Requires 2n^2 bytes (a quarter of the dense matrix). TSPLIB EUC_2D and GEO distances are
+ * integers, which are stored without loss for distances below 2^24.
+ *
+ * Date: 22/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class PackedDistanceMatrix extends DistanceMatrix
+{
+	protected final float [] distances;
+	
+	public PackedDistanceMatrix(double [][] aCities, DISTANCE_TYPE aDistanceType)
+	{
+		super(aCities, aDistanceType);
+		long size = ((long)cities.length * (cities.length + 1)) / 2;
+		if(size > Integer.MAX_VALUE)
+		{
+			throw new AlgorithmRunException("Too many cities for a packed distance matrix: " + cities.length);
+		}
+		distances = new float[(int)size];
+		for (int i = 0, o = 0; i < cities.length; i++)
+		{
+			for (int j = 0; j <= i; j++, o++)
+			{
+				distances[o] = (float) calculateDistance(i, j);
+			}
+		}
+	}
+
+	@Override
+	public double distance(int c1, int c2)
+	{
+		if(c1 >= c2)
+		{
+			return distances[(int)(((long)c1 * (c1 + 1)) >>> 1) + c2];
+		}
+		return distances[(int)(((long)c2 * (c2 + 1)) >>> 1) + c1];
+	}
+	
+	@Override
+	public long getMemoryUsage()
+	{
+		return 4L * distances.length;
+	}
+}
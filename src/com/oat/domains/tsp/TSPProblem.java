@@ -20,13 +20,18 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
 package com.oat.domains.tsp;
 
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 
 import com.oat.AlgorithmRunException;
 import com.oat.InitialisationException;
 import com.oat.Problem;
 import com.oat.Solution;
+import com.oat.utils.ArrayKey;
 import com.oat.utils.FileUtils;
 
 
@@ -41,7 +46,10 @@ import com.oat.utils.FileUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- *                          
+ * 21/11/2007	JBrownlee	Added constant time scoring of 2-opt, swap and or-opt moves
+ * 22/11/2007	JBrownlee	Selectable dense, packed or on demand distance storage, reused between runs
+ * 02/12/2007	JBrownlee	Genotype key for the evaluation cache
+ * 09/12/2007	JBrownlee	Reclaimed entries are removed from the distance cache
  * </pre>
  */
 public class TSPProblem extends Problem
@@ -62,10 +70,41 @@ public class TSPProblem extends Problem
         EUCLIDEAN, GEOGRAPHICAL
     }
     
+    /**
+     * How city distances are stored, see DenseDistanceMatrix, PackedDistanceMatrix, OnDemandDistanceMatrix
+     */
+    public static enum DISTANCE_STORAGE
+    {
+        DENSE, PACKED, ON_DEMAND
+    }
+    
+    /**
+     * Distances prepared for a problem file and storage are kept while memory permits, 
+     * such that repeated runs (and copies) of the same problem do not recalculate them.
+     * Entries whose distances were reclaimed are removed via DISTANCE_QUEUE
+     */
+    protected final static HashMap<String, CachedDistances> DISTANCE_CACHE = new HashMap<String, CachedDistances>();
+    protected final static ReferenceQueue<DistanceMatrix> DISTANCE_QUEUE = new ReferenceQueue<DistanceMatrix>();
+    
+    /**
+     * Soft reference to cached distances that remembers its key in the cache
+     */
+    protected static class CachedDistances extends SoftReference<DistanceMatrix>
+    {
+        protected final String key;
+        
+        protected CachedDistances(String aKey, DistanceMatrix aDistances)
+        {
+            super(aDistances, DISTANCE_QUEUE);
+            key = aKey;
+        }
+    }
+    
     
     // configurable
     protected String problemFilename;
     protected String solutionFilename;
+    protected DISTANCE_STORAGE distanceStorage = DISTANCE_STORAGE.DENSE;
     
     // loaded
     protected boolean isLoaded = false;
@@ -74,6 +113,10 @@ public class TSPProblem extends Problem
     protected int[] solutionCityList;
     protected double solutionTourLength;
     protected double[][] cities;
+    protected DistanceMatrix distances;
+    /**
+     * Complete matrix, only available with dense storage
+     */
     protected double[][] distanceMatrix;
     
     
@@ -124,6 +167,7 @@ public class TSPProblem extends Problem
     public void cleanupAfterRun()
     	throws InitialisationException
 	{
+		distances = null;
 		distanceMatrix = null;
 	}
 	
@@ -142,6 +186,16 @@ public class TSPProblem extends Problem
 	{		
 		this.solutionFilename = f;
 	}
+	
+	public DISTANCE_STORAGE getDistanceStorage()
+	{
+		return distanceStorage;
+	}
+
+	public void setDistanceStorage(DISTANCE_STORAGE s)
+	{
+		this.distanceStorage = s;
+	}
 
 	/**
      * Load the problem's solution
@@ -297,33 +351,142 @@ public class TSPProblem extends Problem
    
     protected void prepareDistanceMatrix()
     {
-        distanceMatrix = new double[cities.length][cities.length];
-        
-        for (int x = 0; x < cities.length; x++)
+        String key = (problemFilename == null) ? null : (problemFilename + ":" + distanceStorage.name());
+        distances = null;
+        if(key != null)
+        {
+            synchronized(DISTANCE_CACHE)
+            {
+                expungeReclaimedDistances();
+                CachedDistances ref = DISTANCE_CACHE.get(key);
+                if(ref != null)
+                {
+                    distances = ref.get();
+                }
+            }
+        }
+        if(distances == null)
         {
-            for (int y = 0; y < cities.length; y++)
+            distances = createDistanceMatrix();
+            if(key != null)
             {
-                distanceMatrix[x][y] = distance(x, y);
+                synchronized(DISTANCE_CACHE)
+                {
+                    DISTANCE_CACHE.put(key, new CachedDistances(key, distances));
+                }
             }
         }
+        distanceMatrix = (distances instanceof DenseDistanceMatrix) ? distances.toMatrix() : null;
+    }
+    
+    /**
+     * Remove the cache entries of distances that were reclaimed, the caller holds the cache lock
+     */
+    protected static void expungeReclaimedDistances()
+    {
+        Reference<? extends DistanceMatrix> ref;
+        while((ref = DISTANCE_QUEUE.poll()) != null)
+        {
+            String key = ((CachedDistances) ref).key;
+            // the entry may already have been replaced
+            if(DISTANCE_CACHE.get(key) == ref)
+            {
+                DISTANCE_CACHE.remove(key);
+            }
+        }
+    }
+    
+    /**
+     * @return - number of entries in the distance cache, after removing reclaimed entries
+     */
+    public static int getDistanceCacheSize()
+    {
+        synchronized(DISTANCE_CACHE)
+        {
+            expungeReclaimedDistances();
+            return DISTANCE_CACHE.size();
+        }
+    }
+    
+    protected DistanceMatrix createDistanceMatrix()
+    {
+        switch(distanceStorage)
+        {
+            case DENSE:
+            {
+                return new DenseDistanceMatrix(cities, distanceType);
+            }
+            case PACKED:
+            {
+                return new PackedDistanceMatrix(cities, distanceType);
+            }
+            case ON_DEMAND:
+            {
+                return new OnDemandDistanceMatrix(cities, distanceType);
+            }
+            default:
+            {
+                throw new AlgorithmRunException("Unknown distance storage: " + distanceStorage);
+            }
+        }
+    }
+    
+    /**
+     * Distance between two cities using the prepared distances
+     * @param c1
+     * @param c2
+     * @return
+     */
+    public final double getDistance(int c1, int c2)
+    {
+        return (distanceMatrix != null) ? distanceMatrix[c1][c2] : distances.distance(c1, c2);
     }
     
     @Override
     protected double problemSpecificCost(Solution s)
     {
-        return problemSpecificCost(((TSPSolution)s).getPermutation());
+        TSPSolution t = (TSPSolution) s;
+        // tour derived from an evaluated parent by a move
+        if(t.isDeltaEvaluated())
+        {
+            return t.getDeltaScore();
+        }
+        return problemSpecificCost(t.getPermutation());
+    }
+
+    @Override
+    protected Object getEvaluationCacheKey(Solution solution)
+    {
+        TSPSolution t = (TSPSolution) solution;
+        // the delta is cheaper than a lookup
+        if(t.isDeltaEvaluated())
+        {
+            return null;
+        }
+        return ArrayKey.of(t.getPermutation());
     }
 
     public double problemSpecificCost(int [] p)
     {              
         double sum = 0.0; 
-        // do all cities
-        for (int i = 1; i < p.length; i++)
+        if(distanceMatrix != null)
         {
-            sum += distanceMatrix[p[i-1]][p[i]];
+            // do all cities
+            for (int i = 1; i < p.length; i++)
+            {
+                sum += distanceMatrix[p[i-1]][p[i]];
+            }
+            // do the end to the start
+            sum += distanceMatrix[p[p.length-1]][p[0]];
+        }
+        else
+        {
+            for (int i = 1; i < p.length; i++)
+            {
+                sum += distances.distance(p[i-1], p[i]);
+            }
+            sum += distances.distance(p[p.length-1], p[0]);
         }
-        // do the end to the start
-        sum += distanceMatrix[p[p.length-1]][p[0]];
         return sum;
     }
     
@@ -331,7 +494,17 @@ public class TSPProblem extends Problem
     public void checkSolutionForSafety(Solution solution) 
         throws AlgorithmRunException
     {
-        checkSolutionForSafety(((TSPSolution)solution).getPermutation());
+        TSPSolution t = (TSPSolution) solution;
+        // moves preserve the permutation of a valid parent, only the length is checked
+        if(t.isDeltaEvaluated())
+        {
+            if(t.getPermutation().length != cities.length)
+            {
+                throw new AlgorithmRunException("Length of tour permutation is unexpected " + t.getPermutation().length +", expected " + cities.length);
+            }
+            return;
+        }
+        checkSolutionForSafety(t.getPermutation());
     }
     
     public void checkSolutionForSafety(int [] v)
@@ -358,11 +531,123 @@ public class TSPProblem extends Problem
         }
     }
     
+    /**
+     * Change in tour length from reversing the tour between c1 and c2 inclusive (2-opt move),
+     * as performed by TSPUtils.reverse(). Calculated in constant time
+     * 
+     * @param p - the tour before the move
+     * @param c1 - start of the reversal
+     * @param c2 - end of the reversal, c1 < c2
+     * @return - the change in tour length
+     */
+    public double twoOptDelta(int [] p, int c1, int c2)
+    {
+        int n = p.length;
+        if(c1 == c2 || (c1 == 0 && c2 == n-1))
+        {
+            return 0.0; // the same tour
+        }
+        int a = p[(c1 - 1 + n) % n];
+        int b = p[c1];
+        int c = p[c2];
+        int d = p[(c2 + 1) % n];
+        return (getDistance(a, c) + getDistance(b, d)) - (getDistance(a, b) + getDistance(c, d));
+    }
+    
+    /**
+     * Change in tour length from swapping the cities at positions i and j.
+     * Calculated in constant time
+     * 
+     * @param p - the tour before the move
+     * @param i
+     * @param j
+     * @return - the change in tour length
+     */
+    public double swapDelta(int [] p, int i, int j)
+    {
+        if(i == j)
+        {
+            return 0.0;
+        }
+        int n = p.length;
+        int pi = (i - 1 + n) % n;
+        int pj = (j - 1 + n) % n;
+        // the (up to) four edges that start at the previous positions and the swapped positions 
+        double delta = swapEdgeDelta(p, pi, i, j);
+        if(i != pi)
+        {
+            delta += swapEdgeDelta(p, i, i, j);
+        }
+        if(pj != pi && pj != i)
+        {
+            delta += swapEdgeDelta(p, pj, i, j);
+        }
+        if(j != pi && j != i && j != pj)
+        {
+            delta += swapEdgeDelta(p, j, i, j);
+        }
+        return delta;
+    }
+    
+    /**
+     * Change in length of the edge starting at position k when the cities at i and j are swapped
+     * @param p
+     * @param k
+     * @param i
+     * @param j
+     * @return
+     */
+    protected double swapEdgeDelta(int [] p, int k, int i, int j)
+    {
+        int k2 = (k + 1) % p.length;
+        int a = (k == i) ? p[j] : (k == j) ? p[i] : p[k];
+        int b = (k2 == i) ? p[j] : (k2 == j) ? p[i] : p[k2];
+        return getDistance(a, b) - getDistance(p[k], p[k2]);
+    }
+    
+    /**
+     * Change in tour length from moving the segment of cities [start, start+length-1]
+     * to between positions insert and insert+1 (or-opt move), as performed by TSPUtils.orOpt().
+     * Calculated in constant time
+     * 
+     * @param p - the tour before the move
+     * @param start - first position of the segment
+     * @param length - number of cities in the segment, start+length <= p.length
+     * @param insert - position the segment is placed after, not within [start-1, start+length-1] (cyclic)
+     * @return - the change in tour length
+     */
+    public double orOptDelta(int [] p, int start, int length, int insert)
+    {
+        int n = p.length;
+        int end = start + length - 1;
+        int a = p[(start - 1 + n) % n];
+        int b = p[start];
+        int c = p[end];
+        int d = p[(end + 1) % n];
+        int e = p[insert];
+        int f = p[(insert + 1) % n];
+        double removed = getDistance(a, b) + getDistance(c, d) + getDistance(e, f);
+        double added = getDistance(a, d) + getDistance(e, b) + getDistance(c, f);
+        return added - removed;
+    }
+    
     protected double distance(int c1, int c2)
+    {
+        return distance(distanceType, cities[c1], cities[c2]);
+    }
+    
+    /**
+     * Distance between two city coordinates
+     * @param type
+     * @param c1
+     * @param c2
+     * @return
+     */
+    public final static double distance(DISTANCE_TYPE type, double [] c1, double [] c2)
     {
         double d = 0.0;
         
-        switch(distanceType)        
+        switch(type)        
         {
             case EUCLIDEAN:
             {
@@ -376,7 +661,7 @@ public class TSPProblem extends Problem
             }   
             default:
             {
-                throw new AlgorithmRunException("Unknown distance type: " + distanceType);
+                throw new AlgorithmRunException("Unknown distance type: " + type);
             }
         }
         
@@ -396,10 +681,21 @@ public class TSPProblem extends Problem
      */
     protected double geographicalDistance(int c1, int c2)
     {
-        double latitude1 = Math.PI * (Math.floor(cities[c1][0]) + 5.0 * (cities[c1][0]-Math.floor(cities[c1][0])) / 3.0) / 180.0; // [c1]x
-        double longitude1 = Math.PI * (Math.floor(cities[c1][1]) + 5.0 * (cities[c1][1]-Math.floor(cities[c1][1])) / 3.0) / 180.0; // [c1]y
-        double latitude2 = Math.PI * (Math.floor(cities[c2][0]) + 5.0 * (cities[c2][0]-Math.floor(cities[c2][0])) / 3.0) / 180.0; // [c2]x
-        double longitude2 = Math.PI * (Math.floor(cities[c2][1]) + 5.0 * (cities[c2][1]-Math.floor(cities[c2][1])) / 3.0) / 180.0; // [c2]y
+        return geographicalDistance(cities[c1], cities[c2]);
+    }
+    
+    /**
+     * As defined in TSPLIB'95 (GEO)
+     * @param c1 - city coordinate
+     * @param c2 - city coordinate
+     * @return
+     */
+    public final static double geographicalDistance(double [] c1, double [] c2)
+    {
+        double latitude1 = Math.PI * (Math.floor(c1[0]) + 5.0 * (c1[0]-Math.floor(c1[0])) / 3.0) / 180.0; // [c1]x
+        double longitude1 = Math.PI * (Math.floor(c1[1]) + 5.0 * (c1[1]-Math.floor(c1[1])) / 3.0) / 180.0; // [c1]y
+        double latitude2 = Math.PI * (Math.floor(c2[0]) + 5.0 * (c2[0]-Math.floor(c2[0])) / 3.0) / 180.0; // [c2]x
+        double longitude2 = Math.PI * (Math.floor(c2[1]) + 5.0 * (c2[1]-Math.floor(c2[1])) / 3.0) / 180.0; // [c2]y
         
         double q1 = Math.cos(longitude1 - longitude2);
         double q2 = Math.cos(latitude1 - latitude2);
@@ -416,8 +712,19 @@ public class TSPProblem extends Problem
      */
     protected double euclideanDistance(int c1, int c2)
     {
-        double xd = cities[c1][0] - cities[c2][0];
-        double yd = cities[c1][1] - cities[c2][1];
+        return euclideanDistance(cities[c1], cities[c2]);
+    }
+    
+    /**
+     * As defined in TSPLIB'95 (EUC_2D)
+     * @param c1 - city coordinate
+     * @param c2 - city coordinate
+     * @return
+     */
+    public final static double euclideanDistance(double [] c1, double [] c2)
+    {
+        double xd = c1[0] - c2[0];
+        double yd = c1[1] - c2[1];
         double dij = Math.sqrt((xd*xd + yd*yd));
         dij = Math.round(dij); // whatever...
         return dij;
@@ -431,10 +738,34 @@ public class TSPProblem extends Problem
         return cities;
     }
 
+    /**
+     * The complete distance matrix, only available with dense storage
+     * @return - the matrix or null
+     */
     public double[][] getDistanceMatrix()
     {
         return distanceMatrix;
     }
+    
+    /**
+     * The prepared distances, available between initialiseBeforeRun() and cleanupAfterRun()
+     * @return
+     */
+    public DistanceMatrix getDistances()
+    {
+        return distances;
+    }
+    
+    /**
+     * The k nearest cities to each city (candidate lists), calculated once for the problem 
+     * and retained with the distances
+     * @param k
+     * @return - [city][rank] = neighbour
+     */
+    public int [][] getNearestNeighbours(int k)
+    {
+        return distances.getNearestNeighbours(k);
+    }
 
     public DISTANCE_TYPE getDistanceType()
     {
@@ -21,6 +21,7 @@ package com.oat.domains.tsp;
 
 import java.util.Arrays;
 
+import com.oat.AlgorithmRunException;
 import com.oat.Solution;
 import com.oat.utils.ArrayUtils;
 
@@ -35,12 +36,16 @@ import com.oat.utils.ArrayUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- *                          
+ * 21/11/2007	JBrownlee	Added delta evaluation relative to a parent tour
  * </pre>
  */
 public class TSPSolution extends Solution
 {    
     protected final int [] permutation;    
+    /**
+     * Score derived from an evaluated parent and the change caused by a move, NaN if none
+     */
+    protected double deltaScore = Double.NaN;
 
     public TSPSolution(TSPSolution s)
     {        
@@ -64,6 +69,33 @@ public class TSPSolution extends Solution
         return permutation;
     }
     
+    /**
+     * Specify that the tour was produced by applying a move to the parent, the tour is scored
+     * using the parents score and the change in length rather than evaluating the complete tour.
+     * The evaluation still counts towards stop conditions and probes
+     * 
+     * @param parent - evaluated parent the move was applied to
+     * @param delta - change in tour length caused by the move
+     */
+    public void setDeltaEvaluation(TSPSolution parent, double delta)
+    {
+        if(!parent.isEvaluated())
+        {
+            throw new AlgorithmRunException("Unable to delta evaluate a tour, the parent is not evaluated.");
+        }
+        deltaScore = parent.getScore() + delta;
+    }
+    
+    public boolean isDeltaEvaluated()
+    {
+        return !Double.isNaN(deltaScore);
+    }
+    
+    public double getDeltaScore()
+    {
+        return deltaScore;
+    }
+    
     @Override
     public String toString()
     {
@@ -27,6 +27,7 @@ import java.util.Random;
 import com.oat.AlgorithmRunException;
 import com.oat.utils.AlgorithmUtils;
 import com.oat.utils.ArrayUtils;
+import com.oat.utils.MutationUtils;
 import com.oat.utils.RandomUtils;
 
 /**
@@ -40,7 +41,10 @@ import com.oat.utils.RandomUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 21/11/2007	JBrownlee	Added 2-opt, swap mutation and or-opt moves scored from the parent tour
+ * 22/11/2007	JBrownlee	Construction and nearest neighbour tours use the problems distance storage
+ * 23/11/2007	JBrownlee	Allocation free random proportional selection
+ * 05/12/2007	JBrownlee	Mutation uses the sparse kernels in MutationUtils
  * </pre>
  */
 public class TSPUtils
@@ -71,10 +75,35 @@ public class TSPUtils
          return probabilisticStepwiseConstruction(distanceMatrix, heuristicContribution, historyMatrix, 
                  historyContribution, -1, rand); // -1 will never trigger the greedyness factor
      }
+     
+     /**
+      * An implementation of the random proprtional rule to construct a valid TSP permutation
+      * using any distance storage
+      * 
+      * @param distances - distances between cities
+      * @param heuristicContribution - traditional beta parameter
+      * @param historyMatrix - pheromone matrix
+      * @param historyContribution - traditional alpha parameter
+      * @param rand
+      * @return
+      */
+     public static int [] probabilisticStepwiseConstruction(
+             DistanceMatrix distances, 
+             double heuristicContribution,
+             double [][] historyMatrix, 
+             double historyContribution,
+             Random rand)
+         throws AlgorithmRunException
+     {
+         return probabilisticStepwiseConstruction(distances, heuristicContribution, historyMatrix, 
+                 historyContribution, -1, rand); // -1 will never trigger the greedyness factor
+     }
     
    /**
     * An implementation of the random proprtional rule to construct a valid TSP permutation
-    * Contains lots of safety checks that throw AlgorithmRunException
+    * Contains lots of safety checks that throw AlgorithmRunException. 
+    * Builds a complete probability matrix for each tour, see AntTourConstruction for 
+    * construction with candidate lists
     * 
     * @param distanceMatrix - distance matrix (euclidean distances)
     * @param heuristicContribution - traditional beta parameter
@@ -93,15 +122,40 @@ public class TSPUtils
             double greedynessFactor,
             Random rand)
         throws AlgorithmRunException
+    {
+        return probabilisticStepwiseConstruction(new DenseDistanceMatrix(distanceMatrix), heuristicContribution, 
+                historyMatrix, historyContribution, greedynessFactor, rand);
+    }
+    
+    /**
+     * An implementation of the random proprtional rule to construct a valid TSP permutation
+     * using any distance storage
+     * 
+     * @param distances - distances between cities
+     * @param heuristicContribution - traditional beta parameter
+     * @param historyMatrix - pheromone matrix
+     * @param historyContribution - traditional alpha parameter
+     * @param greedynessFactor - used in ACS, supply a negative value of (-1) for this not to be used
+     * @param rand - tandom number generator
+     * @return
+     */
+    public static int [] probabilisticStepwiseConstruction(
+            DistanceMatrix distances,
+            double heuristicContribution,// beta
+            double [][] historyMatrix,
+            double historyContribution, // alpha
+            double greedynessFactor,
+            Random rand)
+        throws AlgorithmRunException
     {
         if(!AlgorithmUtils.inBounds(greedynessFactor, -1, 1))
         {
             throw new AlgorithmRunException("Greedyness factor not nin bounds [0,1] " + greedynessFactor);
         }
         
-        int [] permutation = new int[distanceMatrix.length];
+        int [] permutation = new int[distances.getTotalCities()];
         permutation[0] = rand.nextInt(permutation.length);
-        double [][] probabilityMatrix = new double[distanceMatrix.length][distanceMatrix[0].length];
+        double [][] probabilityMatrix = new double[permutation.length][permutation.length];
         
         // build a probability matrix and populate it        
         for (int i = 0; i < probabilityMatrix.length; i++)
@@ -116,7 +170,7 @@ public class TSPUtils
                 else
                 {
                     // use random proportional rule
-                    probabilityMatrix[i][j] = calculateUnNormalizedProbability(i,j,distanceMatrix,heuristicContribution,historyMatrix,historyContribution);
+                    probabilityMatrix[i][j] = calculateUnNormalizedProbability(i,j,distances,heuristicContribution,historyMatrix,historyContribution);
                 }
             }
         }
@@ -141,7 +195,7 @@ public class TSPUtils
                     if(probabilityMatrix[lastCity][j] != SELECTED)
                     {
                         // (history^1.0) is the same as (history)
-                        nextStep[j] = calculateUnNormalizedProbability(i,j,distanceMatrix,heuristicContribution,historyMatrix,1.0);
+                        nextStep[j] = calculateUnNormalizedProbability(i,j,distances,heuristicContribution,historyMatrix,1.0);
                         if(selectedCity == -1 || nextStep[j] > nextStep[selectedCity])
                         {
                             selectedCity = j; // select max
@@ -179,39 +233,37 @@ public class TSPUtils
         return permutation;
     }
     
-    private static class RPR
-    {
-        int cityNumber;
-        double probability;
-        double normalisedProbability;
-        
-        public RPR(int city, double prob)
-        {
-            cityNumber = city;
-            probability = prob;
-        }
-    }
-    
+    /**
+     * Random proportional selection of the next city from a row of the probability matrix,
+     * makes two passes over the row rather than building a list of choices
+     * @param lastCity
+     * @param probabilityMatrix
+     * @param rand
+     * @return
+     */
     public static int randomProprtionalSelectCity(
             int lastCity,
             double [][] probabilityMatrix,
             Random rand)
     {
+        double [] row = probabilityMatrix[lastCity];
         int selectedCity = -1;
         
-        // build a list of choices
-        LinkedList<RPR> choices = new LinkedList<RPR>();
+        // count the choices
+        int totalChoices = 0;
+        int lastChoice = -1;
         double sumProbability = 0.0;
-        for (int j = 0; j < probabilityMatrix.length; j++)
+        for (int j = 0; j < row.length; j++)
         {
-            if(probabilityMatrix[lastCity][j] != SELECTED)
+            if(row[j] != SELECTED)
             {
-                choices.add(new RPR(j, probabilityMatrix[lastCity][j]));
-                sumProbability += probabilityMatrix[lastCity][j];
+                totalChoices++;
+                lastChoice = j;
+                sumProbability += row[j];
             }
         }
         // ensure there is something to choose from
-        if(choices.isEmpty())
+        if(totalChoices == 0)
         {
             // should never occur
             throw new RuntimeException("Unable to make decision, nothing to choose from!"); 
@@ -219,24 +271,34 @@ public class TSPUtils
         // all choices are zero - select randomly
         if(sumProbability == 0.0)
         {
-            int index = (choices.size() == 1) ? 0 : rand.nextInt(choices.size());
-            selectedCity = choices.get(index).cityNumber;                
+            int index = (totalChoices == 1) ? 0 : rand.nextInt(totalChoices);
+            for (int j = 0; selectedCity==-1 && j < row.length; j++)
+            {
+                if(row[j] != SELECTED && index-- == 0)
+                {
+                    selectedCity = j;
+                }
+            }
         }
         // normalise probabilities and make a selection            
         else
         {
             double v = rand.nextDouble();
-            for (int j = 0; selectedCity==-1 && j < choices.size(); j++)
+            for (int j = 0; selectedCity==-1 && j < row.length; j++)
             {
+                if(row[j] == SELECTED)
+                {
+                    continue;
+                }
                 // check for condition where we are selecting the last in the list
-                if(j == choices.size()-1)
+                if(j == lastChoice)
                 {
-                    selectedCity = choices.get(j).cityNumber;
+                    selectedCity = j;
                 }                    
-                v -= (choices.get(j).probability/sumProbability);
+                v -= (row[j]/sumProbability);
                 if(v <= 0.0)
                 {
-                    selectedCity = choices.get(j).cityNumber;
+                    selectedCity = j;
                 }
             }
         }
@@ -261,6 +323,28 @@ public class TSPUtils
             double heuristicContribution,// beta
             double [][] historyMatrix, // pheromone 
             double historyContribution) // alpha
+    {
+        return calculateUnNormalizedProbability(city1, city2, new DenseDistanceMatrix(distanceMatrix), 
+                heuristicContribution, historyMatrix, historyContribution);
+    }
+    
+    /**
+     * Calculate an unnormalized probability for the ACO random proprtional rule
+     * @param city1
+     * @param city2
+     * @param distances
+     * @param heuristicContribution
+     * @param historyMatrix
+     * @param historyContribution
+     * @return
+     */
+    public static double calculateUnNormalizedProbability(
+            int city1,
+            int city2,
+            DistanceMatrix distances, // heuristic (euclidean)
+            double heuristicContribution,// beta
+            double [][] historyMatrix, // pheromone 
+            double historyContribution) // alpha
     {
         // never move to self
         if(city1 == city2)
@@ -269,11 +353,12 @@ public class TSPUtils
         }
         
         double history = Math.pow(historyMatrix[city1][city2], historyContribution);
+        double d = distances.distance(city1, city2);
         double dist = 0.0;
         // ensure we never divide by zero (two points on the same position)
-        if(distanceMatrix[city1][city2] != 0)
+        if(d != 0)
         {
-            dist = 1.0/distanceMatrix[city1][city2];
+            dist = 1.0/d;
         }        
         double heuristic = Math.pow(dist, heuristicContribution);
         double prob = history * heuristic;
@@ -281,7 +366,7 @@ public class TSPUtils
         {
             throw new AlgorithmRunException("Probability out of bounds: "+prob+", " +
                     "history["+history+"], historyMatrixValue["+historyMatrix[city1][city2]+"], historyContribution["+historyContribution+"], " +
-                    "heuristic["+heuristic+"], distance["+distanceMatrix[city1][city2]+"], heuristicContribution["+heuristicContribution+"].");
+                    "heuristic["+heuristic+"], distance["+d+"], heuristicContribution["+heuristicContribution+"].");
         }
         
         return prob;
@@ -298,8 +383,7 @@ public class TSPUtils
      */
     public final static TSPSolution generateNearestNeighbourSolution(TSPProblem p, Random r)
     {
-        double [][] distanceMatrix = p.getDistanceMatrix();
-        int [] permutation = new int[distanceMatrix.length];
+        int [] permutation = new int[p.getTotalCities()];
         HashSet<Integer> set = new HashSet<Integer>();
         
         permutation[0] = r.nextInt(permutation.length);
@@ -310,13 +394,14 @@ public class TSPUtils
             // select the best neighbour
             double min = Double.POSITIVE_INFINITY;
             Integer best = null;
-            for (int j = 0; j < distanceMatrix[i].length; j++)
+            for (int j = 0; j < permutation.length; j++)
             {
                 if(!set.contains(j))
                 {
-                    if(distanceMatrix[i][j] < min)
+                    double d = p.getDistance(i, j);
+                    if(d < min)
                     {
-                        min = distanceMatrix[i][j];
+                        min = d;
                         best = j;
                     }
                 }
@@ -586,29 +671,152 @@ public class TSPUtils
     {
         if(rand.nextDouble() <= probability)
         {
-            int c1 = rand.nextInt(permutation.length);
-            int c2 = -1;
-            // run until we have a valid c2
-            do
+            int [] c = twoOptCutPoints(permutation.length, rand);
+            reverse(permutation, c[0], c[1]);
+        }
+    }
+    
+    /**
+     * Create a copy of the parent with a 2-opt move applied (as twoOpt()), the child is
+     * scored from the parent in constant time when evaluated
+     * 
+     * @param p - problem that scores the move
+     * @param parent - evaluated parent
+     * @param rand
+     * @param probability
+     * @return - the child tour
+     */
+    public final static TSPSolution twoOpt(TSPProblem p, TSPSolution parent, Random rand, double probability)
+    {
+        TSPSolution child = new TSPSolution(parent);
+        double delta = 0.0;
+        if(rand.nextDouble() <= probability)
+        {
+            int [] c = twoOptCutPoints(child.getPermutation().length, rand);
+            delta = p.twoOptDelta(parent.getPermutation(), c[0], c[1]);
+            reverse(child.getPermutation(), c[0], c[1]);
+        }
+        child.setDeltaEvaluation(parent, delta);
+        return child;
+    }
+    
+    /**
+     * Select two distinct cut points for a 2-opt move
+     * @param length
+     * @param rand
+     * @return - {low, high}
+     */
+    protected final static int [] twoOptCutPoints(int length, Random rand)
+    {
+        int c1 = rand.nextInt(length);
+        int c2 = -1;
+        // run until we have a valid c2
+        do
+        {
+            c2 = rand.nextInt(length);
+        }
+        while (c2 == c1);
+        
+        // ensure c1 is low, and c2 is high
+        if(c1 > c2)
+        {
+            int a = c2;
+            c2 = c1;
+            c1 = a;
+        }
+        return new int[]{c1, c2};
+    }
+    
+    /**
+     * Reverse the permutation between the two points inclusive
+     * @param permutation
+     * @param c1 - low point
+     * @param c2 - high point
+     */
+    public final static void reverse(int [] permutation, int c1, int c2)
+    {
+        int half = (int) Math.floor((c2-c1)/2.0);
+        for (int i = 0; i <= half; i++)
+        {
+            ArrayUtils.swap(c1+i, c2-i, permutation);
+        }
+    }
+    
+    /**
+     * Move the segment of cities [start, start+length-1] to between positions insert and insert+1 (or-opt).
+     * The order of the cities in the segment is maintained
+     * 
+     * @param permutation
+     * @param start - first position of the segment
+     * @param length - number of cities in the segment, start+length <= permutation.length
+     * @param insert - position the segment is placed after, not within [start-1, start+length-1]
+     */
+    public final static void orOpt(int [] permutation, int start, int length, int insert)
+    {
+        int [] segment = new int[length];
+        System.arraycopy(permutation, start, segment, 0, length);
+        if(insert > start)
+        {
+            // shift the cities after the segment down
+            System.arraycopy(permutation, start+length, permutation, start, insert-start-length+1);
+            System.arraycopy(segment, 0, permutation, insert-length+1, length);
+        }
+        else
+        {
+            // shift the cities before the segment up
+            System.arraycopy(permutation, insert+1, permutation, insert+1+length, start-insert-1);
+            System.arraycopy(segment, 0, permutation, insert+1, length);
+        }
+    }
+    
+    /**
+     * Create a copy of the parent with swap mutation applied (as EvolutionUtils.mutatePermutation()),
+     * the change of each swap is accumulated such that the child is scored from the parent when evaluated
+     * 
+     * @param p - problem that scores the swaps
+     * @param parent - evaluated parent
+     * @param r
+     * @param probability
+     * @return - the child tour
+     */
+    public final static TSPSolution mutatePermutation(TSPProblem p, TSPSolution parent, Random r, double probability)
+    {
+        if(!AlgorithmUtils.inBounds(probability, 0, 1))
+        {
+            throw new AlgorithmRunException("Probability out of bounds [0,1] " + probability);
+        }
+        TSPSolution child = new TSPSolution(parent);
+        int [] data = child.getPermutation();
+        double delta = 0.0;
+        if(probability <= 0)
+        {
+            // no change
+        }
+        else if(MutationUtils.isSparse(probability))
+        {
+            // only visit the positions that are swapped
+            double lc = MutationUtils.logComplement(probability);
+            for (int i = MutationUtils.nextMutation(r, lc, -1, data.length); i < data.length; i = MutationUtils.nextMutation(r, lc, i, data.length))
             {
-                c2 = rand.nextInt(permutation.length);
+                int j = r.nextInt(data.length);
+                delta += p.swapDelta(data, i, j);
+                ArrayUtils.swap(i, j, data);
             }
-            while (c2 == c1);
-            
-            // ensure c1 is low, and c2 is high
-            if(c1 > c2)
-            {
-                int a = c2;
-                c2 = c1;
-                c1 = a;
-            }            
-            // now reverse the permutation between the points
-            int half = (int) Math.floor((c2-c1)/2.0);
-            for (int i = 0; i <= half; i++)
+        }
+        else
+        {
+            for (int i = 0; i < data.length; i++)
             {
-                ArrayUtils.swap(c1+i, c2-i, permutation);
+                if(r.nextDouble() <= probability)
+                {
+                    int j = r.nextInt(data.length);
+                    delta += p.swapDelta(data, i, j);
+                    ArrayUtils.swap(i, j, data);
+                } 
             }
         }
+        child.setDeltaEvaluation(parent, delta);
+        return child;
     }
     
     
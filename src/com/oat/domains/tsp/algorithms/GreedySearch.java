@@ -29,6 +29,7 @@ import com.oat.domains.tsp.TSPProblem;
 import com.oat.domains.tsp.TSPSolution;
 import com.oat.domains.tsp.TSPUtils;
 import com.oat.utils.EvolutionUtils;
+import com.oat.utils.RandomUtils;
 
 /**
  * Type: GreedySearch<br/>
@@ -44,7 +45,7 @@ import com.oat.utils.EvolutionUtils;
  * ----------------------------------------------------------------------------
  * 22/12/2006   Jbrownlee   Modified to be simpler, use utilities for elite selection
  *                          Random moved to method variable rather than instance variable
- * 
+ * 04/12/2007	JBrownlee	Random stream created with the default generator
  * </pre>
  */
 public class GreedySearch extends Algorithm
@@ -83,7 +84,7 @@ public class GreedySearch extends Algorithm
     protected void internalExecuteAlgorithm(Problem p)
     {        
         // initial solution is a greedy solution
-        Random r = new Random(seed);  
+        Random r = RandomUtils.newRandom(seed);  
         TSPSolution start = TSPUtils.generateNearestNeighbourSolution((TSPProblem)p, r);
         LinkedList<TSPSolution> pop = new  LinkedList<TSPSolution>();
         pop.add(start);
@@ -101,9 +102,9 @@ public class GreedySearch extends Algorithm
         {
             triggerIterationCompleteEvent(p,pop);
             LinkedList<TSPSolution> tmp = new LinkedList<TSPSolution>();
-            for (int i = 0; i < pop.size(); i++)
+            for(TSPSolution parent : pop)
             {
-                TSPSolution s = new TSPSolution(pop.get(i));
+                TSPSolution s = new TSPSolution(parent);
                 EvolutionUtils.mutatePermutation(s.getPermutation(),r,mutation);
                 tmp.add(s);
             }
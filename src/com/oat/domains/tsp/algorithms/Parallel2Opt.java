@@ -29,6 +29,7 @@ import com.oat.domains.tsp.TSPProblem;
 import com.oat.domains.tsp.TSPSolution;
 import com.oat.domains.tsp.TSPUtils;
 import com.oat.utils.EvolutionUtils;
+import com.oat.utils.RandomUtils;
 
 /**
  * Type: Parallel2Opt<br/>
@@ -46,6 +47,8 @@ import com.oat.utils.EvolutionUtils;
  *                          did in three lines what was implemented in like 20
  *                          Random moved to method variable rather than instance variable
  *                          Removed mutation parameter, not used
+ * 21/11/2007	JBrownlee	2-opt children are scored from the parent tour
+ * 04/12/2007	JBrownlee	Random stream created with the default generator
  * </pre>                          
  */
 public class Parallel2Opt extends Algorithm
@@ -62,7 +65,7 @@ public class Parallel2Opt extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {             
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         TSPSolution start = TSPUtils.generateNearestNeighbourSolution((TSPProblem)p, r);
         LinkedList<TSPSolution> pop = new LinkedList<TSPSolution>();
         pop.add(start);
@@ -85,10 +88,8 @@ public class Parallel2Opt extends Algorithm
             // create the next generation
             for(TSPSolution s : pop)
             {
-                // create new instance
-                TSPSolution child = new TSPSolution(s); // copy constructor
-                // mutate with two-opt procedure
-                TSPUtils.twoOpt(child.getPermutation(), r, 1.0); // procedure is assured
+                // copy and mutate with two-opt procedure, scored from the parent
+                TSPSolution child = TSPUtils.twoOpt((TSPProblem)p, s, r, 1.0); // procedure is assured
                 // add to population
                 tmp.add(child);
             }
@@ -0,0 +1,368 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.domains.tsp.algorithms.aco;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oat.AlgorithmRunException;
+import com.oat.domains.tsp.AntTourConstruction;
+import com.oat.utils.AlgorithmUtils;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Parallel tour construction and pheromone update shared by the ACO algorithms.
+ * 
+ * Each ant is given its own random number stream, seeded from the algorithms random number 
+ * generator in ant order, and writes only its own tour, such that the tours of an iteration 
+ * do not depend on the number of threads or the order in which the threads run.
+ * 
+ * Evaporation and deposit are fused into a single pass over the pheromone matrix that is
+ * striped by row, row i is updated by thread (i % threads). The deposits to a row are applied 
+ * in the order the tours are provided, which is the order used by the sequential update, so 
+ * the resulting matrix is identical to the sequential update for any number of threads.
+ * 
+ * An engine with a single thread does all work on the calling thread.
+ *
+ * Date: 24/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 04/12/2007	JBrownlee	Random stream created with the default generator
+ * </pre>
+ */
+public class AntColonyEngine
+{
+	/**
+	 * Number of worker threads
+	 */
+	protected final int totalThreads;
+	/**
+	 * Executor service, null when single threaded
+	 */
+	protected final ExecutorService executor;
+	/**
+	 * Successor of each city for each tour being deposited [tour][city]
+	 */
+	protected int [][] successors;
+	/**
+	 * Predecessor of each city for each tour being deposited [tour][city]
+	 */
+	protected int [][] predecessors;
+	
+	/**
+	 * 
+	 * @param aTotalThreads - number of threads, 1 for sequential execution
+	 */
+	public AntColonyEngine(int aTotalThreads)
+	{
+		if(aTotalThreads < 1)
+		{
+			throw new IllegalArgumentException("Total threads must be >= 1: " + aTotalThreads);
+		}
+		totalThreads = aTotalThreads;
+		if(totalThreads == 1)
+		{
+			executor = null;
+		}
+		else
+		{
+			executor = Executors.newFixedThreadPool(totalThreads, new ThreadFactory()
+			{
+				protected final AtomicInteger count = new AtomicInteger();
+				
+				public Thread newThread(Runnable r)
+				{
+					Thread t = new Thread(r, "OAT-ACO-" + count.incrementAndGet());
+					// never hold up the jvm
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+	}
+	
+	public int getTotalThreads()
+	{
+		return totalThreads;
+	}
+	
+	/**
+	 * Stop all worker threads, the engine cannot be used after it is shutdown
+	 */
+	public void shutdown()
+	{
+		if(executor != null)
+		{
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Seeds for the random number streams of a set of ants, drawn in ant order
+	 * @param totalAnts
+	 * @param rand
+	 * @return
+	 */
+	public static long [] createSeeds(int totalAnts, Random rand)
+	{
+		long [] seeds = new long[totalAnts];
+		for (int i = 0; i < seeds.length; i++)
+		{
+			seeds[i] = rand.nextLong();
+		}
+		return seeds;
+	}
+	
+	/**
+	 * Construct a tour for each ant from the current choice information
+	 * 
+	 * @param construction - prepared tour construction, shared (read only) by all threads
+	 * @param historyMatrix - pheromone matrix (read only)
+	 * @param totalAnts
+	 * @param greedynessFactor - ACS q0, -1 when not used
+	 * @param rand - used to seed the stream of each ant
+	 * @return - tours in ant order
+	 */
+	public int [][] constructTours(
+			final AntTourConstruction construction,
+			final double [][] historyMatrix,
+			final int totalAnts,
+			final double greedynessFactor,
+			Random rand)
+	{
+		final long [] seeds = createSeeds(totalAnts, rand);
+		final int [][] tours = new int[totalAnts][];
+		// workers claim the next available ant
+		final AtomicInteger next = new AtomicInteger();
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(totalThreads);
+		for (int i = 0; i < Math.min(totalThreads, totalAnts); i++)
+		{
+			tasks.add(new Callable<Object>()
+			{
+				public Object call()
+				{
+					// private visited and selection state
+					AntTourConstruction ant = new AntTourConstruction(construction);
+					for(int i = next.getAndIncrement(); i < totalAnts; i = next.getAndIncrement())
+					{
+						tours[i] = ant.constructTour(historyMatrix, greedynessFactor, RandomUtils.newRandom(seeds[i]));
+					}
+					return null;
+				}
+			});
+		}
+		execute(tasks);
+		return tours;
+	}
+	
+	/**
+	 * Decay all pheromone then deposit amount[i] on each edge of tour[i] (both directions)
+	 * @param historyMatrix
+	 * @param decayFactor - rho
+	 * @param tours
+	 * @param amounts
+	 */
+	public void decayAndDeposit(double [][] historyMatrix, double decayFactor, int [][] tours, double [] amounts)
+	{
+		decayAndDeposit(historyMatrix, decayFactor, tours, amounts, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+	}
+	
+	/**
+	 * Decay all pheromone, deposit amount[i] on each edge of tour[i] (both directions), 
+	 * then limit all pheromone to [tmin, tmax]
+	 * @param historyMatrix
+	 * @param decayFactor - rho
+	 * @param tours
+	 * @param amounts
+	 * @param tmin
+	 * @param tmax
+	 */
+	public void decayAndDeposit(
+			final double [][] historyMatrix, 
+			final double decayFactor, 
+			final int [][] tours, 
+			final double [] amounts,
+			final double tmin,
+			final double tmax)
+	{
+		for (int i = 0; i < amounts.length; i++)
+		{
+			// safety
+			if(AlgorithmUtils.isInvalidNumber(amounts[i]))
+			{
+				throw new AlgorithmRunException("Invalid update delta " + amounts[i]);
+			}
+		}
+		final int totalCities = historyMatrix.length;
+		prepareNeighbours(tours.length, totalCities);
+		
+		// neighbours of each city in each tour, striped by tour
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(totalThreads);
+		for (int t = 0; t < Math.min(totalThreads, tours.length); t++)
+		{
+			final int stripe = t;
+			tasks.add(new Callable<Object>()
+			{
+				public Object call()
+				{
+					for (int i = stripe; i < tours.length; i += totalThreads)
+					{
+						int [] tour = tours[i];
+						for (int j = 0; j < tour.length; j++)
+						{
+							int y = tour[(j == tour.length-1) ? 0 : j+1];
+							successors[i][tour[j]] = y;
+							predecessors[i][y] = tour[j];
+						}
+					}
+					return null;
+				}
+			});
+		}
+		execute(tasks);
+		
+		// decay, deposit and limit, striped by row
+		tasks.clear();
+		for (int t = 0; t < Math.min(totalThreads, totalCities); t++)
+		{
+			final int stripe = t;
+			tasks.add(new Callable<Object>()
+			{
+				public Object call()
+				{
+					for (int x = stripe; x < totalCities; x += totalThreads)
+					{
+						updateRow(historyMatrix[x], x, decayFactor, tours.length, amounts, tmin, tmax);
+					}
+					return null;
+				}
+			});
+		}
+		execute(tasks);
+	}
+	
+	protected void prepareNeighbours(int totalTours, int totalCities)
+	{
+		if(successors == null || successors.length < totalTours || (totalTours > 0 && successors[0].length != totalCities))
+		{
+			successors = new int[totalTours][totalCities];
+			predecessors = new int[totalTours][totalCities];
+		}
+	}
+	
+	protected void updateRow(double [] row, int x, double decayFactor, int totalTours, double [] amounts, double tmin, double tmax)
+	{
+		// decay
+		double f = (1.0 - decayFactor);
+		for (int j = 0; j < row.length; j++)
+		{
+			double n = f * row[j];
+			// safety
+			if(AlgorithmUtils.isInvalidNumber(n))
+			{
+				throw new AlgorithmRunException("Attempting to decay pheromone matrix to invalid state ["+n+"], old["+row[j]+"]");
+			}
+			row[j] = n;
+		}
+		// deposit, in tour order
+		for (int i = 0; i < totalTours; i++)
+		{
+			row[successors[i][x]] += amounts[i];
+			row[predecessors[i][x]] += amounts[i];
+		}
+		// limit
+		if(tmin != Double.NEGATIVE_INFINITY || tmax != Double.POSITIVE_INFINITY)
+		{
+			for (int j = 0; j < row.length; j++)
+			{
+				if(row[j] < tmin)
+				{
+					row[j] = tmin;
+				}
+				if(row[j] > tmax)
+				{
+					row[j] = tmax;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Run the tasks to completion, on the calling thread when single threaded
+	 * @param tasks
+	 */
+	protected void execute(List<Callable<Object>> tasks)
+	{
+		if(executor == null)
+		{
+			for(Callable<Object> task : tasks)
+			{
+				try
+				{
+					task.call();
+				}
+				catch(RuntimeException e)
+				{
+					throw e;
+				}
+				catch(Exception e)
+				{
+					throw new AlgorithmRunException("Unexpected error in ACO task: " + e.getMessage(), e);
+				}
+			}
+			return;
+		}
+		
+		try
+		{
+			// blocks until all tasks are complete
+			List<Future<Object>> results = executor.invokeAll(tasks);
+			for(Future<Object> f : results)
+			{
+				f.get();
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new AlgorithmRunException("Interrupted while executing ACO tasks.", e);
+		}
+		catch (ExecutionException e)
+		{
+			if(e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException) e.getCause();
+			}
+			throw new AlgorithmRunException("Unexpected error in ACO task: " + e.getCause(), e.getCause());
+		}
+	}
+}
@@ -28,10 +28,12 @@ import com.oat.AutomaticallyConfigurableAlgorithm;
 import com.oat.EpochAlgorithm;
 import com.oat.InvalidConfigurationException;
 import com.oat.Problem;
+import com.oat.domains.tsp.AntTourConstruction;
 import com.oat.domains.tsp.TSPProblem;
 import com.oat.domains.tsp.TSPSolution;
 import com.oat.domains.tsp.TSPUtils;
 import com.oat.utils.AlgorithmUtils;
+import com.oat.utils.RandomUtils;
 
 /**
  * Type: AntColonySystem<br/>
@@ -39,6 +41,10 @@ import com.oat.utils.AlgorithmUtils;
  * <br/>
  * Description: Ant Colony System (ACS)
  * As described in: Marco Dorigo and Thomas Sttzle. Ant Colony Optimization. USA: The MIT Press; 2004.
+ * With a single thread each ant observes the local pheromone updates of the ants before it. 
+ * With multiple threads the ants of an iteration are constructed concurrently from the pheromone
+ * at the start of the iteration and the local updates are applied afterwards in ant order, 
+ * such that a run is repeatable for a given seed and does not depend on the number of threads.
  * 
  * Changes from AS
  * - evaporation after each tour generation
@@ -53,7 +59,10 @@ import com.oat.utils.AlgorithmUtils;
  * ----------------------------------------------------------------------------
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  * 10/09/2007	JBrownlee	Updated to extend from EpochAlgorithm and implement AutomaticallyConfigurableAlgorithm
- *       
+ * 22/11/2007   JBrownlee   Uses the problems distance storage rather than a complete matrix
+ * 23/11/2007   JBrownlee   Tours are constructed with candidate lists and shared choice information (AntTourConstruction)
+ * 24/11/2007   JBrownlee   Tours and pheromone updates are executed by the AntColonyEngine, optionally in parallel
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>                       
  *  
  */
@@ -68,13 +77,16 @@ public class AntColonySystem extends EpochAlgorithm<TSPSolution>
     protected double heuristicContribution; // beta
     protected double decayFactor; // rho
     protected int totalAnts;    
+    protected int candidateListSize; // k
+    protected int totalThreads;
     protected double localPheromoneFactor; // sigma
     protected double greedynessFactor; // q0    
     
     // state
 	protected Random rand;
 	protected double [][] pheromoneMatrix;
-	protected double [][] distanceMatrix;
+	protected AntTourConstruction construction;
+	protected AntColonyEngine engine;
 	protected TSPSolution best;
 
     /**
@@ -104,6 +116,8 @@ public class AntColonySystem extends EpochAlgorithm<TSPSolution>
 		algorithm.setHeuristicContribution(2.5); // beta, between 2 and 5
 		algorithm.setDecayFactor(0.1); //rho=0.1
 		algorithm.setTotalAnts(10); // m=10
+		algorithm.setCandidateListSize(AntTourConstruction.DEFAULT_CANDIDATE_LIST_SIZE); // k
+		algorithm.setTotalThreads(1); // sequential
 		algorithm.setLocalPheromoneFactor(0.1); // sigma=0.1
 		algorithm.setGreedynessFactor(0.9); //q0=0.9
 	}
@@ -124,6 +138,16 @@ public class AntColonySystem extends EpochAlgorithm<TSPSolution>
         {
             throw new InvalidConfigurationException("Invalid totalAnts " + totalAnts);
         }
+        // candidate list size
+        if(candidateListSize<=0)
+        {
+            throw new InvalidConfigurationException("Invalid candidateListSize " + candidateListSize);
+        }
+        // threads
+        if(totalThreads<1)
+        {
+            throw new InvalidConfigurationException("Invalid totalThreads " + totalThreads);
+        }
         // sigma
         if(!AlgorithmUtils.inBounds(localPheromoneFactor, 0, 1))
         {
@@ -141,15 +165,33 @@ public class AntColonySystem extends EpochAlgorithm<TSPSolution>
 	protected LinkedList<TSPSolution> internalExecuteEpoch(Problem problem,
 			LinkedList<TSPSolution> population)
 	{
+        // choice information is shared by all ants in the iteration
+        construction.prepareChoiceInfo(pheromoneMatrix);
         LinkedList<TSPSolution> ants = new LinkedList<TSPSolution>(); 
-        while(ants.size() < totalAnts)
-        {            
-            // uses an alpha of 1.0 and greedyness factor
-            int [] perm = TSPUtils.probabilisticStepwiseConstruction(distanceMatrix, heuristicContribution, pheromoneMatrix, 1.0, greedynessFactor, rand);
-            TSPSolution s = new TSPSolution(perm);
-            ants.add(s);
-            // local pheromone update
-            localPheromoneUpdate(pheromoneMatrix, perm);
+        if(engine.getTotalThreads() == 1)
+        {
+            // each ant observes the local updates of the ants before it
+            while(ants.size() < totalAnts)
+            {            
+                // uses an alpha of 1.0 and greedyness factor
+                int [] perm = construction.constructTour(pheromoneMatrix, greedynessFactor, rand);
+                TSPSolution s = new TSPSolution(perm);
+                ants.add(s);
+                // local pheromone update
+                localPheromoneUpdate(pheromoneMatrix, perm);
+                construction.updateChoiceInfo(pheromoneMatrix, perm);
+            }
+        }
+        else
+        {
+            // concurrent ants all observe the pheromone at the start of the iteration,
+            // the local updates are then applied in ant order
+            int [][] tours = engine.constructTours(construction, pheromoneMatrix, totalAnts, greedynessFactor, rand);
+            for (int i = 0; i < tours.length; i++)
+            {
+                ants.add(new TSPSolution(tours[i]));
+                localPheromoneUpdate(pheromoneMatrix, tours[i]);
+            }
         }
         
         return ants;
@@ -160,13 +202,15 @@ public class AntColonySystem extends EpochAlgorithm<TSPSolution>
 	protected LinkedList<TSPSolution> internalInitialiseBeforeRun(
 			Problem problem)
 	{
-        rand = new Random(seed);
+        rand = RandomUtils.newRandom(seed);
         TSPProblem p = (TSPProblem) problem;        
         best = TSPUtils.generateNearestNeighbourSolution(p, rand);
         p.cost(best);
         // prepare the pheromone matrix
         pheromoneMatrix = initialisePheromoneMatrix(p, best);
-        distanceMatrix = p.getDistanceMatrix();
+        construction = new AntTourConstruction(p.getDistances(), candidateListSize, 1.0, heuristicContribution);
+        cleanupEngine();
+        engine = new AntColonyEngine(totalThreads);
         return null;
 	}
 
@@ -280,6 +324,24 @@ public class AntColonySystem extends EpochAlgorithm<TSPSolution>
         }
     } 
 
+    @Override
+    public void cleanupAfterRun(Problem problem)
+    {
+        cleanupEngine();
+    }
+    
+    /**
+     * Release the worker threads of the previous run
+     */
+    protected void cleanupEngine()
+    {
+        if(engine != null)
+        {
+            engine.shutdown();
+            engine = null;
+        }
+    }
+
     @Override
     public String getName()
     {
@@ -345,5 +407,25 @@ public class AntColonySystem extends EpochAlgorithm<TSPSolution>
     {
         this.greedynessFactor = greedynessFactor;
     }
+
+    public int getCandidateListSize()
+    {
+        return candidateListSize;
+    }
+
+    public void setCandidateListSize(int candidateListSize)
+    {
+        this.candidateListSize = candidateListSize;
+    }
+
+    public int getTotalThreads()
+    {
+        return totalThreads;
+    }
+
+    public void setTotalThreads(int totalThreads)
+    {
+        this.totalThreads = totalThreads;
+    }
 }
 
@@ -26,10 +26,12 @@ import com.oat.EpochAlgorithm;
 import com.oat.InvalidConfigurationException;
 import com.oat.Problem;
 import com.oat.Solution;
+import com.oat.domains.tsp.AntTourConstruction;
 import com.oat.domains.tsp.TSPProblem;
 import com.oat.domains.tsp.TSPSolution;
 import com.oat.domains.tsp.TSPUtils;
 import com.oat.utils.AlgorithmUtils;
+import com.oat.utils.RandomUtils;
 
 /**
  * Date: 27/03/2006<br/>
@@ -46,6 +48,10 @@ import com.oat.utils.AlgorithmUtils;
  * ----------------------------------------------------------------------------
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  * 10/09/2007	JBrownlee	Updated to extend from EpochAlgorithm and implement AutomaticallyConfigurableAlgorithm    
+ * 22/11/2007   JBrownlee   Uses the problems distance storage rather than a complete matrix
+ * 23/11/2007   JBrownlee   Tours are constructed with candidate lists and shared choice information (AntTourConstruction)
+ * 24/11/2007   JBrownlee   Tours and pheromone updates are executed by the AntColonyEngine, optionally in parallel
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>                       
  * 
  */
@@ -58,11 +64,14 @@ public class AntSystem extends EpochAlgorithm<TSPSolution> implements
     protected double heuristicContribution; // beta
     protected double decayFactor; // rho
     protected int totalAnts; // m
+    protected int candidateListSize; // k
+    protected int totalThreads;
     
     // state
 	protected Random rand;
 	protected double [][] pheromoneMatrix;
-	protected double [][] distanceMatrix;
+	protected AntTourConstruction construction;
+	protected AntColonyEngine engine;
 
     /**
      * Automatically configures to m=100
@@ -92,6 +101,8 @@ public class AntSystem extends EpochAlgorithm<TSPSolution> implements
 		algorithm.setHeuristicContribution(2.5); // beta, between 2 and 5
 		algorithm.setDecayFactor(0.5); //rho
 		algorithm.setTotalAnts(numCities); // m
+		algorithm.setCandidateListSize(AntTourConstruction.DEFAULT_CANDIDATE_LIST_SIZE); // k
+		algorithm.setTotalThreads(1); // sequential
 		
 	}
     
@@ -112,6 +123,16 @@ public class AntSystem extends EpochAlgorithm<TSPSolution> implements
         {
             throw new InvalidConfigurationException("Invalid totalAnts " + totalAnts);
         }
+        // candidate list size
+        if(candidateListSize<=0)
+        {
+            throw new InvalidConfigurationException("Invalid candidateListSize " + candidateListSize);
+        }
+        // threads
+        if(totalThreads<1)
+        {
+            throw new InvalidConfigurationException("Invalid totalThreads " + totalThreads);
+        }
     } 	
 	
 	
@@ -119,12 +140,13 @@ public class AntSystem extends EpochAlgorithm<TSPSolution> implements
 	@Override
 	protected LinkedList<TSPSolution> internalExecuteEpoch(Problem problem, LinkedList<TSPSolution> population)
 	{
+        // choice information is shared by all ants in the iteration
+        construction.prepareChoiceInfo(pheromoneMatrix);
+        int [][] tours = engine.constructTours(construction, pheromoneMatrix, totalAnts, -1, rand);
         LinkedList<TSPSolution> ants = new LinkedList<TSPSolution>(); 
-        while(ants.size() < totalAnts)
-        {            
-            int [] perm = TSPUtils.probabilisticStepwiseConstruction(distanceMatrix, heuristicContribution, pheromoneMatrix, historyContribution, rand);
-            TSPSolution s = new TSPSolution(perm);
-            ants.add(s);
+        for (int i = 0; i < tours.length; i++)
+        {
+            ants.add(new TSPSolution(tours[i]));
         }
         return ants;
 	}	
@@ -133,13 +155,15 @@ public class AntSystem extends EpochAlgorithm<TSPSolution> implements
 	@Override
 	protected LinkedList<TSPSolution> internalInitialiseBeforeRun(Problem problem)
 	{
-		rand = new Random(seed);
+		rand = RandomUtils.newRandom(seed);
         TSPProblem p = (TSPProblem) problem;        
         TSPSolution nnSolution = TSPUtils.generateNearestNeighbourSolution(p, rand);
         p.cost(nnSolution);        
         // prepare the pheromone matrix
         pheromoneMatrix = initialisePheromoneMatrix(p, nnSolution);
-        distanceMatrix = p.getDistanceMatrix();        
+        construction = new AntTourConstruction(p.getDistances(), candidateListSize, historyContribution, heuristicContribution);        
+        cleanupEngine();
+        engine = new AntColonyEngine(totalThreads);
         // no initial population
         return null;
 	}
@@ -152,42 +176,24 @@ public class AntSystem extends EpochAlgorithm<TSPSolution> implements
 
     
     /**
-     * Perform the decay followed by the pheromone update operations
+     * Perform the decay followed by the pheromone update operations, 
+     * as a single pass over the matrix by the engine
      * @param ants
      * @param pheromoneMatrix
      */
     protected void updateAndDecayPheromone(LinkedList<TSPSolution> ants, double [][] pheromoneMatrix)
     {
-        // decay
-        decayPheromone(pheromoneMatrix);
-        // update
+        int [][] tours = new int[ants.size()][];
+        double [] amounts = new double[tours.length];
+        int i = 0;
         for(TSPSolution s : ants)
         {
-            updatePheromone(pheromoneMatrix, s.getPermutation(), s.getScore());
+            tours[i] = s.getPermutation();
+            amounts[i++] = 1.0 / s.getScore();
         }  
+        engine.decayAndDeposit(pheromoneMatrix, decayFactor, tours, amounts);
     }    
     
-    /**
-     * Decay the pheromone matrix
-     * @param pheromoneMatrix
-     */
-    protected void decayPheromone(double [][] pheromoneMatrix)
-    {
-        for (int i = 0; i < pheromoneMatrix.length; i++)
-        {
-            for (int j = 0; j < pheromoneMatrix[i].length; j++)
-            {
-                double n = (1.0 - decayFactor) * pheromoneMatrix[i][j];
-                // safety
-                if(AlgorithmUtils.isInvalidNumber(n))
-                {
-                    throw new AlgorithmRunException("Attempting to decay pheromone matrix to invalid state ["+n+"], old["+pheromoneMatrix[i][j]+"]");
-                }
-                pheromoneMatrix[i][j] = n;
-            }
-        } 
-    }
-
     /**
      * Create and initialise the pheromone matrix
      * @param p
@@ -214,40 +220,23 @@ public class AntSystem extends EpochAlgorithm<TSPSolution> implements
         return pheromoneMatrix;
     }
     
+    @Override
+    public void cleanupAfterRun(Problem problem)
+    {
+        cleanupEngine();
+    }
+    
     /**
-     * Given a single permutation (solution), update the pheromone matrix
-     * @param historyMatrix
-     * @param permutation
-     * @param tourLength
+     * Release the worker threads of the previous run
      */
-    protected void updatePheromone(double [][] historyMatrix, int [] permutation, double tourLength)
+    protected void cleanupEngine()
     {
-        double d = 1.0 / tourLength; 
-        
-        // safety
-        if(AlgorithmUtils.isInvalidNumber(d))
+        if(engine != null)
         {
-            throw new RuntimeException("Invalid update delta " + d);
+            engine.shutdown();
+            engine = null;
         }
-        
-        for (int i = 0; i < permutation.length; i++)
-        {
-            int x = permutation[i];
-            int y = -1;
-            if(i == permutation.length-1)
-            {
-                y = permutation[0]; // wrap
-            }
-            else
-            {
-                y = permutation[i + 1];
-            }
-            historyMatrix[x][y] += d;
-            historyMatrix[y][x] += d;
-        }
-    }   
-
-	
+    }
 
     @Override
     public String getName()
@@ -304,4 +293,24 @@ public class AntSystem extends EpochAlgorithm<TSPSolution> implements
     {
         this.totalAnts = totalAnts;
     }
+
+    public int getCandidateListSize()
+    {
+        return candidateListSize;
+    }
+
+    public void setCandidateListSize(int candidateListSize)
+    {
+        this.candidateListSize = candidateListSize;
+    }
+
+    public int getTotalThreads()
+    {
+        return totalThreads;
+    }
+
+    public void setTotalThreads(int totalThreads)
+    {
+        this.totalThreads = totalThreads;
+    }
 }
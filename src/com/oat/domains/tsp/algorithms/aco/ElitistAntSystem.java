@@ -29,10 +29,12 @@ import com.oat.EpochAlgorithm;
 import com.oat.InvalidConfigurationException;
 import com.oat.Problem;
 import com.oat.Solution;
+import com.oat.domains.tsp.AntTourConstruction;
 import com.oat.domains.tsp.TSPProblem;
 import com.oat.domains.tsp.TSPSolution;
 import com.oat.domains.tsp.TSPUtils;
 import com.oat.utils.AlgorithmUtils;
+import com.oat.utils.RandomUtils;
 
 /**
  * Date: 27/03/2006<br/>
@@ -50,7 +52,10 @@ import com.oat.utils.AlgorithmUtils;
  * ----------------------------------------------------------------------------
  * 22/12/2006   JBrownlee   Random moved to method variable rather than instance variable
  * 10/09/2007	JBrownlee	Updated to extend from EpochAlgorithm and implement AutomaticallyConfigurableAlgorithm
- * 
+ * 22/11/2007   JBrownlee   Uses the problems distance storage rather than a complete matrix
+ * 23/11/2007   JBrownlee   Tours are constructed with candidate lists and shared choice information (AntTourConstruction)
+ * 24/11/2007   JBrownlee   Tours and pheromone updates are executed by the AntColonyEngine, optionally in parallel
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
  * </pre>                       
  * 
  */
@@ -63,13 +68,16 @@ public class ElitistAntSystem extends EpochAlgorithm<TSPSolution>
     protected double heuristicContribution; // beta
     protected double decayFactor; // rho
     protected int totalAnts; // m=n
+    protected int candidateListSize; // k
+    protected int totalThreads;
     protected double elitismFactor; // e
 
     
     // state
 	protected Random rand;
 	protected double [][] pheromoneMatrix;
-	protected double [][] distanceMatrix;
+	protected AntTourConstruction construction;
+	protected AntColonyEngine engine;
 	protected TSPSolution best;
 
     /**
@@ -100,6 +108,8 @@ public class ElitistAntSystem extends EpochAlgorithm<TSPSolution>
 		algorithm.setHeuristicContribution(2.5); // beta, between 2 and 5
 		algorithm.setDecayFactor(0.5); //rho
 		algorithm.setTotalAnts(numCities); // m
+		algorithm.setCandidateListSize(AntTourConstruction.DEFAULT_CANDIDATE_LIST_SIZE); // k
+		algorithm.setTotalThreads(1); // sequential
 		algorithm.setElitismFactor(numCities); // e=n
 		
 	}
@@ -121,17 +131,28 @@ public class ElitistAntSystem extends EpochAlgorithm<TSPSolution>
         {
             throw new InvalidConfigurationException("Invalid totalAnts " + totalAnts);
         }
+        // candidate list size
+        if(candidateListSize<=0)
+        {
+            throw new InvalidConfigurationException("Invalid candidateListSize " + candidateListSize);
+        }
+        // threads
+        if(totalThreads<1)
+        {
+            throw new InvalidConfigurationException("Invalid totalThreads " + totalThreads);
+        }
     }    
     
 	@Override
 	protected LinkedList<TSPSolution> internalExecuteEpoch(Problem problem, LinkedList<TSPSolution> population)
 	{
+        // choice information is shared by all ants in the iteration
+        construction.prepareChoiceInfo(pheromoneMatrix);
+        int [][] tours = engine.constructTours(construction, pheromoneMatrix, totalAnts, -1, rand);
         LinkedList<TSPSolution> ants = new LinkedList<TSPSolution>(); 
-        while(ants.size() < totalAnts)
-        {            
-            int [] perm = TSPUtils.probabilisticStepwiseConstruction(distanceMatrix, heuristicContribution, pheromoneMatrix, historyContribution, rand);
-            TSPSolution s = new TSPSolution(perm);
-            ants.add(s);
+        for (int i = 0; i < tours.length; i++)
+        {
+            ants.add(new TSPSolution(tours[i]));
         }
         return ants;
 	}	
@@ -141,14 +162,16 @@ public class ElitistAntSystem extends EpochAlgorithm<TSPSolution>
 	protected LinkedList<TSPSolution> internalInitialiseBeforeRun(Problem problem)
 	{
 		best = null;
-		rand = new Random(seed);
+		rand = RandomUtils.newRandom(seed);
         TSPProblem p = (TSPProblem) problem;        
         TSPSolution nnSolution = TSPUtils.generateNearestNeighbourSolution(p, rand);
         p.cost(nnSolution);        
         best = nnSolution; // best starts with NN solution
         // prepare the pheromone matrix
         pheromoneMatrix = initialisePheromoneMatrix(p, nnSolution);
-        distanceMatrix = p.getDistanceMatrix();        
+        construction = new AntTourConstruction(p.getDistances(), candidateListSize, historyContribution, heuristicContribution);        
+        cleanupEngine();
+        engine = new AntColonyEngine(totalThreads);
         // no initial population
         return null;
 	}
@@ -157,54 +180,38 @@ public class ElitistAntSystem extends EpochAlgorithm<TSPSolution>
 	protected void internalPostEvaluation(Problem problem, LinkedList<TSPSolution> oldPopulation, LinkedList<TSPSolution> newPopulation)
 	{
 		TSPProblem p = (TSPProblem) problem;
-        // update pheromone
-        updateAndDecayPheromone(newPopulation, pheromoneMatrix);
-        // elitism
         TSPSolution b = AlgorithmUtils.getBest(newPopulation, p);
         if(p.isBetter(b, best))
         {
             best = b;
         }
-        updatePheromone(pheromoneMatrix, best.getPermutation(), elitismFactor, best.getScore());
+        // update pheromone, with elitism
+        updateAndDecayPheromone(newPopulation, pheromoneMatrix, best);
 	}    
     
     /**
-     * Perform the decay followed by the pheromone update operations
+     * Perform the decay followed by the pheromone update operations for each ant 
+     * and then the best so far (elitism), as a single pass over the matrix by the engine
      * @param ants
      * @param pheromoneMatrix
+     * @param best
      */
-    protected void updateAndDecayPheromone(LinkedList<TSPSolution> ants, double [][] pheromoneMatrix)
+    protected void updateAndDecayPheromone(LinkedList<TSPSolution> ants, double [][] pheromoneMatrix, TSPSolution best)
     {
-        // decay
-        decayPheromone(pheromoneMatrix);
-        // update
+        int [][] tours = new int[ants.size()+1][];
+        double [] amounts = new double[tours.length];
+        int i = 0;
         for(TSPSolution s : ants)
         {
-            updatePheromone(pheromoneMatrix, s.getPermutation(), 1.0, s.getScore());
+            tours[i] = s.getPermutation();
+            amounts[i++] = 1.0 * (1.0/s.getScore());
         }  
+        // elitism
+        tours[i] = best.getPermutation();
+        amounts[i] = elitismFactor * (1.0/best.getScore());
+        engine.decayAndDeposit(pheromoneMatrix, decayFactor, tours, amounts);
     }    
     
-    /**
-     * Decay the pheromone matrix
-     * @param pheromoneMatrix
-     */
-    protected void decayPheromone(double [][] pheromoneMatrix)
-    {
-        for (int i = 0; i < pheromoneMatrix.length; i++)
-        {
-            for (int j = 0; j < pheromoneMatrix[i].length; j++)
-            {
-                double n = (1.0 - decayFactor) * pheromoneMatrix[i][j];
-                // safety
-                if(AlgorithmUtils.isInvalidNumber(n))
-                {
-                    throw new AlgorithmRunException("Attempting to decay pheromone matrix to invalid state ["+n+"], old["+pheromoneMatrix[i][j]+"]");
-                }
-                pheromoneMatrix[i][j] = n;
-            }
-        } 
-    }
-
     /**
      * Create and initialise the pheromone matrix
      * @param p
@@ -232,39 +239,23 @@ public class ElitistAntSystem extends EpochAlgorithm<TSPSolution>
         return pheromoneMatrix;
     }
     
+    @Override
+    public void cleanupAfterRun(Problem problem)
+    {
+        cleanupEngine();
+    }
+    
     /**
-     * Given a single permutation (solution), update the pheromone matrix
-     * @param historyMatrix
-     * @param permutation
-     * @param updateFactor - normally 1, but can be different, say for elitism
-     * @param tourLength
+     * Release the worker threads of the previous run
      */
-    protected void updatePheromone(double [][] historyMatrix, int [] permutation, double updateFactor, double tourLength)
+    protected void cleanupEngine()
     {
-        double d = updateFactor * (1.0/tourLength); 
-        
-        // safety
-        if(AlgorithmUtils.isInvalidNumber(d))
-        {
-            throw new RuntimeException("Invalid update delta " + d);
-        }
-        
-        for (int i = 0; i < permutation.length; i++)
+        if(engine != null)
         {
-            int x = permutation[i];
-            int y = -1;
-            if(i == permutation.length-1)
-            {
-                y = permutation[0]; // wrap
-            }
-            else
-            {
-                y = permutation[i + 1];
-            }
-            historyMatrix[x][y] += d;
-            historyMatrix[y][x] += d;
+            engine.shutdown();
+            engine = null;
         }
-    }    
+    }
 
     @Override
     public String getName()
@@ -331,5 +322,25 @@ public class ElitistAntSystem extends EpochAlgorithm<TSPSolution>
     {
         this.elitismFactor = elitismFactor;
     }    
+
+    public int getCandidateListSize()
+    {
+        return candidateListSize;
+    }
+
+    public void setCandidateListSize(int candidateListSize)
+    {
+        this.candidateListSize = candidateListSize;
+    }
+
+    public int getTotalThreads()
+    {
+        return totalThreads;
+    }
+
+    public void setTotalThreads(int totalThreads)
+    {
+        this.totalThreads = totalThreads;
+    }
 }
 
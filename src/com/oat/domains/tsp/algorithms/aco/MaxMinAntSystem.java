@@ -29,10 +29,12 @@ import com.oat.EpochAlgorithm;
 import com.oat.InvalidConfigurationException;
 import com.oat.Problem;
 import com.oat.Solution;
+import com.oat.domains.tsp.AntTourConstruction;
 import com.oat.domains.tsp.TSPProblem;
 import com.oat.domains.tsp.TSPSolution;
 import com.oat.domains.tsp.TSPUtils;
 import com.oat.utils.AlgorithmUtils;
+import com.oat.utils.RandomUtils;
 
 /**
  * Date: 14/12/2006<br/>
@@ -57,7 +59,10 @@ import com.oat.utils.AlgorithmUtils;
  * ----------------------------------------------------------------------------
  * 22/12/2006   Jbrownlee   Random moved to method variable rather than instance variable
  * 10/09/2007	JBrownlee	Updated to extend from EpochAlgorithm and implement AutomaticallyConfigurableAlgorithm
- *    
+ * 22/11/2007	JBrownlee	Uses the problems distance storage rather than a complete matrix
+ * 23/11/2007	JBrownlee	Tours are constructed with candidate lists and shared choice information (AntTourConstruction)
+ * 24/11/2007	JBrownlee	Tours and pheromone updates are executed by the AntColonyEngine, optionally in parallel
+ * 04/12/2007	JBrownlee	Random stream created with the default generator
  * </pre>                        
  *
  */
@@ -74,12 +79,15 @@ public class MaxMinAntSystem extends EpochAlgorithm<TSPSolution>
     protected double heuristicContribution; // beta
     protected double decayFactor; // rho
     protected int totalAnts;  //m=n
+    protected int candidateListSize; // k
+    protected int totalThreads;
     protected double updateSelectionFactor;     
     
     // state
 	protected Random rand;
 	protected double [][] pheromoneMatrix;
-	protected double [][] distanceMatrix;
+	protected AntTourConstruction construction;
+	protected AntColonyEngine engine;
 	protected TSPSolution best;
 
     /**
@@ -110,6 +118,8 @@ public class MaxMinAntSystem extends EpochAlgorithm<TSPSolution>
 		algorithm.setHeuristicContribution(2.5); // beta, between 2 and 5
 		algorithm.setDecayFactor(0.02); //rho
 		algorithm.setTotalAnts(numCities); // m
+		algorithm.setCandidateListSize(AntTourConstruction.DEFAULT_CANDIDATE_LIST_SIZE); // k
+		algorithm.setTotalThreads(1); // sequential
 		algorithm.setUpdateSelectionFactor(0.7); // higher		
 	}
     
@@ -138,6 +148,16 @@ public class MaxMinAntSystem extends EpochAlgorithm<TSPSolution>
         {
             throw new InvalidConfigurationException("Invalid totalAnts " + totalAnts);
         }
+        // candidate list size
+        if(candidateListSize<=0)
+        {
+            throw new InvalidConfigurationException("Invalid candidateListSize " + candidateListSize);
+        }
+        // threads
+        if(totalThreads<1)
+        {
+            throw new InvalidConfigurationException("Invalid totalThreads " + totalThreads);
+        }
         // update selection factor
         if(updateSelectionFactor<0||updateSelectionFactor>1)
         {
@@ -149,12 +169,13 @@ public class MaxMinAntSystem extends EpochAlgorithm<TSPSolution>
 	protected LinkedList<TSPSolution> internalExecuteEpoch(Problem problem,
 			LinkedList<TSPSolution> population)
 	{
+        // choice information is shared by all ants in the iteration
+        construction.prepareChoiceInfo(pheromoneMatrix);
+        int [][] tours = engine.constructTours(construction, pheromoneMatrix, totalAnts, -1, rand);
         LinkedList<TSPSolution> ants = new LinkedList<TSPSolution>(); 
-        while(ants.size() < totalAnts)
-        {            
-            int [] perm = TSPUtils.probabilisticStepwiseConstruction(distanceMatrix, heuristicContribution, pheromoneMatrix, historyContribution, rand);
-            TSPSolution s = new TSPSolution(perm);
-            ants.add(s);
+        for (int i = 0; i < tours.length; i++)
+        {
+            ants.add(new TSPSolution(tours[i]));
         }
         return ants;
 	}
@@ -164,13 +185,15 @@ public class MaxMinAntSystem extends EpochAlgorithm<TSPSolution>
 	protected LinkedList<TSPSolution> internalInitialiseBeforeRun(
 			Problem problem)
 	{        
-        rand = new Random(seed);
+        rand = RandomUtils.newRandom(seed);
         TSPProblem p = (TSPProblem) problem;        
         best = TSPUtils.generateNearestNeighbourSolution(p, rand);
         p.cost(best);
         // prepare the pheromone matrix
         pheromoneMatrix = initialisePheromoneMatrix(p, best);
-        distanceMatrix = p.getDistanceMatrix();
+        construction = new AntTourConstruction(p.getDistances(), candidateListSize, historyContribution, heuristicContribution);
+        cleanupEngine();
+        engine = new AntColonyEngine(totalThreads);
         return null;
 	}
 
@@ -215,81 +238,11 @@ public class MaxMinAntSystem extends EpochAlgorithm<TSPSolution>
      */
     protected void updateAndDecayPheromone(LinkedList<TSPSolution> ants, double [][] pheromoneMatrix, Problem p, Random r, TSPSolution best)
     {
-        // decay
-        decayPheromone(pheromoneMatrix);        
         // select the solution to use for updates
         TSPSolution b = (r.nextDouble() > 0.5) ? best : AlgorithmUtils.getBest(ants, p);
-        // perform the update
-        updatePheromone(pheromoneMatrix, b.getPermutation(), b.getScore());        
-        // bound check all pheromone
-        for (int i = 0; i < pheromoneMatrix.length; i++)
-        {
-            for (int j = 0; j < pheromoneMatrix[i].length; j++)
-            {
-                if(pheromoneMatrix[i][j] < tmin)
-                {
-                    pheromoneMatrix[i][j] = tmin;
-                }
-                if(pheromoneMatrix[i][j] > tmax)
-                {
-                    pheromoneMatrix[i][j] = tmax;
-                }
-            }
-        }
-    }    
-    
-    /**
-     * Decay the pheromone matrix
-     * @param pheromoneMatrix
-     */
-    protected void decayPheromone(double [][] pheromoneMatrix)
-    {
-        for (int i = 0; i < pheromoneMatrix.length; i++)
-        {
-            for (int j = 0; j < pheromoneMatrix[i].length; j++)
-            {
-                double n = (1.0 - decayFactor) * pheromoneMatrix[i][j];
-                // safety
-                if(AlgorithmUtils.isInvalidNumber(n))
-                {
-                    throw new AlgorithmRunException("Attempting to decay pheromone matrix to invalid state ["+n+"], old["+pheromoneMatrix[i][j]+"]");
-                }
-                pheromoneMatrix[i][j] = n;
-            }
-        } 
-    }
-    
-    /**
-     * Given a single permutation (solution), update the pheromone matrix
-     * @param historyMatrix
-     * @param permutation
-     * @param tourLength
-     */
-    protected void updatePheromone(double [][] historyMatrix, int [] permutation, double tourLength)
-    {
-        double d = (1.0/tourLength); 
-        
-        // safety
-        if(AlgorithmUtils.isInvalidNumber(d))
-        {
-            throw new RuntimeException("Invalid update delta " + d);
-        }
-        
-        for (int i = 0; i < permutation.length; i++)
-        {
-            int x = permutation[i];
-            int y = -1;
-            if(i == permutation.length-1)
-            {
-                y = permutation[0]; // wrap
-            }
-            else
-            {
-                y = permutation[i + 1];
-            }
-            historyMatrix[x][y] += d;
-            historyMatrix[y][x] += d;
-        }
+        // decay, update and bound check all pheromone in a single pass
+        engine.decayAndDeposit(pheromoneMatrix, decayFactor, 
+                new int[][]{b.getPermutation()}, new double[]{1.0/b.getScore()}, tmin, tmax);
     }    
     
     /**
@@ -319,6 +272,24 @@ public class MaxMinAntSystem extends EpochAlgorithm<TSPSolution>
         return pheromoneMatrix;
     }    
 
+    @Override
+    public void cleanupAfterRun(Problem problem)
+    {
+        cleanupEngine();
+    }
+    
+    /**
+     * Release the worker threads of the previous run
+     */
+    protected void cleanupEngine()
+    {
+        if(engine != null)
+        {
+            engine.shutdown();
+            engine = null;
+        }
+    }
+
     @Override
     public String getName()
     {
@@ -396,5 +367,29 @@ public class MaxMinAntSystem extends EpochAlgorithm<TSPSolution>
     {
         this.updateSelectionFactor = updateSelectionFactor;
     }
+
+
+    public int getCandidateListSize()
+    {
+        return candidateListSize;
+    }
+
+
+    public void setCandidateListSize(int candidateListSize)
+    {
+        this.candidateListSize = candidateListSize;
+    }
+
+
+    public int getTotalThreads()
+    {
+        return totalThreads;
+    }
+
+
+    public void setTotalThreads(int totalThreads)
+    {
+        this.totalThreads = totalThreads;
+    }
 }
 
@@ -21,6 +21,7 @@ package com.oat.domains.tsp.algorithms.aco;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Random;
 
@@ -30,10 +31,12 @@ import com.oat.EpochAlgorithm;
 import com.oat.InvalidConfigurationException;
 import com.oat.Problem;
 import com.oat.Solution;
+import com.oat.domains.tsp.AntTourConstruction;
 import com.oat.domains.tsp.TSPProblem;
 import com.oat.domains.tsp.TSPSolution;
 import com.oat.domains.tsp.TSPUtils;
 import com.oat.utils.AlgorithmUtils;
+import com.oat.utils.RandomUtils;
 
 /**
  * Type: RankBasedAntSystem<br/>
@@ -53,7 +56,10 @@ import com.oat.utils.AlgorithmUtils;
  * ----------------------------------------------------------------------------
  * 22/12/2006   Jbrownlee   Random moved to method variable rather than instance variable
  * 10/09/2007	JBrownlee	Updated to extend from EpochAlgorithm and implement AutomaticallyConfigurableAlgorithm
- *                     
+ * 22/11/2007	JBrownlee	Uses the problems distance storage rather than a complete matrix
+ * 23/11/2007	JBrownlee	Tours are constructed with candidate lists and shared choice information (AntTourConstruction)
+ * 24/11/2007	JBrownlee	Tours and pheromone updates are executed by the AntColonyEngine, optionally in parallel
+ * 04/12/2007	JBrownlee	Random stream created with the default generator
  * </pre>                        
  *
  */
@@ -66,12 +72,15 @@ public class RankBasedAntSystem extends EpochAlgorithm<TSPSolution>
     protected double heuristicContribution; // beta
     protected double decayFactor; // rho
     protected int totalAnts; // m
+    protected int candidateListSize; // k
+    protected int totalThreads;
     protected int rankSize; // w
  
     // state
 	protected Random rand;
 	protected double [][] pheromoneMatrix;
-	protected double [][] distanceMatrix;
+	protected AntTourConstruction construction;
+	protected AntColonyEngine engine;
 	protected TSPSolution best;
 
     /**
@@ -102,6 +111,8 @@ public class RankBasedAntSystem extends EpochAlgorithm<TSPSolution>
 		algorithm.setHeuristicContribution(2.5); // beta, between 2 and 5
 		algorithm.setDecayFactor(0.1); //rho
 		algorithm.setTotalAnts(numCities); // m
+		algorithm.setCandidateListSize(AntTourConstruction.DEFAULT_CANDIDATE_LIST_SIZE); // k
+		algorithm.setTotalThreads(1); // sequential
 		algorithm.setRankSize(6); // w=6		
 	}
     
@@ -121,6 +132,16 @@ public class RankBasedAntSystem extends EpochAlgorithm<TSPSolution>
         {
             throw new InvalidConfigurationException("Invalid totalAnts " + totalAnts);
         }
+        // candidate list size
+        if(candidateListSize<=0)
+        {
+            throw new InvalidConfigurationException("Invalid candidateListSize " + candidateListSize);
+        }
+        // threads
+        if(totalThreads<1)
+        {
+            throw new InvalidConfigurationException("Invalid totalThreads " + totalThreads);
+        }
         // rank size
         if(rankSize>totalAnts)
         {
@@ -138,12 +159,13 @@ public class RankBasedAntSystem extends EpochAlgorithm<TSPSolution>
 	protected LinkedList<TSPSolution> internalExecuteEpoch(Problem problem,
 			LinkedList<TSPSolution> population)
 	{
+        // choice information is shared by all ants in the iteration
+        construction.prepareChoiceInfo(pheromoneMatrix);
+        int [][] tours = engine.constructTours(construction, pheromoneMatrix, totalAnts, -1, rand);
         LinkedList<TSPSolution> ants = new LinkedList<TSPSolution>(); 
-        while(ants.size() < totalAnts)
-        {            
-            int [] perm = TSPUtils.probabilisticStepwiseConstruction(distanceMatrix, heuristicContribution, pheromoneMatrix, historyContribution, rand);
-            TSPSolution s = new TSPSolution(perm);
-            ants.add(s);
+        for (int i = 0; i < tours.length; i++)
+        {
+            ants.add(new TSPSolution(tours[i]));
         }
         
         return ants;
@@ -154,13 +176,15 @@ public class RankBasedAntSystem extends EpochAlgorithm<TSPSolution>
 	protected LinkedList<TSPSolution> internalInitialiseBeforeRun(
 			Problem problem)
 	{
-        rand = new Random(seed);
+        rand = RandomUtils.newRandom(seed);
         TSPProblem p = (TSPProblem) problem;        
         best = TSPUtils.generateNearestNeighbourSolution(p, rand);
         p.cost(best);
         // prepare the pheromone matrix
         pheromoneMatrix = initialisePheromoneMatrix(p, best);
-        distanceMatrix = p.getDistanceMatrix();	
+        construction = new AntTourConstruction(p.getDistances(), candidateListSize, historyContribution, heuristicContribution);	
+        cleanupEngine();
+        engine = new AntColonyEngine(totalThreads);
         return null;
 	}
 
@@ -187,74 +211,25 @@ public class RankBasedAntSystem extends EpochAlgorithm<TSPSolution>
      */
     protected void updateAndDecayPheromone(LinkedList<TSPSolution> ants, double [][] pheromoneMatrix, TSPSolution best)
     {
-        // decay
-        decayPheromone(pheromoneMatrix);
         // sory the population by quality, ascending (best-worst)
         Collections.sort(ants);
+        int [][] tours = new int[rankSize][];
+        double [] amounts = new double[rankSize];
         // perform - rank based update        
+        Iterator<TSPSolution> it = ants.iterator();
         for(int i = 0; i<rankSize-1; i++)
         {
+            TSPSolution s = it.next();
             double factor = (rankSize-i-1);
-            updatePheromone(pheromoneMatrix, ants.get(i).getPermutation(), factor, ants.get(i).getScore());
+            tours[i] = s.getPermutation();
+            amounts[i] = factor * (1.0/s.getScore());
         }  
         // update for the best ever ant (the zero'th rank)
-        updatePheromone(pheromoneMatrix, best.getPermutation(), rankSize, best.getScore());
+        tours[rankSize-1] = best.getPermutation();
+        amounts[rankSize-1] = rankSize * (1.0/best.getScore());
+        // decay and update in a single pass
+        engine.decayAndDeposit(pheromoneMatrix, decayFactor, tours, amounts);
     }  
-    /**
-     * Given a single permutation (solution), update the pheromone matrix
-     * @param historyMatrix
-     * @param permutation
-     * @param updateFactor - normally 1, but can be different, say for elitism
-     * @param tourLength
-     */
-    protected void updatePheromone(double [][] historyMatrix, int [] permutation, double updateFactor, double tourLength)
-    {
-        double d = updateFactor * (1.0/tourLength); 
-        
-        // safety
-        if(AlgorithmUtils.isInvalidNumber(d))
-        {
-            throw new RuntimeException("Invalid update delta " + d);
-        }
-        
-        for (int i = 0; i < permutation.length; i++)
-        {
-            int x = permutation[i];
-            int y = -1;
-            if(i == permutation.length-1)
-            {
-                y = permutation[0]; // wrap
-            }
-            else
-            {
-                y = permutation[i + 1];
-            }
-            historyMatrix[x][y] += d;
-            historyMatrix[y][x] += d;
-        }
-    }    
-    
-    /**
-     * Decay the pheromone matrix
-     * @param pheromoneMatrix
-     */
-    protected void decayPheromone(double [][] pheromoneMatrix)
-    {
-        for (int i = 0; i < pheromoneMatrix.length; i++)
-        {
-            for (int j = 0; j < pheromoneMatrix[i].length; j++)
-            {
-                double n = (1.0 - decayFactor) * pheromoneMatrix[i][j];
-                // safety
-                if(AlgorithmUtils.isInvalidNumber(n))
-                {
-                    throw new AlgorithmRunException("Attempting to decay pheromone matrix to invalid state ["+n+"], old["+pheromoneMatrix[i][j]+"]");
-                }
-                pheromoneMatrix[i][j] = n;
-            }
-        } 
-    }
-
     /**
      * Create and initialise the pheromone matrix
      * @param p
@@ -283,6 +258,24 @@ public class RankBasedAntSystem extends EpochAlgorithm<TSPSolution>
         return pheromoneMatrix;
     }
 
+    @Override
+    public void cleanupAfterRun(Problem problem)
+    {
+        cleanupEngine();
+    }
+    
+    /**
+     * Release the worker threads of the previous run
+     */
+    protected void cleanupEngine()
+    {
+        if(engine != null)
+        {
+            engine.shutdown();
+            engine = null;
+        }
+    }
+
     @Override
     public String getName()
     {
@@ -351,5 +344,25 @@ public class RankBasedAntSystem extends EpochAlgorithm<TSPSolution>
 
     
     
+
+    public int getCandidateListSize()
+    {
+        return candidateListSize;
+    }
+
+    public void setCandidateListSize(int candidateListSize)
+    {
+        this.candidateListSize = candidateListSize;
+    }
+
+    public int getTotalThreads()
+    {
+        return totalThreads;
+    }
+
+    public void setTotalThreads(int totalThreads)
+    {
+        this.totalThreads = totalThreads;
+    }
 }
 
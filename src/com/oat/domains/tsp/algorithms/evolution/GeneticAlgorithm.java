@@ -25,11 +25,14 @@ import java.util.Random;
 import com.oat.Algorithm;
 import com.oat.AutomaticallyConfigurableAlgorithm;
 import com.oat.InvalidConfigurationException;
+import com.oat.Population;
 import com.oat.Problem;
 import com.oat.domains.tsp.TSPProblem;
 import com.oat.domains.tsp.TSPSolution;
 import com.oat.domains.tsp.TSPUtils;
 import com.oat.utils.EvolutionUtils;
+import com.oat.utils.RandomUtils;
+import com.oat.utils.Selection;
 
 /**
  * Type: GeneticAlgorithm<br/>
@@ -45,7 +48,8 @@ import com.oat.utils.EvolutionUtils;
  * ----------------------------------------------------------------------------
  * 22/12/2006   Jbrownlee   Random moved to method variable rather than instance variable
  * 09/01/2007   JBrownlee   Modified to use generic elitism strategy
- *           
+ * 04/12/2007   JBrownlee   Random stream created with the default generator
+ * 06/12/2007   JBrownlee   Selection reuses the buffers of a Selection
  * </pre>
  */
 public class GeneticAlgorithm extends Algorithm
@@ -95,7 +99,8 @@ public class GeneticAlgorithm extends Algorithm
     @Override
     protected void internalExecuteAlgorithm(Problem p)
     {              
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
+        Selection selection = new Selection();
         TSPSolution start = TSPUtils.generateNearestNeighbourSolution((TSPProblem)p, r);
         LinkedList<TSPSolution> pop = new  LinkedList<TSPSolution>();
         pop.add(start);
@@ -115,7 +120,7 @@ public class GeneticAlgorithm extends Algorithm
             triggerIterationCompleteEvent(p, pop);
             // select
             int numToSelect = ((popsize%2)==0) ? popsize : popsize + 1; // must select an even number of parents
-            LinkedList<TSPSolution> selected = EvolutionUtils.tournamentSelection(pop, numToSelect, p, r, boutSize);        
+            LinkedList<TSPSolution> selected = selection.tournamentSelection(pop, numToSelect, p, r, boutSize);        
             // reproduce
             LinkedList<TSPSolution> children = reproduce(selected, popsize-elitism, r);
             // evaluate
@@ -136,10 +141,11 @@ public class GeneticAlgorithm extends Algorithm
         LinkedList<TSPSolution> children = new LinkedList<TSPSolution>();
         
         // always expect two children from two parents
-        for (int i = 0; children.size()<totalChildren && i < pop.size(); i+=2)
+        Population<TSPSolution> parents = new Population<TSPSolution>(pop);
+        for (int i = 0; children.size()<totalChildren && i < parents.size(); i+=2)
         {
-            TSPSolution p1 = pop.get(i);
-            TSPSolution p2 = pop.get(i+1);
+            TSPSolution p1 = parents.get(i);
+            TSPSolution p2 = parents.get(i+1);
             
             for (int j = 0; children.size()<totalChildren && j < 2; j++)
             {
@@ -30,9 +30,9 @@ import com.oat.domains.tsp.TSPProblem;
 import com.oat.domains.tsp.TSPSolution;
 import com.oat.domains.tsp.TSPUtils;
 import com.oat.utils.AlgorithmUtils;
-import com.oat.utils.ArrayUtils;
 import com.oat.utils.EvolutionUtils;
 import com.oat.utils.ImmuneSystemUtils;
+import com.oat.utils.RandomUtils;
 
 
 
@@ -53,7 +53,8 @@ import com.oat.utils.ImmuneSystemUtils;
  * Change History
  * ----------------------------------------------------------------------------
  * 22/12/2006   Jbrownlee   Random moved to method variable rather than instance variable
- *                          
+ * 21/11/2007	JBrownlee	Clones are scored from the parent tour
+ * 04/12/2007	JBrownlee	Random stream created with the default generator
  * </pre>
  */
 public class CLONALG extends Algorithm
@@ -77,7 +78,7 @@ public class CLONALG extends Algorithm
     protected void internalExecuteAlgorithm(Problem problem)
     {
         TSPSolution best = null;
-        Random r = new Random(seed);
+        Random r = RandomUtils.newRandom(seed);
         TSPProblem p = (TSPProblem) problem;
         // prepare initial population
         
@@ -176,7 +177,7 @@ public class CLONALG extends Algorithm
             // create mutated clones
             for (int i = 0; i < Nc; i++)
             {
-                TSPSolution c = cloneAndMutate(s, mutation, r);
+                TSPSolution c = cloneAndMutate(p, s, mutation, r);
                 np.add(c);
             }
         }
@@ -184,14 +185,10 @@ public class CLONALG extends Algorithm
         return np;
     }
     
-    protected TSPSolution cloneAndMutate(TSPSolution parent, double probability, Random r)
+    protected TSPSolution cloneAndMutate(TSPProblem p, TSPSolution parent, double probability, Random r)
     {
-        // clone
-        int [] clone = ArrayUtils.copyArray(parent.getPermutation());
-        // mutate
-        EvolutionUtils.mutatePermutation(clone, r, probability);
-        // create
-        return new TSPSolution(clone);
+        // clone and mutate, scored from the parent
+        return TSPUtils.mutatePermutation(p, parent, r, probability);
     }
     
 
@@ -22,7 +22,6 @@ package com.oat.domains.tsp.probes;
 import com.oat.Algorithm;
 import com.oat.InitialisationException;
 import com.oat.Problem;
-import com.oat.Solution;
 import com.oat.domains.tsp.TSPProblem;
 import com.oat.probes.BestScoreProbe;
 
@@ -36,7 +35,7 @@ import com.oat.probes.BestScoreProbe;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 17/11/2007	JBrownlee	Calculated from the best score on request rather than for each evaluation
  * </pre>
  */
 public class PercentageOfOptimal extends BestScoreProbe
@@ -50,19 +49,34 @@ public class PercentageOfOptimal extends BestScoreProbe
 	@Override
 	public Object getProbeObservation()
 	{
-		return new Double(percentageOfOptimal);		
+		return new Double(getPercentageOfOptimal());		
 	}	
 	
-	@Override
-	public void solutionEvaluatedEvent(Solution evaluatedSolution)
+	/**
+	 * Calculate the percentage of optimal for the current best score
+	 * @param p
+	 * @return
+	 */
+	protected double calculatePercentageOfOptimal(Problem p)
 	{
-		super.solutionEvaluatedEvent(evaluatedSolution);
-		
-		if(problem.isBetter(bestScore, optimalTourLength))
+		double best = getBestScore();
+		if(Double.isNaN(best))
+		{
+			return Double.NaN;
+		}
+		if(p.isBetter(best, optimalTourLength))
 		{
-			throw new RuntimeException("Solution was found "+bestScore+" that is better than the best known solution " + optimalTourLength);
+			throw new RuntimeException("Solution was found "+best+" that is better than the best known solution " + optimalTourLength);
 		}
-		percentageOfOptimal = ((bestScore - optimalTourLength) / optimalTourLength) * 100.0;
+		return ((best - optimalTourLength) / optimalTourLength) * 100.0;
+	}
+	
+	@Override
+	public void cleanupAfterRun(Problem p, Algorithm a)	
+		throws InitialisationException
+	{
+		percentageOfOptimal = calculatePercentageOfOptimal(p);
+		super.cleanupAfterRun(p, a);
 	}
 	
     @Override
@@ -88,6 +102,11 @@ public class PercentageOfOptimal extends BestScoreProbe
 
 	public double getPercentageOfOptimal()
 	{
+		Problem p = problem;
+		if(p != null)
+		{
+			return calculatePercentageOfOptimal(p);
+		}
 		return percentageOfOptimal;
 	}
 
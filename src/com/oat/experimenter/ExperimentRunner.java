@@ -0,0 +1,214 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.experimenter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oat.RunContext;
+
+/**
+ * Description: Headless execution of the run schedule of an experiment, loaded from its 
+ * experiment (.exp) and schedule (.sch) files. Repeats are claimed from an {@link ExperimentWorkQueue} 
+ * such that any number of runners (processes, or threads within a process) can drain the 
+ * same experiment without duplicating work. A runner finishes when no repeat can be claimed, 
+ * repeats claimed by other runners may still be executing.
+ * <br/>
+ * Usage: java com.oat.experimenter.ExperimentRunner experimentName [totalThreads] [homeDirectory]
+ *
+ * Date: 27/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class ExperimentRunner
+{
+	protected final Experiment experiment;
+	protected final int totalThreads;
+	/**
+	 * Repeats executed by this runner
+	 */
+	protected final AtomicInteger totalExecuted;
+	
+	
+	public ExperimentRunner(Experiment aExperiment, int aTotalThreads)
+	{
+		experiment = aExperiment;
+		totalThreads = aTotalThreads;
+		totalExecuted = new AtomicInteger();
+	}
+	
+	/**
+	 * Execute repeats until no more can be claimed
+	 * @return - total repeats executed by this runner
+	 * @throws ExperimentException
+	 */
+	public int execute()
+		throws ExperimentException
+	{
+		final ExperimentWorkQueue queue = new ExperimentWorkQueue(experiment);
+		List<Callable<Object>> workers = new ArrayList<Callable<Object>>(totalThreads);
+		for (int i = 0; i < totalThreads; i++)
+		{
+			workers.add(new Callable<Object>()
+			{
+				public Object call()
+					throws ExperimentException
+				{
+					drain(queue);
+					return null;
+				}
+			});
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(totalThreads);
+		try
+		{
+			List<Future<Object>> futures = executor.invokeAll(workers);
+			for(Future<Object> f : futures)
+			{
+				// raise any unexpected failure
+				f.get();
+			}
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new ExperimentException("Interrupted while executing experiment " + experiment.getName(), e);
+		}
+		catch(ExecutionException e)
+		{
+			if(e.getCause() instanceof ExperimentException)
+			{
+				throw (ExperimentException) e.getCause();
+			}
+			throw new ExperimentException("Unexpected error executing experiment " + experiment.getName() + ": " + e.getCause().getMessage(), e.getCause());
+		}
+		finally
+		{
+			executor.shutdown();
+			queue.close();
+		}
+		return totalExecuted.get();
+	}
+	
+	/**
+	 * Execute claimed repeats until no more can be claimed, each run is executed with 
+	 * its own copy of the prototypes
+	 * @param queue
+	 * @throws ExperimentException
+	 */
+	protected void drain(ExperimentWorkQueue queue)
+		throws ExperimentException
+	{
+		HashMap<String, RunContext> contexts = new HashMap<String, RunContext>();
+		for(ExperimentWorkQueue.WorkItem item = queue.claim(); item != null; item = queue.claim())
+		{
+			ExperimentalRun run = item.getRun();
+			RunResult result = null;
+			try
+			{
+				RunContext context = contexts.get(run.getId());
+				if(context == null)
+				{
+					context = createRunContext(run);
+					contexts.put(run.getId(), context);
+				}
+				result = ExperimentalRunUtils.executeSingleRepeat(context, item.getRepeat());
+			}
+			catch(RuntimeException e)
+			{
+				// available to be claimed again
+				queue.release(item);
+				throw e;
+			}
+			queue.complete(item, result);
+			totalExecuted.incrementAndGet();
+			System.out.println(">Completed " + item + " of " + run.getRepeats());
+		}
+	}
+	
+	protected RunContext createRunContext(ExperimentalRun run)
+	{
+		// the prototypes are shared by all threads
+		synchronized(experiment)
+		{
+			return RunContext.fromPrototypes(
+					run.getProblem(), 
+					run.getAlgorithm(), 
+					experiment.getStopCondition(), 
+					experiment.getRunStatistics());
+		}
+	}
+	
+	/**
+	 * Entry point
+	 * @param args - experiment name, optional total threads (default 1), optional home directory
+	 */
+	public static void main(String[] args)
+	{
+		if(args.length < 1 || args.length > 3)
+		{
+			System.err.println("Usage: " + ExperimentRunner.class.getName() + " experimentName [totalThreads] [homeDirectory]");
+			System.exit(1);
+		}
+		
+		try
+		{
+			int threads = (args.length > 1) ? Integer.parseInt(args[1]) : 1;
+			if(threads < 1)
+			{
+				throw new ExperimentException("Invalid total threads, must be at least 1: " + threads);
+			}
+			File homeDir = (args.length > 2) ? new File(args[2]) : ExperimentUtils.getDefaultHomeDirectory();
+			Experiment exp = new Experiment();
+			exp.load(homeDir, args[0]);
+			System.out.println(">Loaded experiment " + exp + ", runs completed " + exp.getRunsCompleted() + " of " + exp.getRunsDefined());
+			
+			int total = new ExperimentRunner(exp, threads).execute();
+			
+			System.out.println(">Executed " + total + " repeats, runs completed " + exp.getRunsCompleted() + " of " + exp.getRunsDefined());
+		}
+		catch(NumberFormatException e)
+		{
+			System.err.println("Invalid total threads: " + args[1]);
+			System.exit(1);
+		}
+		catch(ExperimentException e)
+		{
+			System.err.println("Error executing experiment: " + e.getMessage());
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+}
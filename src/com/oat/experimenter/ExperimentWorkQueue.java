@@ -0,0 +1,345 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.experimenter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.HashMap;
+
+/**
+ * Description: Queue of the (run, repeat) work items of an experiment that can be drained by 
+ * several processes (and threads) at the same time, such as multiple JVMs on one machine, or 
+ * on machines sharing the experiment directory on a file system that supports file locks. 
+ * <br/>
+ * Coordination is by file locks on a lock file per run (runId.lck) in the experiment directory. 
+ * A lock on the first byte guards the result store of the run, such that results are read and 
+ * appended by one process at a time. A work item is claimed by locking the byte at the offset 
+ * of its repeat number, and the claim is held while the repeat executes. Locks are released by 
+ * the operating system when a process dies, thus the repeats of a crashed process can be claimed 
+ * again, and the partial record it may have left in the result store is removed by the next append.
+ * <br/>
+ * A repeat is available if it has no stored result and is not claimed. The run is marked complete 
+ * in its result store by whichever process stores the last repeat.
+ *
+ * Date: 27/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class ExperimentWorkQueue
+{
+	public final static String LOCK_EXT = ".lck";
+	
+	/**
+	 * Position of the lock that guards the result store, repeats are numbered from 1
+	 */
+	protected final static long STORE_LOCK_POSITION = 0;
+	
+	/**
+	 * A claimed repeat of a run
+	 */
+	public static class WorkItem
+	{
+		protected final ExperimentalRun run;
+		protected final int repeat;
+		protected final FileLock claim;
+		
+		protected WorkItem(ExperimentalRun aRun, int aRepeat, FileLock aClaim)
+		{
+			run = aRun;
+			repeat = aRepeat;
+			claim = aClaim;
+		}
+		
+		public ExperimentalRun getRun()
+		{
+			return run;
+		}
+		
+		public int getRepeat()
+		{
+			return repeat;
+		}
+		
+		@Override
+		public String toString()
+		{
+			return run.getId() + " repeat " + repeat;
+		}
+	}
+	
+	protected final Experiment experiment;
+	/**
+	 * Open lock files, keyed on run id
+	 */
+	protected final HashMap<String, RandomAccessFile> lockFiles;
+	
+	
+	public ExperimentWorkQueue(Experiment aExperiment)
+	{
+		experiment = aExperiment;
+		lockFiles = new HashMap<String, RandomAccessFile>();
+	}
+	
+	/**
+	 * Name of the lock file of a run
+	 * @param run
+	 * @return
+	 */
+	public static String runToLockFilename(ExperimentalRun run)
+	{
+		return run.getId() + LOCK_EXT;
+	}
+	
+	/**
+	 * Claim the next available repeat, runs are considered in schedule order
+	 * @return - the claimed work item, or null if no repeat is available
+	 * @throws ExperimentException
+	 */
+	public synchronized WorkItem claim()
+		throws ExperimentException
+	{
+		for(ExperimentalRun run : experiment.getRuns())
+		{
+			if(run.isCompleted())
+			{
+				continue;
+			}
+			WorkItem item = claim(run);
+			if(item != null)
+			{
+				return item;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Claim the next available repeat of a run
+	 * @param run
+	 * @return - the claimed work item, or null if no repeat is available
+	 * @throws ExperimentException
+	 */
+	public synchronized WorkItem claim(ExperimentalRun run)
+		throws ExperimentException
+	{
+		FileChannel channel = getLockChannel(run);
+		FileLock storeLock = lock(channel, run);
+		RunResultStore store = new RunResultStore(experiment, run);
+		try
+		{
+			RunResult [] stored = ExperimentalRunUtils.resumeResultStore(experiment, run, store);
+			int [] remaining = ExperimentalRunUtils.getRemainingRepeats(run, stored);
+			if(remaining.length == 0)
+			{
+				// all repeats stored
+				store.markComplete();
+				run.completed(ExperimentalRunUtils.getRunCompletionDate(experiment, run));
+				return null;
+			}
+			for (int i = 0; i < remaining.length; i++)
+			{
+				FileLock claim = tryLock(channel, run, remaining[i]);
+				if(claim != null)
+				{
+					return new WorkItem(run, remaining[i], claim);
+				}
+			}
+			// all remaining repeats are claimed
+			return null;
+		}
+		finally
+		{
+			store.close();
+			release(storeLock);
+		}
+	}
+	
+	/**
+	 * Store the result of a claimed repeat and release the claim, the run is marked 
+	 * complete if it was the last repeat
+	 * @param item
+	 * @param result
+	 * @throws ExperimentException
+	 */
+	public synchronized void complete(WorkItem item, RunResult result)
+		throws ExperimentException
+	{
+		ExperimentalRun run = item.getRun();
+		FileLock storeLock = lock(getLockChannel(run), run);
+		RunResultStore store = new RunResultStore(experiment, run);
+		boolean isComplete = false;
+		try
+		{
+			RunResult [] stored = ExperimentalRunUtils.resumeResultStore(experiment, run, store);
+			int [] remaining = ExperimentalRunUtils.getRemainingRepeats(run, stored);
+			for (int i = 0; i < remaining.length; i++)
+			{
+				if(remaining[i] == item.getRepeat())
+				{
+					store.append(result);
+					break;
+				}
+			}
+			// nothing else remaining
+			if(remaining.length == 0 || (remaining.length == 1 && remaining[0] == item.getRepeat()))
+			{
+				store.markComplete();
+				isComplete = true;
+			}
+		}
+		finally
+		{
+			store.close();
+			release(storeLock);
+			release(item.claim);
+		}
+		if(isComplete)
+		{
+			run.completed(ExperimentalRunUtils.getRunCompletionDate(experiment, run));
+		}
+	}
+	
+	/**
+	 * Release the claim of a repeat without storing a result, the repeat becomes available
+	 * @param item
+	 */
+	public synchronized void release(WorkItem item)
+	{
+		release(item.claim);
+	}
+	
+	/**
+	 * Close all lock files, releasing any claims still held
+	 */
+	public synchronized void close()
+	{
+		for(RandomAccessFile f : lockFiles.values())
+		{
+			try
+			{
+				f.close();
+			}
+			catch(IOException e)
+			{
+				// nothing useful can be done
+			}
+		}
+		lockFiles.clear();
+	}
+	
+	protected FileChannel getLockChannel(ExperimentalRun run)
+		throws ExperimentException
+	{
+		RandomAccessFile f = lockFiles.get(run.getId());
+		if(f == null)
+		{
+			File lockFile = new File(experiment.getExperimentHomeDir(), runToLockFilename(run));
+			try
+			{
+				f = new RandomAccessFile(lockFile, "rw");
+			}
+			catch(IOException e)
+			{
+				throw new ExperimentException("Unable to open run lock file " + lockFile + ": " + e.getMessage(), e);
+			}
+			lockFiles.put(run.getId(), f);
+		}
+		return f.getChannel();
+	}
+	
+	/**
+	 * Wait for the lock on the result store of a run
+	 */
+	protected FileLock lock(FileChannel channel, ExperimentalRun run)
+		throws ExperimentException
+	{
+		try
+		{
+			while(true)
+			{
+				try
+				{
+					return channel.lock(STORE_LOCK_POSITION, 1, false);
+				}
+				catch(OverlappingFileLockException e)
+				{
+					// held by another queue of this process, which does not block
+					Thread.sleep(1);
+				}
+			}
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new ExperimentException("Interrupted while locking the results of run " + run.getId(), e);
+		}
+		catch(IOException e)
+		{
+			throw new ExperimentException("Unable to lock the results of run " + run.getId() + ": " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Attempt to claim a repeat of a run
+	 * @return - the lock, or null if held by another process or thread
+	 */
+	protected FileLock tryLock(FileChannel channel, ExperimentalRun run, int repeat)
+		throws ExperimentException
+	{
+		try
+		{
+			return channel.tryLock(repeat, 1, false);
+		}
+		catch(OverlappingFileLockException e)
+		{
+			// claimed by another thread of this process
+			return null;
+		}
+		catch(IOException e)
+		{
+			throw new ExperimentException("Unable to claim repeat " + repeat + " of run " + run.getId() + ": " + e.getMessage(), e);
+		}
+	}
+	
+	protected void release(FileLock lock)
+	{
+		try
+		{
+			if(lock.isValid())
+			{
+				lock.release();
+			}
+		}
+		catch(IOException e)
+		{
+			// released when the lock file is closed
+		}
+	}
+}
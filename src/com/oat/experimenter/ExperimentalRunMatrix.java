@@ -40,7 +40,7 @@ import com.oat.experimenter.stats.RunStatisticSummary;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 25/11/2007	JBrownlee	Run lists are walked with an iterator rather than indexed
  * </pre>
  */
 public class ExperimentalRunMatrix
@@ -217,12 +217,13 @@ public class ExperimentalRunMatrix
 			throw new ExperimentException("Run list size "+experimentalRuns.size()+" does not match expected " + expected);
 		}
 		
-		int count = 0;
+		// walk the list once rather than indexing into it
+		Iterator<ExperimentalRun> it = experimentalRuns.iterator();
 		for (int i = 0; i < problems.size(); i++)
 		{
 			for (int j = 0; j < algorithms.size(); j++)
 			{
-				ExperimentalRun run = experimentalRuns.get(count++);
+				ExperimentalRun run = it.next();
 				// load the results for this run
 				if(run.isCompleted())
 				{
@@ -255,12 +256,12 @@ public class ExperimentalRunMatrix
 			throw new ExperimentException("Run list size "+experimentalRuns.size()+" does not match expected " + expected);
 		}
 		
-		int count = 0;
+		Iterator<ExperimentalRun> it = experimentalRuns.iterator();
 		for (int i = 0; i < problems.size(); i++)
 		{
 			for (int j = 0; j < algorithms.size(); j++)
 			{
-				matrix[i][j] = experimentalRuns.get(count++);
+				matrix[i][j] = it.next();
 			}
 		}
 		
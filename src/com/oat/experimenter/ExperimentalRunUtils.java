@@ -20,15 +20,25 @@
 package com.oat.experimenter;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.oat.AlgorithmExecutor;
 import com.oat.AlgorithmRunException;
 import com.oat.InitialisationException;
 import com.oat.InvalidConfigurationException;
+import com.oat.RunContext;
 import com.oat.utils.BeanUtils;
 import com.oat.utils.FileUtils;
+import com.oat.utils.RandomUtils;
 
 /**
  * Description: 
@@ -40,7 +50,12 @@ import com.oat.utils.FileUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 15/11/2007	JBrownlee	Added concurrent execution of run repeats
+ * 16/11/2007	JBrownlee	Concurrent repeats use isolated run contexts
+ * 25/11/2007	JBrownlee	Results are stored in a binary result store as each repeat completes, CSV is an export
+ * 26/11/2007	JBrownlee	Interrupted runs are resumed from the repeats already stored
+ * 27/11/2007	JBrownlee	Run lock files of the work queue are deleted with the run results
+ * 09/12/2007	JBrownlee	Default random number generator is part of the run configuration key
  * </pre>
  */
 public class ExperimentalRunUtils
@@ -66,18 +81,30 @@ public class ExperimentalRunUtils
     	executor.setAlgorithm(run.getAlgorithm());    	
     	executor.addStopCondition(exp.getStopCondition());
     	executor.addRunProbes(exp.getRunStatistics());
-
+    	
+    	return executeSingleRepeat(executor.createRunContext(), repeatNumber);
+    }
+    
+    /**
+     * Execute a single repeat using the instances of the provided context
+     * 
+     * @param context - instances used in the run
+     * @param repeatNumber - the repeat of the run, used as the algorithm seed
+     * @return
+     */
+    public static RunResult executeSingleRepeat(RunContext context, int repeatNumber)
+    {
         // prepare result
         RunResult result = new RunResult();
         result.setRepeatNumber(repeatNumber);
         
         // set the random number seed
-        BeanUtils.beanSetSeed(executor.getAlgorithm(), repeatNumber);  
+        BeanUtils.beanSetSeed(context.getAlgorithm(), repeatNumber);  
         
         // run
         try
         {
-        	executor.executeAndWait();
+        	context.executeAndWait();
         }
         // bad  configuration
         catch(final InvalidConfigurationException e)
@@ -104,7 +131,7 @@ public class ExperimentalRunUtils
             if(!result.isWasError())
             {
                 // only collect results if no error
-                result.collectResults(exp, run);
+                result.collectResults(context.getRunProbeArray());
             }
         }
         
@@ -112,7 +139,7 @@ public class ExperimentalRunUtils
     }
     
     /**
-     * 
+     * Name of the CSV results of a run (exported, or stored by earlier versions)
      * @param run
      * @return
      */
@@ -121,6 +148,16 @@ public class ExperimentalRunUtils
         return run.getId()+RESULT_EXT;
     }
     
+    /**
+     * Name of the binary result store of a run
+     * @param run
+     * @return
+     */
+    public static String runToResultStoreFilename(ExperimentalRun run)
+    {
+        return run.getId()+RunResultStore.STORE_EXT;
+    }
+    
    
     /**
      * Executes all repeats of the provided run, stores the results to disk and informs the run
@@ -132,13 +169,134 @@ public class ExperimentalRunUtils
     public static void executeRunAndStoreResult(ExperimentalRun run, Experiment experiment)
     	throws ExperimentException
     {
-    	// execute run
-    	LinkedList<RunResult> runRepeats = ExperimentalRunUtils.executeAllRepeats(run, experiment);
-    	// output results
-    	ExperimentalRunUtils.outputResults(experiment, run, runRepeats);
+    	executeRunAndStoreResult(run, experiment, 1);
     }
     
+    /**
+     * Executes all repeats of the provided run using the specified number of threads, 
+     * stores the results to disk and informs the run instances that it has completed.
+     * Repeats already stored for the same run configuration (an interrupted execution) are 
+     * not executed again, thus nothing is executed for a completed run 
+     * @param run
+     * @param experiment
+     * @param totalThreads
+     * @throws ExperimentException
+     */
+    public static void executeRunAndStoreResult(ExperimentalRun run, Experiment experiment, int totalThreads)
+    	throws ExperimentException
+    {
+    	// results are stored as each repeat completes
+    	RunResultStore store = new RunResultStore(experiment, run);
+    	try
+    	{
+    		RunResult [] stored = resumeResultStore(experiment, run, store);
+    		ExperimentalRunUtils.executeAllRepeats(run, experiment, totalThreads, store, stored);
+    		store.markComplete();
+    	}
+    	finally
+    	{
+    		store.close();
+    	}
+        // update status
+        run.completed(getRunCompletionDate(experiment, run));
+    }
     
+    /**
+     * Identifies the configuration of a run (problem, algorithm, repeats, stop condition, 
+     * run probes and the default random number generator), results stored under a different 
+     * configuration cannot be resumed. The algorithm seed is excluded as it is set for each repeat
+     * 
+     * @param exp
+     * @param run
+     * @return
+     */
+    public static String runToConfigurationKey(Experiment exp, ExperimentalRun run)
+    {
+    	StringBuffer b = new StringBuffer();
+    	b.append(run.getId());
+    	b.append("\n");
+    	b.append(BeanUtils.beanToTokenisedString(run.getProblem()));
+    	b.append("\n");
+    	String [] parts = BeanUtils.beanToTokenisedString(run.getAlgorithm()).split(""+BeanUtils.TOKEN);
+    	for (int i = 0; i < parts.length; i++)
+		{
+    		if(!parts[i].toLowerCase().startsWith("seed="))
+    		{
+    			b.append(parts[i]);
+    			b.append(BeanUtils.TOKEN);
+    		}
+		}
+    	b.append("\n");
+    	b.append(run.getRepeats());
+    	b.append("\n");
+    	b.append(BeanUtils.beanToTokenisedString(exp.getStopCondition()));
+    	b.append("\n");
+    	b.append(ExperimentUtils.tokeniseRunStatistics(exp.getRunStatistics()));
+    	b.append("\n");
+    	// repeats of different generators are different random streams
+    	b.append(RandomUtils.GENERATOR_PROPERTY + "=" + RandomUtils.getDefaultGenerator().name());
+    	return b.toString();
+    }
+    
+    /**
+     * Open the result store of a run such that its execution can be resumed. 
+     * Results stored under the same run configuration are kept, otherwise (no store, or 
+     * a store of a different or unknown configuration) the store is replaced by an empty store
+     * 
+     * @param exp
+     * @param run
+     * @param store - the store of the run, opened by this call
+     * @return - results already stored, in repeat order
+     * @throws ExperimentException
+     */
+    public static RunResult [] resumeResultStore(Experiment exp, ExperimentalRun run, RunResultStore store)
+    	throws ExperimentException
+    {
+    	String key = runToConfigurationKey(exp, run);
+    	RunResultStore.Contents c = store.open();
+    	if(key.equals(c.configuration))
+    	{
+    		return c.results;
+    	}
+    	// start again
+    	store.create();
+    	store.writeConfiguration(key);
+    	return new RunResult[0];
+    }
+    
+    /**
+     * Repeat numbers of a run that do not have a result
+     * 
+     * @param run
+     * @param stored - results already available, may be null
+     * @return - repeat numbers in order
+     */
+    public static int [] getRemainingRepeats(ExperimentalRun run, RunResult [] stored)
+    {
+    	boolean [] done = new boolean[run.getRepeats()+1];
+    	int total = run.getRepeats();
+    	if(stored != null)
+    	{
+	    	for (int i = 0; i < stored.length; i++)
+			{
+	    		int repeat = stored[i].getRepeatNumber();
+	    		if(repeat >= 1 && repeat < done.length && !done[repeat])
+	    		{
+	    			done[repeat] = true;
+	    			total--;
+	    		}
+			}
+    	}
+    	int [] remaining = new int[total];
+    	for (int i = 1, j = 0; i < done.length; i++)
+		{
+    		if(!done[i])
+    		{
+    			remaining[j++] = i;
+    		}
+		}
+    	return remaining;
+    }
     
     
     /**
@@ -151,18 +309,170 @@ public class ExperimentalRunUtils
      */
     public static LinkedList<RunResult> executeAllRepeats(ExperimentalRun run, Experiment experiment)
     {
-        LinkedList<RunResult> runRepeats = new LinkedList<RunResult>(); 
-                    
-        // execute repeats from 1 to n inclusive
-        for (int i = 1; i <= run.getRepeats(); i++)
-        {        
-            // execute the single run
-            RunResult r = ExperimentalRunUtils.executeSingleRepeat(experiment, run, i);
-            // store the result
-            runRepeats.add(r);
-        }
-        
-        return runRepeats;
+    	return executeAllRepeats(run, experiment, 1);
+    }
+    
+    /**
+     * Execute a run, with n-repeats, using the specified number of threads. 
+     * Each thread is given its own copy of the problem, algorithm, stop condition and probes,
+     * and each repeat is seeded with its repeat number, thus the results are the same as 
+     * those of sequential execution and are returned in repeat order.
+     * 
+     * @param run
+     * @param experiment
+     * @param totalThreads - number of threads, 1 for sequential execution
+     * @return
+     */
+    public static LinkedList<RunResult> executeAllRepeats(ExperimentalRun run, Experiment experiment, int totalThreads)
+    {
+    	try
+    	{
+    		return executeAllRepeats(run, experiment, totalThreads, null);
+    	}
+    	catch(ExperimentException e)
+    	{
+    		// only raised by the store
+    		throw new AlgorithmRunException("Unexpected error executing repeats: " + e.getMessage(), e);
+    	}
+    }
+    
+    /**
+     * Execute a run, with n-repeats, using the specified number of threads, 
+     * appending the result of each repeat to the provided store as it completes
+     * 
+     * @param run
+     * @param experiment
+     * @param totalThreads - number of threads, 1 for sequential execution
+     * @param store - open store, or null if results are not to be stored
+     * @return
+     * @throws ExperimentException - if a result could not be stored
+     */
+    public static LinkedList<RunResult> executeAllRepeats(ExperimentalRun run, Experiment experiment, int totalThreads, final RunResultStore store)
+    	throws ExperimentException
+    {
+    	return executeAllRepeats(run, experiment, totalThreads, store, null);
+    }
+    
+    /**
+     * Execute the repeats of a run that do not already have a result, using the specified 
+     * number of threads, appending the result of each repeat to the provided store as it completes
+     * 
+     * @param run
+     * @param experiment
+     * @param totalThreads - number of threads, 1 for sequential execution
+     * @param store - open store, or null if results are not to be stored
+     * @param stored - results of repeats that are not executed again, may be null
+     * @return - results of all repeats in repeat order, including those provided
+     * @throws ExperimentException - if a result could not be stored
+     */
+    public static LinkedList<RunResult> executeAllRepeats(ExperimentalRun run, Experiment experiment, int totalThreads, final RunResultStore store, RunResult [] stored)
+    	throws ExperimentException
+    {
+    	final RunResult [] results = new RunResult[run.getRepeats()];
+    	final int [] remaining = getRemainingRepeats(run, stored);
+    	if(stored != null)
+    	{
+    		for (int i = 0; i < stored.length; i++)
+			{
+    			int repeat = stored[i].getRepeatNumber();
+    			if(repeat >= 1 && repeat <= results.length)
+    			{
+    				results[repeat-1] = stored[i];
+    			}
+			}
+    	}
+    	
+    	totalThreads = Math.min(totalThreads, remaining.length);
+    	if(totalThreads <= 1)
+    	{
+            for (int i = 0; i < remaining.length; i++)
+            {        
+                // execute the single run
+                RunResult r = ExperimentalRunUtils.executeSingleRepeat(experiment, run, remaining[i]);
+                // store the result
+                results[remaining[i]-1] = r;
+                if(store != null)
+                {
+                	store.append(r);
+                }
+            }
+            return toRepeatList(results);
+    	}
+    	
+    	final AtomicInteger nextRepeat = new AtomicInteger(0);
+    	List<Callable<Object>> workers = new ArrayList<Callable<Object>>(totalThreads);
+    	for (int i = 0; i < totalThreads; i++)
+		{
+    		// prepare copies on the calling thread, such that the prototypes are not shared
+    		final RunContext context = RunContext.fromPrototypes(
+    				run.getProblem(), 
+    				run.getAlgorithm(), 
+    				experiment.getStopCondition(), 
+    				experiment.getRunStatistics());
+    		
+    		workers.add(new Callable<Object>()
+			{
+				public Object call()
+					throws ExperimentException
+				{
+					for(int next = nextRepeat.getAndIncrement(); next < remaining.length; next = nextRepeat.getAndIncrement())
+					{
+						int repeat = remaining[next];
+						results[repeat-1] = executeSingleRepeat(context, repeat);
+						if(store != null)
+						{
+							store.append(results[repeat-1]);
+						}
+					}
+					return null;
+				}
+			});
+		}
+    	
+    	ExecutorService executor = Executors.newFixedThreadPool(totalThreads);
+    	try
+    	{
+    		List<Future<Object>> futures = executor.invokeAll(workers);
+    		for(Future<Object> f : futures)
+    		{
+    			// raise any unexpected failure
+    			f.get();
+    		}
+    	}
+    	catch(InterruptedException e)
+    	{
+    		Thread.currentThread().interrupt();
+    		throw new AlgorithmRunException("Interrupted while executing repeats.", e);
+    	}
+    	catch(ExecutionException e)
+    	{
+    		if(e.getCause() instanceof ExperimentException)
+    		{
+    			throw (ExperimentException) e.getCause();
+    		}
+    		throw new AlgorithmRunException("Unexpected error executing repeats: " + e.getCause().getMessage(), e.getCause());
+    	}
+    	finally
+    	{
+    		executor.shutdown();
+    	}
+    	
+    	return toRepeatList(results);
+    }
+    
+    /**
+     * Results in repeat order
+     * @param results
+     * @return
+     */
+    protected static LinkedList<RunResult> toRepeatList(RunResult [] results)
+    {
+    	LinkedList<RunResult> runRepeats = new LinkedList<RunResult>(); 
+    	for (int i = 0; i < results.length; i++)
+		{
+    		runRepeats.add(results[i]);
+		}
+    	return runRepeats;
     }
     
     
@@ -178,33 +488,50 @@ public class ExperimentalRunUtils
     public static void outputResults(Experiment exp, ExperimentalRun run, LinkedList<RunResult> runRepeats)
     	throws ExperimentException
     {
-        // write to string
-        StringBuffer b = new StringBuffer();
-        b.append("# Experimental Run " + new Date() + "\n");
-        //b.append("# Configuration " + run.toStringEntry() + "\n");
-        // header
-        b.append(runRepeats.getFirst().toHeaderResultString() + "\n");
-        // output all results
-        for(RunResult r : runRepeats)
-        {
-            b.append(r.toResultString() + "\n");
-        }
-        
-        // out in file
-        File f = new File(exp.getExperimentHomeDir(), runToResultsFilename(run));
-        try
-        {
-            FileUtils.writeToFile(b.toString(), f);
-        }
-        catch (Exception e)
-        {
-            throw new ExperimentException("Unable to write result file: " + e.getMessage(), e);
-        }
+    	RunResultStore store = new RunResultStore(exp, run);
+    	store.create();
+    	try
+    	{
+    		// a single sync for the whole run
+    		store.enableSyncEachRecord(false);
+    		store.writeConfiguration(runToConfigurationKey(exp, run));
+	        for(RunResult r : runRepeats)
+	        {
+	            store.append(r);
+	        }
+	        store.enableSyncEachRecord(true);
+	        store.markComplete();
+    	}
+    	finally
+    	{
+    		store.close();
+    	}
         
         // update status
         run.completed(getRunCompletionDate(exp, run));
     }
     
+    /**
+     * Export the stored results of the specified run as CSV, in the experiment directory
+     * 
+     * @param exp
+     * @param run
+     * @return - the file written
+     * @throws ExperimentException
+     */
+    public static File exportResults(Experiment exp, ExperimentalRun run)
+    	throws ExperimentException
+    {
+    	File store = new File(exp.getExperimentHomeDir(), runToResultStoreFilename(run));
+    	if(!store.exists())
+    	{
+    		throw new ExperimentException("Unable to export results, run has no result store: " + run.getId());
+    	}
+    	File f = new File(exp.getExperimentHomeDir(), runToResultsFilename(run));
+    	RunResultStore.exportToCSV(store, f);
+    	return f;
+    }
+    
     
 
     
@@ -317,6 +644,13 @@ public class ExperimentalRunUtils
      */
     public static Date getRunCompletionDate(Experiment exp, ExperimentalRun run)
     {
+    	File store = new File(exp.getExperimentHomeDir(), runToResultStoreFilename(run));
+    	if(store.exists())
+    	{
+    		// a partial store is not complete
+    		return RunResultStore.isComplete(store) ? new Date(store.lastModified()) : null;
+    	}
+    	// results stored as CSV
         File f = new File(exp.getExperimentHomeDir(), runToResultsFilename(run));
         if(f.exists())
         {
@@ -329,8 +663,9 @@ public class ExperimentalRunUtils
     
     public static boolean hasResults(Experiment exp, ExperimentalRun run)
     {
+    	File store = new File(exp.getExperimentHomeDir(), runToResultStoreFilename(run));
     	File f = new File(exp.getExperimentHomeDir(), runToResultsFilename(run));
-    	if(f.exists())
+    	if(store.exists() || f.exists())
     	{
     		return true;
     	}
@@ -401,8 +736,14 @@ public class ExperimentalRunUtils
     public static RunResult [] loadRunResult(Experiment exp, ExperimentalRun run)
     	throws ExperimentException
     {
-        LinkedList<RunResult> results = new LinkedList<RunResult>();
+        File store = new File(exp.getExperimentHomeDir(), runToResultStoreFilename(run));
+        if(store.exists())
+        {
+        	return RunResultStore.load(store);
+        }
         
+        // results stored as CSV
+        LinkedList<RunResult> results = new LinkedList<RunResult>();
         File f = new File(exp.getExperimentHomeDir(), runToResultsFilename(run));
         if(!f.exists())
         {
@@ -514,34 +855,43 @@ public class ExperimentalRunUtils
     public static void deleteAllRunResults(Experiment exp)
     		throws ExperimentException
 	{
-    	if(exp.getRunsCompleted()>0)
-    	{
-    		LinkedList<ExperimentalRun> runs = exp.getRuns();
-    		for(ExperimentalRun run : runs)
-    		{
-    			if(run.isCompleted())
-    			{
-    				deleteRunResults(exp, run);
-    			}
-    		}
-    	}
+    	// includes the partial results of interrupted runs
+		LinkedList<ExperimentalRun> runs = exp.getRuns();
+		for(ExperimentalRun run : runs)
+		{
+			if(hasResults(exp, run))
+			{
+				deleteRunResults(exp, run);
+			}
+		}
 	}
     
     public static void deleteRunResults(Experiment exp, ExperimentalRun run)
 		throws ExperimentException
 	{
-    	// the file
+    	// the files
+    	File storeFile = new File(exp.getExperimentHomeDir(), runToResultStoreFilename(run));
     	File resultFile = new File(exp.getExperimentHomeDir(), runToResultsFilename(run));
     	// must exist
-    	if(!resultFile.exists())
+    	if(!storeFile.exists() && !resultFile.exists())
     	{
     		throw new ExperimentException("Unable to delete run result file, does not exist.");
     	}
     	// delete the result
-        if(!resultFile.delete())
+    	if(storeFile.exists() && !storeFile.delete())
+    	{
+    		throw new ExperimentException("Cannot delete experiment run result: " + storeFile);
+    	}
+        if(resultFile.exists() && !resultFile.delete())
         {
             throw new ExperimentException("Cannot delete experiment run result: " + resultFile);
         }
+        // used when executed by a work queue
+        File lockFile = new File(exp.getExperimentHomeDir(), ExperimentWorkQueue.runToLockFilename(run));
+        if(lockFile.exists() && !lockFile.delete())
+        {
+            throw new ExperimentException("Cannot delete experiment run lock file: " + lockFile);
+        }
         // no longer completed
         run.completed(null);
 	}
@@ -19,17 +19,14 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
 */
 package com.oat.experimenter;
 
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
-
 import com.oat.RunProbe;
 import com.oat.utils.FileUtils;
 
 /**
  * Date: 31/07/2007<br/>
  * <br/>
- * Description:
+ * Description: The results of a single repeat of an experimental run, as a set of 
+ * named probe observations
  * <br/>
  * @author Jason Brownlee
  *
@@ -37,7 +34,7 @@ import com.oat.utils.FileUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 25/11/2007	JBrownlee	Results are held as typed values with names shared by the results of a run
  * </pre>
  *
  */
@@ -50,8 +47,10 @@ public class RunResult
     protected String errorMessage;
     protected boolean wasError;
 
-    // maintains ordering
-    protected LinkedHashMap<String,String> results;
+    // result names in order, may be shared by all results of a run
+    protected String [] names;
+    // result values in the same order as the names (String, Double or Long)
+    protected Object [] values;
 
 
     /**
@@ -59,27 +58,116 @@ public class RunResult
      */
     public RunResult()
     {
-        results = new LinkedHashMap<String,String>(); 
+        names = new String[0];
+        values = new Object[0];
+    }
+    
+    /**
+     * Create a result with the provided values, the names are not copied such that
+     * they may be shared by all results of a run
+     * @param aNames
+     * @param aValues
+     */
+    public RunResult(String [] aNames, Object [] aValues)
+    {
+        if(aNames.length != aValues.length)
+        {
+            throw new RuntimeException("Number of names "+aNames.length+" and the number of results "+aValues.length+" do not match");
+        }
+        names = aNames;
+        values = aValues;
     }
     
-
 
     public Object getResult(String name)
     {
-        return results.get(name);
+        int i = indexOf(name);
+        return (i == -1) ? null : values[i];
+    }
+    
+    /**
+     * A numeric result 
+     * @param name
+     * @return
+     * @throws NumberFormatException - if the result does not exist or is not numeric
+     */
+    public double getResultAsDouble(String name)
+        throws NumberFormatException
+    {
+        Object v = getResult(name);
+        if(v instanceof Number)
+        {
+            return ((Number)v).doubleValue();
+        }
+        else if(v == null)
+        {
+            throw new NumberFormatException("No result for " + name);
+        }
+        return Double.parseDouble(v.toString());
+    }
+    
+    protected int indexOf(String name)
+    {
+        for (int i = 0; i < names.length; i++)
+        {
+            if(names[i].equals(name))
+            {
+                return i;
+            }
+        }
+        return -1;
     }
     
+    public int getTotalResults()
+    {
+        return names.length;
+    }
+    
+    public String getResultName(int i)
+    {
+        return names[i];
+    }
+    
+    public Object getResultValue(int i)
+    {
+        return values[i];
+    }
         
     public void collectResults(Experiment exp, ExperimentalRun run)
     {        
-        RunProbe [] stats = exp.getRunStatistics();
+        collectResults(exp.getRunStatistics());
+    }
+    
+    public void collectResults(RunProbe [] stats)
+    {        
+        names = new String[stats.length];
+        values = new Object[stats.length];
         for (int i = 0; i < stats.length; i++)
         {
-            results.put(stats[i].getName(), stats[i].getProbeObservation().toString());
+            names[i] = stats[i].getName();
+            values[i] = toResultValue(stats[i].getProbeObservation());
         }
     }
     
-    public void collectResults(String [] names, String valueCSV)
+    /**
+     * Numbers are kept as a Double or Long, everything else is kept as a string
+     * @param observation
+     * @return
+     */
+    public static Object toResultValue(Object observation)
+    {
+        if(observation instanceof Double || observation instanceof Long)
+        {
+            return observation;
+        }
+        else if(observation instanceof Integer || observation instanceof Short || observation instanceof Byte)
+        {
+            return new Long(((Number)observation).longValue());
+        }
+        return String.valueOf(observation);
+    }
+    
+    public void collectResults(String [] aNames, String valueCSV)
     {        
         if(valueCSV.startsWith(ERROR_TOKEN))
         {
@@ -92,15 +180,13 @@ public class RunResult
         	String [] parts = FileUtils.parseCSVLine(valueCSV);
         	     	
             // validate
-            if(parts.length != names.length)
+            if(parts.length != aNames.length)
             {
                 throw new RuntimeException("Number of columns and the number of results do not match for line: " + valueCSV);
             }
             // store
-            for (int i = 0; i < names.length; i++)
-            {
-                results.put(names[i], parts[i]);
-            }
+            names = aNames;
+            values = parts;
         }
     }
     
@@ -111,20 +197,15 @@ public class RunResult
             return ERROR_TOKEN + ": " + errorMessage;
         }
         
-        Iterator<Map.Entry<String, String>> it = results.entrySet().iterator();
-        int size = results.size();
         StringBuffer b = new StringBuffer();
-        for (int i = 0; i < size; i++)
+        for (int i = 0; i < values.length; i++)
         {                
-            Map.Entry<String, String> e = it.next();            
-            String v = e.getValue().toString(); 
-            
             // always output results with quotes
         	b.append("\"");
-        	b.append(v);
+        	b.append(values[i]);
         	b.append("\"");                     
             
-            if(i!=size-1)
+            if(i!=values.length-1)
             {   
                 b.append(",");
             }
@@ -134,14 +215,11 @@ public class RunResult
     
     public String toHeaderResultString()
     {
-        Iterator<Map.Entry<String, String>> it = results.entrySet().iterator();
-        int size = results.size();
         StringBuffer b = new StringBuffer();
-        for (int i = 0; i < size; i++)
+        for (int i = 0; i < names.length; i++)
         {                
-            Map.Entry<String, String> e = it.next();
-            b.append(e.getKey());
-            if(i!=size-1)
+            b.append(names[i]);
+            if(i!=names.length-1)
             {   
                 b.append(",");
             }
@@ -151,32 +229,16 @@ public class RunResult
     
     public String [] toHeaderStrings()
     {
-        Iterator<Map.Entry<String, String>> it = results.entrySet().iterator();
-        int size = results.size();
-        String [] s = new String[size]; 
-        for (int i = 0; i < size; i++)
-        {                
-            Map.Entry<String, String> e = it.next();
-            s[i] = e.getKey();
-        }
-        return s;
+        return names.clone();
     }
+    
     public Object [] toResultObjects()
     {
         if(wasError)
         {
             return null;
         }
-        
-        Iterator<Map.Entry<String, String>> it = results.entrySet().iterator();
-        int size = results.size();
-        Object [] o = new Object[size];
-        for (int i = 0; i < size; i++)
-        {                
-            Map.Entry<String, String> e = it.next();
-            o[i] = e.getValue();
-        }
-        return o;
+        return values.clone();
     }
     
 
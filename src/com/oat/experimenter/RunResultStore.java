@@ -0,0 +1,711 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.experimenter;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.zip.CRC32;
+
+/**
+ * Description: Append-only binary store of the results of an experimental run. A record is 
+ * appended (and forced to disk) as each repeat completes, such that a crash loses at most 
+ * the repeat being written. Values are stored typed (double, long or string) rather than 
+ * as quoted text, and the file is memory mapped when read. 
+ * <br/>
+ * File layout: a header (magic, version) followed by records of [int length][body][int crc32 of body].
+ * The body starts with the record type: a schema (result names), a result (repeat number and 
+ * one tagged value per name of the most recent schema), an error (repeat number and message), 
+ * the configuration of the run the results belong to, or the complete marker written once all 
+ * repeats of the run are stored. A partial or corrupt record at the end of the file (crash while 
+ * writing) is ignored when read and removed when the store is opened for appending, thus an 
+ * interrupted run can be resumed from the last stored repeat.
+ * <br/>
+ * Instances are thread safe, repeats executed concurrently may append in any order, results 
+ * are loaded in repeat order.
+ *
+ * Date: 25/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 26/11/2007	JBrownlee	Configuration of the run is recorded, stores can be resumed
+ * </pre>
+ */
+public class RunResultStore
+{
+	public final static String STORE_EXT = ".res";
+	
+	protected final static int MAGIC = 0x4F415452; // OATR
+	protected final static int VERSION = 1;
+	protected final static int HEADER_SIZE = 8;
+	
+	// record types
+	protected final static byte SCHEMA_RECORD = 1;
+	protected final static byte RESULT_RECORD = 2;
+	protected final static byte ERROR_RECORD = 3;
+	protected final static byte COMPLETE_RECORD = 4;
+	protected final static byte CONFIGURATION_RECORD = 5;
+	/**
+	 * length + type + crc
+	 */
+	protected final static int COMPLETE_RECORD_SIZE = 9;
+	
+	// value types
+	protected final static byte NULL_VALUE = 0;
+	protected final static byte DOUBLE_VALUE = 1;
+	protected final static byte LONG_VALUE = 2;
+	protected final static byte STRING_VALUE = 3;
+	
+	/**
+	 * Files smaller than this are read rather than memory mapped
+	 */
+	protected final static long MAP_THRESHOLD = 256 * 1024;
+	
+	protected final static String CHARSET = "UTF-8";
+	
+	/**
+	 * The store file
+	 */
+	protected final File file;
+	/**
+	 * Whether or not each record is forced to disk as it is written
+	 */
+	protected boolean syncEachRecord = true;
+	/**
+	 * Open for appending, null when closed
+	 */
+	protected RandomAccessFile out;
+	/**
+	 * The most recently written result names
+	 */
+	protected String [] schema;
+	/**
+	 * Whether or not the complete marker has been written
+	 */
+	protected boolean isComplete;
+	
+	
+	public RunResultStore(File aFile)
+	{
+		file = aFile;
+	}
+	
+	/**
+	 * The store for a run within an experiment
+	 * @param exp
+	 * @param run
+	 */
+	public RunResultStore(Experiment exp, ExperimentalRun run)
+	{
+		this(toStoreFile(exp, run));
+	}
+	
+	public static File toStoreFile(Experiment exp, ExperimentalRun run)
+	{
+		return new File(exp.getExperimentHomeDir(), ExperimentalRunUtils.runToResultStoreFilename(run));
+	}
+	
+	public File getFile()
+	{
+		return file;
+	}
+	
+	/**
+	 * Whether or not each appended record is forced to disk before append returns (default true)
+	 * @param sync
+	 */
+	public void enableSyncEachRecord(boolean sync)
+	{
+		syncEachRecord = sync;
+	}
+	
+	/**
+	 * Create an empty store, replacing any existing store
+	 * @throws ExperimentException
+	 */
+	public synchronized void create()
+		throws ExperimentException
+	{
+		close();
+		try
+		{
+			out = new RandomAccessFile(file, "rw");
+			out.setLength(0);
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC);
+			header.putInt(VERSION);
+			header.flip();
+			write(header);
+			schema = null;
+			isComplete = false;
+		}
+		catch(IOException e)
+		{
+			close();
+			throw new ExperimentException("Unable to create result store " + file + ": " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Open the store for appending, creating it if it does not exist. Any partial record at 
+	 * the end of the file is removed
+	 * @return - the valid contents of the store
+	 * @throws ExperimentException
+	 */
+	public synchronized Contents open()
+		throws ExperimentException
+	{
+		if(!file.exists() || file.length() < HEADER_SIZE)
+		{
+			create();
+			Contents c = new Contents();
+			c.results = new RunResult[0];
+			c.validLength = HEADER_SIZE;
+			return c;
+		}
+		close();
+		Contents c = read(file);
+		try
+		{
+			out = new RandomAccessFile(file, "rw");
+			if(out.length() != c.validLength)
+			{
+				out.setLength(c.validLength);
+			}
+			out.seek(c.validLength);
+			schema = c.lastSchema;
+			isComplete = c.isComplete;
+		}
+		catch(IOException e)
+		{
+			close();
+			throw new ExperimentException("Unable to open result store " + file + ": " + e.getMessage(), e);
+		}
+		return c;
+	}
+	
+	public synchronized boolean isOpen()
+	{
+		return out != null;
+	}
+	
+	/**
+	 * Append the result of a single repeat
+	 * @param r
+	 * @throws ExperimentException
+	 */
+	public synchronized void append(RunResult r)
+		throws ExperimentException
+	{
+		checkOpen();
+		try
+		{
+			if(r.isWasError())
+			{
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DataOutputStream body = new DataOutputStream(bytes);
+				body.writeByte(ERROR_RECORD);
+				body.writeInt(r.getRepeatNumber());
+				writeString(body, r.getErrorMessage());
+				writeRecord(bytes.toByteArray());
+				return;
+			}
+			
+			String [] names = r.toHeaderStrings();
+			if(schema == null || !Arrays.equals(schema, names))
+			{
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DataOutputStream body = new DataOutputStream(bytes);
+				body.writeByte(SCHEMA_RECORD);
+				body.writeInt(names.length);
+				for (int i = 0; i < names.length; i++)
+				{
+					writeString(body, names[i]);
+				}
+				writeRecord(bytes.toByteArray());
+				schema = names;
+			}
+			
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream body = new DataOutputStream(bytes);
+			body.writeByte(RESULT_RECORD);
+			body.writeInt(r.getRepeatNumber());
+			for (int i = 0; i < names.length; i++)
+			{
+				Object v = r.getResultValue(i);
+				if(v == null)
+				{
+					body.writeByte(NULL_VALUE);
+				}
+				else if(v instanceof Double)
+				{
+					body.writeByte(DOUBLE_VALUE);
+					body.writeDouble(((Double)v).doubleValue());
+				}
+				else if(v instanceof Long)
+				{
+					body.writeByte(LONG_VALUE);
+					body.writeLong(((Long)v).longValue());
+				}
+				else
+				{
+					body.writeByte(STRING_VALUE);
+					writeString(body, v.toString());
+				}
+			}
+			writeRecord(bytes.toByteArray());
+		}
+		catch(IOException e)
+		{
+			throw new ExperimentException("Unable to append to result store " + file + ": " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Record the configuration of the run the results belong to, used to decide whether 
+	 * or not the stored results can be resumed
+	 * @param configuration
+	 * @throws ExperimentException
+	 */
+	public synchronized void writeConfiguration(String configuration)
+		throws ExperimentException
+	{
+		checkOpen();
+		try
+		{
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream body = new DataOutputStream(bytes);
+			body.writeByte(CONFIGURATION_RECORD);
+			writeString(body, configuration);
+			writeRecord(bytes.toByteArray());
+		}
+		catch(IOException e)
+		{
+			throw new ExperimentException("Unable to append to result store " + file + ": " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Record that all repeats of the run have been stored, does nothing if already recorded
+	 * @throws ExperimentException
+	 */
+	public synchronized void markComplete()
+		throws ExperimentException
+	{
+		checkOpen();
+		if(isComplete)
+		{
+			return;
+		}
+		try
+		{
+			writeRecord(new byte[]{COMPLETE_RECORD});
+			isComplete = true;
+		}
+		catch(IOException e)
+		{
+			throw new ExperimentException("Unable to complete result store " + file + ": " + e.getMessage(), e);
+		}
+	}
+	
+	public synchronized void close()
+	{
+		if(out != null)
+		{
+			try
+			{
+				out.close();
+			}
+			catch(IOException e)
+			{
+				// nothing useful can be done
+			}
+			out = null;
+		}
+	}
+	
+	protected void checkOpen()
+		throws ExperimentException
+	{
+		if(out == null)
+		{
+			throw new ExperimentException("Result store is not open: " + file);
+		}
+	}
+	
+	protected void writeRecord(byte [] body)
+		throws IOException
+	{
+		CRC32 crc = new CRC32();
+		crc.update(body);
+		ByteBuffer b = ByteBuffer.allocate(body.length + 8);
+		b.putInt(body.length);
+		b.put(body);
+		b.putInt((int) crc.getValue());
+		b.flip();
+		write(b);
+	}
+	
+	protected void write(ByteBuffer b)
+		throws IOException
+	{
+		FileChannel channel = out.getChannel();
+		while(b.hasRemaining())
+		{
+			channel.write(b);
+		}
+		if(syncEachRecord)
+		{
+			channel.force(false);
+		}
+	}
+	
+	protected static void writeString(DataOutputStream out, String s)
+		throws IOException
+	{
+		byte [] b = (s == null) ? new byte[0] : s.getBytes(CHARSET);
+		out.writeInt(b.length);
+		out.write(b);
+	}
+	
+	protected static String readString(ByteBuffer b)
+		throws IOException
+	{
+		int length = b.getInt();
+		byte [] bytes = new byte[length];
+		b.get(bytes);
+		return new String(bytes, CHARSET);
+	}
+	
+	
+	/**
+	 * The results read from a store
+	 */
+	public static class Contents
+	{
+		/**
+		 * Results in repeat order
+		 */
+		public RunResult [] results;
+		/**
+		 * Whether or not the complete marker was found
+		 */
+		public boolean isComplete;
+		/**
+		 * Configuration of the run, the most recent recorded, or null if none
+		 */
+		public String configuration;
+		/**
+		 * Length of the file up to the end of the last valid record
+		 */
+		protected long validLength;
+		/**
+		 * Names of the last schema read
+		 */
+		protected String [] lastSchema;
+	}
+	
+	/**
+	 * Whether or not the store exists and has been marked as complete, only 
+	 * reads the end of the file
+	 * @param f
+	 * @return
+	 */
+	public static boolean isComplete(File f)
+	{
+		if(!f.exists() || f.length() < HEADER_SIZE + COMPLETE_RECORD_SIZE)
+		{
+			return false;
+		}
+		RandomAccessFile in = null;
+		try
+		{
+			in = new RandomAccessFile(f, "r");
+			in.seek(in.length() - COMPLETE_RECORD_SIZE);
+			byte [] tail = new byte[COMPLETE_RECORD_SIZE];
+			in.readFully(tail);
+			ByteBuffer b = ByteBuffer.wrap(tail);
+			if(b.getInt() != 1 || b.get() != COMPLETE_RECORD)
+			{
+				return false;
+			}
+			CRC32 crc = new CRC32();
+			crc.update(COMPLETE_RECORD);
+			return b.getInt() == (int) crc.getValue();
+		}
+		catch(IOException e)
+		{
+			return false;
+		}
+		finally
+		{
+			if(in != null)
+			{
+				try
+				{
+					in.close();
+				}
+				catch(IOException e)
+				{}
+			}
+		}
+	}
+	
+	/**
+	 * Load the results of the store in repeat order
+	 * @param f
+	 * @return
+	 * @throws ExperimentException
+	 */
+	public static RunResult [] load(File f)
+		throws ExperimentException
+	{
+		return read(f).results;
+	}
+	
+	/**
+	 * Read the store, large files are memory mapped
+	 * @param f
+	 * @return
+	 * @throws ExperimentException
+	 */
+	public static Contents read(File f)
+		throws ExperimentException
+	{
+		RandomAccessFile in = null;
+		try
+		{
+			in = new RandomAccessFile(f, "r");
+			FileChannel channel = in.getChannel();
+			long size = channel.size();
+			if(size > Integer.MAX_VALUE)
+			{
+				throw new ExperimentException("Result store is too large: " + f);
+			}
+			ByteBuffer b = null;
+			if(size >= MAP_THRESHOLD)
+			{
+				b = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			}
+			else
+			{
+				b = ByteBuffer.allocate((int) size);
+				while(b.hasRemaining() && channel.read(b) != -1);
+				b.flip();
+			}
+			return parse(b, f);
+		}
+		catch(IOException e)
+		{
+			throw new ExperimentException("Unable to read result store " + f + ": " + e.getMessage(), e);
+		}
+		finally
+		{
+			if(in != null)
+			{
+				try
+				{
+					in.close();
+				}
+				catch(IOException e)
+				{}
+			}
+		}
+	}
+	
+	protected static Contents parse(ByteBuffer b, File f)
+		throws IOException, ExperimentException
+	{
+		if(b.remaining() < HEADER_SIZE || b.getInt() != MAGIC)
+		{
+			throw new ExperimentException("Not a result store: " + f);
+		}
+		int version = b.getInt();
+		if(version != VERSION)
+		{
+			throw new ExperimentException("Unsupported result store version " + version + ": " + f);
+		}
+		
+		Contents c = new Contents();
+		ArrayList<RunResult> results = new ArrayList<RunResult>();
+		String [] names = null;
+		CRC32 crc = new CRC32();
+		byte [] body = new byte[256];
+		c.validLength = b.position();
+		while(b.remaining() >= 8)
+		{
+			int length = b.getInt();
+			if(length <= 0 || length > b.remaining() - 4)
+			{
+				break; // partial record
+			}
+			if(body.length < length)
+			{
+				body = new byte[Math.max(length, body.length * 2)];
+			}
+			b.get(body, 0, length);
+			int expected = b.getInt();
+			crc.reset();
+			crc.update(body, 0, length);
+			if(expected != (int) crc.getValue())
+			{
+				break; // corrupt record
+			}
+			c.validLength = b.position();
+			
+			ByteBuffer r = ByteBuffer.wrap(body, 0, length);
+			byte type = r.get();
+			if(type == SCHEMA_RECORD)
+			{
+				names = new String[r.getInt()];
+				for (int i = 0; i < names.length; i++)
+				{
+					names[i] = readString(r);
+				}
+			}
+			else if(type == RESULT_RECORD)
+			{
+				if(names == null)
+				{
+					throw new ExperimentException("Result without a schema in result store: " + f);
+				}
+				int repeat = r.getInt();
+				Object [] values = new Object[names.length];
+				for (int i = 0; i < values.length; i++)
+				{
+					byte valueType = r.get();
+					switch(valueType)
+					{
+						case NULL_VALUE:
+							break;
+						case DOUBLE_VALUE:
+							values[i] = new Double(r.getDouble());
+							break;
+						case LONG_VALUE:
+							values[i] = new Long(r.getLong());
+							break;
+						case STRING_VALUE:
+							values[i] = readString(r);
+							break;
+						default:
+							throw new ExperimentException("Unknown value type " + valueType + " in result store: " + f);
+					}
+				}
+				// names are shared by all results of the run
+				RunResult result = new RunResult(names, values);
+				result.setRepeatNumber(repeat);
+				results.add(result);
+			}
+			else if(type == ERROR_RECORD)
+			{
+				RunResult result = new RunResult();
+				result.setRepeatNumber(r.getInt());
+				result.setErrorMessage(readString(r));
+				result.setWasError(true);
+				results.add(result);
+			}
+			else if(type == COMPLETE_RECORD)
+			{
+				c.isComplete = true;
+			}
+			else if(type == CONFIGURATION_RECORD)
+			{
+				c.configuration = readString(r);
+			}
+			else
+			{
+				throw new ExperimentException("Unknown record type " + type + " in result store: " + f);
+			}
+		}
+		
+		c.lastSchema = names;
+		c.results = results.toArray(new RunResult[results.size()]);
+		// concurrent repeats are stored in completion order
+		Arrays.sort(c.results, new Comparator<RunResult>()
+		{
+			public int compare(RunResult o1, RunResult o2)
+			{
+				return (o1.getRepeatNumber() < o2.getRepeatNumber()) ? -1 : ((o1.getRepeatNumber() == o2.getRepeatNumber()) ? 0 : 1);
+			}
+		});
+		return c;
+	}
+	
+	/**
+	 * Export the results of the store as CSV, the format previously used to store results
+	 * @param f - result store
+	 * @param csv - file to write
+	 * @throws ExperimentException
+	 */
+	public static void exportToCSV(File f, File csv)
+		throws ExperimentException
+	{
+		RunResult [] results = load(f);
+		BufferedWriter w = null;
+		try
+		{
+			w = new BufferedWriter(new FileWriter(csv));
+			w.write("# Experimental Run " + new Date() + "\n");
+			// header from the first result with values
+			for (int i = 0; i < results.length; i++)
+			{
+				if(!results[i].isWasError())
+				{
+					w.write(results[i].toHeaderResultString() + "\n");
+					break;
+				}
+			}
+			for (int i = 0; i < results.length; i++)
+			{
+				w.write(results[i].toResultString());
+				w.write("\n");
+			}
+		}
+		catch(IOException e)
+		{
+			throw new ExperimentException("Unable to export results to " + csv + ": " + e.getMessage(), e);
+		}
+		finally
+		{
+			if(w != null)
+			{
+				try
+				{
+					w.close();
+				}
+				catch(IOException e)
+				{}
+			}
+		}
+	}
+}
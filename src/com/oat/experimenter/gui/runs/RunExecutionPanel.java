@@ -39,6 +39,7 @@ import com.oat.experimenter.ExperimentException;
 import com.oat.experimenter.ExperimentalRun;
 import com.oat.experimenter.ExperimentalRunUtils;
 import com.oat.experimenter.RunResult;
+import com.oat.experimenter.RunResultStore;
 import com.oat.gui.FinishedEventNotifier;
 import com.oat.gui.FinishedNotificationEventListener;
 
@@ -52,7 +53,7 @@ import com.oat.gui.FinishedNotificationEventListener;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 26/11/2007	JBrownlee	Results are stored as each repeat completes, stopped runs are resumed
  * </pre>
  */
 public class RunExecutionPanel extends JPanel
@@ -279,28 +280,22 @@ public class RunExecutionPanel extends JPanel
             {
                 // reset the progress for this run
                 resetRunRepeatsProgress(currentRuns[i].getRepeats());
-                // perform the repeats for this run
-                LinkedList<RunResult> runRepeats = runRepeats(currentRuns[i]);
+                // perform the repeats for this run, results are stored as each repeat completes
+                LinkedList<RunResult> runRepeats = null;
+                try
+				{
+                	runRepeats = runRepeats(currentRuns[i]);
+				} 
+                catch (ExperimentException e)
+				{
+                	// TODO hack
+                	throw new RuntimeException("Error saving results: " + e.getMessage(), e);
+				}
                 // check for stop or no results (error)
                 if(stopRequested || runRepeats == null)
                 {
                     break;
                 }
-                // store results
-                //if(!wasError(runRepeats))
-                {
-                	// only store results if no error (lazy hack)
-                	// TODO handle this condition better in the GUI
-	                try
-					{
-						ExperimentalRunUtils.outputResults(experiment, currentRuns[i], runRepeats);
-					} 
-	                catch (ExperimentException e)
-					{
-	                	// TODO hack
-	                	throw new RuntimeException("Error saving results: " + e.getMessage(), e);
-					}
-                }
                 // increment run set progress
                 incrementRunSetProgress();                
             }
@@ -324,23 +319,52 @@ public class RunExecutionPanel extends JPanel
         
         
         /**
-         * Execute a single run with a number of repeats
+         * Execute a single run with a number of repeats, storing each result as it completes. 
+         * Repeats stored by an earlier (stopped or interrupted) execution are not executed again
          * 
          * @param run
          * @return
+         * @throws ExperimentException
          */
         protected LinkedList<RunResult> runRepeats(ExperimentalRun run)
+        	throws ExperimentException
         {
             LinkedList<RunResult> runRepeats = new LinkedList<RunResult>(); 
-            
-            for (int i = 1; !stopRequested && i <= run.getRepeats(); i++)
-            {       
-                // execute the single run
-                RunResult r = ExperimentalRunUtils.executeSingleRepeat(experiment, run, i);
-                // store the result
-                runRepeats.add(r);
-                // increment repeat progress
-                incrementRunRepeatsProgress();
+            RunResultStore store = new RunResultStore(experiment, run);
+            try
+            {
+	            RunResult [] stored = ExperimentalRunUtils.resumeResultStore(experiment, run, store);
+	            for (int i = 0; i < stored.length; i++)
+				{
+	            	runRepeats.add(stored[i]);
+	            	incrementRunRepeatsProgress();
+				}
+	            
+	            int [] remaining = ExperimentalRunUtils.getRemainingRepeats(run, stored);
+	            for (int i = 0; !stopRequested && i < remaining.length; i++)
+	            {       
+	                // execute the single run
+	                RunResult r = ExperimentalRunUtils.executeSingleRepeat(experiment, run, remaining[i]);
+	                // store the result
+	                runRepeats.add(r);
+	                store.append(r);
+	                // increment repeat progress
+	                incrementRunRepeatsProgress();
+	            }
+	            
+	            if(!stopRequested)
+	            {
+	            	store.markComplete();
+	            }
+            }
+            finally
+            {
+            	store.close();
+            }
+            if(!stopRequested)
+            {
+            	// update status
+            	run.completed(ExperimentalRunUtils.getRunCompletionDate(experiment, run));
             }
             
             return runRepeats;
@@ -40,7 +40,7 @@ import com.oat.utils.FileUtils;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 25/11/2007	JBrownlee	Numeric results are read without parsing strings
  * </pre>
  *
  */
@@ -189,7 +189,7 @@ public class RunStatisticSummary
     	// check for number
     	try
     	{
-    		Double.parseDouble((String)stats[0].getResult(selectedStatistic));
+    		stats[0].getResultAsDouble(selectedStatistic);
     	}
     	catch(NumberFormatException e)
     	{
@@ -199,7 +199,7 @@ public class RunStatisticSummary
         double [] results = new double[stats.length];
         for (int i = 0; i < results.length; i++)
         {
-            results[i] = Double.parseDouble((String)stats[i].getResult(selectedStatistic));
+            results[i] = stats[i].getResultAsDouble(selectedStatistic);
         }
         return results;
     	
@@ -0,0 +1,164 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.Domain;
+import com.oat.benchmark.Benchmark;
+import com.oat.benchmark.BenchmarkResult;
+import com.oat.benchmark.BenchmarkRunner;
+import com.oat.benchmark.BenchmarkSuite;
+import com.oat.benchmark.PSPLatticeBenchmark;
+import com.oat.benchmark.ThroughputHarness;
+import com.oat.benchmark.ThroughputResult;
+import com.oat.domains.bfo.BFODomain;
+import com.oat.domains.psp.PSPUtils;
+
+/**
+ * Description: Test the benchmark suite and throughput harness execute, and the storage 
+ * and comparison of results
+ *
+ * Date: 30/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 01/12/2007	JBrownlee	Added a throughput harness test
+ * </pre>
+ */
+public class BenchmarkTests
+{
+    @Test
+    public void testSuiteExecutes()
+    {
+        try
+        {
+            LinkedList<Benchmark> benchmarks = BenchmarkSuite.loadBenchmarks();
+            // short iterations, checks the fixtures and routines only
+            BenchmarkRunner runner = new BenchmarkRunner(0, 2, 2);
+            LinkedList<BenchmarkResult> results = BenchmarkSuite.execute(runner, benchmarks, null, null);
+            assertEquals(benchmarks.size(), results.size());
+            for(BenchmarkResult r : results)
+            {
+                assertTrue(r.getId(), r.getMeanNanos() > 0);
+                assertTrue(r.getMinNanos() <= r.getMeanNanos() && r.getMeanNanos() <= r.getMaxNanos());
+                assertEquals(2, r.getIterations());
+            }
+            
+            // stored and loaded exactly
+            File file = File.createTempFile("benchmarks", ".csv");
+            file.deleteOnExit();
+            BenchmarkSuite.writeResults(results, runner, file);
+            LinkedList<BenchmarkResult> loaded = BenchmarkSuite.loadResults(file);
+            assertEquals(results.size(), loaded.size());
+            Iterator<BenchmarkResult> it = loaded.iterator();
+            for(BenchmarkResult r : results)
+            {
+                BenchmarkResult l = it.next();
+                assertEquals(r.getId(), l.getId());
+                assertEquals(r.getOperations(), l.getOperations());
+                assertEquals(r.getMeanNanos(), l.getMeanNanos(), 0.0);
+                assertEquals(r.getStdevNanos(), l.getStdevNanos(), 0.0);
+            }
+            file.delete();
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+    }
+    
+    @Test
+    public void testCompare()
+    {
+        LinkedList<BenchmarkResult> baseline = new LinkedList<BenchmarkResult>();
+        baseline.add(new BenchmarkResult("a", "x=1", 10, 100, 100, 1, 99, 101));
+        baseline.add(new BenchmarkResult("a", "x=2", 10, 100, 100, 1, 99, 101));
+        baseline.add(new BenchmarkResult("b", "", 10, 100, 100, 1, 99, 101));
+        LinkedList<BenchmarkResult> current = new LinkedList<BenchmarkResult>();
+        current.add(new BenchmarkResult("a", "x=1", 10, 100, 109, 1, 108, 110));
+        current.add(new BenchmarkResult("a", "x=2", 10, 100, 111, 1, 110, 112));
+        current.add(new BenchmarkResult("c", "", 10, 100, 500, 1, 499, 501));
+        
+        LinkedList<String> regressions = BenchmarkSuite.compare(baseline, current, 0.10, null);
+        assertEquals(1, regressions.size());
+        assertEquals("a[x=2]", regressions.getFirst());
+        assertEquals(0, BenchmarkSuite.compare(baseline, current, 0.5, null).size());
+    }
+    
+    @Test
+    public void testThroughputHarness()
+    {
+        ThroughputHarness harness = new ThroughputHarness(200, 0, 1);
+        Domain domain = new BFODomain();
+        LinkedList<ThroughputResult> results = harness.execute(domain, null);
+        try
+        {
+            assertEquals(domain.loadAlgorithmList().length * domain.loadProblemList().length, results.size());
+            assertEquals(domain.loadAlgorithmList().length, ThroughputHarness.summariseByAlgorithm(results).size());
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        for(ThroughputResult r : results)
+        {
+            assertFalse(r.getError(), r.isFailed());
+            assertEquals(200L, r.getEvaluations());
+            assertTrue(r.getEvaluationsPerSecond() > 0);
+            assertTrue(r.getPeakHeapBytes() > 0);
+            assertTrue(!harness.isAllocationSupported() || r.getAllocatedBytes() > 0);
+        }
+    }
+    
+    @Test
+    public void testSelfAvoidingPermutations()
+    {
+        Random r = new Random(1);
+        for (int length = 1; length < 100; length++)
+        {
+            byte [] perm = PSPLatticeBenchmark.randomSelfAvoidingPermutation(length, r);
+            assertEquals(length, perm.length);
+            try
+            {
+                PSPUtils.relativePermutationToLattice(perm, new boolean[length + 1]);
+            }
+            catch(Exception e)
+            {
+                fail("Invalid permutation: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.Problem;
+import com.oat.domains.cfo.CFODomain;
+import com.oat.domains.cfo.CFOProblem;
+import com.oat.domains.cfo.CFOSolution;
+import com.oat.stopcondition.EvaluationsStopCondition;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Test that bulk evaluation of coordinate blocks matches the evaluation of single coordinates
+ *
+ * Date: 19/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class CFOBulkEvaluationTests
+{
+	@Test
+	public void testBulkEvaluation()
+	{
+		int totalBulk = 0;
+		for(CFOProblem p : loadProblems())
+		{
+			if(!p.isBulkEvaluationSupported())
+			{
+				continue;
+			}
+			totalBulk++;
+			for(int d : new int[]{2, 10, 100})
+			{
+				if(!p.isDimensionalitySupported(d))
+				{
+					continue;
+				}
+				p.setDimensions(d);
+				Random r = new Random(1);
+				double [][] coords = new double[50][];
+				double [] block = new double[coords.length * d];
+				for (int i = 0; i < coords.length; i++)
+				{
+					coords[i] = RandomUtils.randomPointInRange(r, p.getMinmax());
+					System.arraycopy(coords[i], 0, block, i * d, d);
+				}
+				double [] scores = new double[coords.length];
+				p.directFunctionEvaluation(block, coords.length, scores);
+				for (int i = 0; i < coords.length; i++)
+				{
+					assertEquals(p.getName(), p.directFunctionEvaluation(coords[i]), scores[i], 0.0);
+				}
+			}
+		}
+		assertTrue(totalBulk > 0);
+	}
+
+	@Test
+	public void testBulkCost()
+	{
+		for(CFOProblem p : loadProblems())
+		{
+			if(!p.isBulkEvaluationSupported())
+			{
+				continue;
+			}
+			p.setDimensions(10);
+			EvaluationsStopCondition sc = new EvaluationsStopCondition(75);
+			p.addStopCondition(sc);
+			try
+			{
+				sc.initialiseBeforeRun(p, null);
+				Random r = new Random(1);
+				LinkedList<CFOSolution> pop = new LinkedList<CFOSolution>();
+				for (int i = 0; i < 100; i++)
+				{
+					pop.add(new CFOSolution(RandomUtils.randomPointInRange(r, p.getMinmax())));
+				}
+				p.cost(pop);
+				// budget respected, scores the same as a single evaluation
+				assertEquals(75L, sc.getEvaluationsCount());
+				for (int i = 0; i < pop.size(); i++)
+				{
+					CFOSolution s = pop.get(i);
+					assertEquals(i < 75, s.isEvaluated());
+					if(s.isEvaluated())
+					{
+						assertEquals(p.getName(), p.directFunctionEvaluation(s.getCoordinate()), s.getScore(), 0.0);
+					}
+				}
+				sc.cleanupAfterRun(p, null);
+			}
+			catch(Exception e)
+			{
+				e.printStackTrace();
+				fail("Unexpected error: " + p.getName() + ": " + e.getMessage());
+			}
+			finally
+			{
+				p.clearStopConditions();
+			}
+		}
+	}
+
+	protected LinkedList<CFOProblem> loadProblems()
+	{
+		LinkedList<CFOProblem> list = new LinkedList<CFOProblem>();
+		try
+		{
+			Problem [] problems = new CFODomain().loadProblemList();
+			for (int i = 0; i < problems.length; i++)
+			{
+				list.add((CFOProblem) problems[i]);
+			}
+		}
+		catch (Exception e)
+		{
+			e.printStackTrace();
+			fail("Failed to load problems: " + e.getMessage());
+		}
+		return list;
+	}
+}
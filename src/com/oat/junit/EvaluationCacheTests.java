@@ -0,0 +1,306 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.Algorithm;
+import com.oat.AlgorithmExecutor;
+import com.oat.EvaluationCache;
+import com.oat.EvaluationPool;
+import com.oat.Problem;
+import com.oat.Solution;
+import com.oat.domains.bfo.BFODomain;
+import com.oat.domains.bfo.BFOSolution;
+import com.oat.domains.bfo.problems.OneMax;
+import com.oat.domains.cfo.CFOSolution;
+import com.oat.domains.cfo.problems.geatbx.RastriginFunction;
+import com.oat.probes.BestSolutionProbe;
+import com.oat.probes.TotalEvaluationsProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+import com.oat.utils.ArrayKey;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Test the evaluation cache and its effect on algorithm runs
+ *
+ * Date: 02/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class EvaluationCacheTests
+{
+    /**
+     * Ensure the least recently used genotype is evicted and the statistics are recorded
+     */
+    @Test
+    public void testLeastRecentlyUsedEviction()
+    {
+        EvaluationCache cache = new EvaluationCache(3, EvaluationCache.HitPolicy.Counted);
+        assertTrue(Double.isNaN(cache.getHitRatio()));
+        cache.put(ArrayKey.of(new int[]{1}), 1.0);
+        cache.put(ArrayKey.of(new int[]{2}), 2.0);
+        cache.put(ArrayKey.of(new int[]{3}), 3.0);
+        // access makes 1 the most recently used
+        assertEquals(1.0, cache.get(ArrayKey.of(new int[]{1})).doubleValue(), 0.0);
+        cache.put(ArrayKey.of(new int[]{4}), 4.0);
+
+        assertEquals(3, cache.size());
+        assertEquals(1L, cache.getEvictions());
+        assertNull(cache.get(ArrayKey.of(new int[]{2})));
+        assertEquals(3.0, cache.get(ArrayKey.of(new int[]{3})).doubleValue(), 0.0);
+        assertEquals(2L, cache.getHits());
+        assertEquals(1L, cache.getMisses());
+        assertEquals(2.0 / 3.0, cache.getHitRatio(), 1e-12);
+        // keys of different array types never match
+        assertNull(cache.get(ArrayKey.of(new double[]{1})));
+    }
+
+    /**
+     * Ensure all algorithms produce the same results with a counted cache as without
+     */
+    @Test
+    public void testCountedCacheConsistency()
+    {
+        Problem problem = new OneMax();
+        EvaluationCache cache = new EvaluationCache(EvaluationCache.DEFAULT_CAPACITY, EvaluationCache.HitPolicy.Counted);
+
+        AlgorithmExecutor executor = new AlgorithmExecutor();
+        BestSolutionProbe solutionProbe = new BestSolutionProbe();
+        TotalEvaluationsProbe evalsProbe = new TotalEvaluationsProbe();
+        EvaluationsStopCondition sc = new EvaluationsStopCondition(1000);
+        executor.setProblem(problem);
+        executor.addRunProbe(solutionProbe);
+        executor.addRunProbe(evalsProbe);
+        executor.addStopCondition(sc);
+
+        try
+        {
+            Algorithm [] algorithms = new BFODomain().loadAlgorithmList();
+            long totalHits = 0;
+            for (int i = 0; i < algorithms.length; i++)
+            {
+                executor.setAlgorithm(algorithms[i]);
+                // without
+                problem.disableEvaluationCache();
+                executor.executeAndWait();
+                Solution s1 = solutionProbe.getBestSolution();
+                long e1 = evalsProbe.getCompletedEvaluations();
+                // with
+                cache.clear();
+                problem.enableEvaluationCache(cache);
+                executor.executeAndWait();
+                Solution s2 = solutionProbe.getBestSolution();
+                long e2 = evalsProbe.getCompletedEvaluations();
+
+                assertEquals(algorithms[i].getName(), e1, e2);
+                assertEquals(algorithms[i].getName(), s1.getScore(), s2.getScore(), 0.0);
+                assertEquals(0L, cache.getFreeHits());
+                totalHits += cache.getHits();
+            }
+            // revisited genotypes were scored from the cache
+            assertTrue(totalHits > 0);
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            problem.disableEvaluationCache();
+        }
+    }
+
+    /**
+     * Ensure free hits are bounded so that re-evaluating the same genotype still terminates
+     */
+    @Test
+    public void testFreeHitProgressGuard()
+    {
+        OneMax problem = new OneMax();
+        EvaluationCache cache = new EvaluationCache(10, EvaluationCache.HitPolicy.Free, 5);
+        EvaluationsStopCondition sc = new EvaluationsStopCondition(20);
+        problem.addStopCondition(sc);
+        problem.enableEvaluationCache(cache);
+        try
+        {
+            sc.initialiseBeforeRun(problem, null);
+            boolean [] b = RandomUtils.randomBitString(new Random(1), problem.getBinaryStringLength());
+            int attempts = 0;
+            while(problem.canEvaluate() && attempts < 1000)
+            {
+                BFOSolution s = new BFOSolution(b);
+                problem.cost(s);
+                assertTrue(s.isEvaluated());
+                attempts++;
+            }
+            assertEquals(20L, sc.getEvaluationsCount());
+            // one miss, then every sixth hit is counted
+            assertEquals(1L, cache.getMisses());
+            assertEquals(1 + 19 * 6, attempts);
+            assertEquals(19L * 5L, cache.getFreeHits());
+            sc.cleanupAfterRun(problem, null);
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ensure cached batches evaluated in parallel commit the same as sequential evaluation
+     */
+    @Test
+    public void testParallelBatchWithCache()
+    {
+        EvaluationPool pool = new EvaluationPool(4);
+        try
+        {
+            RastriginFunction problem = new RastriginFunction();
+            EvaluationsStopCondition sc = new EvaluationsStopCondition(150);
+            problem.addStopCondition(sc);
+            EvaluationCache cache = new EvaluationCache(EvaluationCache.DEFAULT_CAPACITY, EvaluationCache.HitPolicy.Counted);
+            problem.enableEvaluationCache(cache);
+            problem.enableParallelEvaluation(pool);
+            sc.initialiseBeforeRun(problem, null);
+
+            Random r = new Random(1);
+            LinkedList<CFOSolution> pop = new LinkedList<CFOSolution>();
+            for (int i = 0; i < 100; i++)
+            {
+                pop.add(new CFOSolution(RandomUtils.randomPointInRange(r, problem.getMinmax())));
+            }
+            problem.cost(pop);
+            // the same genotypes again, scored from the cache
+            LinkedList<CFOSolution> copies = new LinkedList<CFOSolution>();
+            for (CFOSolution s : pop)
+            {
+                copies.add(new CFOSolution(s.getCoordinate().clone()));
+            }
+            problem.cost(copies);
+
+            assertEquals(150L, sc.getEvaluationsCount());
+            assertEquals(100L, cache.getMisses());
+            assertTrue(cache.getHits() >= 50L);
+            for (int i = 0; i < copies.size(); i++)
+            {
+                assertEquals(i < 50, copies.get(i).isEvaluated());
+                if(i < 50)
+                {
+                    assertEquals(pop.get(i).getScore(), copies.get(i).getScore(), 0.0);
+                }
+            }
+            sc.cleanupAfterRun(problem, null);
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Ensure duplicate genotypes within one batch are evaluated once, the rest committed as 
+     * cache hits exactly as sequential evaluation would
+     */
+    @Test
+    public void testDuplicatesWithinBatch()
+    {
+        for(EvaluationCache.HitPolicy policy : EvaluationCache.HitPolicy.values())
+        {
+            EvaluationCache sequential = new EvaluationCache(EvaluationCache.DEFAULT_CAPACITY, policy);
+            LinkedList<CFOSolution> expected = evaluateDuplicates(sequential, null);
+            EvaluationPool pool = new EvaluationPool(4);
+            EvaluationCache batch = new EvaluationCache(EvaluationCache.DEFAULT_CAPACITY, policy);
+            LinkedList<CFOSolution> actual;
+            try
+            {
+                actual = evaluateDuplicates(batch, pool);
+            }
+            finally
+            {
+                pool.shutdown();
+            }
+            
+            assertEquals(policy.name(), 2L, batch.getMisses());
+            assertEquals(policy.name(), sequential.getMisses(), batch.getMisses());
+            assertEquals(policy.name(), sequential.getHits(), batch.getHits());
+            assertEquals(policy.name(), sequential.getFreeHits(), batch.getFreeHits());
+            for (int i = 0; i < expected.size(); i++)
+            {
+                assertEquals(expected.get(i).isEvaluated(), actual.get(i).isEvaluated());
+                assertEquals(expected.get(i).getScore(), actual.get(i).getScore(), 0.0);
+            }
+        }
+    }
+    
+    protected LinkedList<CFOSolution> evaluateDuplicates(EvaluationCache cache, EvaluationPool pool)
+    {
+        RastriginFunction problem = new RastriginFunction();
+        EvaluationsStopCondition sc = new EvaluationsStopCondition(1000);
+        problem.addStopCondition(sc);
+        problem.enableEvaluationCache(cache);
+        if(pool != null)
+        {
+            problem.enableParallelEvaluation(pool);
+        }
+        Random r = new Random(1);
+        double [] a = RandomUtils.randomPointInRange(r, problem.getMinmax());
+        double [] b = RandomUtils.randomPointInRange(r, problem.getMinmax());
+        LinkedList<CFOSolution> pop = new LinkedList<CFOSolution>();
+        for (int i = 0; i < 10; i++)
+        {
+            pop.add(new CFOSolution(((i % 3 == 0) ? b : a).clone()));
+        }
+        try
+        {
+            sc.initialiseBeforeRun(problem, null);
+            problem.cost(pop);
+            assertEquals((cache.getPolicy() == EvaluationCache.HitPolicy.Free) ? 2L : 10L, sc.getEvaluationsCount());
+            sc.cleanupAfterRun(problem, null);
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        return pop;
+    }
+}
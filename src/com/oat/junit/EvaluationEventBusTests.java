@@ -0,0 +1,174 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.EvaluationPool;
+import com.oat.Solution;
+import com.oat.SolutionBatchEvaluationListener;
+import com.oat.SolutionEvaluationListener;
+import com.oat.domains.cfo.CFOSolution;
+import com.oat.domains.cfo.problems.geatbx.RastriginFunction;
+import com.oat.probes.BestScoreProbe;
+import com.oat.probes.TotalEvaluationsProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Test the evaluation counts, best score and batch events raised by the evaluation event bus
+ *
+ * Date: 17/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class EvaluationEventBusTests
+{
+    @Test
+    public void testSequentialEvents()
+    {
+    	testEvents(null);
+    }
+
+    @Test
+    public void testParallelEvents()
+    {
+    	EvaluationPool pool = new EvaluationPool(4);
+    	try
+    	{
+    		testEvents(pool);
+    	}
+    	finally
+    	{
+    		pool.shutdown();
+    	}
+    }
+
+    protected void testEvents(EvaluationPool pool)
+    {
+    	RastriginFunction problem = new RastriginFunction();
+    	if(pool != null)
+    	{
+    		problem.enableParallelEvaluation(pool);
+    	}
+    	EvaluationsStopCondition sc = new EvaluationsStopCondition(100);
+    	BestScoreProbe bestProbe = new BestScoreProbe();
+    	TotalEvaluationsProbe evalsProbe = new TotalEvaluationsProbe();
+    	final LinkedList<Solution> single = new LinkedList<Solution>();
+    	final LinkedList<Integer> batches = new LinkedList<Integer>();
+    	SolutionEvaluationListener listener = new SolutionEvaluationListener()
+    	{
+			public void solutionEvaluatedEvent(Solution evaluatedSolution)
+			{
+				single.add(evaluatedSolution);
+			}
+    	};
+    	SolutionBatchEvaluationListener batchListener = new SolutionBatchEvaluationListener()
+    	{
+			public void solutionBatchEvaluatedEvent(Solution[] evaluatedSolutions, int total)
+			{
+				batches.add(new Integer(total));
+			}
+    	};
+
+    	try
+    	{
+	    	problem.addStopCondition(sc);
+	    	problem.addListener(listener);
+	    	problem.addBatchListener(batchListener);
+	    	sc.initialiseBeforeRun(problem, null);
+	    	bestProbe.initialiseBeforeRun(problem, null);
+	    	evalsProbe.initialiseBeforeRun(problem, null);
+
+	    	Random r = new Random(1);
+	    	LinkedList<CFOSolution> pop = new LinkedList<CFOSolution>();
+	    	for (int i = 0; i < 60; i++)
+			{
+	    		pop.add(new CFOSolution(RandomUtils.randomPointInRange(r, problem.getMinmax())));
+			}
+	    	// one batch of 60
+	    	problem.cost(pop);
+	    	// already evaluated, no batch event
+	    	problem.cost(pop);
+	    	// single evaluation is a batch of one
+	    	problem.cost(new CFOSolution(RandomUtils.randomPointInRange(r, problem.getMinmax())));
+	    	// only 39 evaluations remaining
+	    	pop.clear();
+	    	for (int i = 0; i < 60; i++)
+			{
+	    		pop.add(new CFOSolution(RandomUtils.randomPointInRange(r, problem.getMinmax())));
+			}
+	    	problem.cost(pop);
+
+	    	// counts
+	    	assertEquals(100L, sc.getEvaluationsCount());
+	    	assertEquals(100L, evalsProbe.getCompletedEvaluations());
+	    	assertEquals(100, single.size());
+	    	assertEquals(3, batches.size());
+	    	assertEquals(60, batches.get(0).intValue());
+	    	assertEquals(1, batches.get(1).intValue());
+	    	assertEquals(39, batches.get(2).intValue());
+	    	assertTrue(sc.isTriggered());
+
+	    	// best score
+	    	double best = single.getFirst().getScore();
+	    	for(Solution s : single)
+	    	{
+	    		if(problem.isBetter(s.getScore(), best))
+	    		{
+	    			best = s.getScore();
+	    		}
+	    	}
+	    	assertEquals(best, bestProbe.getBestScore(), 0.0);
+
+	    	// values are kept after the run
+	    	sc.cleanupAfterRun(problem, null);
+	    	bestProbe.cleanupAfterRun(problem, null);
+	    	evalsProbe.cleanupAfterRun(problem, null);
+	    	assertTrue(problem.removeListener(listener));
+	    	assertTrue(problem.removeBatchListener(batchListener));
+	    	problem.clearStopConditions();
+	    	problem.cost(new CFOSolution(RandomUtils.randomPointInRange(r, problem.getMinmax())));
+	    	assertEquals(100L, sc.getEvaluationsCount());
+	    	assertEquals(100L, evalsProbe.getCompletedEvaluations());
+	    	assertEquals(best, bestProbe.getBestScore(), 0.0);
+	    	assertEquals(100, single.size());
+	    	assertEquals(3, batches.size());
+    	}
+    	catch(Exception e)
+    	{
+    		e.printStackTrace();
+    		fail("Unexpected error: " + e.getMessage());
+    	}
+    }
+}
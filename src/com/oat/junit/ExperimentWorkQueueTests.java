@@ -0,0 +1,293 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.LinkedList;
+
+import org.junit.Test;
+
+import com.oat.RunProbe;
+import com.oat.domains.cfo.CFODomain;
+import com.oat.domains.cfo.algorithms.evolution.DifferentialEvolution;
+import com.oat.domains.cfo.problems.dejong.TestFunctionF1;
+import com.oat.domains.cfo.problems.dejong.TestFunctionF2;
+import com.oat.experimenter.Experiment;
+import com.oat.experimenter.ExperimentRunner;
+import com.oat.experimenter.ExperimentWorkQueue;
+import com.oat.experimenter.ExperimentalRun;
+import com.oat.experimenter.ExperimentalRunUtils;
+import com.oat.experimenter.RunResult;
+import com.oat.probes.BestScoreProbe;
+import com.oat.probes.TotalEvaluationsProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+
+/**
+ * Description: Test that several runners drain an experiment without duplicating work, 
+ * and produce the same results as executing each run in turn 
+ *
+ * Date: 27/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class ExperimentWorkQueueTests
+{
+    protected final static int TOTAL_REPEATS = 12;
+    protected final static String NAME = "Queue";
+    
+    protected File createHomeDir()
+        throws Exception
+    {
+        File home = File.createTempFile("ExperimentWorkQueueTests", "");
+        home.delete();
+        home.mkdir();
+        return home;
+    }
+    
+    protected void deleteHomeDir(File home)
+    {
+        File [] dirs = home.listFiles();
+        for (int i = 0; dirs != null && i < dirs.length; i++)
+        {
+            File [] files = dirs[i].listFiles();
+            for (int j = 0; files != null && j < files.length; j++)
+            {
+                files[j].delete();
+            }
+            dirs[i].delete();
+        }
+        home.delete();
+    }
+    
+    /**
+     * Create and save an experiment with two runs
+     */
+    protected Experiment createExperiment(File home)
+        throws Exception
+    {
+        Experiment exp = new Experiment();
+        exp.setName(NAME);
+        exp.setDescription("Work queue test");
+        exp.setDomain(new CFODomain());
+        exp.setStopCondition(new EvaluationsStopCondition(200));
+        exp.setRunStatistics(new RunProbe[]{new BestScoreProbe(), new TotalEvaluationsProbe()});
+        exp.save(home);
+        
+        ExperimentalRun run = new ExperimentalRun();
+        run.setAlgorithm(new DifferentialEvolution());
+        run.setProblem(new TestFunctionF1());
+        run.setRepeats(TOTAL_REPEATS);
+        run.setId(ExperimentalRunUtils.getNextValidRunId(exp));
+        exp.addRun(run);
+        run = new ExperimentalRun();
+        run.setAlgorithm(new DifferentialEvolution());
+        run.setProblem(new TestFunctionF2());
+        run.setRepeats(TOTAL_REPEATS);
+        run.setId(ExperimentalRunUtils.getNextValidRunId(exp));
+        exp.addRun(run);
+        ExperimentalRunUtils.externaliseEntireRunSchedule(exp);
+        return exp;
+    }
+    
+    protected Experiment loadExperiment(File home)
+        throws Exception
+    {
+        Experiment exp = new Experiment();
+        exp.load(home, NAME);
+        return exp;
+    }
+    
+    /**
+     * Compare the stored results to those of executing each run in turn 
+     */
+    protected void testResults(Experiment exp)
+        throws Exception
+    {
+        for(ExperimentalRun run : exp.getRuns())
+        {
+            assertTrue(ExperimentalRunUtils.getRunCompletionDate(exp, run) != null);
+            LinkedList<RunResult> expected = ExperimentalRunUtils.executeAllRepeats(run, exp);
+            RunResult [] got = ExperimentalRunUtils.loadRunResult(exp, run);
+            // each repeat stored once
+            assertEquals(expected.size(), got.length);
+            for (int i = 0; i < got.length; i++)
+            {
+                assertEquals(i+1, got[i].getRepeatNumber());
+                assertEquals(expected.get(i).toResultString(), got[i].toResultString());
+            }
+        }
+    }
+    
+    @Test
+    public void testClaim()
+    {
+        File home = null;
+        try
+        {
+            home = createHomeDir();
+            createExperiment(home);
+            Experiment exp1 = loadExperiment(home);
+            Experiment exp2 = loadExperiment(home);
+            ExperimentWorkQueue q1 = new ExperimentWorkQueue(exp1);
+            ExperimentWorkQueue q2 = new ExperimentWorkQueue(exp2);
+            
+            ExperimentWorkQueue.WorkItem a = q1.claim();
+            ExperimentWorkQueue.WorkItem b = q2.claim();
+            assertEquals(1, a.getRepeat());
+            assertEquals(2, b.getRepeat());
+            // released without a result, available again
+            q1.release(a);
+            ExperimentWorkQueue.WorkItem c = q2.claim();
+            assertEquals(1, c.getRepeat());
+            q2.complete(c, ExperimentalRunUtils.executeSingleRepeat(exp2, c.getRun(), c.getRepeat()));
+            // stored, not available again
+            ExperimentWorkQueue.WorkItem d = q1.claim();
+            assertEquals(3, d.getRepeat());
+            q1.close();
+            q2.close();
+            
+            // claims of a closed queue are available again
+            q1 = new ExperimentWorkQueue(exp1);
+            assertEquals(2, q1.claim().getRepeat());
+            q1.close();
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            if(home != null)
+            {
+                deleteHomeDir(home);
+            }
+        }
+    }
+    
+    @Test
+    public void testConcurrentRunners()
+    {
+        File home = null;
+        try
+        {
+            home = createHomeDir();
+            createExperiment(home);
+            final Experiment [] exps = {loadExperiment(home), loadExperiment(home)};
+            final int [] executed = new int[exps.length];
+            final Exception [] failures = new Exception[exps.length];
+            Thread [] threads = new Thread[exps.length];
+            for (int i = 0; i < threads.length; i++)
+            {
+                final int index = i;
+                threads[i] = new Thread(new Runnable()
+                {
+                    public void run()
+                    {
+                        try
+                        {
+                            executed[index] = new ExperimentRunner(exps[index], 2).execute();
+                        }
+                        catch(Exception e)
+                        {
+                            failures[index] = e;
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+            for (int i = 0; i < threads.length; i++)
+            {
+                threads[i].join();
+                if(failures[i] != null)
+                {
+                    failures[i].printStackTrace();
+                    fail("Unexpected error: " + failures[i].getMessage());
+                }
+            }
+            
+            assertEquals(2 * TOTAL_REPEATS, executed[0] + executed[1]);
+            testResults(loadExperiment(home));
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            if(home != null)
+            {
+                deleteHomeDir(home);
+            }
+        }
+    }
+    
+    @Test
+    public void testMultipleProcesses()
+    {
+        File home = null;
+        try
+        {
+            home = createHomeDir();
+            createExperiment(home);
+            String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+            Process [] processes = new Process[2];
+            for (int i = 0; i < processes.length; i++)
+            {
+                ProcessBuilder b = new ProcessBuilder(java, 
+                        "-cp", System.getProperty("java.class.path"),
+                        ExperimentRunner.class.getName(), NAME, "2", home.getPath());
+                b.redirectErrorStream(true);
+                processes[i] = b.start();
+            }
+            for (int i = 0; i < processes.length; i++)
+            {
+                // drain the output
+                while(processes[i].getInputStream().read() != -1);
+                assertEquals(0, processes[i].waitFor());
+            }
+            
+            testResults(loadExperiment(home));
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            if(home != null)
+            {
+                deleteHomeDir(home);
+            }
+        }
+    }
+}
@@ -0,0 +1,480 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.oat.Algorithm;
+import com.oat.AlgorithmExecutor;
+import com.oat.EvaluationCache;
+import com.oat.Solution;
+import com.oat.domains.cfo.CFOSolution;
+import com.oat.domains.cfo.algorithms.ParallelHillclimbingAlgorithm;
+import com.oat.domains.hbs.HBSDomain;
+import com.oat.domains.hbs.HuygensServer;
+import com.oat.domains.hbs.LocalHuygensProblem;
+import com.oat.domains.hbs.LocalHuygensServer;
+import com.oat.domains.hbs.PipelinedHuygensClient;
+import com.oat.probes.BestSolutionProbe;
+import com.oat.probes.TotalEvaluationsProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+
+/**
+ * Description: Test the pipelined client of the Huygens server against the local stand-in
+ *
+ * Date: 03/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class HBSPipelineTests
+{
+    protected static double [][] randomPoints(int total, long seed)
+    {
+        Random r = new Random(seed);
+        double [][] p = new double[total][];
+        for (int i = 0; i < p.length; i++)
+        {
+            p[i] = new double[]{r.nextDouble(), r.nextDouble()};
+        }
+        return p;
+    }
+    
+    /**
+     * Ensure the stand-in implements the session rules of the protocol
+     */
+    @Test
+    public void testLocalServerProtocol()
+    {
+        try
+        {
+            LocalHuygensServer server = new LocalHuygensServer();
+            double [][] probes = randomPoints(10, 1);
+            // must login and start first
+            assertFalse(((Boolean)server.startTraining(20, 1)[0]).booleanValue());
+            assertTrue(((Boolean)server.login("someone@somewhere.com")[0]).booleanValue());
+            assertFalse(((Boolean)server.train(probes)[0]).booleanValue());
+            assertTrue(((Boolean)server.startTraining(20, 1)[0]).booleanValue());
+            // out of bounds
+            assertFalse(((Boolean)server.train(new double[][]{{0.5, 1.5}})[0]).booleanValue());
+            // evaluate
+            Object [] r = server.train(probes);
+            assertTrue(((Boolean)r[0]).booleanValue());
+            assertEquals(10, ((Integer)r[3]).intValue());
+            double [] scores = (double[]) r[2];
+            double [][] wells = LocalHuygensServer.generateLandscape(20, 1);
+            for (int i = 0; i < scores.length; i++)
+            {
+                assertEquals(LocalHuygensServer.evaluate(wells, probes[i][0], probes[i][1]), scores[i], 0.0);
+                assertTrue(scores[i] >= 0 && scores[i] <= 1);
+            }
+            
+            // benchmark of 10 landscapes with 5 probes each
+            assertTrue(((Boolean)server.startBenchmark("21-5", "test", "none")[0]).booleanValue());
+            for (int i = 1; i <= LocalHuygensServer.BENCHMARK_LANDSCAPES; i++)
+            {
+                assertFalse(((Boolean)server.benchmark(randomPoints(6, i))[0]).booleanValue());
+                r = server.benchmark(randomPoints(5, i));
+                assertTrue(((Boolean)r[0]).booleanValue());
+                assertEquals(i, ((Integer)r[3]).intValue());
+                assertEquals(5, ((Integer)r[4]).intValue());
+                assertTrue(((Boolean)r[6]).booleanValue());
+                assertEquals(i == LocalHuygensServer.BENCHMARK_LANDSCAPES, ((Boolean)r[7]).booleanValue());
+            }
+            assertFalse(((Boolean)server.benchmark(randomPoints(1, 1))[0]).booleanValue());
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Ensure transport failures are retried when enabled and raised once the retries are exhausted
+     */
+    @Test
+    public void testRetries()
+    {
+        HuygensServer [] connections = new HuygensServer[3];
+        for (int i = 0; i < connections.length; i++)
+        {
+            connections[i] = new LocalHuygensServer(0, 0.3, i);
+        }
+        PipelinedHuygensClient client = new PipelinedHuygensClient(connections, 50, 0, true);
+        try
+        {
+            assertTrue(((Boolean)client.login("someone@somewhere.com")[0]).booleanValue());
+            assertTrue(((Boolean)client.startTraining(20, 1)[0]).booleanValue());
+            double [][] wells = LocalHuygensServer.generateLandscape(20, 1);
+            for (int i = 0; i < 20; i++)
+            {
+                double [][] probes = randomPoints(50, i);
+                double [] scores = (double[]) client.trainAsync(probes).get()[2];
+                for (int j = 0; j < scores.length; j++)
+                {
+                    assertEquals(LocalHuygensServer.evaluate(wells, probes[j][0], probes[j][1]), scores[j], 0.0);
+                }
+            }
+            assertTrue(client.getTotalRetries() > 0);
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            client.shutdown();
+        }
+        
+        // always fails
+        client = new PipelinedHuygensClient(new HuygensServer[]{new LocalHuygensServer(0, 1.0, 1)}, 2, 1);
+        try
+        {
+            client.login("someone@somewhere.com");
+            fail("Expected a transport failure");
+        }
+        catch(IOException e)
+        {
+            assertEquals(1L, client.getTotalRequests());
+            assertEquals(2L, client.getTotalRetries());
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            client.shutdown();
+        }
+    }
+    
+    /**
+     * Ensure training calls are not retried by default, a failed call may have been counted
+     */
+    @Test
+    public void testTrainingNotRetriedByDefault()
+    {
+        final AtomicLong calls = new AtomicLong();
+        HuygensServer server = new LocalHuygensServer()
+        {
+            @Override
+            public Object[] train(double[][] probes)
+                throws Exception
+            {
+                calls.incrementAndGet();
+                throw new IOException("Simulated transport failure");
+            }
+        };
+        PipelinedHuygensClient client = new PipelinedHuygensClient(new HuygensServer[]{server}, 3, 0);
+        try
+        {
+            assertFalse(client.isRetryTraining());
+            assertTrue(((Boolean)client.login("someone@somewhere.com")[0]).booleanValue());
+            assertTrue(((Boolean)client.startTraining(20, 1)[0]).booleanValue());
+            client.train(randomPoints(5, 1));
+            fail("Expected a transport failure");
+        }
+        catch(IOException e)
+        {
+            assertEquals(1L, calls.get());
+            assertEquals(0L, client.getTotalRetries());
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            client.shutdown();
+        }
+    }
+    
+    /**
+     * Ensure a pipelined batch larger than a request commits the same as a single connection, 
+     * in order and within the evaluation budget
+     */
+    @Test
+    public void testPipelinedBatch()
+    {
+        double [][] points = randomPoints(2500, 1);
+        LinkedList<LinkedList<CFOSolution>> pops = new LinkedList<LinkedList<CFOSolution>>();
+        int [] depths = {1, 4};
+        try
+        {
+            for (int d = 0; d < depths.length; d++)
+            {
+                LocalHuygensProblem problem = new LocalHuygensProblem();
+                problem.setPipelineDepth(depths[d]);
+                EvaluationsStopCondition sc = new EvaluationsStopCondition(2200);
+                problem.addStopCondition(sc);
+                problem.validateConfiguration();
+                problem.initialiseBeforeRun();
+                sc.initialiseBeforeRun(problem, null);
+                
+                LinkedList<CFOSolution> pop = new LinkedList<CFOSolution>();
+                pops.add(pop);
+                for (int i = 0; i < points.length; i++)
+                {
+                    pop.add(new CFOSolution(points[i]));
+                }
+                problem.cost(pop);
+                
+                assertEquals(2200L, sc.getEvaluationsCount());
+                for (int i = 0; i < points.length; i++)
+                {
+                    assertEquals(i < 2200, pop.get(i).isEvaluated());
+                }
+                sc.cleanupAfterRun(problem, null);
+                problem.cleanupAfterRun();
+            }
+            for (int i = 0; i < 2200; i++)
+            {
+                assertEquals(pops.get(0).get(i).getScore(), pops.get(1).get(i).getScore(), 0.0);
+            }
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Local problem that counts the points and requests sent to the server
+     */
+    protected static class CountingHuygensProblem extends LocalHuygensProblem
+    {
+        protected final AtomicLong pointsSent = new AtomicLong();
+        protected final AtomicLong requestsSent = new AtomicLong();
+        
+        @Override
+        protected HuygensServer createConnection()
+            throws Exception
+        {
+            return new LocalHuygensServer(latency, failureRate, ++totalConnections)
+            {
+                @Override
+                public Object[] train(double[][] probes)
+                    throws Exception
+                {
+                    pointsSent.addAndGet(probes.length);
+                    requestsSent.incrementAndGet();
+                    return super.train(probes);
+                }
+            };
+        }
+    }
+    
+    /**
+     * Ensure an array of solutions is sent in pipelined requests like a collection
+     */
+    @Test
+    public void testArrayBatch()
+    {
+        double [][] points = randomPoints(2500, 1);
+        CountingHuygensProblem problem = new CountingHuygensProblem();
+        problem.setPipelineDepth(4);
+        EvaluationsStopCondition sc = new EvaluationsStopCondition(2200);
+        problem.addStopCondition(sc);
+        try
+        {
+            problem.validateConfiguration();
+            problem.initialiseBeforeRun();
+            sc.initialiseBeforeRun(problem, null);
+            
+            CFOSolution [] pop = new CFOSolution[points.length];
+            for (int i = 0; i < pop.length; i++)
+            {
+                pop[i] = new CFOSolution(points[i]);
+            }
+            problem.cost(pop);
+            
+            assertEquals(2200L, sc.getEvaluationsCount());
+            assertEquals(2200L, problem.pointsSent.get());
+            assertEquals(3L, problem.requestsSent.get());
+            for (int i = 0; i < pop.length; i++)
+            {
+                assertEquals(i < 2200, pop[i].isEvaluated());
+            }
+            sc.cleanupAfterRun(problem, null);
+            problem.cleanupAfterRun();
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Ensure duplicate coordinates in one collection are sent to the server once when caching
+     */
+    @Test
+    public void testDuplicatesSentOnce()
+    {
+        double [][] points = randomPoints(30, 1);
+        for(EvaluationCache.HitPolicy policy : EvaluationCache.HitPolicy.values())
+        {
+            CountingHuygensProblem problem = new CountingHuygensProblem();
+            problem.setPipelineDepth(4);
+            EvaluationCache cache = new EvaluationCache(EvaluationCache.DEFAULT_CAPACITY, policy);
+            problem.enableEvaluationCache(cache);
+            EvaluationsStopCondition sc = new EvaluationsStopCondition(1000);
+            problem.addStopCondition(sc);
+            try
+            {
+                problem.validateConfiguration();
+                problem.initialiseBeforeRun();
+                sc.initialiseBeforeRun(problem, null);
+                
+                // each point three times
+                LinkedList<CFOSolution> pop = new LinkedList<CFOSolution>();
+                for (int i = 0; i < 3 * points.length; i++)
+                {
+                    pop.add(new CFOSolution(points[i % points.length].clone()));
+                }
+                problem.cost(pop);
+                
+                assertEquals(policy.name(), 30L, problem.pointsSent.get());
+                assertEquals(policy.name(), 30L, cache.getMisses());
+                assertEquals(policy.name(), 60L, cache.getHits());
+                long expected = (policy == EvaluationCache.HitPolicy.Free) ? 30L : 90L;
+                assertEquals(policy.name(), expected, sc.getEvaluationsCount());
+                for (int i = 0; i < pop.size(); i++)
+                {
+                    assertTrue(pop.get(i).isEvaluated());
+                    assertEquals(pop.get(i % points.length).getScore(), pop.get(i).getScore(), 0.0);
+                }
+                sc.cleanupAfterRun(problem, null);
+                problem.cleanupAfterRun();
+            }
+            catch(Exception e)
+            {
+                e.printStackTrace();
+                fail("Unexpected error: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Ensure a population evaluated as a whole is sent in one request per generation
+     */
+    @Test
+    public void testPopulationRequests()
+    {
+        ParallelHillclimbingAlgorithm algorithm = new ParallelHillclimbingAlgorithm();
+        algorithm.setSeed(1);
+        algorithm.setPopsize(50);
+        CountingHuygensProblem problem = new CountingHuygensProblem();
+        AlgorithmExecutor executor = new AlgorithmExecutor(problem, algorithm, new EvaluationsStopCondition(2000));
+        executor.addRunProbe(new BestSolutionProbe());
+        try
+        {
+            executor.executeAndWait();
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        // the initial population and 39 generations
+        assertEquals(2000L, problem.pointsSent.get());
+        assertEquals(40L, problem.requestsSent.get());
+    }
+    
+    protected static boolean isBinaryAlgorithm(Algorithm a)
+    {
+        for(Class<?> c = a.getClass(); c != null; c = c.getSuperclass())
+        {
+            if(c.getName().startsWith("com.oat.domains.bfo"))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Ensure all algorithms of the domain produce the same results regardless of the pipeline depth
+     */
+    @Test
+    public void testAllAlgorithmsForConsistency()
+    {
+        LocalHuygensProblem problem = new LocalHuygensProblem();
+        AlgorithmExecutor executor = new AlgorithmExecutor();
+        BestSolutionProbe solutionProbe = new BestSolutionProbe();
+        TotalEvaluationsProbe evalsProbe = new TotalEvaluationsProbe();
+        EvaluationsStopCondition sc = new EvaluationsStopCondition(1000);
+        executor.setProblem(problem);
+        executor.addRunProbe(solutionProbe);
+        executor.addRunProbe(evalsProbe);
+        executor.addStopCondition(sc);
+        
+        try
+        {
+            Algorithm [] algorithms = new HBSDomain().loadAlgorithmList();
+            for (int i = 0; i < algorithms.length; i++)
+            {
+                // binary algorithms require a problem that decodes bit strings
+                if(isBinaryAlgorithm(algorithms[i]))
+                {
+                    continue;
+                }
+                executor.setAlgorithm(algorithms[i]);
+                problem.setPipelineDepth(1);
+                executor.executeAndWait();
+                Solution s1 = solutionProbe.getBestSolution();
+                long e1 = evalsProbe.getCompletedEvaluations();
+                problem.setPipelineDepth(4);
+                executor.executeAndWait();
+                Solution s2 = solutionProbe.getBestSolution();
+                long e2 = evalsProbe.getCompletedEvaluations();
+                
+                assertTrue(e1 <= sc.getMaxEvaluations());
+                assertEquals(algorithms[i].getName(), e1, e2);
+                assertEquals(algorithms[i].getName(), s1.getScore(), s2.getScore(), 0.0);
+            }
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+    }
+}
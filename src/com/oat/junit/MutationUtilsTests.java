@@ -0,0 +1,194 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.utils.MutationUtils;
+import com.oat.utils.PackedBitString;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Test the sparse mutation kernels
+ *
+ * Date: 05/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class MutationUtilsTests
+{
+    public final static int LENGTH = 1000;
+    public final static int REPEATS = 2000;
+    
+    /**
+     * Each position should be flipped independently with the mutation probability,
+     * on both the sparse and dense paths
+     */
+    @Test
+    public void testMutationRate()
+    {
+        double [] rates = {0.001, 0.01, 0.1, 0.5};
+        for (int k = 0; k < rates.length; k++)
+        {
+            Random r = new Random(k);
+            int [] counts = new int[LENGTH];
+            long total = 0;
+            for (int n = 0; n < REPEATS; n++)
+            {
+                boolean [] b = new boolean[LENGTH];
+                MutationUtils.binaryMutate(b, r, rates[k]);
+                for (int i = 0; i < b.length; i++)
+                {
+                    if(b[i])
+                    {
+                        counts[i]++;
+                        total++;
+                    }
+                }
+            }
+            double expected = rates[k] * LENGTH * REPEATS;
+            assertEquals("rate " + rates[k], expected, total, 5 * Math.sqrt(expected));
+            // the first and last tenth are mutated at the same rate
+            long head = 0, tail = 0;
+            for (int i = 0; i < LENGTH/10; i++)
+            {
+                head += counts[i];
+                tail += counts[LENGTH-1-i];
+            }
+            assertEquals("rate " + rates[k], head, tail, 5 * Math.sqrt(expected/10) * Math.sqrt(2));
+        }
+    }
+    
+    @Test
+    public void testEdgeProbabilities()
+    {
+        Random r = new Random(1);
+        boolean [] b = new boolean[LENGTH];
+        MutationUtils.binaryMutate(b, r, 0.0);
+        for (int i = 0; i < b.length; i++)
+        {
+            assertTrue(!b[i]);
+        }
+        MutationUtils.binaryMutate(b, r, 1.0);
+        for (int i = 0; i < b.length; i++)
+        {
+            assertTrue(b[i]);
+        }
+        int [] v = RandomUtils.generateRandomVector(LENGTH, r);
+        int [] copy = Arrays.copyOf(v, v.length);
+        MutationUtils.mutatePermutation(v, r, 0.0);
+        assertTrue(Arrays.equals(copy, v));
+        // zero length
+        MutationUtils.binaryMutate(new boolean[0], r, 0.01);
+        MutationUtils.mutatePermutation(new int[0], r, 0.01);
+    }
+    
+    /**
+     * Only positions in the range are mutated
+     */
+    @Test
+    public void testRange()
+    {
+        Random r = new Random(1);
+        for (int n = 0; n < REPEATS; n++)
+        {
+            int from = r.nextInt(LENGTH);
+            int to = from + r.nextInt(LENGTH - from + 1);
+            boolean [] b = new boolean[LENGTH];
+            PackedBitString p = new PackedBitString(LENGTH);
+            long seed = r.nextLong();
+            double prob = (n%2==0) ? 0.05 : 0.5;
+            MutationUtils.binaryMutate(b, new Random(seed), prob, from, to);
+            MutationUtils.binaryMutate(p, new Random(seed), prob, from, to);
+            for (int i = 0; i < LENGTH; i++)
+            {
+                assertEquals(b[i], p.get(i));
+                if(i < from || i >= to)
+                {
+                    assertTrue(!b[i]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * The packed kernel draws the same numbers as the boolean [] kernel
+     */
+    @Test
+    public void testPackedMatchesBoolean()
+    {
+        double [] rates = {0.001, 0.05, 0.3};
+        for (int k = 0; k < rates.length; k++)
+        {
+            for (long seed = 0; seed < 50; seed++)
+            {
+                boolean [] b = RandomUtils.randomBitString(new Random(seed), 333);
+                PackedBitString p = new PackedBitString(b);
+                MutationUtils.binaryMutate(b, new Random(seed), rates[k]);
+                MutationUtils.binaryMutate(p, new Random(seed), rates[k]);
+                for (int i = 0; i < b.length; i++)
+                {
+                    assertEquals(b[i], p.get(i));
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testPermutationValid()
+    {
+        Random r = new Random(1);
+        int [] v = RandomUtils.generateRandomVector(LENGTH, r);
+        byte [] w = new byte[100];
+        for (int i = 0; i < w.length; i++)
+        {
+            w[i] = (byte) i;
+        }
+        for (int n = 0; n < REPEATS; n++)
+        {
+            MutationUtils.mutatePermutation(v, r, (n%2==0) ? 0.01 : 0.5);
+            MutationUtils.mutatePermutation(w, r, (n%2==0) ? 0.01 : 0.5);
+        }
+        int [] sorted = Arrays.copyOf(v, v.length);
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++)
+        {
+            assertEquals(i, sorted[i]);
+        }
+        byte [] sortedBytes = Arrays.copyOf(w, w.length);
+        Arrays.sort(sortedBytes);
+        for (int i = 0; i < sortedBytes.length; i++)
+        {
+            assertEquals(i, (int) sortedBytes[i]);
+        }
+    }
+}
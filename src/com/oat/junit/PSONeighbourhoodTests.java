@@ -0,0 +1,244 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.AlgorithmExecutor;
+import com.oat.Problem;
+import com.oat.domains.cfo.CFOProblem;
+import com.oat.domains.cfo.algorithms.swarm.Neighbourhood;
+import com.oat.domains.cfo.algorithms.swarm.ParticleSwarmOptimization;
+import com.oat.domains.cfo.algorithms.swarm.SpatialNeighbourhood;
+import com.oat.domains.cfo.algorithms.swarm.StaticNeighbourhood;
+import com.oat.domains.cfo.problems.yao.GeneralizedRastriginsFunction;
+import com.oat.probes.BestSolutionProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+
+/**
+ * Description: Tests for the particle swarm neighbourhood topologies
+ *
+ * Date: 08/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 09/12/2007	JBrownlee	Requests sent to a Huygens server are counted
+ * </pre>
+ */
+public class PSONeighbourhoodTests
+{
+    /**
+     * The spatial index must locate the same neighbours as a brute force search
+     */
+    @Test
+    public void testSpatialNeighbourhood()
+    {
+        testSpatialNeighbourhood(2, 300, 10);
+        testSpatialNeighbourhood(10, 200, 7);
+        testSpatialNeighbourhood(3, 20, 19);
+    }
+    
+    protected void testSpatialNeighbourhood(int dimensions, int N, int k)
+    {
+        Random r = new Random(1);
+        double [][] minmax = new double[dimensions][];
+        for (int i = 0; i < minmax.length; i++)
+        {
+            minmax[i] = new double[]{-5, 5};
+        }
+        double [][] positions = new double[N][dimensions];
+        for (int i = 0; i < N; i++)
+        {
+            randomPosition(positions[i], r);
+        }
+        SpatialNeighbourhood n = new SpatialNeighbourhood(k, minmax);
+        n.initialise(positions);
+        assertEquals(k, n.getMaxNeighbours());
+        checkNearest(n, positions, k);
+        // move some particles, some out of bounds
+        for (int iteration = 0; iteration < 5; iteration++)
+        {
+            for (int i = 0; i < N; i+=2)
+            {
+                randomPosition(positions[i], r);
+                if(i % 10 == 0)
+                {
+                    positions[i][0] = 7.5;
+                }
+                n.move(i, positions[i]);
+            }
+            checkNearest(n, positions, k);
+        }
+    }
+    
+    protected void randomPosition(double [] position, Random r)
+    {
+        for (int j = 0; j < position.length; j++)
+        {
+            position[j] = -5 + r.nextDouble() * 10;
+        }
+    }
+    
+    protected void checkNearest(Neighbourhood n, double [][] positions, int k)
+    {
+        int [] out = new int[n.getMaxNeighbours()];
+        for (int i = 0; i < positions.length; i++)
+        {
+            assertEquals(k, n.getNeighbours(i, out));
+            double [] found = new double[k];
+            for (int j = 0; j < k; j++)
+            {
+                assertTrue(out[j] != i);
+                found[j] = distance(positions[i], positions[out[j]]);
+            }
+            double [] expected = new double[positions.length-1];
+            for (int j = 0, c = 0; j < positions.length; j++)
+            {
+                if(j != i)
+                {
+                    expected[c++] = distance(positions[i], positions[j]);
+                }
+            }
+            Arrays.sort(found);
+            Arrays.sort(expected);
+            for (int j = 0; j < k; j++)
+            {
+                assertEquals(expected[j], found[j], 0.0);
+            }
+        }
+    }
+    
+    protected double distance(double [] a, double [] b)
+    {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++)
+        {
+            sum += (a[i]-b[i]) * (a[i]-b[i]);
+        }
+        return sum;
+    }
+    
+    @Test
+    public void testStaticNeighbourhoods()
+    {
+        checkStatic(StaticNeighbourhood.ring(50, 4), 50, 4);
+        checkStatic(StaticNeighbourhood.ring(5, 4), 5, 4);
+        checkStatic(StaticNeighbourhood.vonNeumann(100), 100, 4);
+        checkStatic(StaticNeighbourhood.random(50, 10, new Random(1)), 50, 10);
+        
+        // ring neighbours are adjacent
+        int [] out = new int[2];
+        StaticNeighbourhood.ring(10, 2).getNeighbours(0, out);
+        Arrays.sort(out);
+        assertEquals(1, out[0]);
+        assertEquals(9, out[1]);
+    }
+    
+    protected void checkStatic(Neighbourhood n, int N, int k)
+    {
+        n.initialise(new double[N][1]);
+        int [] out = new int[n.getMaxNeighbours()];
+        for (int i = 0; i < N; i++)
+        {
+            int total = n.getNeighbours(i, out);
+            assertEquals(k, total);
+            boolean [] seen = new boolean[N];
+            for (int j = 0; j < total; j++)
+            {
+                assertTrue(out[j] != i);
+                assertTrue(!seen[out[j]]);
+                seen[out[j]] = true;
+            }
+        }
+    }
+    
+    /**
+     * Each topology runs and is repeatable for a given seed
+     */
+    @Test
+    public void testTopologies()
+    {
+        for(ParticleSwarmOptimization.Topology t : ParticleSwarmOptimization.Topology.values())
+        {
+            ParticleSwarmOptimization pso = new ParticleSwarmOptimization();
+            pso.setSeed(1);
+            pso.setPopsize(50);
+            pso.setNeighbourhoodSize(6);
+            pso.setTopology(t);
+            String expected = runPSO(pso);
+            assertEquals(t.name(), expected, runPSO(pso));
+        }
+    }
+    
+    /**
+     * The swarm is sent to a Huygens server in one request per iteration
+     */
+    @Test
+    public void testHuygensRequests()
+    {
+        for(ParticleSwarmOptimization.Topology t : ParticleSwarmOptimization.Topology.values())
+        {
+            ParticleSwarmOptimization pso = new ParticleSwarmOptimization();
+            pso.setSeed(1);
+            pso.setPopsize(50);
+            pso.setNeighbourhoodSize(6);
+            pso.setTopology(t);
+            HBSPipelineTests.CountingHuygensProblem p = new HBSPipelineTests.CountingHuygensProblem();
+            runPSO(pso, p, 2000);
+            // the initial swarm and 39 iterations
+            assertEquals(t.name(), 2000L, p.pointsSent.get());
+            assertEquals(t.name(), 40L, p.requestsSent.get());
+        }
+    }
+    
+    protected String runPSO(ParticleSwarmOptimization pso)
+    {
+        CFOProblem p = new GeneralizedRastriginsFunction();
+        p.setDimensions(10);
+        return runPSO(pso, p, 5000);
+    }
+    
+    protected String runPSO(ParticleSwarmOptimization pso, Problem p, long evaluations)
+    {
+        BestSolutionProbe probe = new BestSolutionProbe();
+        AlgorithmExecutor executor = new AlgorithmExecutor(p, pso, new EvaluationsStopCondition(evaluations));
+        executor.addRunProbe(probe);
+        try
+        {
+            executor.executeAndWait();
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        return probe.getBestSolution().toString() + " " + probe.getBestSolution().getScore();
+    }
+}
@@ -0,0 +1,170 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.domains.bfo.BFOSolution;
+import com.oat.utils.BinaryDecodeMode;
+import com.oat.utils.BitStringUtils;
+import com.oat.utils.EvolutionUtils;
+import com.oat.utils.PackedBitString;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Test that packed bit strings give the same results as the boolean [] representation
+ *
+ * Date: 20/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class PackedBitStringTests
+{
+    protected final static int [] LENGTHS = {1, 3, 16, 53, 54, 63, 64, 65, 100, 130};
+
+    @Test
+    public void testConversion()
+    {
+        Random r = new Random(1);
+        for(int length : LENGTHS)
+        {
+            boolean [] b = RandomUtils.randomBitString(r, length);
+            PackedBitString p = new PackedBitString(b);
+            assertEquals(length, p.length());
+            testArrays(b, p.toBooleanArray());
+            assertEquals(BitStringUtils.toString(b), p.toString());
+            assertEquals(p, new PackedBitString(p));
+            assertEquals(p.hashCode(), new PackedBitString(p).hashCode());
+        }
+    }
+
+    @Test
+    public void testDecode()
+    {
+        Random r = new Random(1);
+        for(int length : LENGTHS)
+        {
+            for(int d : new int[]{1, 2, 3})
+            {
+                double [][] minmax = new double[d][];
+                for (int i = 0; i < d; i++)
+                {
+                    minmax[i] = new double[]{-5.12, 5.12};
+                }
+                for (int i = 0; i < 20; i++)
+                {
+                    boolean [] b = RandomUtils.randomBitString(r, length * d);
+                    PackedBitString p = new PackedBitString(b);
+                    for(BinaryDecodeMode mode : BinaryDecodeMode.values())
+                    {
+                        double [] expected = BitStringUtils.decode(mode, b, minmax);
+                        double [] got = BitStringUtils.decode(mode, p, minmax);
+                        for (int j = 0; j < d; j++)
+                        {
+                            // must be identical
+                            assertEquals(mode + " " + length, expected[j], got[j], 0.0);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testHammingAndUnitation()
+    {
+        Random r = new Random(1);
+        for(int length : LENGTHS)
+        {
+            boolean [] b1 = RandomUtils.randomBitString(r, length);
+            boolean [] b2 = RandomUtils.randomBitString(r, length);
+            BFOSolution s1 = new BFOSolution(b1);
+            BFOSolution s2 = new BFOSolution(b2);
+            assertEquals(BitStringUtils.hammingDistance(b1, b2), BitStringUtils.hammingDistance(s1, s2), 0.0);
+            assertEquals(BitStringUtils.hammingDistanceRatio(b1, b2), BitStringUtils.hammingDistanceRatio(s1, s2), 0.0);
+            assertEquals(BitStringUtils.unitation(b1), BitStringUtils.unitation(s1.getPackedBitString()));
+            for (int start = 0; start < length; start += 7)
+            {
+                int l = Math.min(length - start, 70);
+                assertEquals(BitStringUtils.unitation(b1, start, l), BitStringUtils.unitation(s1.getPackedBitString(), start, l));
+            }
+        }
+    }
+
+    @Test
+    public void testMutationAndCrossover()
+    {
+        Random r = new Random(1);
+        for(int length : LENGTHS)
+        {
+            boolean [] b1 = RandomUtils.randomBitString(r, length);
+            boolean [] b2 = RandomUtils.randomBitString(r, length);
+            PackedBitString p1 = new PackedBitString(b1);
+            PackedBitString p2 = new PackedBitString(b2);
+
+            // same random numbers, same result
+            long seed = r.nextLong();
+            EvolutionUtils.binaryMutate(b1, new Random(seed), 0.2);
+            EvolutionUtils.binaryMutate(p1, new Random(seed), 0.2);
+            testArrays(b1, p1.toBooleanArray());
+
+            boolean [][] bc = EvolutionUtils.onePointBinaryCrossover(b1, b2, new Random(seed), 1.0);
+            PackedBitString [] pc = EvolutionUtils.onePointBinaryCrossover(p1, p2, new Random(seed), 1.0);
+            assertEquals(bc.length, pc.length);
+            for (int i = 0; i < bc.length; i++)
+            {
+                testArrays(bc[i], pc[i].toBooleanArray());
+            }
+        }
+    }
+
+    @Test
+    public void testSolutionView()
+    {
+        boolean [] b = {true, false, true};
+        BFOSolution s = new BFOSolution(b);
+        boolean [] view = s.getBitString();
+        view[1] = true;
+        // changes to the view do not change the solution
+        assertTrue(!s.getPackedBitString().get(1));
+        assertEquals(3, s.getBitStringLength());
+        assertEquals(s, new BFOSolution(s));
+    }
+
+    public void testArrays(boolean [] expected, boolean [] got)
+    {
+        assertEquals(expected.length, got.length);
+        for (int i = 0; i < got.length; i++)
+        {
+            assertEquals(expected[i], got[i]);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.Algorithm;
+import com.oat.AlgorithmExecutor;
+import com.oat.domains.tsp.AntTourConstruction;
+import com.oat.domains.tsp.TSPProblem;
+import com.oat.domains.tsp.algorithms.aco.AntColonyEngine;
+import com.oat.domains.tsp.algorithms.aco.AntColonySystem;
+import com.oat.domains.tsp.algorithms.aco.AntSystem;
+import com.oat.domains.tsp.algorithms.aco.ElitistAntSystem;
+import com.oat.domains.tsp.algorithms.aco.MaxMinAntSystem;
+import com.oat.domains.tsp.algorithms.aco.RankBasedAntSystem;
+import com.oat.probes.BestSolutionProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Test that parallel ACO construction and pheromone update give the same 
+ * result for any number of threads
+ *
+ * Date: 24/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class ParallelACOTests
+{
+    @Test
+    public void testDecayAndDeposit()
+    {
+        Random r = new Random(1);
+        for(int n : new int[]{2, 3, 17, 50})
+        {
+            int [][] tours = new int[9][];
+            double [] amounts = new double[tours.length];
+            for (int i = 0; i < tours.length; i++)
+            {
+                tours[i] = RandomUtils.generateRandomVector(n, r);
+                amounts[i] = r.nextDouble();
+            }
+            double [][] initial = new double[n][n];
+            for (int i = 0; i < n; i++)
+            {
+                for (int j = 0; j < n; j++)
+                {
+                    initial[i][j] = r.nextDouble();
+                }
+            }
+            
+            // sequential decay then deposit then limit
+            double [][] expected = copy(initial);
+            for (int i = 0; i < n; i++)
+            {
+                for (int j = 0; j < n; j++)
+                {
+                    expected[i][j] = (1.0 - 0.3) * expected[i][j];
+                }
+            }
+            for (int t = 0; t < tours.length; t++)
+            {
+                for (int i = 0; i < n; i++)
+                {
+                    int x = tours[t][i];
+                    int y = tours[t][(i == n-1) ? 0 : i+1];
+                    expected[x][y] += amounts[t];
+                    expected[y][x] += amounts[t];
+                }
+            }
+            double [][] limited = copy(expected);
+            for (int i = 0; i < n; i++)
+            {
+                for (int j = 0; j < n; j++)
+                {
+                    limited[i][j] = Math.min(Math.max(limited[i][j], 0.5), 2.0);
+                }
+            }
+            
+            for(int threads : new int[]{1, 3, 4})
+            {
+                AntColonyEngine engine = new AntColonyEngine(threads);
+                double [][] m = copy(initial);
+                engine.decayAndDeposit(m, 0.3, tours, amounts);
+                assertSame(expected, m);
+                m = copy(initial);
+                engine.decayAndDeposit(m, 0.3, tours, amounts, 0.5, 2.0);
+                assertSame(limited, m);
+                engine.shutdown();
+            }
+        }
+    }
+    
+    @Test
+    public void testConstructTours()
+    {
+        Random r = new Random(1);
+        int n = 70;
+        TSPProblem p = new TSPDeltaEvaluationTests.RandomCitiesProblem(n, r);
+        double [][] pheromone = new double[n][n];
+        for (int i = 0; i < n; i++)
+        {
+            for (int j = 0; j < n; j++)
+            {
+                pheromone[i][j] = 0.1 + r.nextDouble();
+            }
+        }
+        AntTourConstruction c = new AntTourConstruction(p.getDistances(), 10, 1.0, 2.5);
+        c.prepareChoiceInfo(pheromone);
+        int [][] expected = null;
+        for(int threads : new int[]{1, 2, 5})
+        {
+            AntColonyEngine engine = new AntColonyEngine(threads);
+            int [][] tours = engine.constructTours(c, pheromone, 23, 0.5, new Random(7));
+            engine.shutdown();
+            assertEquals(23, tours.length);
+            for (int i = 0; i < tours.length; i++)
+            {
+                p.checkSolutionForSafety(tours[i]);
+                if(expected != null)
+                {
+                    assertEquals(Arrays.toString(expected[i]), Arrays.toString(tours[i]));
+                }
+            }
+            expected = tours;
+        }
+    }
+    
+    @Test
+    public void testRunsForConsistency()
+    {
+        AntSystem as = new AntSystem();
+        as.setTotalAnts(20);
+        as.setSeed(1);
+        as.setTotalThreads(1);
+        String expected = runACO(as);
+        as.setTotalThreads(4);
+        assertEquals(expected, runACO(as));
+        
+        ElitistAntSystem eas = new ElitistAntSystem();
+        eas.setTotalAnts(20);
+        eas.setSeed(1);
+        eas.setTotalThreads(1);
+        expected = runACO(eas);
+        eas.setTotalThreads(4);
+        assertEquals(expected, runACO(eas));
+        
+        RankBasedAntSystem ras = new RankBasedAntSystem();
+        ras.setTotalAnts(20);
+        ras.setSeed(1);
+        ras.setTotalThreads(1);
+        expected = runACO(ras);
+        ras.setTotalThreads(4);
+        assertEquals(expected, runACO(ras));
+        
+        MaxMinAntSystem mmas = new MaxMinAntSystem();
+        mmas.setTotalAnts(20);
+        mmas.setSeed(1);
+        mmas.setTotalThreads(1);
+        expected = runACO(mmas);
+        mmas.setTotalThreads(4);
+        assertEquals(expected, runACO(mmas));
+        
+        // ACS has sequential local updates with a single thread
+        AntColonySystem acs = new AntColonySystem();
+        acs.setSeed(1);
+        acs.setTotalThreads(2);
+        expected = runACO(acs);
+        acs.setTotalThreads(4);
+        assertEquals(expected, runACO(acs));
+    }
+    
+    protected String runACO(Algorithm algorithm)
+    {
+        TSPDistanceStorageTests.GeneratedCitiesProblem p = new TSPDistanceStorageTests.GeneratedCitiesProblem();
+        p.setProblemFilename("ParallelACOTests");
+        BestSolutionProbe probe = new BestSolutionProbe();
+        AlgorithmExecutor executor = new AlgorithmExecutor(p, algorithm, new EvaluationsStopCondition(1000));
+        executor.addRunProbe(probe);
+        try
+        {
+            executor.executeAndWait();
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        return probe.getBestSolution().toString() + " " + probe.getBestSolution().getScore();
+    }
+    
+    protected double [][] copy(double [][] m)
+    {
+        double [][] c = new double[m.length][];
+        for (int i = 0; i < m.length; i++)
+        {
+            c[i] = m[i].clone();
+        }
+        return c;
+    }
+    
+    protected void assertSame(double [][] expected, double [][] got)
+    {
+        for (int i = 0; i < expected.length; i++)
+        {
+            for (int j = 0; j < expected[i].length; j++)
+            {
+                // must be identical
+                assertEquals(expected[i][j], got[i][j], 0.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.oat.AlgorithmExecutor;
+import com.oat.EvaluationPool;
+import com.oat.Problem;
+import com.oat.domains.cfo.CFOProblem;
+import com.oat.domains.cfo.algorithms.evolution.DifferentialEvolution;
+import com.oat.domains.cfo.problems.yao.GeneralizedRastriginsFunction;
+import com.oat.probes.BestSolutionProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+
+/**
+ * Description: Test that parallel Differential Evolution gives the same result for any 
+ * number of threads
+ *
+ * Date: 07/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 09/12/2007	JBrownlee	Requests sent to a Huygens server are counted
+ * </pre>
+ */
+public class ParallelDETests
+{
+    @Test
+    public void testRunsForConsistency()
+    {
+        for(DifferentialEvolution.Mode mode : DifferentialEvolution.Mode.values())
+        {
+            DifferentialEvolution de = new DifferentialEvolution();
+            de.setSeed(1);
+            de.setPopsize(50); // not a multiple of the chunk size
+            de.setMode(mode);
+            de.setTotalThreads(1);
+            String expected = runDE(de, createProblem());
+            assertEquals(mode.name(), expected, runDE(de, createProblem()));
+            de.setTotalThreads(3);
+            assertEquals(mode.name(), expected, runDE(de, createProblem()));
+            de.setTotalThreads(8);
+            assertEquals(mode.name(), expected, runDE(de, createProblem()));
+        }
+    }
+    
+    /**
+     * The engine evaluates trials for the duration of the run only, a pool provided with 
+     * the problem is used as is
+     */
+    @Test
+    public void testEvaluationPool()
+    {
+        DifferentialEvolution de = new DifferentialEvolution();
+        de.setSeed(1);
+        de.setPopsize(40);
+        de.setTotalThreads(1);
+        String expected = runDE(de, createProblem());
+        
+        de.setTotalThreads(4);
+        CFOProblem p = createProblem();
+        assertEquals(expected, runDE(de, p));
+        assertNull(p.getEvaluationPool());
+        
+        EvaluationPool pool = new EvaluationPool(2);
+        p = createProblem();
+        p.enableParallelEvaluation(pool);
+        assertEquals(expected, runDE(de, p));
+        assertSame(pool, p.getEvaluationPool());
+        assertTrue(!pool.isShutdown());
+        pool.shutdown();
+    }
+    
+    /**
+     * Each generation is sent to a Huygens server in one request, regardless of the number of threads
+     */
+    @Test
+    public void testHuygensRequests()
+    {
+        int [] threads = {1, 4};
+        for (int i = 0; i < threads.length; i++)
+        {
+            DifferentialEvolution de = new DifferentialEvolution();
+            de.setSeed(1);
+            de.setPopsize(50);
+            de.setTotalThreads(threads[i]);
+            HBSPipelineTests.CountingHuygensProblem p = new HBSPipelineTests.CountingHuygensProblem();
+            runDE(de, p, 2000);
+            // the initial population and 39 generations
+            assertEquals(2000L, p.pointsSent.get());
+            assertEquals(40L, p.requestsSent.get());
+        }
+    }
+    
+    protected CFOProblem createProblem()
+    {
+        CFOProblem p = new GeneralizedRastriginsFunction();
+        p.setDimensions(30);
+        return p;
+    }
+    
+    protected String runDE(DifferentialEvolution de, CFOProblem p)
+    {
+        return runDE(de, p, 5000);
+    }
+    
+    protected String runDE(DifferentialEvolution de, Problem p, long evaluations)
+    {
+        BestSolutionProbe probe = new BestSolutionProbe();
+        AlgorithmExecutor executor = new AlgorithmExecutor(p, de, new EvaluationsStopCondition(evaluations));
+        executor.addRunProbe(probe);
+        try
+        {
+            executor.executeAndWait();
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        return probe.getBestSolution().toString() + " " + probe.getBestSolution().getScore();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.Algorithm;
+import com.oat.AlgorithmExecutor;
+import com.oat.Domain;
+import com.oat.EvaluationPool;
+import com.oat.Problem;
+import com.oat.Solution;
+import com.oat.domains.cfo.CFODomain;
+import com.oat.domains.cfo.CFOSolution;
+import com.oat.domains.cfo.problems.geatbx.RastriginFunction;
+import com.oat.probes.BestSolutionProbe;
+import com.oat.probes.TotalEvaluationsProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Test that parallel evaluation produces the same results as sequential evaluation
+ *
+ * Date: 14/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class ParallelEvaluationTests
+{
+	/**
+	 * Ensure the evaluation budget is respected exactly for a collection larger than the budget
+	 */
+    @Test
+    public void testEvaluationBudget()
+    {
+    	EvaluationPool pool = new EvaluationPool(4);
+    	try
+    	{
+	    	RastriginFunction problem = new RastriginFunction();
+	    	EvaluationsStopCondition sc = new EvaluationsStopCondition(100);
+	    	problem.addStopCondition(sc);
+	    	problem.enableParallelEvaluation(pool);
+	    	sc.initialiseBeforeRun(problem, null);
+
+	    	Random r = new Random(1);
+	    	LinkedList<CFOSolution> pop = new LinkedList<CFOSolution>();
+	    	for (int i = 0; i < 250; i++)
+			{
+	    		pop.add(new CFOSolution(RandomUtils.randomPointInRange(r, problem.getMinmax())));
+			}
+	    	problem.cost(pop);
+
+	    	assertEquals(100L, sc.getEvaluationsCount());
+	    	// only the first solutions in the collection are evaluated
+	    	for (int i = 0; i < pop.size(); i++)
+			{
+	    		assertEquals(i < 100, pop.get(i).isEvaluated());
+			}
+	    	sc.cleanupAfterRun(problem, null);
+    	}
+    	catch(Exception e)
+    	{
+    		e.printStackTrace();
+    		fail("Unexpected error: " + e.getMessage());
+    	}
+    	finally
+    	{
+    		pool.shutdown();
+    	}
+    }
+
+	/**
+	 * Ensure all algorithms produce the same results with and without parallel evaluation
+	 */
+    @Test
+    public void testAllAlgorithmsForConsistency()
+    {
+    	Domain domain = new CFODomain();
+    	Problem problem = new RastriginFunction();
+    	EvaluationPool pool = new EvaluationPool(4);
+
+    	AlgorithmExecutor executor = new AlgorithmExecutor();
+    	BestSolutionProbe solutionProbe = new BestSolutionProbe();
+    	TotalEvaluationsProbe evalsProbe = new TotalEvaluationsProbe();
+    	EvaluationsStopCondition sc = new EvaluationsStopCondition(1000);
+
+    	executor.setProblem(problem);
+    	executor.addRunProbe(solutionProbe);
+    	executor.addRunProbe(evalsProbe);
+    	executor.addStopCondition(sc);
+
+    	Algorithm [] algorithms = null;
+    	try
+		{
+			algorithms = domain.loadAlgorithmList();
+		}
+		catch (Exception e)
+		{
+			e.printStackTrace();
+			fail("Failed to load algorithms: " + e.getMessage());
+		}
+
+		try
+		{
+			for (int i = 0; i < algorithms.length; i++)
+			{
+				executor.setAlgorithm(algorithms[i]);
+				Solution s1 = null;
+				long e1 = 0;
+				Solution s2 = null;
+				long e2 = 0;
+				try
+				{
+					// sequential
+					problem.disableParallelEvaluation();
+					executor.executeAndWait();
+					s1 = solutionProbe.getBestSolution();
+					e1 = evalsProbe.getCompletedEvaluations();
+					// parallel
+					problem.enableParallelEvaluation(pool);
+					executor.executeAndWait();
+					s2 = solutionProbe.getBestSolution();
+					e2 = evalsProbe.getCompletedEvaluations();
+				}
+				catch(Exception e)
+				{
+					e.printStackTrace();
+					fail("Failed on the execution of: " + algorithms[i].getName() + ": " + e.getMessage());
+				}
+
+				assertTrue(e1 <= sc.getMaxEvaluations());
+				assertEquals(e1, e2);
+				assertEquals(s1.getScore(), s2.getScore(), 0.0);
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+    }
+}
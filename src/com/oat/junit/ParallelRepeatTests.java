@@ -0,0 +1,163 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedList;
+
+import org.junit.Test;
+
+import com.oat.AlgorithmExecutor;
+import com.oat.RunContext;
+import com.oat.RunProbe;
+import com.oat.domains.bfo.algorithms.evolution.GeneticAlgorithm;
+import com.oat.domains.bfo.problems.OneMax;
+import com.oat.domains.cfo.algorithms.evolution.DifferentialEvolution;
+import com.oat.domains.cfo.problems.geatbx.RastriginFunction;
+import com.oat.experimenter.Experiment;
+import com.oat.experimenter.ExperimentalRun;
+import com.oat.experimenter.ExperimentalRunUtils;
+import com.oat.experimenter.RunResult;
+import com.oat.probes.BestScoreProbe;
+import com.oat.probes.TotalEvaluationsProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+
+/**
+ * Description: Test that concurrent execution of repeats produces the same results as sequential execution
+ *
+ * Date: 15/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 16/11/2007	JBrownlee	Added test for isolated execution from shared prototypes
+ * </pre>
+ */
+public class ParallelRepeatTests
+{
+    @Test
+    public void testCFORepeatsForConsistency()
+    {
+    	ExperimentalRun run = new ExperimentalRun();
+    	run.setProblem(new RastriginFunction());
+    	run.setAlgorithm(new DifferentialEvolution());
+    	run.setRepeats(30);
+    	testRepeatsForConsistency(run);
+    }
+
+    @Test
+    public void testBFORepeatsForConsistency()
+    {
+    	ExperimentalRun run = new ExperimentalRun();
+    	run.setProblem(new OneMax());
+    	run.setAlgorithm(new GeneticAlgorithm());
+    	run.setRepeats(30);
+    	testRepeatsForConsistency(run);
+    }
+
+    /**
+     * Executors sharing the same prototypes run concurrently without modifying the prototypes
+     */
+    @Test
+    public void testIsolatedExecution()
+    {
+    	final RastriginFunction problem = new RastriginFunction();
+    	final DifferentialEvolution algorithm = new DifferentialEvolution();
+    	final EvaluationsStopCondition stopCondition = new EvaluationsStopCondition(1000);
+    	final BestScoreProbe probe = new BestScoreProbe();
+    	
+    	final String [] scores = new String[8];
+    	final Exception [] failures = new Exception[scores.length];
+    	Thread [] threads = new Thread[scores.length];
+    	for (int i = 0; i < threads.length; i++)
+		{
+    		final int index = i;
+    		threads[i] = new Thread()
+    		{
+    			public void run()
+    			{
+    				AlgorithmExecutor executor = new AlgorithmExecutor(problem, algorithm, stopCondition);
+    				executor.addRunProbe(probe);
+    				try
+    				{
+    					RunContext context = executor.executeIsolatedAndWait();
+    					scores[index] = context.getRunProbes().getFirst().getProbeObservation().toString();
+    				}
+    				catch(Exception e)
+    				{
+    					failures[index] = e;
+    				}
+    			}
+    		};
+    		threads[i].start();
+		}
+    	
+    	try
+    	{
+	    	for (int i = 0; i < threads.length; i++)
+			{
+	    		threads[i].join();
+	    		if(failures[i] != null)
+	    		{
+	    			failures[i].printStackTrace();
+	    			fail("Unexpected error: " + failures[i].getMessage());
+	    		}
+			}
+    	}
+    	catch(InterruptedException e)
+    	{
+    		fail("Interrupted");
+    	}
+    	
+    	// same configuration, same result
+    	for (int i = 1; i < scores.length; i++)
+		{
+    		assertEquals(scores[0], scores[i]);
+		}
+    	// prototypes were never used
+    	assertTrue(problem.getStopConditions().isEmpty());
+    	assertTrue(problem.getSolutionEvaluationListeners().isEmpty());
+    	assertEquals(0L, stopCondition.getEvaluationsCount());
+    	assertTrue(!stopCondition.isTriggered());
+    }
+    
+    protected void testRepeatsForConsistency(ExperimentalRun run)
+    {
+    	Experiment exp = new Experiment();
+    	exp.setStopCondition(new EvaluationsStopCondition(1000));
+    	exp.setRunStatistics(new RunProbe[]{new BestScoreProbe(), new TotalEvaluationsProbe()});
+
+    	LinkedList<RunResult> sequential = ExperimentalRunUtils.executeAllRepeats(run, exp);
+    	LinkedList<RunResult> parallel = ExperimentalRunUtils.executeAllRepeats(run, exp, 4);
+
+    	assertEquals(run.getRepeats(), sequential.size());
+    	assertEquals(sequential.size(), parallel.size());
+    	for (int i = 0; i < sequential.size(); i++)
+		{
+    		assertEquals(sequential.get(i).getRepeatNumber(), parallel.get(i).getRepeatNumber());
+    		assertEquals(sequential.get(i).toResultString(), parallel.get(i).toResultString());
+		}
+    }
+}
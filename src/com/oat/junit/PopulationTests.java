@@ -0,0 +1,115 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.Population;
+import com.oat.domains.cfo.CFOSolution;
+import com.oat.domains.cfo.problems.geatbx.RastriginFunction;
+import com.oat.utils.AlgorithmUtils;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Test the array-backed population container
+ *
+ * Date: 18/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class PopulationTests
+{
+	@Test
+	public void testScoresAndBest()
+	{
+		RastriginFunction problem = new RastriginFunction();
+		Random r = new Random(1);
+		LinkedList<CFOSolution> list = new LinkedList<CFOSolution>();
+		for (int i = 0; i < 100; i++)
+		{
+			list.add(new CFOSolution(RandomUtils.randomPointInRange(r, problem.getMinmax())));
+		}
+		Population<CFOSolution> pop = new Population<CFOSolution>(list);
+		assertEquals(100, pop.size());
+		assertTrue(Double.isNaN(pop.getScore(0)));
+		assertNull(pop.getBest(problem));
+
+		pop.evaluate(problem);
+		for (int i = 0; i < pop.size(); i++)
+		{
+			assertSame(list.get(i), pop.get(i));
+			assertEquals(list.get(i).getScore(), pop.getScore(i), 0.0);
+		}
+		// same as the sort-based best
+		LinkedList<CFOSolution> sorted = new LinkedList<CFOSolution>(list);
+		Collections.sort(sorted);
+		assertSame(sorted.getFirst(), pop.getBest(problem));
+		assertSame(sorted.getFirst(), AlgorithmUtils.getBest(list, problem));
+
+		pop.sort();
+		for (int i = 0; i < pop.size(); i++)
+		{
+			assertSame(sorted.get(i), pop.get(i));
+		}
+	}
+
+	@Test
+	public void testNextGeneration()
+	{
+		Population<CFOSolution> pop = new Population<CFOSolution>(2);
+		CFOSolution a = new CFOSolution(new double[]{1.0});
+		CFOSolution b = new CFOSolution(new double[]{2.0});
+		CFOSolution c = new CFOSolution(new double[]{3.0});
+		pop.add(a);
+		pop.add(b);
+		pop.add(c);
+		assertEquals(3, pop.size());
+
+		Population<CFOSolution> next = pop.getNextGeneration();
+		assertTrue(next.isEmpty());
+		next.add(c);
+		pop.commitNextGeneration();
+		assertEquals(1, pop.size());
+		assertSame(c, pop.get(0));
+
+		// the buffer is reused and empty
+		assertSame(next, pop.getNextGeneration());
+		assertTrue(next.isEmpty());
+
+		LinkedList<CFOSolution> l = pop.toLinkedList();
+		assertEquals(1, l.size());
+		assertSame(c, l.getFirst());
+	}
+}
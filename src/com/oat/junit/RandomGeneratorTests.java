@@ -0,0 +1,318 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.AlgorithmExecutor;
+import com.oat.domains.cfo.algorithms.evolution.EvolutionStrategies;
+import com.oat.domains.cfo.problems.geatbx.RastriginFunction;
+import com.oat.probes.BestSolutionProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+import com.oat.utils.RandomGenerator;
+import com.oat.utils.RandomUtils;
+import com.oat.utils.StreamRandom;
+
+/**
+ * Description: Test the random number generators
+ *
+ * Date: 04/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class RandomGeneratorTests
+{
+    public final static int TOTAL_DRAWS = 100000;
+    
+    /**
+     * Ensure the same seed produces the same sequence, and reseeding restarts it
+     */
+    @Test
+    public void testDeterministic()
+    {
+        for(RandomGenerator g : RandomGenerator.values())
+        {
+            Random r1 = g.create(5);
+            Random r2 = g.create(5);
+            Random r3 = g.create(6);
+            boolean differs = false;
+            double [] first = new double[100];
+            for (int i = 0; i < first.length; i++)
+            {
+                first[i] = r1.nextDouble();
+                assertEquals(g.name(), first[i], r2.nextDouble(), 0.0);
+                differs |= (first[i] != r3.nextDouble());
+            }
+            assertTrue(g.name(), differs);
+            r1.nextGaussian();
+            r1.setSeed(5);
+            for (int i = 0; i < first.length; i++)
+            {
+                assertEquals(g.name(), first[i], r1.nextDouble(), 0.0);
+            }
+        }
+        // the jdk generator is java.util.Random
+        assertEquals(new Random(7).nextLong(), RandomGenerator.JDK.create(7).nextLong());
+    }
+    
+    /**
+     * Ensure values are in range with the expected mean and variance
+     */
+    @Test
+    public void testDistributions()
+    {
+        for(RandomGenerator g : RandomGenerator.values())
+        {
+            Random r = g.create(1);
+            double sum = 0, sumSq = 0, gSum = 0, gSumSq = 0;
+            int [] counts = new int[10];
+            int trues = 0;
+            for (int i = 0; i < TOTAL_DRAWS; i++)
+            {
+                double d = r.nextDouble();
+                assertTrue(d >= 0 && d < 1);
+                sum += d;
+                sumSq += d * d;
+                double n = r.nextGaussian();
+                gSum += n;
+                gSumSq += n * n;
+                int k = r.nextInt(counts.length);
+                assertTrue(k >= 0 && k < counts.length);
+                counts[k]++;
+                trues += r.nextBoolean() ? 1 : 0;
+                float f = r.nextFloat();
+                assertTrue(f >= 0 && f < 1);
+            }
+            double mean = sum / TOTAL_DRAWS;
+            assertEquals(g.name(), 0.5, mean, 0.01);
+            assertEquals(g.name(), 1.0/12.0, sumSq / TOTAL_DRAWS - mean * mean, 0.005);
+            double gMean = gSum / TOTAL_DRAWS;
+            assertEquals(g.name(), 0.0, gMean, 0.02);
+            assertEquals(g.name(), 1.0, gSumSq / TOTAL_DRAWS - gMean * gMean, 0.03);
+            assertEquals(g.name(), 0.5, (double) trues / TOTAL_DRAWS, 0.01);
+            // chi-squared, 9 degrees of freedom, p=0.001 critical value is 27.88
+            double chi = 0;
+            double expected = (double) TOTAL_DRAWS / counts.length;
+            for (int i = 0; i < counts.length; i++)
+            {
+                chi += (counts[i] - expected) * (counts[i] - expected) / expected;
+            }
+            assertTrue(g.name() + " chi-squared " + chi, chi < 27.88);
+        }
+    }
+    
+    /**
+     * Ensure bulk fills produce the same values as successive single draws
+     */
+    @Test
+    public void testBulkFills()
+    {
+        for(RandomGenerator g : RandomGenerator.values())
+        {
+            Random r1 = g.create(3);
+            Random r2 = g.create(3);
+            // odd lengths leave a cached gaussian
+            for (int length = 1; length < 8; length++)
+            {
+                double [] a = new double[length];
+                RandomUtils.nextGaussians(r1, a);
+                for (int i = 0; i < a.length; i++)
+                {
+                    assertEquals(g.name(), r2.nextGaussian(), a[i], 0.0);
+                }
+                RandomUtils.nextDoubles(r1, a);
+                for (int i = 0; i < a.length; i++)
+                {
+                    assertEquals(g.name(), r2.nextDouble(), a[i], 0.0);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Ensure splitting is deterministic and the split streams differ
+     */
+    @Test
+    public void testSplit()
+    {
+        for(RandomGenerator g : RandomGenerator.values())
+        {
+            Random [] s1 = new Random[4];
+            Random [] s2 = new Random[4];
+            Random parent1 = g.create(9);
+            Random parent2 = g.create(9);
+            for (int i = 0; i < s1.length; i++)
+            {
+                s1[i] = RandomUtils.split(parent1);
+                s2[i] = RandomUtils.split(parent2);
+            }
+            long [][] values = new long[s1.length][50];
+            for (int i = 0; i < s1.length; i++)
+            {
+                for (int j = 0; j < values[i].length; j++)
+                {
+                    values[i][j] = s1[i].nextLong();
+                    assertEquals(g.name(), values[i][j], s2[i].nextLong());
+                }
+            }
+            // the streams are distinct from each other and from the parent
+            long [] parent = new long[50];
+            for (int j = 0; j < parent.length; j++)
+            {
+                parent[j] = parent1.nextLong();
+            }
+            for (int i = 0; i < values.length; i++)
+            {
+                assertFalse(g.name(), values[i][0] == parent[0] && values[i][1] == parent[1]);
+                for (int k = i+1; k < values.length; k++)
+                {
+                    assertFalse(g.name(), values[i][0] == values[k][0] && values[i][1] == values[k][1]);
+                }
+            }
+            if(parent1 instanceof StreamRandom)
+            {
+                assertEquals(3, ((StreamRandom)g.create(9)).split(3).length);
+            }
+        }
+    }
+    
+    /**
+     * Ensure a stream split from a split stream differs from the stream and its parent
+     */
+    @Test
+    public void testNestedSplit()
+    {
+        for(RandomGenerator g : RandomGenerator.values())
+        {
+            Random [] r = new Random[4];
+            r[0] = g.create(42);
+            r[1] = RandomUtils.split(r[0]);
+            r[2] = RandomUtils.split(r[1]);
+            r[3] = RandomUtils.split(r[2]);
+            long [][] values = new long[r.length][2];
+            for (int i = 0; i < r.length; i++)
+            {
+                values[i][0] = r[i].nextLong();
+                values[i][1] = r[i].nextLong();
+            }
+            for (int i = 0; i < values.length; i++)
+            {
+                for (int k = i+1; k < values.length; k++)
+                {
+                    assertFalse(g.name(), values[i][0] == values[k][0] && values[i][1] == values[k][1]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Ensure the default generator is loaded from the system property, and an unknown name 
+     * is reported to the caller with the valid names
+     */
+    @Test
+    public void testGeneratorProperty()
+    {
+        RandomGenerator original = RandomUtils.getDefaultGenerator();
+        String property = System.getProperty(RandomUtils.GENERATOR_PROPERTY);
+        try
+        {
+            System.setProperty(RandomUtils.GENERATOR_PROPERTY, RandomGenerator.PCG32.name());
+            RandomUtils.setDefaultGenerator(null);
+            assertEquals(RandomGenerator.PCG32, RandomUtils.getDefaultGenerator());
+            
+            System.setProperty(RandomUtils.GENERATOR_PROPERTY, "Unknown");
+            RandomUtils.setDefaultGenerator(null);
+            try
+            {
+                RandomUtils.newRandom(1);
+                fail("Expected an unknown generator to be rejected");
+            }
+            catch(IllegalArgumentException e)
+            {
+                for(RandomGenerator g : RandomGenerator.values())
+                {
+                    assertTrue(e.getMessage(), e.getMessage().contains(g.name()));
+                }
+            }
+        }
+        finally
+        {
+            if(property == null)
+            {
+                System.clearProperty(RandomUtils.GENERATOR_PROPERTY);
+            }
+            else
+            {
+                System.setProperty(RandomUtils.GENERATOR_PROPERTY, property);
+            }
+            RandomUtils.setDefaultGenerator(original);
+        }
+    }
+    
+    /**
+     * Ensure algorithm runs are reproducible with each default generator
+     */
+    @Test
+    public void testReproducibleRuns()
+    {
+        RandomGenerator original = RandomUtils.getDefaultGenerator();
+        try
+        {
+            RastriginFunction problem = new RastriginFunction();
+            EvolutionStrategies algorithm = new EvolutionStrategies();
+            BestSolutionProbe probe = new BestSolutionProbe();
+            AlgorithmExecutor executor = new AlgorithmExecutor(problem, algorithm, new EvaluationsStopCondition(2000));
+            executor.addRunProbe(probe);
+            for(RandomGenerator g : RandomGenerator.values())
+            {
+                RandomUtils.setDefaultGenerator(g);
+                algorithm.setSeed(11);
+                executor.executeAndWait();
+                double s1 = probe.getBestSolution().getScore();
+                algorithm.setSeed(11);
+                executor.executeAndWait();
+                double s2 = probe.getBestSolution().getScore();
+                assertEquals(g.name(), s1, s2, 0.0);
+            }
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            RandomUtils.setDefaultGenerator(original);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.junit.Test;
+
+import com.oat.RunProbe;
+import com.oat.domains.cfo.CFODomain;
+import com.oat.domains.cfo.algorithms.evolution.DifferentialEvolution;
+import com.oat.domains.cfo.problems.dejong.TestFunctionF1;
+import com.oat.experimenter.Experiment;
+import com.oat.experimenter.ExperimentalRun;
+import com.oat.experimenter.ExperimentalRunUtils;
+import com.oat.experimenter.RunResult;
+import com.oat.experimenter.RunResultStore;
+import com.oat.probes.BestScoreProbe;
+import com.oat.probes.TotalEvaluationsProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+import com.oat.utils.RandomGenerator;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Test that an interrupted run is resumed from the repeats already stored
+ *
+ * Date: 26/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class ResumableRunTests
+{
+    protected final static int TOTAL_REPEATS = 10;
+    
+    protected File createHomeDir()
+        throws Exception
+    {
+        File home = File.createTempFile("ResumableRunTests", "");
+        home.delete();
+        home.mkdir();
+        return home;
+    }
+    
+    protected void deleteHomeDir(File home)
+    {
+        File [] dirs = home.listFiles();
+        for (int i = 0; dirs != null && i < dirs.length; i++)
+        {
+            File [] files = dirs[i].listFiles();
+            for (int j = 0; files != null && j < files.length; j++)
+            {
+                files[j].delete();
+            }
+            dirs[i].delete();
+        }
+        home.delete();
+    }
+    
+    protected Experiment createExperiment(File home, String name)
+        throws Exception
+    {
+        Experiment exp = new Experiment();
+        exp.setName(name);
+        exp.setDescription("Resumable run test");
+        exp.setDomain(new CFODomain());
+        exp.setStopCondition(new EvaluationsStopCondition(200));
+        exp.setRunStatistics(new RunProbe[]{new BestScoreProbe(), new TotalEvaluationsProbe()});
+        exp.save(home);
+        return exp;
+    }
+    
+    protected ExperimentalRun createRun(Experiment exp)
+    {
+        ExperimentalRun run = new ExperimentalRun();
+        run.setAlgorithm(new DifferentialEvolution());
+        run.setProblem(new TestFunctionF1());
+        run.setRepeats(TOTAL_REPEATS);
+        run.setId(ExperimentalRunUtils.getNextValidRunId(exp));
+        exp.addRun(run);
+        return run;
+    }
+    
+    @Test
+    public void testResume()
+    {
+        File home = null;
+        try
+        {
+            home = createHomeDir();
+            
+            // uninterrupted
+            Experiment exp = createExperiment(home, "Complete");
+            ExperimentalRun run = createRun(exp);
+            ExperimentalRunUtils.executeRunAndStoreResult(run, exp);
+            assertTrue(run.isCompleted());
+            RunResult [] expected = ExperimentalRunUtils.loadRunResult(exp, run);
+            assertEquals(TOTAL_REPEATS, expected.length);
+            
+            // interrupted after some repeats, part way through writing a result
+            exp = createExperiment(home, "Interrupted");
+            run = createRun(exp);
+            RunResultStore store = new RunResultStore(exp, run);
+            assertEquals(0, ExperimentalRunUtils.resumeResultStore(exp, run, store).length);
+            int [] completed = {1, 2, 3, 7};
+            for (int i = 0; i < completed.length; i++)
+            {
+                store.append(ExperimentalRunUtils.executeSingleRepeat(exp, run, completed[i]));
+            }
+            // a stored result that would not be produced if the repeat was executed again
+            RunResult marker = new RunResult(expected[4].toHeaderStrings(), new Object[]{new Double(-1.0), new Long(-1L)});
+            marker.setRepeatNumber(5);
+            store.append(marker);
+            store.close();
+            RandomAccessFile raf = new RandomAccessFile(store.getFile(), "rw");
+            raf.seek(raf.length());
+            raf.writeInt(1000);
+            raf.writeInt(0);
+            raf.close();
+            assertEquals(null, ExperimentalRunUtils.getRunCompletionDate(exp, run));
+            
+            // resume, the stored repeats are not executed again
+            int [] remaining = ExperimentalRunUtils.getRemainingRepeats(run, RunResultStore.load(store.getFile()));
+            assertEquals(TOTAL_REPEATS - 5, remaining.length);
+            ExperimentalRunUtils.executeRunAndStoreResult(run, exp, 3);
+            assertTrue(run.isCompleted());
+            RunResult [] got = ExperimentalRunUtils.loadRunResult(exp, run);
+            assertEquals(expected.length, got.length);
+            for (int i = 0; i < got.length; i++)
+            {
+                assertEquals(i+1, got[i].getRepeatNumber());
+                if(i+1 == 5)
+                {
+                    assertEquals(marker.toResultString(), got[i].toResultString());
+                }
+                else
+                {
+                    assertEquals(expected[i].toResultString(), got[i].toResultString());
+                }
+            }
+            
+            // nothing is executed for a completed run
+            long length = store.getFile().length();
+            ExperimentalRunUtils.executeRunAndStoreResult(run, exp);
+            assertEquals(length, store.getFile().length());
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            if(home != null)
+            {
+                deleteHomeDir(home);
+            }
+        }
+    }
+    
+    @Test
+    public void testConfigurationChange()
+    {
+        File home = null;
+        RandomGenerator generator = RandomUtils.getDefaultGenerator();
+        try
+        {
+            home = createHomeDir();
+            Experiment exp = createExperiment(home, "Changed");
+            ExperimentalRun run = createRun(exp);
+            RunResultStore store = new RunResultStore(exp, run);
+            ExperimentalRunUtils.resumeResultStore(exp, run, store);
+            for (int i = 1; i <= 3; i++)
+            {
+                store.append(ExperimentalRunUtils.executeSingleRepeat(exp, run, i));
+            }
+            store.close();
+            
+            // same configuration, the seed is set for each repeat
+            assertEquals(3, ExperimentalRunUtils.resumeResultStore(exp, run, store).length);
+            store.close();
+            
+            // different random number generator
+            RandomUtils.setDefaultGenerator((generator == RandomGenerator.JDK) ? RandomGenerator.SplitMix64 : RandomGenerator.JDK);
+            assertEquals(0, ExperimentalRunUtils.resumeResultStore(exp, run, store).length);
+            store.close();
+            RandomUtils.setDefaultGenerator(generator);
+            
+            // different configuration
+            run.setRepeats(TOTAL_REPEATS + 1);
+            assertEquals(0, ExperimentalRunUtils.resumeResultStore(exp, run, store).length);
+            store.close();
+            assertEquals(0, RunResultStore.load(store.getFile()).length);
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            RandomUtils.setDefaultGenerator(generator);
+            if(home != null)
+            {
+                deleteHomeDir(home);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.oat.AlgorithmExecutor;
+import com.oat.RunInstrumentation;
+import com.oat.Solution;
+import com.oat.SolutionEvaluationListener;
+import com.oat.domains.bfo.algorithms.evolution.GeneticAlgorithm;
+import com.oat.domains.bfo.problems.OneMax;
+import com.oat.domains.cfo.algorithms.evolution.DifferentialEvolution;
+import com.oat.domains.cfo.problems.dejong.TestFunctionF1;
+import com.oat.probes.AlgorithmOverheadProbe;
+import com.oat.probes.MeanCostNanosProbe;
+import com.oat.probes.TimingBreakdownProbe;
+import com.oat.stopcondition.EvaluationsStopCondition;
+import com.oat.utils.NanoHistogram;
+
+/**
+ * Description: Test the timing histogram and the instrumentation of a run
+ *
+ * Date: 29/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class RunInstrumentationTests
+{
+    @Test
+    public void testHistogram()
+    {
+        assertEquals(0, NanoHistogram.toBucket(0));
+        assertEquals(0, NanoHistogram.toBucket(1));
+        assertEquals(1, NanoHistogram.toBucket(2));
+        assertEquals(1, NanoHistogram.toBucket(3));
+        assertEquals(10, NanoHistogram.toBucket(1024));
+        assertEquals(62, NanoHistogram.toBucket(Long.MAX_VALUE));
+        
+        NanoHistogram h = new NanoHistogram();
+        assertEquals(0.0, h.getMeanNanos(), 0.0);
+        for (int i = 0; i < 99; i++)
+        {
+            h.record(100);
+        }
+        h.record(5000);
+        assertEquals(100L, h.getCount());
+        assertEquals(99 * 100L + 5000L, h.getTotalNanos());
+        assertEquals(5000L, h.getMaxNanos());
+        assertEquals(99L, h.getBucketCount(NanoHistogram.toBucket(100)));
+        assertEquals(149.0, h.getMeanNanos(), 0.0);
+        // upper bound of the bucket holding the percentile
+        assertEquals(127L, h.getPercentileNanos(50));
+        assertEquals(127L, h.getPercentileNanos(99));
+        assertEquals(8191L, h.getPercentileNanos(100));
+        
+        h.reset();
+        assertEquals(0L, h.getCount());
+        assertEquals(0L, h.getMaxNanos());
+    }
+    
+    @Test
+    public void testInstrumentedRun()
+    {
+        final long evaluations = 2000;
+        final OneMax problem = new OneMax();
+        AlgorithmExecutor executor = new AlgorithmExecutor(problem, new GeneticAlgorithm(), new EvaluationsStopCondition(evaluations));
+        MeanCostNanosProbe cost = new MeanCostNanosProbe();
+        AlgorithmOverheadProbe overhead = new AlgorithmOverheadProbe();
+        TimingBreakdownProbe breakdown = new TimingBreakdownProbe();
+        executor.addRunProbe(cost);
+        executor.addRunProbe(overhead);
+        executor.addRunProbe(breakdown);
+        // observed while the run executes
+        final boolean [] registered = new boolean[1];
+        problem.addListener(new SolutionEvaluationListener()
+        {
+            public void solutionEvaluatedEvent(Solution evaluatedSolution)
+            {
+                RunInstrumentation in = problem.getInstrumentation();
+                registered[0] = (in != null && in.isRegistered());
+            }
+        });
+        try
+        {
+            executor.executeAndWait();
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        
+        assertTrue(registered[0]);
+        // one instrumentation shared by all probes
+        RunInstrumentation in = cost.getInstrumentation();
+        assertTrue(in == overhead.getInstrumentation());
+        assertTrue(in == breakdown.getInstrumentation());
+        assertEquals(evaluations, in.getEvaluations());
+        assertEquals(evaluations, in.getSafetyCheckHistogram().getCount());
+        assertEquals(evaluations, in.getDispatchHistogram().getCount());
+        assertTrue(in.getEpochs() > 0);
+        assertTrue(in.getSolutionsCreated() >= evaluations);
+        
+        double o = ((Double)overhead.getProbeObservation()).doubleValue();
+        assertTrue(o >= 0.0 && o <= 1.0);
+        assertTrue(((Double)cost.getProbeObservation()).doubleValue() >= 0.0);
+        assertFalse(((String)breakdown.getProbeObservation()).indexOf('\n') >= 0);
+        
+        // disabled after the run
+        assertNull(problem.getInstrumentation());
+        assertFalse(in.isRegistered());
+    }
+    
+    @Test
+    public void testNonEpochAlgorithm()
+    {
+        final long evaluations = 2000;
+        TestFunctionF1 problem = new TestFunctionF1();
+        AlgorithmExecutor executor = new AlgorithmExecutor(problem, new DifferentialEvolution(), new EvaluationsStopCondition(evaluations));
+        MeanCostNanosProbe cost = new MeanCostNanosProbe();
+        AlgorithmOverheadProbe overhead = new AlgorithmOverheadProbe();
+        executor.addRunProbe(cost);
+        executor.addRunProbe(overhead);
+        try
+        {
+            executor.executeAndWait();
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        
+        // evaluations timed, no epochs
+        RunInstrumentation in = cost.getInstrumentation();
+        assertEquals(evaluations, in.getEvaluations());
+        assertEquals(0L, in.getEpochs());
+        assertEquals("No Epochs", overhead.getProbeObservation());
+        assertNull(problem.getInstrumentation());
+    }
+}
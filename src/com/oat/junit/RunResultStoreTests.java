@@ -0,0 +1,241 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.experimenter.RunResult;
+import com.oat.experimenter.RunResultStore;
+import com.oat.utils.FileUtils;
+
+/**
+ * Description: Test the binary result store, including recovery from a partial write
+ *
+ * Date: 25/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class RunResultStoreTests
+{
+    protected final static String [] NAMES = {"BestScore", "TotalEvaluations", "RunTime"};
+    
+    protected RunResult createResult(int repeat, Random r, String text)
+    {
+        RunResult result = null;
+        if(repeat % 7 == 3)
+        {
+            result = new RunResult();
+            result.setErrorMessage("failed " + repeat);
+            result.setWasError(true);
+        }
+        else
+        {
+            result = new RunResult(NAMES, new Object[]{new Double(r.nextGaussian()), new Long(r.nextInt(100000)), text + " " + repeat});
+        }
+        result.setRepeatNumber(repeat);
+        return result;
+    }
+    
+    @Test
+    public void testRoundTrip()
+    {
+        Random r = new Random(1);
+        File f = null;
+        try
+        {
+            // large enough to be memory mapped when read
+            for(int total : new int[]{0, 1, 10, 20000})
+            {
+                f = File.createTempFile("RunResultStoreTests", RunResultStore.STORE_EXT);
+                RunResultStore store = new RunResultStore(f);
+                store.create();
+                store.enableSyncEachRecord(false);
+                RunResult [] expected = new RunResult[total];
+                // append out of order, as concurrent repeats would
+                for (int i = total; i >= 1; i--)
+                {
+                    expected[i-1] = createResult(i, r, "\u00e9");
+                    store.append(expected[i-1]);
+                }
+                assertFalse(RunResultStore.isComplete(f));
+                store.markComplete();
+                store.close();
+                assertTrue(RunResultStore.isComplete(f));
+                
+                RunResult [] got = RunResultStore.load(f);
+                assertSame(expected, got);
+                f.delete();
+            }
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            if(f != null)
+            {
+                f.delete();
+            }
+        }
+    }
+    
+    @Test
+    public void testPartialWrite()
+    {
+        Random r = new Random(1);
+        File f = null;
+        try
+        {
+            f = File.createTempFile("RunResultStoreTests", RunResultStore.STORE_EXT);
+            RunResultStore store = new RunResultStore(f);
+            store.create();
+            RunResult [] expected = new RunResult[6];
+            for (int i = 0; i < 5; i++)
+            {
+                expected[i] = createResult(i+1, r, "\u00e9");
+                store.append(expected[i]);
+            }
+            store.close();
+            long length = f.length();
+            
+            // a record that was only partly written
+            RandomAccessFile raf = new RandomAccessFile(f, "rw");
+            raf.seek(length);
+            raf.writeInt(100);
+            raf.writeLong(12345L);
+            raf.close();
+            assertSame(new RunResult[]{expected[0], expected[1], expected[2], expected[3], expected[4]}, RunResultStore.load(f));
+            
+            // opening removes the partial record
+            store.open();
+            assertEquals(length, f.length());
+            expected[5] = createResult(6, r, "\u00e9");
+            store.append(expected[5]);
+            store.markComplete();
+            store.close();
+            assertTrue(RunResultStore.isComplete(f));
+            assertSame(expected, RunResultStore.load(f));
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            if(f != null)
+            {
+                f.delete();
+            }
+        }
+    }
+    
+    @Test
+    public void testExportCSV()
+    {
+        Random r = new Random(1);
+        File f = null;
+        File csv = null;
+        try
+        {
+            f = File.createTempFile("RunResultStoreTests", RunResultStore.STORE_EXT);
+            csv = File.createTempFile("RunResultStoreTests", ".csv");
+            RunResultStore store = new RunResultStore(f);
+            store.create();
+            RunResult [] expected = new RunResult[10];
+            for (int i = 0; i < expected.length; i++)
+            {
+                expected[i] = createResult(i+1, r, "run");
+                store.append(expected[i]);
+            }
+            store.markComplete();
+            store.close();
+            
+            RunResultStore.exportToCSV(f, csv);
+            String [] lines = FileUtils.loadFile(csv).split("\n");
+            assertEquals(expected.length + 2, lines.length);
+            assertTrue(lines[0].startsWith("#"));
+            assertEquals(expected[0].toHeaderResultString(), lines[1]);
+            for (int i = 0; i < expected.length; i++)
+            {
+                assertEquals(expected[i].toResultString(), lines[i+2]);
+                if(!expected[i].isWasError())
+                {
+                    // the csv parses to the same values
+                    RunResult parsed = new RunResult();
+                    parsed.collectResults(lines[1].split(","), lines[i+2]);
+                    assertEquals(expected[i].getResultAsDouble(NAMES[0]), parsed.getResultAsDouble(NAMES[0]), 0.0);
+                }
+            }
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            if(f != null)
+            {
+                f.delete();
+            }
+            if(csv != null)
+            {
+                csv.delete();
+            }
+        }
+    }
+    
+    protected void assertSame(RunResult [] expected, RunResult [] got)
+    {
+        assertEquals(expected.length, got.length);
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertEquals(expected[i].getRepeatNumber(), got[i].getRepeatNumber());
+            assertEquals(expected[i].isWasError(), got[i].isWasError());
+            assertEquals(expected[i].getErrorMessage(), got[i].getErrorMessage());
+            assertEquals(expected[i].toResultString(), got[i].toResultString());
+            if(!expected[i].isWasError())
+            {
+                for (int j = 0; j < NAMES.length; j++)
+                {
+                    assertEquals(expected[i].getResult(NAMES[j]), got[i].getResult(NAMES[j]));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.AlgorithmRunException;
+import com.oat.domains.cfo.CFOSolution;
+import com.oat.domains.cfo.problems.geatbx.RastriginFunction;
+import com.oat.utils.Selection;
+
+/**
+ * Description: Test the selection kernels
+ *
+ * Date: 06/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class SelectionTests
+{
+    public final static int DRAWS = 200000;
+    
+    protected int [] count(int [] selected, int num, int size)
+    {
+        int [] counts = new int[size];
+        for (int i = 0; i < num; i++)
+        {
+            counts[selected[i]]++;
+        }
+        return counts;
+    }
+    
+    /**
+     * Roulette and SUS select in proportion to the normalized relative score
+     */
+    @Test
+    public void testProportional()
+    {
+        double [] scores = {0.0, 1.0, 2.0, 3.0, 4.0};
+        Selection s = new Selection();
+        s.load(scores, scores.length, false);
+        Random r = new Random(1);
+        int [] roulette = count(s.roulette(r, DRAWS), DRAWS, scores.length);
+        int [] sus = count(s.stochasticUniversalSampling(r, DRAWS), DRAWS, scores.length);
+        // weights 0, 0.25, 0.5, 0.75, 1 of total 2.5
+        for (int i = 0; i < scores.length; i++)
+        {
+            double expected = DRAWS * (i * 0.25) / 2.5;
+            assertEquals(expected, roulette[i], 5 * Math.sqrt(expected) + 1);
+            // SUS has minimum spread, within one of the expectation
+            assertEquals(expected, sus[i], 1.0);
+        }
+        // minimization inverts the weights
+        s.load(scores, scores.length, true);
+        roulette = count(s.roulette(r, DRAWS), DRAWS, scores.length);
+        assertEquals(0, roulette[4]);
+        assertTrue(roulette[0] > roulette[1]);
+    }
+    
+    /**
+     * Exposes the alias table for inspection
+     */
+    protected static class InspectedSelection extends Selection
+    {
+        /**
+         * Build the alias table over the provided weights and total, the total may 
+         * differ from the sum of the weights as through rounding
+         * @param w
+         * @param total
+         * @return - whether a solution of zero weight can be drawn from the table
+         */
+        public boolean canDrawZeroWeight(double [] w, double total)
+        {
+            load(new double[w.length], w.length, false);
+            System.arraycopy(w, 0, weights, 0, w.length);
+            buildAliasTable(total);
+            for (int i = 0; i < size; i++)
+            {
+                if((weights[i] == 0 && prob[i] > 0) || (prob[i] < 1 && weights[alias[i]] == 0))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * Solutions of zero weight (NaN or the worst score) are never selected by the 
+     * proportional schemes, regardless of rounding
+     */
+    @Test
+    public void testZeroWeightNeverSelected()
+    {
+        // the last pointer of SUS rounds up to the total weight
+        Random r = new Random()
+        {
+            @Override
+            public double nextDouble()
+            {
+                return 0.9999999999999999;
+            }
+        };
+        double [][] cases = {{1.0, 0.0}, {2.0, 1.0, 0.0}, {0.1, 0.2, 0.3, 0.0, Double.NaN}};
+        // the worst solution, weight zero
+        int [] worst = {1, 2, 3};
+        Selection s = new Selection();
+        for (int c = 0; c < cases.length; c++)
+        {
+            s.load(cases[c], cases[c].length, false);
+            int [] counts = count(s.stochasticUniversalSampling(r, 2), 2, cases[c].length);
+            for (int i = worst[c]; i < cases[c].length; i++)
+            {
+                assertEquals(0, counts[i]);
+            }
+        }
+        
+        // entries left on the small stack
+        InspectedSelection inspected = new InspectedSelection();
+        assertTrue(!inspected.canDrawZeroWeight(new double[]{0.0, 1.0}, 4.0));
+        assertTrue(!inspected.canDrawZeroWeight(new double[]{0.0, 0.5, 0.0, 1.0}, 1.6));
+        assertTrue(!inspected.canDrawZeroWeight(new double[]{0.25, 0.5, 0.0, 1.0}, 1.75));
+    }
+    
+    @Test
+    public void testRank()
+    {
+        // scores are unordered, ranks by score
+        double [] scores = {10.0, -5.0, 3.0, 100.0};
+        Selection s = new Selection();
+        s.load(scores, scores.length, false);
+        Random r = new Random(1);
+        // pressure 2, weights by rank 0..3 of 0, 2/3, 4/3, 2 of total 4
+        int [] counts = count(s.rank(r, DRAWS, 2.0), DRAWS, scores.length);
+        double [] expected = {(4.0/3.0)/4.0, 0.0, (2.0/3.0)/4.0, 2.0/4.0};
+        for (int i = 0; i < scores.length; i++)
+        {
+            double e = expected[i] * DRAWS;
+            assertEquals(e, counts[i], 5 * Math.sqrt(e) + 1);
+        }
+        // pressure 1 is uniform
+        counts = count(s.rank(r, DRAWS, 1.0), DRAWS, scores.length);
+        for (int i = 0; i < scores.length; i++)
+        {
+            assertEquals(DRAWS / 4.0, counts[i], 5 * Math.sqrt(DRAWS / 4.0));
+        }
+    }
+    
+    @Test
+    public void testTruncation()
+    {
+        double [] scores = {5.0, 1.0, 4.0, 2.0, 3.0, Double.NaN};
+        Selection s = new Selection();
+        s.load(scores, scores.length, true);
+        Random r = new Random(1);
+        int [] counts = count(s.truncation(r, DRAWS, 0.4), DRAWS, scores.length);
+        // best 2 of 5 valid when minimizing are 1.0 and 2.0
+        assertEquals(DRAWS, counts[1] + counts[3]);
+        assertEquals(DRAWS / 2.0, counts[1], 5 * Math.sqrt(DRAWS / 2.0));
+    }
+    
+    @Test
+    public void testTournament()
+    {
+        double [] scores = {3.0, Double.NaN, 1.0, 7.0, 2.0};
+        Selection s = new Selection();
+        s.load(scores, scores.length, false);
+        Random r = new Random(1);
+        // a bout of the whole population always selects the best
+        int [] selected = s.tournament(r, 100, scores.length);
+        for (int i = 0; i < 100; i++)
+        {
+            assertEquals(3, selected[i]);
+        }
+        // binary tournament, the worst valid is only selected when paired with NaN
+        int [] counts = count(s.tournament(r, DRAWS, 2), DRAWS, scores.length);
+        assertEquals(0, counts[1]);
+        double e = DRAWS / 10.0;
+        assertEquals(e, counts[2], 5 * Math.sqrt(e));
+        // NaN never selected
+        s.load(new double[]{Double.NaN, Double.NaN}, 2, false);
+        try
+        {
+            s.tournament(r, 1, 2);
+            fail("Expected an exception");
+        }
+        catch(AlgorithmRunException ex)
+        {}
+    }
+    
+    /**
+     * The result buffer is reused between selections and solutions are collected from the population
+     */
+    @Test
+    public void testPopulation()
+    {
+        RastriginFunction p = new RastriginFunction();
+        Random r = new Random(1);
+        LinkedList<CFOSolution> pop = new LinkedList<CFOSolution>();
+        for (int i = 0; i < 20; i++)
+        {
+            double [] c = new double[p.getDimensions()];
+            for (int j = 0; j < c.length; j++)
+            {
+                c[j] = r.nextDouble();
+            }
+            pop.add(new CFOSolution(c));
+        }
+        p.cost(pop);
+        Selection s = new Selection();
+        s.load(pop, p);
+        int [] first = s.tournament(r, 20, 3);
+        assertSame(first, s.roulette(r, 20));
+        assertSame(first, s.rank(r, 10, 1.5));
+        LinkedList<CFOSolution> selected = s.tournamentSelection(pop, 21, p, r, 20);
+        assertEquals(21, selected.size());
+        CFOSolution best = pop.getFirst();
+        for(CFOSolution c : pop)
+        {
+            if(c.getScore() < best.getScore())
+            {
+                best = c;
+            }
+        }
+        for(CFOSolution c : selected)
+        {
+            assertSame(best, c);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.domains.tsp.AntTourConstruction;
+import com.oat.domains.tsp.TSPProblem;
+
+/**
+ * Description: Test the candidate list ACO tour construction
+ *
+ * Date: 23/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class TSPConstructionTests
+{
+    protected double [][] randomPheromone(int n, Random r)
+    {
+        double [][] m = new double[n][n];
+        for (int i = 0; i < n; i++)
+        {
+            for (int j = i+1; j < n; j++)
+            {
+                m[i][j] = m[j][i] = 0.1 + r.nextDouble();
+            }
+        }
+        return m;
+    }
+    
+    @Test
+    public void testValidTours()
+    {
+        Random r = new Random(1);
+        for(int n : new int[]{2, 3, 10, 70, 130})
+        {
+            TSPProblem p = new TSPDeltaEvaluationTests.RandomCitiesProblem(n, r);
+            double [][] pheromone = randomPheromone(n, r);
+            for(int k : new int[]{1, 3, AntTourConstruction.DEFAULT_CANDIDATE_LIST_SIZE})
+            {
+                AntTourConstruction c = new AntTourConstruction(p.getDistances(), k, 1.0, 2.5);
+                c.prepareChoiceInfo(pheromone);
+                for (int i = 0; i < 20; i++)
+                {
+                    p.checkSolutionForSafety(c.constructTour(pheromone, r));
+                    p.checkSolutionForSafety(c.constructTour(pheromone, 0.9, r));
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testGreedyIsNearestNeighbour()
+    {
+        Random r = new Random(1);
+        int n = 40;
+        TSPProblem p = new TSPDeltaEvaluationTests.RandomCitiesProblem(n, r);
+        double [][] pheromone = new double[n][n];
+        for (int i = 0; i < n; i++)
+        {
+            Arrays.fill(pheromone[i], 1.0);
+        }
+        AntTourConstruction c = new AntTourConstruction(p.getDistances(), 5, 1.0, 2.0);
+        c.prepareChoiceInfo(pheromone);
+        for (int t = 0; t < 10; t++)
+        {
+            int [] tour = c.constructTour(pheromone, 1.0, r);
+            boolean [] visited = new boolean[n];
+            visited[tour[0]] = true;
+            for (int i = 1; i < n; i++)
+            {
+                int nearest = -1;
+                for (int j = 0; j < n; j++)
+                {
+                    if(!visited[j] && (nearest == -1 || p.getDistance(tour[i-1], j) < p.getDistance(tour[i-1], nearest)))
+                    {
+                        nearest = j;
+                    }
+                }
+                assertEquals(nearest, tour[i]);
+                visited[nearest] = true;
+            }
+        }
+    }
+    
+    @Test
+    public void testProportionalDistribution()
+    {
+        Random r = new Random(1);
+        int n = 5;
+        double alpha = 1.5;
+        double beta = 2.0;
+        TSPProblem p = new TSPDeltaEvaluationTests.RandomCitiesProblem(n, r);
+        double [][] pheromone = randomPheromone(n, r);
+        // complete candidate lists, the first step must follow the random proportional rule
+        AntTourConstruction c = new AntTourConstruction(p.getDistances(), n-1, alpha, beta);
+        c.prepareChoiceInfo(pheromone);
+        int [][] counts = new int[n][n];
+        int [] starts = new int[n];
+        for (int i = 0; i < 200000; i++)
+        {
+            int [] tour = c.constructTour(pheromone, r);
+            counts[tour[0]][tour[1]]++;
+            starts[tour[0]]++;
+        }
+        for (int i = 0; i < n; i++)
+        {
+            double sum = 0.0;
+            for (int j = 0; j < n; j++)
+            {
+                if(j != i)
+                {
+                    sum += Math.pow(pheromone[i][j], alpha) * Math.pow(1.0/p.getDistance(i, j), beta);
+                }
+            }
+            for (int j = 0; j < n; j++)
+            {
+                double expected = (j == i) ? 0.0 : Math.pow(pheromone[i][j], alpha) * Math.pow(1.0/p.getDistance(i, j), beta) / sum;
+                assertEquals(expected, (double)counts[i][j] / starts[i], 0.01);
+            }
+        }
+    }
+}
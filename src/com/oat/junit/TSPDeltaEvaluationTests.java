@@ -0,0 +1,182 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.domains.tsp.TSPProblem;
+import com.oat.domains.tsp.TSPSolution;
+import com.oat.domains.tsp.TSPUtils;
+import com.oat.stopcondition.EvaluationsStopCondition;
+import com.oat.utils.ArrayUtils;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Test that the change in tour length calculated for a move matches the
+ * length of the complete tour after the move
+ *
+ * Date: 21/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class TSPDeltaEvaluationTests
+{
+    /**
+     * A problem of random cities, does not require a TSPLIB file
+     */
+    protected static class RandomCitiesProblem extends TSPProblem
+    {
+        public RandomCitiesProblem(int totalCities, Random r)
+        {
+            cities = new double[totalCities][];
+            for (int i = 0; i < cities.length; i++)
+            {
+                cities[i] = new double[]{r.nextDouble()*1000.0, r.nextDouble()*1000.0};
+            }
+            distanceType = DISTANCE_TYPE.EUCLIDEAN;
+            name = "random";
+            isLoaded = true;
+            prepareDistanceMatrix();
+        }
+    }
+
+    protected final static int [] SIZES = {2, 3, 4, 5, 8, 13};
+
+    @Test
+    public void testTwoOptDelta()
+    {
+        Random r = new Random(1);
+        for(int n : SIZES)
+        {
+            TSPProblem p = new RandomCitiesProblem(n, r);
+            int [] tour = RandomUtils.generateRandomVector(n, r);
+            double length = p.problemSpecificCost(tour);
+            for (int c1 = 0; c1 < n; c1++)
+            {
+                for (int c2 = c1+1; c2 < n; c2++)
+                {
+                    int [] moved = ArrayUtils.copyArray(tour);
+                    TSPUtils.reverse(moved, c1, c2);
+                    assertEquals(p.problemSpecificCost(moved), length + p.twoOptDelta(tour, c1, c2), 1E-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSwapDelta()
+    {
+        Random r = new Random(1);
+        for(int n : SIZES)
+        {
+            TSPProblem p = new RandomCitiesProblem(n, r);
+            int [] tour = RandomUtils.generateRandomVector(n, r);
+            double length = p.problemSpecificCost(tour);
+            for (int i = 0; i < n; i++)
+            {
+                for (int j = 0; j < n; j++)
+                {
+                    int [] moved = ArrayUtils.copyArray(tour);
+                    ArrayUtils.swap(i, j, moved);
+                    assertEquals(p.problemSpecificCost(moved), length + p.swapDelta(tour, i, j), 1E-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOrOptDelta()
+    {
+        Random r = new Random(1);
+        int total = 0;
+        for(int n : SIZES)
+        {
+            TSPProblem p = new RandomCitiesProblem(n, r);
+            int [] tour = RandomUtils.generateRandomVector(n, r);
+            double length = p.problemSpecificCost(tour);
+            for (int start = 0; start < n; start++)
+            {
+                for (int l = 1; start+l <= n && l <= n-2; l++)
+                {
+                    int end = start + l - 1;
+                    for (int insert = 0; insert < n; insert++)
+                    {
+                        if((insert >= start && insert <= end) || insert == (start-1+n)%n)
+                        {
+                            continue;
+                        }
+                        int [] moved = ArrayUtils.copyArray(tour);
+                        TSPUtils.orOpt(moved, start, l, insert);
+                        p.checkSolutionForSafety(moved);
+                        assertEquals(p.problemSpecificCost(moved), length + p.orOptDelta(tour, start, l, insert), 1E-9);
+                        total++;
+                    }
+                }
+            }
+        }
+        assertTrue(total > 0);
+    }
+
+    @Test
+    public void testDeltaCountsAsEvaluation()
+    {
+        Random r = new Random(1);
+        TSPProblem p = new RandomCitiesProblem(50, r);
+        EvaluationsStopCondition sc = new EvaluationsStopCondition(1000);
+        p.addStopCondition(sc);
+        try
+        {
+            sc.initialiseBeforeRun(p, null);
+            TSPSolution parent = new TSPSolution(RandomUtils.generateRandomVector(50, r));
+            p.cost(parent);
+            for (int i = 0; i < 100; i++)
+            {
+                TSPSolution child = (i%2==0) ? TSPUtils.twoOpt(p, parent, r, 1.0) : TSPUtils.mutatePermutation(p, parent, r, 0.1);
+                assertTrue(child.isDeltaEvaluated());
+                p.cost(child);
+                assertEquals(p.problemSpecificCost(child.getPermutation()), child.getScore(), 1E-9);
+                parent = child;
+            }
+            assertEquals(101L, sc.getEvaluationsCount());
+            sc.cleanupAfterRun(p, null);
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        finally
+        {
+            p.clearStopConditions();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.oat.domains.tsp.DenseDistanceMatrix;
+import com.oat.domains.tsp.DistanceMatrix;
+import com.oat.domains.tsp.OnDemandDistanceMatrix;
+import com.oat.domains.tsp.PackedDistanceMatrix;
+import com.oat.domains.tsp.TSPProblem;
+import com.oat.domains.tsp.TSPProblem.DISTANCE_STORAGE;
+import com.oat.domains.tsp.TSPProblem.DISTANCE_TYPE;
+import com.oat.utils.RandomUtils;
+
+/**
+ * Description: Test that all distance storage provides the same distances and candidate lists, 
+ * and that prepared distances are reused between runs of the same problem
+ *
+ * Date: 22/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class TSPDistanceStorageTests
+{
+    @Test
+    public void testSameDistances()
+    {
+        Random r = new Random(1);
+        for(DISTANCE_TYPE type : DISTANCE_TYPE.values())
+        {
+            double [][] cities = randomCities(r, 60, type);
+            DistanceMatrix dense = new DenseDistanceMatrix(cities, type);
+            DistanceMatrix [] others = {new PackedDistanceMatrix(cities, type), new OnDemandDistanceMatrix(cities, type), new OnDemandDistanceMatrix(cities, type, 2)};
+            for(DistanceMatrix m : others)
+            {
+                assertEquals(cities.length, m.getTotalCities());
+                // twice to exercise the cache
+                for (int k = 0; k < 2; k++)
+                {
+                    for (int i = 0; i < cities.length; i++)
+                    {
+                        for (int j = 0; j < cities.length; j++)
+                        {
+                            assertEquals(dense.distance(i, j), m.distance(i, j), 0.0);
+                        }
+                    }
+                }
+            }
+            assertTrue(others[0].getMemoryUsage() < dense.getMemoryUsage());
+        }
+    }
+
+    @Test
+    public void testNearestNeighbours()
+    {
+        Random r = new Random(1);
+        double [][] cities = randomCities(r, 50, DISTANCE_TYPE.EUCLIDEAN);
+        DistanceMatrix m = new PackedDistanceMatrix(cities, DISTANCE_TYPE.EUCLIDEAN);
+        for(int k : new int[]{1, 5, 49, 100})
+        {
+            int [][] lists = m.getNearestNeighbours(k);
+            assertSame(lists, m.getNearestNeighbours(k));
+            assertEquals(cities.length, lists.length);
+            for (int i = 0; i < cities.length; i++)
+            {
+                assertEquals(Math.min(k, cities.length-1), lists[i].length);
+                // brute force: sort by distance then city number
+                Integer [] order = new Integer[cities.length];
+                for (int j = 0; j < order.length; j++)
+                {
+                    order[j] = new Integer(j);
+                }
+                final int city = i;
+                final DistanceMatrix dm = m;
+                Arrays.sort(order, new java.util.Comparator<Integer>()
+                {
+                    public int compare(Integer o1, Integer o2)
+                    {
+                        int c = Double.compare(dm.distance(city, o1.intValue()), dm.distance(city, o2.intValue()));
+                        return (c != 0) ? c : o1.compareTo(o2);
+                    }
+                });
+                for (int j = 0, o = 0; j < lists[i].length; o++)
+                {
+                    if(order[o].intValue() == i)
+                    {
+                        continue;
+                    }
+                    assertEquals(order[o].intValue(), lists[i][j++]);
+                }
+            }
+        }
+    }
+
+    /**
+     * A problem of random cities generated from the problem name, such that it does not require a TSPLIB file
+     */
+    public static class GeneratedCitiesProblem extends TSPProblem
+    {
+        /**
+         * Simulate the collector reclaiming the cached distances of this problem
+         */
+        public void reclaimCachedDistances()
+        {
+            synchronized(DISTANCE_CACHE)
+            {
+                DISTANCE_CACHE.get(problemFilename + ":" + distanceStorage.name()).enqueue();
+            }
+        }
+        
+        @Override
+        protected void loadProblem()
+        {
+            Random r = new Random(problemFilename.hashCode());
+            cities = new double[30][];
+            for (int i = 0; i < cities.length; i++)
+            {
+                cities[i] = new double[]{r.nextInt(10000), r.nextInt(10000)};
+            }
+            distanceType = DISTANCE_TYPE.EUCLIDEAN;
+            name = problemFilename;
+        }
+
+        @Override
+        protected void loadSolution()
+        {
+            solutionCityList = RandomUtils.generateRandomVector(cities.length, new Random(1));
+            solutionTourLength = problemSpecificCost(solutionCityList);
+            isLoaded = true;
+        }
+    }
+
+    @Test
+    public void testReuseBetweenRuns()
+    {
+        try
+        {
+            int [] tour = RandomUtils.generateRandomVector(30, new Random(2));
+            double length = Double.NaN;
+            for(DISTANCE_STORAGE storage : DISTANCE_STORAGE.values())
+            {
+                GeneratedCitiesProblem p = new GeneratedCitiesProblem();
+                p.setProblemFilename("TSPDistanceStorageTests");
+                p.setDistanceStorage(storage);
+                p.initialiseBeforeRun();
+                DistanceMatrix first = p.getDistances();
+                assertEquals(storage == DISTANCE_STORAGE.DENSE, p.getDistanceMatrix() != null);
+                double l = p.problemSpecificCost(tour);
+                if(!Double.isNaN(length))
+                {
+                    assertEquals(length, l, 0.0);
+                }
+                length = l;
+                p.cleanupAfterRun();
+                assertNull(p.getDistances());
+                // a second run and a copy of the problem use the same distances
+                p.initialiseBeforeRun();
+                assertSame(first, p.getDistances());
+                p.cleanupAfterRun();
+                GeneratedCitiesProblem copy = new GeneratedCitiesProblem();
+                copy.populateFromInstance(p);
+                assertEquals(storage, copy.getDistanceStorage());
+                copy.initialiseBeforeRun();
+                assertSame(first, copy.getDistances());
+                copy.cleanupAfterRun();
+            }
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cache entries of distances reclaimed by the collector are removed
+     */
+    @Test
+    public void testReclaimedDistancesRemoved()
+    {
+        try
+        {
+            GeneratedCitiesProblem p = new GeneratedCitiesProblem();
+            p.setProblemFilename("TSPDistanceStorageTestsReclaimed");
+            p.initialiseBeforeRun();
+            DistanceMatrix first = p.getDistances();
+            p.cleanupAfterRun();
+            int size = TSPProblem.getDistanceCacheSize();
+            
+            p.reclaimCachedDistances();
+            assertEquals(size - 1, TSPProblem.getDistanceCacheSize());
+            // prepared again and cached
+            p.initialiseBeforeRun();
+            assertTrue(first != p.getDistances());
+            assertEquals(size, TSPProblem.getDistanceCacheSize());
+            p.cleanupAfterRun();
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+    }
+
+    protected double [][] randomCities(Random r, int n, DISTANCE_TYPE type)
+    {
+        double [][] cities = new double[n][];
+        for (int i = 0; i < n; i++)
+        {
+            if(type == DISTANCE_TYPE.GEOGRAPHICAL)
+            {
+                // DDD.MM latitude and longitude
+                cities[i] = new double[]{r.nextInt(180)-90+r.nextInt(60)/100.0, r.nextInt(360)-180+r.nextInt(60)/100.0};
+            }
+            else
+            {
+                cities[i] = new double[]{r.nextInt(10000), r.nextInt(10000)};
+            }
+        }
+        return cities;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.oat.AlgorithmExecutor;
+import com.oat.domains.cfo.algorithms.evolution.DifferentialEvolution;
+import com.oat.domains.cfo.problems.dejong.TestFunctionF1;
+import com.oat.experimenter.RunResult;
+import com.oat.probes.BestScoreProbe;
+import com.oat.probes.FixedTrajectoryProbe;
+import com.oat.probes.LogTrajectoryProbe;
+import com.oat.probes.Trajectory;
+import com.oat.stopcondition.EvaluationsStopCondition;
+
+/**
+ * Description: Test the trajectory ring buffer, the checkpoint schedules and the recording
+ * of trajectories during a run
+ *
+ * Date: 28/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class TrajectoryProbeTests
+{
+    @Test
+    public void testTrajectory()
+    {
+        Trajectory t = new Trajectory(3);
+        for (int i = 1; i <= 5; i++)
+        {
+            t.add(i * 10, i * 100, 10.0 / i);
+        }
+        // oldest points replaced
+        assertEquals(3, t.size());
+        assertEquals(2L, t.getTotalDropped());
+        assertEquals(30L, t.getEvaluations(0));
+        assertEquals(50L, t.getLastEvaluations());
+        assertEquals(400L, t.getElapsedNanos(1));
+        
+        assertTrue(Double.isNaN(t.getBestScoreAt(29)));
+        assertEquals(10.0 / 3, t.getBestScoreAt(30), 0.0);
+        assertEquals(10.0 / 4, t.getBestScoreAt(49), 0.0);
+        assertEquals(10.0 / 5, t.getBestScoreAt(1000), 0.0);
+        assertEquals(40L, t.getEvaluationsToReach(2.5, true));
+        assertEquals(-1L, t.getEvaluationsToReach(1.0, true));
+        assertEquals(30L, t.getEvaluationsToReach(1.0, false));
+        
+        // string form is exact
+        Trajectory p = Trajectory.parse(t.toString());
+        assertEquals(t.toString(), p.toString());
+        assertEquals(t.getBestScore(2), p.getBestScore(2), 0.0);
+        assertEquals(0, Trajectory.parse("").size());
+    }
+    
+    @Test
+    public void testLogCheckpoints()
+    {
+        long [] expected = {1, 2, 3, 4, 6, 7, 8, 10, 13, 16, 20};
+        long c = 0;
+        for (int i = 0; i < expected.length; i++)
+        {
+            c = LogTrajectoryProbe.nextLogCheckpoint(c, LogTrajectoryProbe.POINTS_PER_DECADE);
+            assertEquals(expected[i], c);
+        }
+        // points per decade, [10^6, 10^7)
+        int total = 0;
+        for (c = LogTrajectoryProbe.nextLogCheckpoint(999999, 10); c < 10000000; c = LogTrajectoryProbe.nextLogCheckpoint(c, 10))
+        {
+            total++;
+        }
+        assertEquals(10, total);
+    }
+    
+    @Test
+    public void testRecordedDuringRun()
+    {
+        final long evaluations = 2000;
+        TestFunctionF1 problem = new TestFunctionF1();
+        AlgorithmExecutor executor = new AlgorithmExecutor(problem, new DifferentialEvolution(), new EvaluationsStopCondition(evaluations));
+        LogTrajectoryProbe log = new LogTrajectoryProbe();
+        FixedTrajectoryProbe fixed = new FixedTrajectoryProbe();
+        BestScoreProbe best = new BestScoreProbe();
+        executor.addRunProbe(log);
+        executor.addRunProbe(fixed);
+        executor.addRunProbe(best);
+        try
+        {
+            executor.executeAndWait();
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            fail("Unexpected error: " + e.getMessage());
+        }
+        
+        // fixed budget, evenly spaced
+        Trajectory t = fixed.getTrajectory();
+        assertEquals(FixedTrajectoryProbe.TOTAL_CHECKPOINTS, t.size());
+        for (int i = 0; i < t.size(); i++)
+        {
+            assertEquals((i + 1) * evaluations / FixedTrajectoryProbe.TOTAL_CHECKPOINTS, t.getEvaluations(i));
+            if(i > 0)
+            {
+                // best so far, minimisation
+                assertTrue(t.getBestScore(i) <= t.getBestScore(i - 1));
+                assertTrue(t.getElapsedNanos(i) >= t.getElapsedNanos(i - 1));
+            }
+        }
+        assertEquals(((Double)best.getProbeObservation()).doubleValue(), t.getBestScore(t.size() - 1), 0.0);
+        
+        // logarithmic, a final point at the end of the run
+        t = log.getTrajectory();
+        long c = 0;
+        for (int i = 0; i < t.size() - 1; i++)
+        {
+            c = LogTrajectoryProbe.nextLogCheckpoint(c, LogTrajectoryProbe.POINTS_PER_DECADE);
+            assertEquals(c, t.getEvaluations(i));
+        }
+        assertEquals(evaluations, t.getLastEvaluations());
+        assertEquals(((Double)best.getProbeObservation()).doubleValue(), t.getBestScore(t.size() - 1), 0.0);
+        
+        // stored by the experimenter as a string
+        Object o = RunResult.toResultValue(log.getProbeObservation());
+        assertEquals(t.toString(), Trajectory.parse((String)o).toString());
+        
+        // the probe is no longer a listener
+        assertEquals(0, problem.getEvaluationEventBus().getListeners().length);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.probes;
+
+/**
+ * Description: Fraction of the time of the epochs of the run spent in the algorithm 
+ * (creating, selecting and replacing solutions) rather than evaluating solutions. 
+ * Only recorded for epoch algorithms.
+ *
+ * Date: 29/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class AlgorithmOverheadProbe extends InstrumentationProbe
+{
+	@Override
+	public String getName()
+	{
+		return "Algorithm Overhead";
+	}
+
+	@Override
+	public Object getProbeObservation()
+	{
+		if(instrumentation == null)
+		{
+			return "No Instrumentation";
+		}
+		double overhead = instrumentation.getAlgorithmOverhead();
+		if(Double.isNaN(overhead))
+		{
+			return "No Epochs";
+		}
+		return new Double(overhead);
+	}
+}
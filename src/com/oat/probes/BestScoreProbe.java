@@ -22,12 +22,11 @@ package com.oat.probes;
 import com.oat.Algorithm;
 import com.oat.InitialisationException;
 import com.oat.Problem;
-import com.oat.Solution;
-import com.oat.SolutionEvaluationException;
+import com.oat.RunProbe;
 
 /**
  * 
- * Description: Collects the best score of a run 
+ * Description: Collects the best score of a run, read from the evaluation event bus of the problem
  *  
  * Date: 03/09/2007<br/>
  * @author Jason Brownlee 
@@ -36,13 +35,13 @@ import com.oat.SolutionEvaluationException;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 17/11/2007	JBrownlee	Best score read from the problem evaluation event bus rather than a listener
  * </pre>
  */
-public class BestScoreProbe extends GenericSolutionEvaluatedProbe
+public class BestScoreProbe extends RunProbe
 {
     protected double bestScore;
-    protected Problem problem;
+    protected volatile Problem problem;
     
 	@Override
 	public String getName()
@@ -53,29 +52,7 @@ public class BestScoreProbe extends GenericSolutionEvaluatedProbe
 	@Override
 	public Object getProbeObservation()
 	{
-		return new Double(bestScore);
-	}
-
-	@Override
-	public void solutionEvaluatedEvent(Solution evaluatedSolution)
-	{
-		try
-		{
-			double s = evaluatedSolution.getScore();
-			// check for no score
-			if(Double.isNaN(bestScore))
-			{
-				bestScore = s;
-			}
-			else if(problem.isBetter(s, bestScore))
-			{
-				bestScore = s;
-			}
-		}
-		catch (SolutionEvaluationException e)
-		{
-			throw new RuntimeException("Unexpected event, notified of an unevaluated solution : " + evaluatedSolution);
-		}
+		return new Double(getBestScore());
 	}
 	
 	@Override
@@ -83,6 +60,7 @@ public class BestScoreProbe extends GenericSolutionEvaluatedProbe
 		throws InitialisationException
 	{
 		super.cleanupAfterRun(p, a);
+		bestScore = getBestScore();
 		problem = null;
 	}
     
@@ -99,11 +77,17 @@ public class BestScoreProbe extends GenericSolutionEvaluatedProbe
     public void initialiseBeforeRun(Problem p, Algorithm a) throws InitialisationException
     {
     	super.initialiseBeforeRun(p ,a);
+    	p.getEvaluationEventBus().resetBestScore();
     	problem = p;
     }
 
 	public double getBestScore()
 	{
+		Problem p = problem;
+		if(p != null)
+		{
+			return p.getEvaluationEventBus().getBestScore();
+		}
 		return bestScore;
 	}
 
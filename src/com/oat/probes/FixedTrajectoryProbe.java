@@ -0,0 +1,101 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.probes;
+
+import com.oat.Problem;
+import com.oat.StopCondition;
+import com.oat.stopcondition.EvaluationsStopCondition;
+
+/**
+ * Description: Trajectory recorded at fixed-budget checkpoints. When the run is limited by an 
+ * evaluations stop condition the budget is divided into evenly spaced checkpoints, otherwise 
+ * a point is recorded every fixed number of evaluations, keeping the most recent points
+ *
+ * Date: 28/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class FixedTrajectoryProbe extends TrajectoryProbe
+{
+	/**
+	 * Checkpoints over an evaluation budget
+	 */
+	public final static int TOTAL_CHECKPOINTS = 100;
+	/**
+	 * Interval used when there is no evaluation budget
+	 */
+	public final static long DEFAULT_INTERVAL = 100;
+	public final static int CAPACITY = 1000;
+	
+	protected long interval = DEFAULT_INTERVAL;
+	
+	@Override
+	public String getName()
+	{
+		return "Trajectory (Fixed)";
+	}
+	
+	@Override
+	protected long getFirstCheckpoint(Problem p)
+	{
+		interval = calculateInterval(p);
+		return interval;
+	}
+	
+	@Override
+	protected long getNextCheckpoint(long evaluations)
+	{
+		return (evaluations / interval + 1) * interval;
+	}
+	
+	@Override
+	protected int getTrajectoryCapacity()
+	{
+		return CAPACITY;
+	}
+	
+	/**
+	 * Evaluations between checkpoints, based on the smallest evaluation budget of the problem
+	 * @param p
+	 * @return
+	 */
+	public static long calculateInterval(Problem p)
+	{
+		long budget = Long.MAX_VALUE;
+		for(StopCondition s : p.getStopConditions())
+		{
+			if(s instanceof EvaluationsStopCondition)
+			{
+				budget = Math.min(budget, ((EvaluationsStopCondition)s).getMaxEvaluations());
+			}
+		}
+		if(budget == Long.MAX_VALUE)
+		{
+			return DEFAULT_INTERVAL;
+		}
+		return Math.max(1, budget / TOTAL_CHECKPOINTS);
+	}
+}
@@ -0,0 +1,97 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.probes;
+
+import com.oat.Algorithm;
+import com.oat.InitialisationException;
+import com.oat.Problem;
+import com.oat.RunInstrumentation;
+import com.oat.RunProbe;
+
+/**
+ * Description: Base class for probes that observe the {@link RunInstrumentation} of a run. 
+ * Instrumentation is enabled on the problem before the run (shared by all instrumentation 
+ * probes of the run) and registered as an MBean for monitoring while the run executes. The 
+ * probe that enabled it disables it after the run.
+ *
+ * Date: 29/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public abstract class InstrumentationProbe extends RunProbe
+{
+	protected RunInstrumentation instrumentation;
+	/**
+	 * Whether or not this probe enabled the instrumentation
+	 */
+	protected boolean isOwner;
+	
+	@Override
+	public void initialiseBeforeRun(Problem p, Algorithm a) throws InitialisationException
+	{
+		super.initialiseBeforeRun(p, a);
+		instrumentation = p.getInstrumentation();
+		if(instrumentation == null)
+		{
+			instrumentation = new RunInstrumentation();
+			p.enableInstrumentation(instrumentation);
+			instrumentation.registerMBean(p.getName());
+			isOwner = true;
+		}
+	}
+	
+	@Override
+	public void cleanupAfterRun(Problem p, Algorithm a) throws InitialisationException
+	{
+		super.cleanupAfterRun(p, a);
+		if(isOwner)
+		{
+			if(p.getInstrumentation() == instrumentation)
+			{
+				p.disableInstrumentation();
+			}
+			instrumentation.unregisterMBean();
+			isOwner = false;
+		}
+	}
+	
+	@Override
+	public void reset()
+	{
+		super.reset();
+		instrumentation = null;
+		isOwner = false;
+	}
+	
+	/**
+	 * Instrumentation of the current or last run
+	 * @return - instrumentation, or null if not run
+	 */
+	public RunInstrumentation getInstrumentation()
+	{
+		return instrumentation;
+	}
+}
@@ -0,0 +1,92 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.probes;
+
+import com.oat.Problem;
+
+/**
+ * Description: Trajectory recorded at checkpoints evenly spaced on a logarithmic scale of 
+ * evaluations (10 per decade: 1, 2, 3, 4, 6, 7, 8, 10, 13, 16, 20, ...), thus the start of a run 
+ * is recorded in detail and the number of points grows with the logarithm of the run length
+ *
+ * Date: 28/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class LogTrajectoryProbe extends TrajectoryProbe
+{
+	public final static int POINTS_PER_DECADE = 10;
+	/**
+	 * Enough for 10^20 evaluations
+	 */
+	public final static int CAPACITY = 20 * POINTS_PER_DECADE + 1;
+	
+	@Override
+	public String getName()
+	{
+		return "Trajectory (Log)";
+	}
+	
+	@Override
+	protected long getFirstCheckpoint(Problem p)
+	{
+		return 1;
+	}
+	
+	@Override
+	protected long getNextCheckpoint(long evaluations)
+	{
+		return nextLogCheckpoint(evaluations, POINTS_PER_DECADE);
+	}
+	
+	@Override
+	protected int getTrajectoryCapacity()
+	{
+		return CAPACITY;
+	}
+	
+	/**
+	 * The smallest checkpoint greater than evaluations, checkpoints are the 
+	 * values ceil(10^(k/pointsPerDecade)) for integer k
+	 * @param evaluations
+	 * @param pointsPerDecade
+	 * @return
+	 */
+	public static long nextLogCheckpoint(long evaluations, int pointsPerDecade)
+	{
+		if(evaluations < 1)
+		{
+			return 1;
+		}
+		int k = (int) Math.floor(Math.log10(evaluations) * pointsPerDecade);
+		long next = (long) Math.ceil(Math.pow(10.0, (double) k / pointsPerDecade));
+		while(next <= evaluations)
+		{
+			next = (long) Math.ceil(Math.pow(10.0, (double) ++k / pointsPerDecade));
+		}
+		return next;
+	}
+}
@@ -0,0 +1,53 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.probes;
+
+/**
+ * Description: Timing breakdown of the run (safety check, cost, listener dispatch, 
+ * epoch algorithm and evaluation time histograms and solutions created) as a single line
+ *
+ * Date: 29/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class TimingBreakdownProbe extends InstrumentationProbe
+{
+	@Override
+	public String getName()
+	{
+		return "Timing Breakdown";
+	}
+
+	@Override
+	public Object getProbeObservation()
+	{
+		if(instrumentation == null)
+		{
+			return "No Instrumentation";
+		}
+		return instrumentation.getReport().replace("\n", "; ");
+	}
+}
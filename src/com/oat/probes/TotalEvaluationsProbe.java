@@ -19,10 +19,13 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
 */
 package com.oat.probes;
 
-import com.oat.Solution;
+import com.oat.Algorithm;
+import com.oat.InitialisationException;
+import com.oat.Problem;
+import com.oat.RunProbe;
 
 /**
- * Description:  Records the number of evaluations
+ * Description:  Records the number of evaluations, read from the evaluation event bus of the problem
  *  
  * Date: 03/09/2007<br/>
  * @author Jason Brownlee 
@@ -31,17 +34,30 @@ import com.oat.Solution;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 17/11/2007	JBrownlee	Count read from the problem evaluation event bus rather than a listener
  * </pre>
  */
-public class TotalEvaluationsProbe extends GenericSolutionEvaluatedProbe
+public class TotalEvaluationsProbe extends RunProbe
 {
     protected long completedEvaluations;
-
+    protected long startCount;
+    protected volatile Problem problem;
+    
+    @Override
+    public void initialiseBeforeRun(Problem p, Algorithm a) throws InitialisationException
+    {
+    	super.initialiseBeforeRun(p ,a);
+    	startCount = p.getEvaluationEventBus().getTotalEvaluations();
+    	problem = p;
+    }
+    
 	@Override
-	public void solutionEvaluatedEvent(Solution evaluatedSolution)
+	public void cleanupAfterRun(Problem p, Algorithm a)	
+		throws InitialisationException
 	{
-		completedEvaluations++;
+		super.cleanupAfterRun(p, a);
+		completedEvaluations = getCompletedEvaluations();
+		problem = null;
 	}
 
 	@Override
@@ -53,17 +69,24 @@ public class TotalEvaluationsProbe extends GenericSolutionEvaluatedProbe
 	@Override
 	public Object getProbeObservation()
 	{
-		return new Long(completedEvaluations);
+		return new Long(getCompletedEvaluations());
 	}
 	
 	@Override
     public void reset()
     {
     	completedEvaluations = 0;
+    	startCount = 0;
+    	problem = null;
     }
 
 	public long getCompletedEvaluations()
 	{
+		Problem p = problem;
+		if(p != null)
+		{
+			return p.getEvaluationEventBus().getTotalEvaluations() - startCount;
+		}
 		return completedEvaluations;
 	}
 	
@@ -0,0 +1,235 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.probes;
+
+/**
+ * Description: Convergence trajectory of a run, the best score so far against the number 
+ * of evaluations and the elapsed time, recorded at checkpoints. Points are held in primitive 
+ * ring buffers of fixed capacity, when full the oldest point is replaced, thus memory is bounded 
+ * regardless of the length of the run.
+ * <br/>
+ * The string form (used as a probe observation and stored by the experimenter) is a list of 
+ * points separated by ';', each point being "evaluations elapsedNanos bestScore".
+ *
+ * Date: 28/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class Trajectory
+{
+	public final static char POINT_SEPARATOR = ';';
+	public final static char VALUE_SEPARATOR = ' ';
+	
+	protected final long [] evaluations;
+	protected final long [] elapsedNanos;
+	protected final double [] bestScores;
+	/**
+	 * Index of the oldest point
+	 */
+	protected int start;
+	/**
+	 * Number of points held
+	 */
+	protected int size;
+	/**
+	 * Number of points replaced because the buffer was full
+	 */
+	protected long totalDropped;
+	
+	
+	public Trajectory(int aCapacity)
+	{
+		evaluations = new long[aCapacity];
+		elapsedNanos = new long[aCapacity];
+		bestScores = new double[aCapacity];
+	}
+	
+	/**
+	 * Record a point, replacing the oldest point if full
+	 * @param aEvaluations
+	 * @param aElapsedNanos
+	 * @param aBestScore
+	 */
+	public void add(long aEvaluations, long aElapsedNanos, double aBestScore)
+	{
+		if(evaluations.length == 0)
+		{
+			totalDropped++;
+			return;
+		}
+		int index = 0;
+		if(size < evaluations.length)
+		{
+			index = (start + size) % evaluations.length;
+			size++;
+		}
+		else
+		{
+			index = start;
+			start = (start + 1) % evaluations.length;
+			totalDropped++;
+		}
+		evaluations[index] = aEvaluations;
+		elapsedNanos[index] = aElapsedNanos;
+		bestScores[index] = aBestScore;
+	}
+	
+	public int getCapacity()
+	{
+		return evaluations.length;
+	}
+	
+	public int size()
+	{
+		return size;
+	}
+	
+	public long getTotalDropped()
+	{
+		return totalDropped;
+	}
+	
+	/**
+	 * @param i - point in order of recording, 0 is the oldest held
+	 * @return
+	 */
+	public long getEvaluations(int i)
+	{
+		return evaluations[(start + i) % evaluations.length];
+	}
+	
+	public long getElapsedNanos(int i)
+	{
+		return elapsedNanos[(start + i) % evaluations.length];
+	}
+	
+	public double getBestScore(int i)
+	{
+		return bestScores[(start + i) % evaluations.length];
+	}
+	
+	/**
+	 * Evaluations of the most recent point
+	 * @return - evaluations, or -1 if no points
+	 */
+	public long getLastEvaluations()
+	{
+		return (size == 0) ? -1 : getEvaluations(size - 1);
+	}
+	
+	/**
+	 * The best score after the specified number of evaluations (anytime performance), 
+	 * that of the last point recorded at or before the number of evaluations
+	 * @param aEvaluations
+	 * @return - best score, or NaN if no point was recorded by then
+	 */
+	public double getBestScoreAt(long aEvaluations)
+	{
+		// binary search, evaluations are recorded in order
+		int low = 0;
+		int high = size - 1;
+		int found = -1;
+		while(low <= high)
+		{
+			int mid = (low + high) >>> 1;
+			if(getEvaluations(mid) <= aEvaluations)
+			{
+				found = mid;
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid - 1;
+			}
+		}
+		return (found == -1) ? Double.NaN : getBestScore(found);
+	}
+	
+	/**
+	 * The number of evaluations at which a target score was first observed (fixed target, 
+	 * the run time used by ECDF analysis), limited to the resolution of the checkpoints
+	 * @param target
+	 * @param isMinimization
+	 * @return - evaluations, or -1 if the target was not reached
+	 */
+	public long getEvaluationsToReach(double target, boolean isMinimization)
+	{
+		for (int i = 0; i < size; i++)
+		{
+			double best = getBestScore(i);
+			if(isMinimization ? (best <= target) : (best >= target))
+			{
+				return getEvaluations(i);
+			}
+		}
+		return -1;
+	}
+	
+	@Override
+	public String toString()
+	{
+		StringBuffer b = new StringBuffer(size * 32);
+		for (int i = 0; i < size; i++)
+		{
+			if(i > 0)
+			{
+				b.append(POINT_SEPARATOR);
+			}
+			b.append(getEvaluations(i));
+			b.append(VALUE_SEPARATOR);
+			b.append(getElapsedNanos(i));
+			b.append(VALUE_SEPARATOR);
+			b.append(getBestScore(i));
+		}
+		return b.toString();
+	}
+	
+	/**
+	 * Parse the string form of a trajectory, such as a stored probe observation
+	 * @param s
+	 * @return
+	 */
+	public static Trajectory parse(String s)
+	{
+		s = s.trim();
+		if(s.length() == 0)
+		{
+			return new Trajectory(0);
+		}
+		String [] points = s.split(""+POINT_SEPARATOR);
+		Trajectory t = new Trajectory(points.length);
+		for (int i = 0; i < points.length; i++)
+		{
+			String [] values = points[i].trim().split(""+VALUE_SEPARATOR);
+			if(values.length != 3)
+			{
+				throw new IllegalArgumentException("Invalid trajectory point, expected 3 values: " + points[i]);
+			}
+			t.add(Long.parseLong(values[0]), Long.parseLong(values[1]), Double.parseDouble(values[2]));
+		}
+		return t;
+	}
+}
@@ -0,0 +1,170 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.probes;
+
+import com.oat.Algorithm;
+import com.oat.InitialisationException;
+import com.oat.Problem;
+import com.oat.RunProbe;
+import com.oat.Solution;
+import com.oat.SolutionEvaluationListener;
+
+/**
+ * Description: Records the convergence trajectory of a run, the best score so far against 
+ * evaluations and elapsed time, at checkpoints defined by subclasses. The check made for each 
+ * evaluation is a comparison against the next checkpoint, the count and best score are read 
+ * from the evaluation event bus of the problem. A final point is recorded at the end of the run. 
+ * The observation is the string form of the {@link Trajectory}.
+ *
+ * Date: 28/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public abstract class TrajectoryProbe extends RunProbe
+	implements SolutionEvaluationListener
+{
+	protected Trajectory trajectory;
+	protected volatile Problem problem;
+	protected long startCount;
+	protected long startNanos;
+	/**
+	 * Evaluations at which the next point is recorded
+	 */
+	protected volatile long nextCheckpoint;
+	
+	/**
+	 * Evaluations of the first checkpoint of a run
+	 * @param p - the problem, including its stop conditions
+	 * @return
+	 */
+	protected abstract long getFirstCheckpoint(Problem p);
+	
+	/**
+	 * Evaluations of the checkpoint after the specified number of evaluations
+	 * @param evaluations
+	 * @return - a value greater than evaluations
+	 */
+	protected abstract long getNextCheckpoint(long evaluations);
+	
+	/**
+	 * Maximum number of points held
+	 * @return
+	 */
+	protected abstract int getTrajectoryCapacity();
+	
+	
+	@Override
+	public void initialiseBeforeRun(Problem p, Algorithm a) throws InitialisationException
+	{
+		super.initialiseBeforeRun(p, a);
+		trajectory = new Trajectory(getTrajectoryCapacity());
+		p.getEvaluationEventBus().resetBestScore();
+		startCount = p.getEvaluationEventBus().getTotalEvaluations();
+		startNanos = System.nanoTime();
+		nextCheckpoint = Math.max(1, getFirstCheckpoint(p));
+		problem = p;
+		p.addListener(this);
+	}
+	
+	@Override
+	public void cleanupAfterRun(Problem p, Algorithm a) throws InitialisationException
+	{
+		super.cleanupAfterRun(p, a);
+		p.removeListener(this);
+		synchronized(this)
+		{
+			long count = p.getEvaluationEventBus().getTotalEvaluations() - startCount;
+			if(trajectory != null && count > 0 && trajectory.getLastEvaluations() != count)
+			{
+				addPoint(p, count);
+			}
+		}
+		problem = null;
+	}
+	
+	@Override
+	public void solutionEvaluatedEvent(Solution evaluatedSolution)
+	{
+		Problem p = problem;
+		if(p != null && p.getEvaluationEventBus().getTotalEvaluations() - startCount >= nextCheckpoint)
+		{
+			checkpoint(p);
+		}
+	}
+	
+	/**
+	 * Record a point if a checkpoint has been reached, evaluations may be raised concurrently
+	 * @param p
+	 */
+	protected synchronized void checkpoint(Problem p)
+	{
+		long count = p.getEvaluationEventBus().getTotalEvaluations() - startCount;
+		if(count >= nextCheckpoint)
+		{
+			addPoint(p, count);
+			nextCheckpoint = getNextCheckpoint(count);
+		}
+	}
+	
+	protected void addPoint(Problem p, long count)
+	{
+		trajectory.add(count, System.nanoTime() - startNanos, p.getEvaluationEventBus().getBestScore());
+	}
+	
+	@Override
+	public void reset()
+	{
+		super.reset();
+		trajectory = null;
+		problem = null;
+		startCount = 0;
+		startNanos = 0;
+		nextCheckpoint = Long.MAX_VALUE;
+	}
+	
+	@Override
+	public Object getProbeObservation()
+	{
+		Trajectory t = trajectory;
+		if(t == null)
+		{
+			return "No Trajectory";
+		}
+		synchronized(this)
+		{
+			return t.toString();
+		}
+	}
+	
+	/**
+	 * The trajectory of the current or last run
+	 * @return - trajectory, or null if not run
+	 */
+	public Trajectory getTrajectory()
+	{
+		return trajectory;
+	}
+}
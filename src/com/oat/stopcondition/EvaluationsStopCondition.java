@@ -19,16 +19,18 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
 */
 package com.oat.stopcondition;
 
+import com.oat.Algorithm;
+import com.oat.InitialisationException;
 import com.oat.InvalidConfigurationException;
-import com.oat.Solution;
-import com.oat.SolutionEvaluationListener;
+import com.oat.Problem;
+import com.oat.StopCondition;
 
 /**
  * Type: EvaluationsStopCondition<br/>
  * Date: 30/07/2007<br/>
  * <br/>
- * Description: Listens to solution evaluations, stop condition checks if
- * the number of evaluations equals or exceeds a predefined maximum number of evaluations
+ * Description: Stop condition checks if the number of evaluations equals or exceeds
+ * a predefined maximum number of evaluations. The count is read from the evaluation event bus of the problem
  * <br/>
  * @author Jason Brownlee
  *
@@ -36,12 +38,11 @@ import com.oat.SolutionEvaluationListener;
  * <pre>
  * Change History
  * ----------------------------------------------------------------------------
- * 
+ * 17/11/2007	JBrownlee	Count read from the problem evaluation event bus rather than a listener
  * </pre>
  *
  */
-public class EvaluationsStopCondition extends GeneticSolutionEvaluatedStopCondition
-	implements SolutionEvaluationListener
+public class EvaluationsStopCondition extends StopCondition
 {
 	/**
 	 * Maximum number of evaluations supported
@@ -49,9 +50,17 @@ public class EvaluationsStopCondition extends GeneticSolutionEvaluatedStopCondit
 	protected long maxEvaluations = 1000L;
 	
 	/**
-	 * Number of evaluations executed 
+	 * Number of evaluations executed, only valid once the run has completed
+	 */
+	protected long evaluationsCount;
+	/**
+	 * Total evaluations of the problem event bus when the run started
 	 */
-	protected long evaluationsCount;	
+	protected long startCount;
+	/**
+	 * The problem being observed during a run, null otherwise
+	 */
+	protected volatile Problem problem;
 	
 	public EvaluationsStopCondition(){}
 	
@@ -70,7 +79,7 @@ public class EvaluationsStopCondition extends GeneticSolutionEvaluatedStopCondit
 	@Override
 	public boolean mustStopInternal()
 	{
-		if(evaluationsCount >= maxEvaluations)
+		if(getEvaluationsCount() >= maxEvaluations)
 		{
 			return true;
 		}
@@ -78,11 +87,37 @@ public class EvaluationsStopCondition extends GeneticSolutionEvaluatedStopCondit
 		return false;
 	}
 	
+	@Override
+	public long getRemainingEvaluations()
+	{
+		return Math.max(0, maxEvaluations - getEvaluationsCount());
+	}
+	
 	@Override
 	 public void reset()
 	{
 		super.reset();
 		evaluationsCount = 0;
+		startCount = 0;
+		problem = null;
+	}
+	
+	@Override
+	public void initialiseBeforeRun(Problem p, Algorithm a)
+		throws InitialisationException
+	{
+		super.initialiseBeforeRun(p, a);
+		startCount = p.getEvaluationEventBus().getTotalEvaluations();
+		problem = p;
+	}
+	
+	@Override
+	public void cleanupAfterRun(Problem p, Algorithm a)	
+		throws InitialisationException
+	{
+		super.cleanupAfterRun(p, a);
+		evaluationsCount = getEvaluationsCount();
+		problem = null;
 	}
 
 	@Override
@@ -106,13 +141,12 @@ public class EvaluationsStopCondition extends GeneticSolutionEvaluatedStopCondit
 
 	public long getEvaluationsCount()
 	{
+		Problem p = problem;
+		if(p != null)
+		{
+			return p.getEvaluationEventBus().getTotalEvaluations() - startCount;
+		}
 		return evaluationsCount;
 	}
 
-	@Override
-	public void solutionEvaluatedEvent(Solution evaluatedSolution)
-	{
-		evaluationsCount++;		
-	}
-
 }
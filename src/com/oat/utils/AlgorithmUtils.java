@@ -44,6 +44,8 @@ import com.oat.Solution;
  *                          un-evaluated solutions
  *                          Further, created a new stripping method
  * 15/01/2007   JBrownlee   Fixed bug in getBest() - basically it didn't work, now it does.
+ * 18/11/2007   JBrownlee   getBest() is a single pass rather than a copy and sort, isConverged() is linear
+ * 08/12/2007   JBrownlee   getBest for solution arrays
  * </pre>
  */
 public class AlgorithmUtils
@@ -234,23 +236,47 @@ public class AlgorithmUtils
      */
     public static <T extends Solution> T getBest(LinkedList<T> pop, Problem p)
     {
-        LinkedList<T> tmp = new LinkedList<T>();
-        
+        T best = null;
+        boolean minimization = p.isMinimization();
+        // single pass, ties resolved as though the population were sorted by score
         for(T s : pop)
         {
-            if(s.isEvaluated())
+            if(!s.isEvaluated() || Double.isNaN(s.getScore()))
             {
-                tmp.add(s);
+                continue;
             }
-        }        
-        if(tmp.isEmpty())
+            if(best == null || (minimization ? s.getScore() < best.getScore() : s.getScore() >= best.getScore()))
+            {
+                best = s;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Returns the best solution in the population, see getBest(LinkedList, Problem)
+     * 
+     * @param pop
+     * @param p
+     * @return - the best scoring solution in the population
+     */
+    public static <T extends Solution> T getBest(T [] pop, Problem p)
+    {
+        T best = null;
+        boolean minimization = p.isMinimization();
+        for (int i = 0; i < pop.length; i++)
         {
-            return null;
-        }        
-        // sort by fitness
-        Collections.sort(tmp);
-        // return the best
-        return (p.isMinimization()) ? tmp.getFirst() : tmp.getLast();
+            T s = pop[i];
+            if(!s.isEvaluated() || Double.isNaN(s.getScore()))
+            {
+                continue;
+            }
+            if(best == null || (minimization ? s.getScore() < best.getScore() : s.getScore() >= best.getScore()))
+            {
+                best = s;
+            }
+        }
+        return best;
     }
     
     /**
@@ -261,16 +287,17 @@ public class AlgorithmUtils
      */
     public static <T extends Solution> boolean isConverged(LinkedList<T> pop)
     {
-        for (int i = 0; i < pop.size(); i++)
+        // equality is transitive, compare all to the first
+        if(pop.isEmpty())
         {
-            T s1 = pop.get(i);
-            for (int j = i+1; j < pop.size(); j++)
+            return true;
+        }
+        T s1 = pop.getFirst();
+        for(T s2 : pop)
+        {
+            if(!s1.equals(s2))
             {
-                T s2 = pop.get(j);
-                if(!s1.equals(s2))
-                {
-                    return false;
-                }
+                return false;
             }
         }
         return true;
@@ -0,0 +1,116 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.utils;
+
+import java.util.Arrays;
+
+/**
+ * Description: An immutable copy of a primitive array for use as a hash key, such as the 
+ * genotype of a solution in the evaluation cache. Keys are only equal to keys of the same 
+ * array type with equal contents.
+ *
+ * Date: 02/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public final class ArrayKey
+{
+	protected final Object array;
+	protected final int hash;
+	
+	
+	protected ArrayKey(Object aArray, int aHash)
+	{
+		array = aArray;
+		hash = aHash;
+	}
+	
+	public static ArrayKey of(double [] a)
+	{
+		double [] c = ArrayUtils.copyArray(a);
+		return new ArrayKey(c, Arrays.hashCode(c));
+	}
+	
+	public static ArrayKey of(int [] a)
+	{
+		int [] c = ArrayUtils.copyArray(a);
+		return new ArrayKey(c, Arrays.hashCode(c) * 31 + 1);
+	}
+	
+	public static ArrayKey of(byte [] a)
+	{
+		byte [] c = new byte[a.length];
+		System.arraycopy(a, 0, c, 0, a.length);
+		return new ArrayKey(c, Arrays.hashCode(c) * 31 + 2);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return hash;
+	}
+	
+	@Override
+	public boolean equals(Object o)
+	{
+		if(o == this)
+		{
+			return true;
+		}
+		if(!(o instanceof ArrayKey))
+		{
+			return false;
+		}
+		ArrayKey k = (ArrayKey) o;
+		if(hash != k.hash || array.getClass() != k.array.getClass())
+		{
+			return false;
+		}
+		if(array instanceof double[])
+		{
+			return Arrays.equals((double[]) array, (double[]) k.array);
+		}
+		if(array instanceof int[])
+		{
+			return Arrays.equals((int[]) array, (int[]) k.array);
+		}
+		return Arrays.equals((byte[]) array, (byte[]) k.array);
+	}
+	
+	@Override
+	public String toString()
+	{
+		if(array instanceof double[])
+		{
+			return Arrays.toString((double[]) array);
+		}
+		if(array instanceof int[])
+		{
+			return Arrays.toString((int[]) array);
+		}
+		return Arrays.toString((byte[]) array);
+	}
+}
@@ -36,10 +36,15 @@ import com.oat.domains.bfo.BFOSolution;
  * Change History
  * ----------------------------------------------------------------------------
  * 08/07/2007   JBrownlee   Added function to convert a collection of bit strings to a string 
+ * 20/11/2007   JBrownlee   Added packed bit string decoding, hamming distance and unitation
  * </pre>
  */
 public class BitStringUtils
 {
+    /**
+     * Bits that can be summed exactly in a double
+     */
+    protected final static long EXACT_BITS_MASK = (1L << 53) - 1;
     
   
     
@@ -149,6 +154,102 @@ public class BitStringUtils
         return coord;
     }
     
+    /**
+     * Decode the provided packed binary vector into a double coordinate in the specified domain.
+     * Produces the same coordinate as decoding the equivalent boolean [] string
+     * 
+     * @param mode - the manner in which to conver the string into doubles
+     * @param b - the string to decode
+     * @param minmax - bounds of the coordinate space [] = each dimension [i][2] = {min,max} format
+     * @return double [] coordinate within the bounds of the domain
+     */
+    public final static double [] decode(BinaryDecodeMode mode, PackedBitString b, double [][] minmax)
+    {
+        int d = minmax.length;                        
+        if(d>1 && (b.length() % d) != 0)
+        {
+            throw new AlgorithmRunException("Unable to evenly divide "+b.length()+" bits into "+ d);
+        }
+        
+        double [] coord = new double[d];
+        int bitsPerCoord = b.length() / coord.length;
+        
+        for (int i = 0, offset = 0; i < coord.length; i++, offset+=bitsPerCoord)
+        {
+            switch(mode)
+            {
+                case Binary:
+                {
+                    coord[i] = bitsToDouble(b, offset, bitsPerCoord, minmax[i][0], minmax[i][1], false);
+                    break;
+                }
+                case GrayCode:
+                {
+                    coord[i] = bitsToDouble(b, offset, bitsPerCoord, minmax[i][0], minmax[i][1], true);
+                    break;
+                }
+                default:
+                {
+                    throw new AlgorithmRunException("Invalid decode mode!");
+                }
+            }
+        }
+        
+        return coord;
+    }
+    
+    /**
+     * Decode a single binary or gray code string from a packed bit string, 64 bits at a time. 
+     * Gray code is converted to binary with a prefix parity (xor-scan) over each word.
+     * The low 53 bits are converted directly (exact in a double), higher bits are added 
+     * in ascending order such that the result is identical to binaryBitsToDouble and grayBitsToDouble
+     * 
+     * @param b
+     * @param offset
+     * @param length
+     * @param min
+     * @param max
+     * @param gray - true if the bits are gray coded
+     * @return
+     */
+    public static double bitsToDouble(PackedBitString b, int offset, int length, double min, double max, boolean gray)
+    {
+        double sum = 0.0;
+        long parity = 0L;
+        for (int i = 0; i < length; i += PackedBitString.WORD_SIZE)
+        {
+            int n = Math.min(PackedBitString.WORD_SIZE, length - i);
+            long mask = (n == PackedBitString.WORD_SIZE) ? -1L : ((1L << n) - 1);
+            long v = b.getBits(offset + i, n);
+            if(gray)
+            {
+                // each binary bit is the parity of all gray bits up to and including it
+                v ^= v << 1;
+                v ^= v << 2;
+                v ^= v << 4;
+                v ^= v << 8;
+                v ^= v << 16;
+                v ^= v << 32;
+                v = (v ^ parity) & mask;
+                parity = ((v >>> (n-1)) & 1L) == 0 ? 0L : -1L;
+            }
+            if(i == 0)
+            {
+                sum = (v & EXACT_BITS_MASK);
+                v &= ~EXACT_BITS_MASK;
+            }
+            // remaining bits in ascending order
+            while(v != 0)
+            {
+                sum += Math.pow(2.0, i + Long.numberOfTrailingZeros(v));
+                v &= (v - 1);
+            }
+        }
+        // do the division
+        double div = (max-min) / (Math.pow(2, length) - 1);
+        return min + div * sum;
+    }
+    
     /**
      * decode a single binary bitstring
      * @param b
@@ -259,7 +360,19 @@ public class BitStringUtils
      */
     public final static double hammingDistance(BFOSolution b1, BFOSolution b2)
     {        
-        return hammingDistance(b1.getBitString(), b2.getBitString());
+        return b1.getPackedBitString().hammingDistance(b2.getPackedBitString());
+    }
+    
+    /**
+     * Calculate the hamming distance between the two binary solutions and return 
+     * the result as a ratio of the string length: (distance / length)
+     * @param b1
+     * @param b2
+     * @return
+     */
+    public final static double hammingDistanceRatio(BFOSolution b1, BFOSolution b2)
+    {
+        return hammingDistance(b1, b2) / b1.getPackedBitString().length();
     }
     
     /**
@@ -326,7 +439,32 @@ public class BitStringUtils
         }
         return count;
     }
-    
-    
-    
-}
\ No newline at end of file
+
+    /**
+     * Calculates the unitation (number of 1's) of the provided packed bit string
+     * @param b
+     * @return
+     */
+    public final static int unitation(PackedBitString b)
+    {
+        return b.cardinality();
+    }
+
+    /**
+     * Calculates the unitation (number of 1's) of the provided packed bit string
+     * with specified start and length
+     * @param b
+     * @param start
+     * @param length
+     * @return
+     */
+    public final static int unitation(PackedBitString b, int start, int length)
+    {
+        int count = 0;
+        for (int i = 0; i < length; i += PackedBitString.WORD_SIZE)
+        {
+            count += Long.bitCount(b.getBits(start + i, Math.min(PackedBitString.WORD_SIZE, length - i)));
+        }
+        return count;
+    }
+}
@@ -20,6 +20,7 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
 package com.oat.utils;
 
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Random;
 
@@ -41,6 +42,10 @@ import com.oat.Solution;
  * ----------------------------------------------------------------------------
  * 09/01/2007   JBrownlee   Added a generic elitism function
  *                          Added a generic parent-child replacement strategy
+ * 18/11/2007   JBrownlee   Replacement and elitism iterate populations rather than indexing
+ * 20/11/2007   JBrownlee   Added packed bit string mutation and crossover
+ * 05/12/2007   JBrownlee   Mutation uses the sparse kernels in MutationUtils
+ * 06/12/2007   JBrownlee   Tournament selection delegates to the Selection kernels
  * </pre>
  */
 public class EvolutionUtils
@@ -72,10 +77,10 @@ public class EvolutionUtils
         {
             throw new AlgorithmRunException("Parent "+parentPopulation.size()+" and child "+childPopulation.size()+" population sizes do not match as expected.");
         }
-        for (int i = 0; i < parentPopulation.size(); i++)
+        Iterator<T> children = childPopulation.iterator();
+        for(T p : parentPopulation)
         {
-            T p = parentPopulation.get(i);
-            T c = childPopulation.get(i);
+            T c = children.next();
             nextGeneration.add(problem.isBetter(p, c) ? p : c);
         }
         return nextGeneration;
@@ -121,18 +126,11 @@ public class EvolutionUtils
         // order the population by solution quality
         Collections.sort(lastGeneration);
         // fill the next generation with the best solutions of the previous generation
+        // take from the start of the list for minimization, from the end for maximization
+        Iterator<T> elites = problem.isMinimization() ? lastGeneration.iterator() : lastGeneration.descendingIterator();
         for (int i = 0; i < numElites; i++)
         {
-            if(problem.isMinimization())
-            {
-                // take from the start of the list
-                nextGeneration.add(lastGeneration.get(i));
-            }
-            else
-            {
-                // take from the end of the list
-                nextGeneration.add(lastGeneration.get(lastGeneration.size()-1-i));
-            }
+            nextGeneration.add(elites.next());
         }
         
     }
@@ -174,26 +172,31 @@ public class EvolutionUtils
     
     /**
      * Mutate the provided binary string using bit flips with the specified
-     * probability on each bit of flipping
+     * probability on each bit of flipping, see MutationUtils
      * @param string
      * @param r
      * @param mutation
      */
     public final static void binaryMutate(boolean [] string, Random r, double probability)
     {        
-        // do the mutation thing
-        for (int i = 0; i < string.length; i++)
-        {
-            if(r.nextDouble() < probability)
-            {
-                string[i] = !string[i]; // invert the bit
-            }
-        }
+        MutationUtils.binaryMutate(string, r, probability);
+    }
+
+    /**
+     * Mutate a packed bit string, see MutationUtils.
+     * Draws the same random numbers in the same order as the boolean [] version
+     * @param string
+     * @param r
+     * @param probability
+     */
+    public final static void binaryMutate(PackedBitString string, Random r, double probability)
+    {
+        MutationUtils.binaryMutate(string, r, probability);
     }
 
     /**
      * Tournament selection, selection of the bout does not permit reselection, 
-     * although the selected population does (as expected)
+     * although the selected population does (as expected), see Selection
      * 
      * @param pop
      * @param numToSelection
@@ -209,24 +212,8 @@ public class EvolutionUtils
             Random r,
             int boutSize)
     {
-        LinkedList<T> selected = new LinkedList<T>();
-        
-        while(selected.size() < numToSelection)
-        {
-            // draw a random sample from the population without reselection
-            LinkedList<T> sample = RandomUtils.randomSampleWithOutReselection(pop, boutSize, r);
-            // locate the best in the sample
-            T best = AlgorithmUtils.getBest(sample, p);
-            // safety
-            if(best == null)
-            {
-                throw new AlgorithmRunException("Unable to locate best solution in population subset, must population contains many solutions with NaN fitness!");
-            }
-            // add to the population
-            selected.add(best);
-        }
-        
-        return selected;
+        // algorithms that select each generation should hold a Selection and reuse its buffers
+        return new Selection().tournamentSelection(pop, numToSelection, p, r, boutSize);
     }
     
     
@@ -265,14 +252,7 @@ public class EvolutionUtils
             throw new AlgorithmRunException("Probability out of bounds [0,1] " + probability);
         }
         
-        for (int i = 0; i < data.length; i++)
-        {
-            if(r.nextDouble() <= probability)
-            {
-                // random swap
-                ArrayUtils.swap(i, r.nextInt(data.length), data);
-            } 
-        }
+        MutationUtils.mutatePermutation(data, r, probability);
     }
 
     /**
@@ -283,14 +263,7 @@ public class EvolutionUtils
      */
     public final static void mutatePermutation(byte [] data, Random r, double probability)
     {                
-        for (int i = 0; i < data.length; i++)
-        {
-            if(r.nextDouble() <= probability)
-            {
-                // random swap
-                ArrayUtils.swap(i, r.nextInt(data.length), data);
-            } 
-        }
+        MutationUtils.mutatePermutation(data, r, probability);
     }
     
     /**
@@ -332,6 +305,24 @@ public class EvolutionUtils
         return new boolean[][]{v1,v2};
     }
 
+    /**
+     * Perform a one point crossover operation on packed binary strings, whole words are copied
+     * either side of the cut. Uses the same random numbers as the boolean [] version
+     * 
+     * @param p1
+     * @param p2
+     * @param r
+     * @param probability
+     * @return
+     */
+    public final static PackedBitString [] onePointBinaryCrossover(PackedBitString p1, PackedBitString p2, Random r, double probability)
+    {
+        int cutPoint = (r.nextDouble()<probability) ? r.nextInt(p1.length()) : 0;
+        PackedBitString v1 = PackedBitString.crossover(p1, p2, cutPoint); // normal
+        PackedBitString v2 = PackedBitString.crossover(p2, p1, cutPoint); // reversed
+        return new PackedBitString[]{v1,v2};
+    }
+
     /**
      * Perform uniform crossover between the two parents to create two children.
      * The crossover occurs with the probability specified, if it does not occur,
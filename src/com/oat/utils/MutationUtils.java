@@ -0,0 +1,270 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.utils;
+
+import java.util.Random;
+
+/**
+ * Description: Sparse mutation kernels. Rather than drawing a random number for each position
+ * and testing it against the mutation probability, the gap to the next mutated position is
+ * drawn directly from the geometric distribution, so the cost of mutating a string of length L
+ * with probability p is proportional to the number of mutations (pL) rather than L.
+ * Each position is still mutated independently with probability p, although the sequence of
+ * random numbers drawn differs from a per-position test. Above DENSE_THRESHOLD most positions
+ * are mutated anyway and a per-position test is cheaper than the logarithm, so the kernels
+ * fall back to the dense loop.
+ *
+ * Date: 05/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class MutationUtils
+{
+	/**
+	 * Probability at and above which the per-position (dense) loop is used
+	 */
+	public final static double DENSE_THRESHOLD = 0.2;
+	
+	
+	/**
+	 * Whether the sparse (geometric skip) path should be used for the probability
+	 * @param probability
+	 * @return
+	 */
+	public final static boolean isSparse(double probability)
+	{
+		return probability < DENSE_THRESHOLD;
+	}
+	
+	/**
+	 * The constant passed to nextMutation(), log(1-p)
+	 * @param probability - in (0, 1)
+	 * @return
+	 */
+	public final static double logComplement(double probability)
+	{
+		return Math.log(1.0 - probability);
+	}
+	
+	/**
+	 * Draw the next position to mutate after the current position, each position being 
+	 * selected independently with the probability used to prepare logComplement. 
+	 * Start with current = from-1.
+	 * 
+	 * @param r
+	 * @param logComplement - log(1-p) where p is in (0, 1)
+	 * @param current - last mutated position
+	 * @param end - exclusive end of the range
+	 * @return next position to mutate, or end when there are no further mutations
+	 */
+	public final static int nextMutation(Random r, double logComplement, int current, int end)
+	{
+		// number of positions skipped, kept as a double as it may exceed an int
+		double skip = Math.floor(Math.log(1.0 - r.nextDouble()) / logComplement);
+		if(skip >= end - current - 1)
+		{
+			return end;
+		}
+		return current + 1 + (int) skip;
+	}
+	
+	
+	/**
+	 * Flip each bit of the string with the specified probability
+	 * @param string
+	 * @param r
+	 * @param probability
+	 */
+	public final static void binaryMutate(boolean [] string, Random r, double probability)
+	{
+		binaryMutate(string, r, probability, 0, string.length);
+	}
+	
+	/**
+	 * Flip each bit in [from, to) of the string with the specified probability
+	 * @param string
+	 * @param r
+	 * @param probability
+	 * @param from - inclusive
+	 * @param to - exclusive
+	 */
+	public final static void binaryMutate(boolean [] string, Random r, double probability, int from, int to)
+	{
+		if(probability <= 0)
+		{
+			return;
+		}
+		else if(!isSparse(probability))
+		{
+			for (int i = from; i < to; i++)
+			{
+				if(r.nextDouble() < probability)
+				{
+					string[i] = !string[i];
+				}
+			}
+			return;
+		}
+		
+		double lc = logComplement(probability);
+		for (int i = nextMutation(r, lc, from-1, to); i < to; i = nextMutation(r, lc, i, to))
+		{
+			string[i] = !string[i];
+		}
+	}
+	
+	/**
+	 * Flip each bit of the packed string with the specified probability.
+	 * Draws the same random numbers in the same order as the boolean [] version
+	 * @param string
+	 * @param r
+	 * @param probability
+	 */
+	public final static void binaryMutate(PackedBitString string, Random r, double probability)
+	{
+		if(probability <= 0)
+		{
+			return;
+		}
+		else if(!isSparse(probability))
+		{
+			// dense, build a flip mask for each word and apply in one operation
+			long [] words = string.getWords();
+			int length = string.length();
+			for (int w = 0, i = 0; w < words.length; w++)
+			{
+				long flips = 0L;
+				for (long bit = 1L; bit != 0L && i < length; bit <<= 1, i++)
+				{
+					if(r.nextDouble() < probability)
+					{
+						flips |= bit;
+					}
+				}
+				words[w] ^= flips;
+			}
+			return;
+		}
+		
+		binaryMutate(string, r, probability, 0, string.length());
+	}
+	
+	/**
+	 * Flip each bit in [from, to) of the packed string with the specified probability
+	 * Draws the same random numbers in the same order as the boolean [] version
+	 * @param string
+	 * @param r
+	 * @param probability
+	 * @param from - inclusive
+	 * @param to - exclusive
+	 */
+	public final static void binaryMutate(PackedBitString string, Random r, double probability, int from, int to)
+	{
+		if(probability <= 0)
+		{
+			return;
+		}
+		else if(!isSparse(probability))
+		{
+			for (int i = from; i < to; i++)
+			{
+				if(r.nextDouble() < probability)
+				{
+					string.flip(i);
+				}
+			}
+			return;
+		}
+		
+		double lc = logComplement(probability);
+		for (int i = nextMutation(r, lc, from-1, to); i < to; i = nextMutation(r, lc, i, to))
+		{
+			string.flip(i);
+		}
+	}
+	
+	/**
+	 * Swap each element with a random element with the specified probability
+	 * @param data
+	 * @param r
+	 * @param probability
+	 */
+	public final static void mutatePermutation(int [] data, Random r, double probability)
+	{
+		if(probability <= 0)
+		{
+			return;
+		}
+		else if(!isSparse(probability))
+		{
+			for (int i = 0; i < data.length; i++)
+			{
+				if(r.nextDouble() <= probability)
+				{
+					ArrayUtils.swap(i, r.nextInt(data.length), data);
+				}
+			}
+			return;
+		}
+		
+		double lc = logComplement(probability);
+		for (int i = nextMutation(r, lc, -1, data.length); i < data.length; i = nextMutation(r, lc, i, data.length))
+		{
+			ArrayUtils.swap(i, r.nextInt(data.length), data);
+		}
+	}
+	
+	/**
+	 * Swap each element with a random element with the specified probability
+	 * @param data
+	 * @param r
+	 * @param probability
+	 */
+	public final static void mutatePermutation(byte [] data, Random r, double probability)
+	{
+		if(probability <= 0)
+		{
+			return;
+		}
+		else if(!isSparse(probability))
+		{
+			for (int i = 0; i < data.length; i++)
+			{
+				if(r.nextDouble() <= probability)
+				{
+					ArrayUtils.swap(i, r.nextInt(data.length), data);
+				}
+			}
+			return;
+		}
+		
+		double lc = logComplement(probability);
+		for (int i = nextMutation(r, lc, -1, data.length); i < data.length; i = nextMutation(r, lc, i, data.length))
+		{
+			ArrayUtils.swap(i, r.nextInt(data.length), data);
+		}
+	}
+}
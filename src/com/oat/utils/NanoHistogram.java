@@ -0,0 +1,170 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Description: Histogram of durations in nanoseconds with power of two buckets, bucket i 
+ * holds durations in [2^i, 2^(i+1)) and bucket 0 also holds durations under 1ns. Recording 
+ * is lock-free and does not allocate, such that it can be used on hot paths by several threads.
+ * Percentiles are reported as the upper bound of the bucket, thus are accurate to a factor of two.
+ *
+ * Date: 29/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class NanoHistogram
+{
+	public final static int TOTAL_BUCKETS = 64;
+	
+	protected final AtomicLongArray buckets;
+	protected final AtomicLong count;
+	protected final AtomicLong totalNanos;
+	protected final AtomicLong maxNanos;
+	
+	
+	public NanoHistogram()
+	{
+		buckets = new AtomicLongArray(TOTAL_BUCKETS);
+		count = new AtomicLong();
+		totalNanos = new AtomicLong();
+		maxNanos = new AtomicLong();
+	}
+	
+	/**
+	 * Bucket of a duration
+	 * @param nanos
+	 * @return
+	 */
+	public final static int toBucket(long nanos)
+	{
+		return (nanos <= 1) ? 0 : (63 - Long.numberOfLeadingZeros(nanos));
+	}
+	
+	/**
+	 * Record a duration, negative durations (clock adjustments) are recorded as zero
+	 * @param nanos
+	 */
+	public void record(long nanos)
+	{
+		if(nanos < 0)
+		{
+			nanos = 0;
+		}
+		buckets.incrementAndGet(toBucket(nanos));
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+		long max = maxNanos.get();
+		while(nanos > max && !maxNanos.compareAndSet(max, nanos))
+		{
+			max = maxNanos.get();
+		}
+	}
+	
+	public long getCount()
+	{
+		return count.get();
+	}
+	
+	public long getTotalNanos()
+	{
+		return totalNanos.get();
+	}
+	
+	public long getMaxNanos()
+	{
+		return maxNanos.get();
+	}
+	
+	public long getBucketCount(int bucket)
+	{
+		return buckets.get(bucket);
+	}
+	
+	/**
+	 * @return - mean duration, or 0 if none recorded
+	 */
+	public double getMeanNanos()
+	{
+		long c = count.get();
+		return (c == 0) ? 0.0 : ((double) totalNanos.get() / c);
+	}
+	
+	/**
+	 * Upper bound of the bucket holding the specified percentile
+	 * @param percentile - (0, 100]
+	 * @return - duration, or 0 if none recorded
+	 */
+	public long getPercentileNanos(double percentile)
+	{
+		long total = 0;
+		for (int i = 0; i < TOTAL_BUCKETS; i++)
+		{
+			total += buckets.get(i);
+		}
+		if(total == 0)
+		{
+			return 0;
+		}
+		long rank = (long) Math.ceil(total * percentile / 100.0);
+		long seen = 0;
+		for (int i = 0; i < TOTAL_BUCKETS; i++)
+		{
+			seen += buckets.get(i);
+			if(seen >= rank)
+			{
+				return (i == TOTAL_BUCKETS-1) ? Long.MAX_VALUE : ((1L << (i + 1)) - 1);
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+	
+	public void reset()
+	{
+		for (int i = 0; i < TOTAL_BUCKETS; i++)
+		{
+			buckets.set(i, 0);
+		}
+		count.set(0);
+		totalNanos.set(0);
+		maxNanos.set(0);
+	}
+	
+	/**
+	 * Summary in the form count=n mean=ns p50=ns p99=ns max=ns
+	 */
+	@Override
+	public String toString()
+	{
+		return "count=" + getCount() + 
+			" mean=" + Math.round(getMeanNanos()) + 
+			" p50=" + getPercentileNanos(50) + 
+			" p99=" + getPercentileNanos(99) + 
+			" max=" + getMaxNanos();
+	}
+}
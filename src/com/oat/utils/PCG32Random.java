@@ -0,0 +1,123 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.utils;
+
+/**
+ * Description: PCG32 (XSH-RR), a 64 bit linear congruential generator with a permuted 32 bit 
+ * output, the increment selects one of 2^63 streams. Split streams take their seed and stream 
+ * from this stream. Values of up to 32 bits use a single step.
+ * O'Neill. PCG: A family of simple fast space-efficient statistically good algorithms for 
+ * random number generation (2014)
+ *
+ * Date: 04/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class PCG32Random extends StreamRandom
+{
+	protected final static long MULTIPLIER = 6364136223846793005L;
+	/**
+	 * Stream used when none is specified
+	 */
+	public final static long DEFAULT_STREAM = 721347520444481703L;
+	
+	protected long state;
+	protected long increment;
+	
+	
+	public PCG32Random(long aSeed)
+	{
+		super(aSeed);
+	}
+	
+	/**
+	 * @param aSeed
+	 * @param aStream - selects the sequence, only the low 63 bits are used
+	 */
+	public PCG32Random(long aSeed, long aStream)
+	{
+		super(aSeed);
+		seed(aSeed, aStream);
+	}
+	
+	@Override
+	public void setSeed(long aSeed)
+	{
+		super.setSeed(aSeed);
+		seed(aSeed, DEFAULT_STREAM);
+	}
+	
+	protected void seed(long aSeed, long aStream)
+	{
+		state = 0;
+		increment = (aStream << 1) | 1;
+		step();
+		state += aSeed;
+		step();
+	}
+	
+	/**
+	 * @return - next 32 random bits
+	 */
+	protected int step()
+	{
+		long old = state;
+		state = old * MULTIPLIER + increment;
+		int xorshifted = (int) (((old >>> 18) ^ old) >>> 27);
+		int rot = (int) (old >>> 59);
+		return Integer.rotateRight(xorshifted, rot);
+	}
+	
+	@Override
+	protected int next(int bits)
+	{
+		return step() >>> (32 - bits);
+	}
+	
+	@Override
+	public int nextInt()
+	{
+		return step();
+	}
+	
+	@Override
+	public boolean nextBoolean()
+	{
+		return step() < 0;
+	}
+	
+	@Override
+	public long nextLong()
+	{
+		return ((long) step() << 32) | (step() & 0xffffffffL);
+	}
+	
+	@Override
+	public StreamRandom split()
+	{
+		return new PCG32Random(nextLong(), nextLong());
+	}
+}
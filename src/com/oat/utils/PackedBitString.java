@@ -0,0 +1,246 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.utils;
+
+import java.util.Arrays;
+
+/**
+ * Description: Fixed length bit string packed 64 bits to a long. Bit i is stored in
+ * word i/64 at bit position i%64, such that a run of bits read from a word has the first bit
+ * as the least significant bit (the same ordering used by the boolean [] decoding functions).
+ * Bits beyond the length in the last word are always zero.
+ *
+ * Date: 20/11/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class PackedBitString
+{
+	public final static int WORD_SIZE = 64;
+
+	/**
+	 * Packed bits
+	 */
+	protected final long [] words;
+	/**
+	 * Number of bits
+	 */
+	protected final int length;
+
+	/**
+	 * Create a bit string of all zeros
+	 * @param aLength
+	 */
+	public PackedBitString(int aLength)
+	{
+		length = aLength;
+		words = new long[totalWords(aLength)];
+	}
+
+	/**
+	 * Create a packed copy of the provided bit string
+	 * @param b
+	 */
+	public PackedBitString(boolean [] b)
+	{
+		this(b.length);
+		for (int i = 0; i < b.length; i++)
+		{
+			if(b[i])
+			{
+				words[i >>> 6] |= (1L << i);
+			}
+		}
+	}
+
+	/**
+	 * Create a copy of the provided bit string
+	 * @param b
+	 */
+	public PackedBitString(PackedBitString b)
+	{
+		length = b.length;
+		words = b.words.clone();
+	}
+
+	/**
+	 * Number of words required to hold the specified number of bits
+	 * @param aLength
+	 * @return
+	 */
+	public final static int totalWords(int aLength)
+	{
+		return (aLength + WORD_SIZE - 1) >>> 6;
+	}
+
+	public int length()
+	{
+		return length;
+	}
+
+	/**
+	 * Direct access to the packed words, modifications must not set bits beyond the length
+	 * @return
+	 */
+	public long [] getWords()
+	{
+		return words;
+	}
+
+	public boolean get(int i)
+	{
+		return (words[i >>> 6] & (1L << i)) != 0;
+	}
+
+	public void set(int i, boolean v)
+	{
+		if(v)
+		{
+			words[i >>> 6] |= (1L << i);
+		}
+		else
+		{
+			words[i >>> 6] &= ~(1L << i);
+		}
+	}
+
+	public void flip(int i)
+	{
+		words[i >>> 6] ^= (1L << i);
+	}
+
+	/**
+	 * Read a run of up to 64 bits as a long, the first bit is the least significant
+	 * @param offset
+	 * @param total - [1,64]
+	 * @return
+	 */
+	public long getBits(int offset, int total)
+	{
+		int w = offset >>> 6;
+		int shift = offset & 63;
+		long v = words[w] >>> shift;
+		if(shift + total > WORD_SIZE)
+		{
+			v |= words[w+1] << (WORD_SIZE - shift);
+		}
+		return (total == WORD_SIZE) ? v : (v & ((1L << total) - 1));
+	}
+
+	/**
+	 * Number of bits set to 1 (unitation)
+	 * @return
+	 */
+	public int cardinality()
+	{
+		int count = 0;
+		for (int i = 0; i < words.length; i++)
+		{
+			count += Long.bitCount(words[i]);
+		}
+		return count;
+	}
+
+	/**
+	 * Number of bit positions that differ, assumes equal length
+	 * @param o
+	 * @return
+	 */
+	public int hammingDistance(PackedBitString o)
+	{
+		int count = 0;
+		for (int i = 0; i < words.length; i++)
+		{
+			count += Long.bitCount(words[i] ^ o.words[i]);
+		}
+		return count;
+	}
+
+	/**
+	 * Unpack to one boolean per bit
+	 * @return - new array
+	 */
+	public boolean [] toBooleanArray()
+	{
+		boolean [] b = new boolean[length];
+		for (int i = 0; i < b.length; i++)
+		{
+			b[i] = (words[i >>> 6] & (1L << i)) != 0;
+		}
+		return b;
+	}
+
+	/**
+	 * Create the child of two parents with the same length, the first cutpoint bits
+	 * are taken from p1 and the remaining bits from p2
+	 * @param p1
+	 * @param p2
+	 * @param cutpoint
+	 * @return
+	 */
+	public final static PackedBitString crossover(PackedBitString p1, PackedBitString p2, int cutpoint)
+	{
+		PackedBitString c = new PackedBitString(p1.length);
+		int w = cutpoint >>> 6;
+		System.arraycopy(p1.words, 0, c.words, 0, w);
+		System.arraycopy(p2.words, w, c.words, w, c.words.length - w);
+		int shift = cutpoint & 63;
+		if(shift != 0)
+		{
+			long mask = (1L << shift) - 1;
+			c.words[w] = (p1.words[w] & mask) | (p2.words[w] & ~mask);
+		}
+		return c;
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if(!(o instanceof PackedBitString))
+		{
+			return false;
+		}
+		PackedBitString b = (PackedBitString) o;
+		return length == b.length && Arrays.equals(words, b.words);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Arrays.hashCode(words) * 31 + length;
+	}
+
+	@Override
+	public String toString()
+	{
+		char [] c = new char[length];
+		for (int i = 0; i < c.length; i++)
+		{
+			c[i] = get(i) ? '1' : '0';
+		}
+		return new String(c);
+	}
+}
@@ -0,0 +1,78 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.utils;
+
+import java.util.Random;
+
+/**
+ * Description: The random number generators available to algorithms. 
+ * JDK reproduces the results of releases before the fast generators were introduced.
+ *
+ * Date: 04/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public enum RandomGenerator
+{
+	JDK
+	{
+		@Override
+		public Random create(long seed)
+		{
+			return new Random(seed);
+		}
+	},
+	SplitMix64
+	{
+		@Override
+		public Random create(long seed)
+		{
+			return new SplitMix64Random(seed);
+		}
+	},
+	Xoroshiro128Plus
+	{
+		@Override
+		public Random create(long seed)
+		{
+			return new Xoroshiro128PlusRandom(seed);
+		}
+	},
+	PCG32
+	{
+		@Override
+		public Random create(long seed)
+		{
+			return new PCG32Random(seed);
+		}
+	};
+	
+	/**
+	 * @param seed
+	 * @return - a new generator initialised with the seed
+	 */
+	public abstract Random create(long seed);
+}
@@ -19,6 +19,7 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 package com.oat.utils;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.Random;
 
@@ -39,6 +40,8 @@ import com.oat.Solution;
  * ----------------------------------------------------------------------------
  * 15/01/2007   JBrownlee   Fixed bug in generateUniform2DPattern() that ensures only
  *                          the specified number of points are created.                 
+ * 04/12/2007   JBrownlee   Default generator for seeded streams (newRandom()), split() and bulk fills
+ * 09/12/2007   JBrownlee   Default generator loaded on first use, an unknown name is an IllegalArgumentException
  * </pre>
  */
 public class RandomUtils
@@ -49,6 +52,128 @@ public class RandomUtils
         return RAND;
     }
     
+    /**
+     * System property naming the default generator (see RandomGenerator)
+     */
+    public final static String GENERATOR_PROPERTY = "oat.random";
+    
+    /**
+     * Generator used by algorithms for their seeded random number streams, 
+     * loaded from the system property on first use
+     */
+    protected static volatile RandomGenerator defaultGenerator;
+    
+    /**
+     * @return - the generator named by the system property, Xoroshiro128Plus if not set
+     * @throws IllegalArgumentException - if the property does not name a generator
+     */
+    protected static RandomGenerator loadDefaultGenerator()
+    {
+        String name = System.getProperty(GENERATOR_PROPERTY);
+        if(name == null)
+        {
+            return RandomGenerator.Xoroshiro128Plus;
+        }
+        for(RandomGenerator g : RandomGenerator.values())
+        {
+            if(g.name().equals(name.trim()))
+            {
+                return g;
+            }
+        }
+        throw new IllegalArgumentException("Unknown random generator " + GENERATOR_PROPERTY + "=" + name 
+                + ", expected one of " + Arrays.toString(RandomGenerator.values()));
+    }
+    
+    /**
+     * @return - the generator used by algorithms
+     * @throws IllegalArgumentException - if the system property does not name a generator
+     */
+    public static RandomGenerator getDefaultGenerator()
+    {
+        RandomGenerator g = defaultGenerator;
+        if(g == null)
+        {
+            defaultGenerator = g = loadDefaultGenerator();
+        }
+        return g;
+    }
+    
+    /**
+     * Set the generator used by algorithms, RandomGenerator.JDK reproduces the results of 
+     * earlier releases. Null reloads the generator from the system property on next use.
+     * @param g
+     */
+    public static void setDefaultGenerator(RandomGenerator g)
+    {
+        defaultGenerator = g;
+    }
+    
+    /**
+     * Create a random number stream with the default generator
+     * @param seed
+     * @return
+     */
+    public static Random newRandom(long seed)
+    {
+        return getDefaultGenerator().create(seed);
+    }
+    
+    /**
+     * A new stream determined by the current state of the provided stream, 
+     * for example one for each parallel worker. Advances the provided stream.
+     * @param r
+     * @return
+     */
+    public static Random split(Random r)
+    {
+        if(r instanceof StreamRandom)
+        {
+            return ((StreamRandom)r).split();
+        }
+        return new Random(r.nextLong());
+    }
+    
+    /**
+     * Fill the array with uniform values in [0,1), the same values as successive calls to nextDouble()
+     * @param r
+     * @param a
+     */
+    public static void nextDoubles(Random r, double [] a)
+    {
+        if(r instanceof StreamRandom)
+        {
+            ((StreamRandom)r).nextDoubles(a);
+        }
+        else
+        {
+            for (int i = 0; i < a.length; i++)
+            {
+                a[i] = r.nextDouble();
+            }
+        }
+    }
+    
+    /**
+     * Fill the array with standard normal values, the same values as successive calls to nextGaussian()
+     * @param r
+     * @param a
+     */
+    public static void nextGaussians(Random r, double [] a)
+    {
+        if(r instanceof StreamRandom)
+        {
+            ((StreamRandom)r).nextGaussians(a);
+        }
+        else
+        {
+            for (int i = 0; i < a.length; i++)
+            {
+                a[i] = r.nextGaussian();
+            }
+        }
+    }
+    
     
     public final static int MIN=0, MAX=1;
     
@@ -89,10 +214,11 @@ public class RandomUtils
     public static double [] randomPointInRange(Random r, double [][] minmax)
     {
         double [] coord = new double[minmax.length];
+        nextDoubles(r, coord);
         for (int i = 0; i < coord.length; i++)
         {
             double range = minmax[i][MAX] - minmax[i][MIN];
-            coord[i] = minmax[i][MIN] + (range * r.nextDouble());
+            coord[i] = minmax[i][MIN] + (range * coord[i]);
         }        
         return coord;
     }
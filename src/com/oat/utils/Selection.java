@@ -0,0 +1,572 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.utils;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+import com.oat.AlgorithmRunException;
+import com.oat.Problem;
+import com.oat.Solution;
+
+/**
+ * Description: Selection kernels that operate on a primitive column of scores. 
+ * Tournament, stochastic universal sampling (SUS), roulette wheel (alias table), 
+ * linear rank and truncation selection are provided. Selections are returned as 
+ * indices into the loaded population in a buffer that is reused by the next selection, 
+ * so once the buffers have grown to the population size nothing is allocated per selection.
+ * An instance is intended to be held by an algorithm and reloaded each generation, 
+ * it is not thread safe.
+ * <br/>
+ * Unevaluated solutions and solutions with a NaN score are never selected. Proportional
+ * schemes weight solutions by their normalized relative score as in 
+ * AlgorithmUtils.calculateNormalizedRelativeFitness(), the best is 1 and the worst 0.
+ *
+ * Date: 06/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 09/12/2007	JBrownlee	Solutions of zero weight are never selected under rounding
+ * </pre>
+ */
+public class Selection
+{
+	protected Solution [] members;
+	protected double [] scores;
+	protected int size;
+	protected int numValid;
+	protected boolean minimization;
+	
+	/**
+	 * Selected indices, the result of the last selection
+	 */
+	protected int [] selected;
+	/**
+	 * Permutation of [0,size) partially shuffled to draw tournament bouts
+	 */
+	protected int [] pool;
+	/**
+	 * Indices ordered best first, for rank and truncation
+	 */
+	protected int [] order;
+	protected double [] weights;
+	protected double [] prob;
+	protected int [] alias;
+	protected int [] work;
+	
+	
+	/**
+	 * Load the scores of the population for selection
+	 * @param pop
+	 * @param p
+	 */
+	public void load(LinkedList<? extends Solution> pop, Problem p)
+	{
+		ensureCapacity(pop.size());
+		size = 0;
+		for(Solution s : pop)
+		{
+			members[size] = s;
+			scores[size] = s.isEvaluated() ? s.getScore() : Double.NaN;
+			size++;
+		}
+		prepare(p.isMinimization());
+	}
+	
+	/**
+	 * Load a column of scores for selection, the scores are copied
+	 * @param aScores
+	 * @param aSize - number of scores to use from the column
+	 * @param aMinimization
+	 */
+	public void load(double [] aScores, int aSize, boolean aMinimization)
+	{
+		ensureCapacity(aSize);
+		System.arraycopy(aScores, 0, scores, 0, aSize);
+		for (int i = 0; i < aSize; i++)
+		{
+			members[i] = null;
+		}
+		size = aSize;
+		prepare(aMinimization);
+	}
+	
+	protected void prepare(boolean aMinimization)
+	{
+		minimization = aMinimization;
+		numValid = 0;
+		for (int i = 0; i < size; i++)
+		{
+			pool[i] = i;
+			if(!Double.isNaN(scores[i]))
+			{
+				numValid++;
+			}
+		}
+		// release references beyond the population
+		for (int i = size; i < members.length && members[i] != null; i++)
+		{
+			members[i] = null;
+		}
+	}
+	
+	protected void ensureCapacity(int n)
+	{
+		if(members == null || members.length < n)
+		{
+			members = new Solution[n];
+			scores = new double[n];
+			pool = new int[n];
+			order = new int[n];
+			weights = new double[n];
+			prob = new double[n];
+			alias = new int[n];
+			work = new int[n];
+		}
+	}
+	
+	protected int [] selectedBuffer(int num)
+	{
+		if(size == 0 || numValid == 0)
+		{
+			throw new AlgorithmRunException("Unable to select from population, no solutions with a valid score.");
+		}
+		if(selected == null || selected.length < num)
+		{
+			selected = new int[num];
+		}
+		return selected;
+	}
+	
+	/**
+	 * @return - number of loaded solutions
+	 */
+	public int size()
+	{
+		return size;
+	}
+	
+	/**
+	 * @param i
+	 * @return - loaded score at the index
+	 */
+	public double getScore(int i)
+	{
+		return scores[i];
+	}
+	
+	/**
+	 * Collect the selected solutions, only valid after load() with a population
+	 * @param <T>
+	 * @param indices - result of a selection
+	 * @param num - number of selected indices
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Solution> LinkedList<T> collect(int [] indices, int num)
+	{
+		LinkedList<T> list = new LinkedList<T>();
+		for (int i = 0; i < num; i++)
+		{
+			list.add((T) members[indices[i]]);
+		}
+		return list;
+	}
+	
+	
+	/**
+	 * Tournament selection, selection of the bout does not permit reselection, 
+	 * although the selected population does
+	 * 
+	 * @param r
+	 * @param num - number to select
+	 * @param boutSize
+	 * @return - selected indices, first num entries, reused by the next selection
+	 */
+	public int [] tournament(Random r, int num, int boutSize)
+	{
+		if(boutSize < 1 || boutSize > size)
+		{
+			throw new AlgorithmRunException("Invalid bout size ["+boutSize+"], population size ["+size+"].");
+		}
+		int [] out = selectedBuffer(num);
+		for (int s = 0; s < num; s++)
+		{
+			int best = -1;
+			for (int k = 0; k < boutSize; k++)
+			{
+				int c;
+				if(boutSize == size)
+				{
+					// the whole population
+					c = k;
+				}
+				else
+				{
+					// partial shuffle draws the bout without reselection
+					int j = k + r.nextInt(size - k);
+					c = pool[j];
+					pool[j] = pool[k];
+					pool[k] = c;
+				}
+				double v = scores[c];
+				if(Double.isNaN(v))
+				{
+					continue;
+				}
+				// ties resolved as in AlgorithmUtils.getBest()
+				if(best == -1 || (minimization ? v < scores[best] : v >= scores[best]))
+				{
+					best = c;
+				}
+			}
+			if(best == -1)
+			{
+				throw new AlgorithmRunException("Unable to locate best solution in population subset, must population contains many solutions with NaN fitness!");
+			}
+			out[s] = best;
+		}
+		return out;
+	}
+	
+	/**
+	 * Stochastic universal sampling, num equally spaced pointers over the cumulative 
+	 * normalized relative scores. The selection is shuffled.
+	 * 
+	 * @param r
+	 * @param num
+	 * @return - selected indices, first num entries, reused by the next selection
+	 */
+	public int [] stochasticUniversalSampling(Random r, int num)
+	{
+		int [] out = selectedBuffer(num);
+		double total = normalizedWeights();
+		double step = total / num;
+		double start = r.nextDouble() * step;
+		// rounding must not carry a pointer past the last selectable solution
+		int last = lastPositiveWeight();
+		int i = 0;
+		double cumulative = weights[0];
+		for (int s = 0; s < num; s++)
+		{
+			double target = start + s * step;
+			while(target >= cumulative && i < last)
+			{
+				cumulative += weights[++i];
+			}
+			out[s] = i;
+		}
+		// pointers visit the population in order, shuffle such that adjacent selections are unrelated
+		for (int s = num-1; s > 0; s--)
+		{
+			ArrayUtils.swap(s, r.nextInt(s+1), out);
+		}
+		return out;
+	}
+	
+	/**
+	 * Roulette wheel (fitness proportionate) selection on the normalized relative scores, 
+	 * the wheel is an alias table such that each selection costs constant time
+	 * 
+	 * @param r
+	 * @param num
+	 * @return - selected indices, first num entries, reused by the next selection
+	 */
+	public int [] roulette(Random r, int num)
+	{
+		int [] out = selectedBuffer(num);
+		buildAliasTable(normalizedWeights());
+		for (int s = 0; s < num; s++)
+		{
+			out[s] = drawAlias(r);
+		}
+		return out;
+	}
+	
+	/**
+	 * Linear rank selection, the probability of selection is proportional to 
+	 * (2-pressure) + 2(pressure-1)(rank/(n-1)) where the worst has rank zero
+	 * 
+	 * @param r
+	 * @param num
+	 * @param pressure - selective pressure [1,2], 1 is uniform
+	 * @return - selected indices, first num entries, reused by the next selection
+	 */
+	public int [] rank(Random r, int num, double pressure)
+	{
+		if(!AlgorithmUtils.inBounds(pressure, 1, 2))
+		{
+			throw new AlgorithmRunException("Selective pressure out of bounds [1,2] " + pressure);
+		}
+		int [] out = selectedBuffer(num);
+		sortOrder();
+		double total = 0;
+		for (int k = 0; k < size; k++)
+		{
+			double w = 0;
+			if(k < numValid)
+			{
+				double rank = (numValid == 1) ? 1.0 : (double) (numValid-1-k) / (numValid-1);
+				w = (2.0 - pressure) + 2.0 * (pressure - 1.0) * rank;
+			}
+			weights[order[k]] = w;
+			total += w;
+		}
+		buildAliasTable(total);
+		for (int s = 0; s < num; s++)
+		{
+			out[s] = drawAlias(r);
+		}
+		return out;
+	}
+	
+	/**
+	 * Truncation selection, uniform selection from the best fraction of the population
+	 * 
+	 * @param r
+	 * @param num
+	 * @param fraction - (0,1] of the population to select from, at least one solution
+	 * @return - selected indices, first num entries, reused by the next selection
+	 */
+	public int [] truncation(Random r, int num, double fraction)
+	{
+		if(!(fraction > 0 && fraction <= 1))
+		{
+			throw new AlgorithmRunException("Truncation fraction out of bounds (0,1] " + fraction);
+		}
+		int [] out = selectedBuffer(num);
+		sortOrder();
+		int t = Math.max(1, Math.min(numValid, (int) Math.ceil(fraction * numValid)));
+		for (int s = 0; s < num; s++)
+		{
+			out[s] = order[r.nextInt(t)];
+		}
+		return out;
+	}
+	
+	/**
+	 * Tournament selection of solutions from a population
+	 * @param <T>
+	 * @param pop
+	 * @param numToSelection
+	 * @param p
+	 * @param r
+	 * @param boutSize
+	 * @return
+	 */
+	public <T extends Solution> LinkedList<T> tournamentSelection(
+			LinkedList<T> pop, 
+			int numToSelection,
+			Problem p,
+			Random r,
+			int boutSize)
+	{
+		load(pop, p);
+		return collect(tournament(r, numToSelection, boutSize), numToSelection);
+	}
+	
+	
+	/**
+	 * Prepare the weights as normalized relative scores
+	 * @return - total weight
+	 */
+	protected double normalizedWeights()
+	{
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < size; i++)
+		{
+			double v = scores[i];
+			if(v < min)
+			{
+				min = v;
+			}
+			if(v > max)
+			{
+				max = v;
+			}
+		}
+		double range = max - min;
+		boolean flat = Double.isInfinite(min) || Double.isInfinite(max) || range == 0;
+		double total = 0;
+		for (int i = 0; i < size; i++)
+		{
+			double v = scores[i];
+			double w;
+			if(Double.isNaN(v))
+			{
+				w = 0;
+			}
+			else if(flat)
+			{
+				w = 1;
+			}
+			else
+			{
+				w = (v - min) / range;
+				w = minimization ? 1 - w : w;
+			}
+			weights[i] = w;
+			total += w;
+		}
+		return total;
+	}
+	
+	/**
+	 * @return - index of the last solution with a positive weight, zero if there are none
+	 */
+	protected int lastPositiveWeight()
+	{
+		for (int i = size-1; i > 0; i--)
+		{
+			if(weights[i] > 0)
+			{
+				return i;
+			}
+		}
+		return 0;
+	}
+	
+	/**
+	 * Vose's alias method over the weights, solutions with zero weight are never drawn
+	 * @param total
+	 */
+	protected void buildAliasTable(double total)
+	{
+		int positive = lastPositiveWeight();
+		// small stack grows up from zero, large stack grows down from size
+		int small = 0;
+		int large = size;
+		for (int i = 0; i < size; i++)
+		{
+			prob[i] = weights[i] * size / total;
+			alias[i] = i;
+			if(prob[i] < 1.0)
+			{
+				work[small++] = i;
+			}
+			else
+			{
+				work[--large] = i;
+			}
+		}
+		while(small > 0 && large < size)
+		{
+			int l = work[--small];
+			int g = work[large];
+			alias[l] = g;
+			prob[g] = (prob[g] + prob[l]) - 1.0;
+			if(prob[g] < 1.0)
+			{
+				large++;
+				work[small++] = g;
+			}
+		}
+		// remaining are full up to rounding error, except those that must never be drawn
+		while(large < size)
+		{
+			prob[work[large++]] = 1.0;
+		}
+		while(small > 0)
+		{
+			int l = work[--small];
+			if(weights[l] > 0)
+			{
+				prob[l] = 1.0;
+			}
+			else
+			{
+				prob[l] = 0.0;
+				alias[l] = positive;
+			}
+		}
+	}
+	
+	protected int drawAlias(Random r)
+	{
+		int i = r.nextInt(size);
+		return (r.nextDouble() < prob[i]) ? i : alias[i];
+	}
+	
+	/**
+	 * Order the indices best first, NaN last. In-place heap sort, no allocation
+	 */
+	protected void sortOrder()
+	{
+		for (int i = 0; i < size; i++)
+		{
+			order[i] = i;
+		}
+		for (int i = size/2 - 1; i >= 0; i--)
+		{
+			siftDown(i, size);
+		}
+		for (int end = size-1; end > 0; end--)
+		{
+			ArrayUtils.swap(0, end, order);
+			siftDown(0, end);
+		}
+	}
+	
+	protected void siftDown(int i, int n)
+	{
+		while(true)
+		{
+			int c = 2*i + 1;
+			if(c >= n)
+			{
+				break;
+			}
+			if(c+1 < n && isWorse(order[c+1], order[c]))
+			{
+				c++;
+			}
+			if(!isWorse(order[c], order[i]))
+			{
+				break;
+			}
+			ArrayUtils.swap(i, c, order);
+			i = c;
+		}
+	}
+	
+	/**
+	 * @param a
+	 * @param b
+	 * @return - whether the score at a is strictly worse than the score at b, NaN is worst
+	 */
+	protected boolean isWorse(int a, int b)
+	{
+		double x = scores[a];
+		double y = scores[b];
+		if(Double.isNaN(x))
+		{
+			return !Double.isNaN(y);
+		}
+		else if(Double.isNaN(y))
+		{
+			return false;
+		}
+		return minimization ? x > y : x < y;
+	}
+}
@@ -0,0 +1,88 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.utils;
+
+/**
+ * Description: SplitMix64, the algorithm of java.util.SplittableRandom. A Weyl sequence 
+ * with a per-stream odd increment (gamma), each value is the mixed sequence value. 
+ * Split streams take both their seed and their gamma from this stream.
+ * Steele, Lea and Flood. Fast splittable pseudorandom number generators (2014)
+ *
+ * Date: 04/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public class SplitMix64Random extends StreamRandom
+{
+	protected long seed;
+	protected long gamma;
+	
+	
+	public SplitMix64Random(long aSeed)
+	{
+		super(aSeed);
+	}
+	
+	protected SplitMix64Random(long aSeed, long aGamma)
+	{
+		super(aSeed);
+		gamma = aGamma;
+	}
+	
+	@Override
+	public void setSeed(long aSeed)
+	{
+		super.setSeed(aSeed);
+		seed = aSeed;
+		gamma = GOLDEN_GAMMA;
+	}
+	
+	@Override
+	public long nextLong()
+	{
+		return mix64(seed += gamma);
+	}
+	
+	@Override
+	public StreamRandom split()
+	{
+		return new SplitMix64Random(nextLong(), mixGamma(seed += gamma));
+	}
+	
+	/**
+	 * An odd gamma with enough bit transitions to be a good increment
+	 * @param z
+	 * @return
+	 */
+	protected static long mixGamma(long z)
+	{
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+}
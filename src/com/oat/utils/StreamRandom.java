@@ -0,0 +1,239 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.utils;
+
+import java.util.Random;
+
+/**
+ * Description: Base of the fast random number generators. A drop in replacement for 
+ * java.util.Random (all algorithms and utilities accept a Random), without the atomic update 
+ * of the seed and the synchronisation of the Gaussian, and so not safe for use by concurrent 
+ * threads. Each thread should use its own stream, created deterministically with split(). 
+ * Subclasses provide 64 bits per step, all other values are derived from the high bits.
+ *
+ * Date: 04/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ *
+ * </pre>
+ */
+public abstract class StreamRandom extends Random
+{
+	/**
+	 * Weyl sequence increment (golden ratio), used to expand seeds
+	 */
+	public final static long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	
+	protected final static double DOUBLE_UNIT = 1.0 / (1L << 53);
+	protected final static float FLOAT_UNIT = 1.0f / (1 << 24);
+	
+	// second value of the polar method
+	protected double nextNextGaussian;
+	protected boolean haveNextNextGaussian;
+	
+	
+	/**
+	 * The seed is set by setSeed() (called by the java.util.Random constructor)
+	 * @param seed
+	 */
+	protected StreamRandom(long seed)
+	{
+		super(seed);
+	}
+	
+	/**
+	 * Reinitialise the generator from the seed, subclasses must call super.setSeed()
+	 */
+	@Override
+	public void setSeed(long seed)
+	{
+		haveNextNextGaussian = false;
+	}
+	
+	/**
+	 * @return - the next 64 random bits
+	 */
+	@Override
+	public abstract long nextLong();
+	
+	/**
+	 * A new generator whose sequence is determined by the current state of this generator, 
+	 * and statistically independent of it. Advances this generator.
+	 * @return
+	 */
+	public abstract StreamRandom split();
+	
+	/**
+	 * Split a generator for each parallel worker, in order
+	 * @param total
+	 * @return
+	 */
+	public StreamRandom [] split(int total)
+	{
+		StreamRandom [] streams = new StreamRandom[total];
+		for (int i = 0; i < streams.length; i++)
+		{
+			streams[i] = split();
+		}
+		return streams;
+	}
+	
+	@Override
+	protected int next(int bits)
+	{
+		return (int) (nextLong() >>> (64 - bits));
+	}
+	
+	@Override
+	public int nextInt()
+	{
+		return (int) (nextLong() >>> 32);
+	}
+	
+	@Override
+	public double nextDouble()
+	{
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+	
+	@Override
+	public float nextFloat()
+	{
+		return next(24) * FLOAT_UNIT;
+	}
+	
+	@Override
+	public boolean nextBoolean()
+	{
+		return nextLong() < 0;
+	}
+	
+	/**
+	 * Polar method, as java.util.Random but not synchronised
+	 */
+	@Override
+	public double nextGaussian()
+	{
+		if(haveNextNextGaussian)
+		{
+			haveNextNextGaussian = false;
+			return nextNextGaussian;
+		}
+		double v1, v2, s;
+		do
+		{
+			v1 = 2 * nextDouble() - 1;
+			v2 = 2 * nextDouble() - 1;
+			s = v1 * v1 + v2 * v2;
+		}
+		while(s >= 1 || s == 0);
+		double multiplier = Math.sqrt(-2 * Math.log(s) / s);
+		nextNextGaussian = v2 * multiplier;
+		haveNextNextGaussian = true;
+		return v1 * multiplier;
+	}
+	
+	/**
+	 * Fill the array with uniform values in [0,1), the same values as successive calls to nextDouble()
+	 * @param a
+	 */
+	public void nextDoubles(double [] a)
+	{
+		nextDoubles(a, 0, a.length);
+	}
+	
+	/**
+	 * Fill the range [from, to) of the array with uniform values in [0,1)
+	 * @param a
+	 * @param from
+	 * @param to
+	 */
+	public void nextDoubles(double [] a, int from, int to)
+	{
+		for (int i = from; i < to; i++)
+		{
+			a[i] = (nextLong() >>> 11) * DOUBLE_UNIT;
+		}
+	}
+	
+	/**
+	 * Fill the array with standard normal values, the same values as successive calls to nextGaussian()
+	 * @param a
+	 */
+	public void nextGaussians(double [] a)
+	{
+		nextGaussians(a, 0, a.length);
+	}
+	
+	/**
+	 * Fill the range [from, to) of the array with standard normal values
+	 * @param a
+	 * @param from
+	 * @param to
+	 */
+	public void nextGaussians(double [] a, int from, int to)
+	{
+		int i = from;
+		if(i < to && haveNextNextGaussian)
+		{
+			haveNextNextGaussian = false;
+			a[i++] = nextNextGaussian;
+		}
+		// both values of each pair
+		while(i < to)
+		{
+			double v1, v2, s;
+			do
+			{
+				v1 = 2 * nextDouble() - 1;
+				v2 = 2 * nextDouble() - 1;
+				s = v1 * v1 + v2 * v2;
+			}
+			while(s >= 1 || s == 0);
+			double multiplier = Math.sqrt(-2 * Math.log(s) / s);
+			a[i++] = v1 * multiplier;
+			if(i < to)
+			{
+				a[i++] = v2 * multiplier;
+			}
+			else
+			{
+				nextNextGaussian = v2 * multiplier;
+				haveNextNextGaussian = true;
+			}
+		}
+	}
+	
+	/**
+	 * Stafford's variant 13 of the MurmurHash3 finaliser, as used by SplitMix64
+	 * @param z
+	 * @return
+	 */
+	public static long mix64(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,91 @@
+/*
+Optimization Algorithm Toolkit (OAT)
+http://sourceforge.net/projects/optalgtoolkit
+Copyright (C) 2007  Jason Brownlee
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 2
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package com.oat.utils;
+
+/**
+ * Description: xoroshiro128+ (parameters 24, 16, 37), a fast generator with 128 bits of 
+ * state, values are taken from the high bits where the generator is strongest. 
+ * Split streams are seeded from mixed outputs of this stream, such that streams split from 
+ * split streams are independent of their parents.
+ * Blackman and Vigna. Scrambled linear pseudorandom number generators (2018)
+ *
+ * Date: 04/12/2007<br/>
+ * @author Jason Brownlee
+ *
+ * <br/>
+ * <pre>
+ * Change History
+ * ----------------------------------------------------------------------------
+ * 09/12/2007	JBrownlee	Split streams seeded from mixed outputs, nested splits no longer copy their parent
+ * </pre>
+ */
+public class Xoroshiro128PlusRandom extends StreamRandom
+{
+	protected long s0;
+	protected long s1;
+	
+	
+	public Xoroshiro128PlusRandom(long aSeed)
+	{
+		super(aSeed);
+	}
+	
+	protected Xoroshiro128PlusRandom(long aS0, long aS1)
+	{
+		super(0);
+		s0 = aS0;
+		s1 = aS1;
+	}
+	
+	/**
+	 * State expanded from the seed with SplitMix64, never all zero
+	 */
+	@Override
+	public void setSeed(long seed)
+	{
+		super.setSeed(seed);
+		s0 = mix64(seed += GOLDEN_GAMMA);
+		s1 = mix64(seed += GOLDEN_GAMMA);
+		if((s0 | s1) == 0)
+		{
+			s1 = GOLDEN_GAMMA;
+		}
+	}
+	
+	@Override
+	public long nextLong()
+	{
+		long a = s0;
+		long b = s1;
+		long result = a + b;
+		b ^= a;
+		s0 = Long.rotateLeft(a, 24) ^ b ^ (b << 16);
+		s1 = Long.rotateLeft(b, 37);
+		return result;
+	}
+	
+	@Override
+	public StreamRandom split()
+	{
+		long a = mix64(nextLong());
+		long b = mix64(nextLong());
+		return new Xoroshiro128PlusRandom(a, ((a | b) == 0) ? GOLDEN_GAMMA : b);
+	}
+}